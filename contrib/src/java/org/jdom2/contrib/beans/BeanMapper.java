@@ -171,6 +171,16 @@ public class BeanMapper {
     protected boolean ignoreNullProperties = true;
     protected List<Mapping> mappings = new ArrayList<Mapping>();
     protected StringConverter stringconverter = new StringConverter();
+
+    /** Introspected details of each bean class, see getBeanClassInfo */
+    protected Map<Class<?>, BeanClassInfo> classinfo =
+        new HashMap<Class<?>, BeanClassInfo>();
+
+    /** Bean classes already found for element names in the bean package */
+    protected Map<String, Class<?>> beanclasses =
+        new HashMap<String, Class<?>>();
+
+    private static final Object[] NOARGS = new Object[0];
     
     /**
      * Default constructor.  If you are only doing bean -> XML
@@ -190,6 +200,7 @@ public class BeanMapper {
     public void setBeanPackage(String beanPackage)
     {
         this.beanPackage = beanPackage;
+        beanclasses.clear();
     }
     
     /**
@@ -280,10 +291,9 @@ public class BeanMapper {
      **/
     public Element toElement(Object bean, String elementName) 
                      throws BeanMapperException {
-        BeanInfo info;
+        BeanClassInfo info;
         try {
-            // cache this?
-            info = Introspector.getBeanInfo(bean.getClass());
+            info = getBeanClassInfo(bean.getClass());
         }
         catch (IntrospectionException e) {
             throw new BeanMapperException("Mapping bean " + bean, e);
@@ -291,28 +301,20 @@ public class BeanMapper {
         
         // create element
         Element element;
-        String beanname;
         if (elementName != null) {
             element = createElement(elementName);
         }
         else {
-            Class<?> beanclass = info.getBeanDescriptor().getBeanClass();
-            beanname = unpackage(beanclass.getName());
-            element = createElement(beanname);
+            element = createElement(info.elementName);
         }
         
-        // get all properties, set as child-elements
-        PropertyDescriptor[] properties = info.getPropertyDescriptors();
+        // get all readable properties, set as child-elements
+        PropertyDescriptor[] properties = info.readable;
         for (int i=0; i<properties.length; ++i) {
             PropertyDescriptor prop = properties[i];
             String propertyName = prop.getName();
 
-            Method method = prop.getReadMethod();
-
-            // hack to skip Object.getClass
-            if (method.getName().equals("getClass") &&
-                prop.getPropertyType().getName().equals("java.lang.Class"))
-                continue;
+            Method method = info.getters[i];
 
             // skip ignored properties
             if (isIgnoredProperty(propertyName))
@@ -322,14 +324,9 @@ public class BeanMapper {
             Mapping mapping = getMappingForProperty(propertyName);
 
             // get the value
-            if (method.getParameterTypes().length != 0)
-                // if this getter takes parameters, ignore it
-                continue;
-
             Object valueObject = null;            
             try {
-                Object[] args = new Object[0];        // make static?
-                valueObject = method.invoke(bean, args);
+                valueObject = method.invoke(bean, NOARGS);
             }
             catch (java.lang.IllegalAccessException e) {
                 throw new BeanMapperException("Mapping " + propertyName, e);
@@ -565,8 +562,12 @@ public class BeanMapper {
                 beanClass = mapping.type;
             }
             else {
-                className = getBeanClassName(beanPackage, elementName);
-                beanClass = Class.forName(className);
+                beanClass = beanclasses.get(elementName);
+                if (beanClass == null) {
+                    className = getBeanClassName(beanPackage, elementName);
+                    beanClass = Class.forName(className);
+                    beanclasses.put(elementName, beanClass);
+                }
             }
             Object bean = beanClass.newInstance();
             return bean;
@@ -591,14 +592,10 @@ public class BeanMapper {
                                                         String propertyName)
                                      throws BeanMapperException {
         try {
-            // cache this?
-            BeanInfo info = Introspector.getBeanInfo(bean.getClass());
-            PropertyDescriptor[] properties = info.getPropertyDescriptors();
-            for (int i=0; i<properties.length; ++i) {
-                PropertyDescriptor prop = properties[i];
-                if (prop.getName().equals(propertyName))
-                    return prop;
-            }
+            PropertyDescriptor prop = 
+                getBeanClassInfo(bean.getClass()).properties.get(propertyName);
+            if (prop != null)
+                return prop;
         }
         catch (Exception e) {
             throw new BeanMapperException("Finding property " + propertyName + 
@@ -815,6 +812,62 @@ public class BeanMapper {
         return itemClass;
     }
 
+    /**
+     * Get the introspected details of a bean class. These do not depend
+     * on the mappings, so they are found once per class, not once per bean.
+     * @param beanclass the class of the bean
+     * @return the details of that class
+     **/
+    protected BeanClassInfo getBeanClassInfo(Class<?> beanclass)
+                                   throws IntrospectionException {
+        BeanClassInfo info = classinfo.get(beanclass);
+        if (info == null) {
+            info = new BeanClassInfo(Introspector.getBeanInfo(beanclass));
+            classinfo.put(beanclass, info);
+        }
+        return info;
+    }
+
+    /**
+     * The parts of a BeanInfo that mapping needs, resolved once.
+     **/
+    protected static class BeanClassInfo {
+        /** the element name for beans of this class */
+        public final String elementName;
+        /** the properties to map to XML, in BeanInfo order */
+        public final PropertyDescriptor[] readable;
+        /** the read method of each readable property */
+        public final Method[] getters;
+        /** all the properties, by name */
+        public final Map<String, PropertyDescriptor> properties =
+            new HashMap<String, PropertyDescriptor>();
+
+        public BeanClassInfo(BeanInfo info) {
+            elementName = unpackage(
+                info.getBeanDescriptor().getBeanClass().getName());
+            PropertyDescriptor[] all = info.getPropertyDescriptors();
+            List<PropertyDescriptor> read = new ArrayList<PropertyDescriptor>();
+            List<Method> get = new ArrayList<Method>();
+            for (int i=0; i<all.length; ++i) {
+                PropertyDescriptor prop = all[i];
+                if (!properties.containsKey(prop.getName()))
+                    properties.put(prop.getName(), prop);
+                Method method = prop.getReadMethod();
+                // write-only, or getter that takes parameters
+                if (method == null || method.getParameterTypes().length != 0)
+                    continue;
+                // hack to skip Object.getClass
+                if (method.getName().equals("getClass") &&
+                    prop.getPropertyType() == Class.class)
+                    continue;
+                read.add(prop);
+                get.add(method);
+            }
+            readable = read.toArray(new PropertyDescriptor[read.size()]);
+            getters = get.toArray(new Method[get.size()]);
+        }
+    }
+
     // Mappings  
 
     /**
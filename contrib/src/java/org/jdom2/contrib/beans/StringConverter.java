@@ -96,6 +96,10 @@ public class StringConverter {
 
 	protected static Class<?>[] argString = new Class[] { String.class };
 
+	/** String constructors already looked up, null if the type has none */
+	protected Map<Class<?>, Constructor<?>> constructors =
+		new HashMap<Class<?>, Constructor<?>>();
+
 	public Object parse(String string, Class<?> type)
 	{
 		// if it's a string, return it
@@ -119,7 +123,15 @@ public class StringConverter {
 
 		// last ditch: see if the class has a String Factory
 		try {
-			Constructor<?> c = type.getConstructor(argString);
+			Constructor<?> c = constructors.get(type);
+			if (c == null && !constructors.containsKey(type)) {
+				try {
+					c = type.getConstructor(argString);
+				}
+				finally {
+					constructors.put(type, c);
+				}
+			}
 			if (c != null) {
 				return c.newInstance( new Object[] { string } );
 			}
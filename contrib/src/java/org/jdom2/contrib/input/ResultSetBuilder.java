@@ -54,11 +54,16 @@
 
 package org.jdom2.contrib.input;
 
+import java.io.*;
 import java.sql.*;
 import java.text.*;
 import java.util.*;
 
 import org.jdom2.*;
+import org.jdom2.output.Format;
+import org.jdom2.output.support.AbstractXMLOutputProcessor;
+import org.jdom2.output.support.FormatStack;
+import org.jdom2.util.NamespaceStack;
 
 /**
  * <p><code>ResultSetBuilder</code> builds a JDOM tree from a 
@@ -76,6 +81,12 @@ import org.jdom2.*;
  *   encountered in the set methods are thrown during the build().  
  *   The setAsXXX(String columnName, ...) methods do not verify that a column 
  *   with the given name actually exists.
+ * <p>
+ *   For large result sets use {@link #build(RowHandler)} or
+ *   {@link #build(Format, Writer)}, which build one row at a time and
+ *   never hold more than that row in memory. The column names, types and
+ *   mappings are resolved (and the names verified) once, before the first
+ *   row, and the rows are then built without re-checking them.
  *
  *   Still needs method-by-method Javadocs.
  * <p>
@@ -127,6 +138,40 @@ public class ResultSetBuilder {
 
     /** Value for attribute to mark that a field was null  */
     private String nullAttribValue = null;
+
+    /** Rows to fetch from the database at a time, 0 for the driver default */
+    private int fetchSize = 0;
+
+    /** Builds the rows; the names are verified once in resolveColumns() */
+    private final JDOMFactory factory = new UncheckedJDOMFactory();
+
+    /** Output name of each column, set by resolveColumns() */
+    private String[] colNames;
+
+    /** Whether each column is an attribute, set by resolveColumns() */
+    private boolean[] colAttribs;
+
+    /** SQL type of each column, set by resolveColumns() */
+    private int[] colTypes;
+
+    /** Formats for date and time values, created when first needed */
+    private DateFormat timestampFormat, dateFormat, timeFormat;
+
+    /**
+     * Receives each row <code>Element</code> as it is built by
+     * {@link ResultSetBuilder#build(RowHandler)}.
+     */
+    public static interface RowHandler {
+        /**
+         * Process one row. The row has no parent, and the builder keeps
+         * no reference to it.
+         *
+         * @param row the <code>Element</code> for the row.
+         * @throws JDOMException to stop the build.
+         * @throws IOException if the row cannot be written.
+         */
+        public void handleRow(Element row) throws JDOMException, IOException;
+    }
     
     /**
      * <p>
@@ -198,87 +243,247 @@ public class ResultSetBuilder {
      *
      */
     public Document build() throws JDOMException {
+      final Element root = new Element(rootName, ns);
+      Document doc = new Document(root);
+      try {
+        build(new RowHandler() {
+          @Override
+          public void handleRow(Element row) {
+            factory.addContent(root, row);
+          }
+        });
+      }
+      catch (IOException e) {
+        // our handler does no I/O
+        throw new JDOMException("Unexpected I/O problem", e);
+      }
+      return doc;
+    }
+
+    /**
+     * <p>
+     *   This builds the rows of the <code>java.sql.ResultSet</code> one at
+     *   a time, passing each to the handler.
+     * </p>
+     *
+     * @param handler <code>RowHandler</code> to give each row to.
+     * @return <code>int</code> - the number of rows built.
+     * @throws <code>JDOMException</code> when there is a problem
+     *                                    with the build.
+     * @throws <code>IOException</code> when the handler has one.
+     */
+    public int build(RowHandler handler) throws JDOMException, IOException {
       if (exception != null) {
         throw new JDOMException("Database problem", exception);
       }
 
       try {
-        int colCount = rsmd.getColumnCount();
-
-        Element root = new Element(rootName, ns);
-        Document doc = new Document(root);
+        int colCount = resolveColumns();
+        if (fetchSize > 0) {
+          rs.setFetchSize(fetchSize);
+        }
 
         int rowCount = 0;
-
-        // get the column labels for this record set 
-        String[] columnName = new String[colCount]; 
-        for (int index = 0; index < colCount; index++) { 
-          columnName[index] = rsmd.getColumnName(index+1); 
-        } 
-
-        // build the org.jdom2.Document out of the result set 
-        String name; 
-        String value; 
-        Element entry; 
-        Element child; 
-        
-        while (rs.next() && (rowCount++ < maxRows)) {
-          entry = new Element(rowName, ns);
+        while (rowCount < maxRows && rs.next()) {
+          rowCount++;
+          Element entry = factory.element(rowName, ns);
           for (int col = 1; col <= colCount; col++) {
-            if (names.isEmpty()) {
-              name = columnName[col-1];
-            }
-            else {
-              name = lookupName(columnName[col-1]);
-            }
-
-            value = getString(rs, col, rsmd.getColumnType(col));
-            if (!attribs.isEmpty() && isAttribute(columnName[col-1])) {
-              if (!rs.wasNull()) {
-                entry.setAttribute(name, value);
+            String name = colNames[col-1];
+            String value = getString(rs, col, colTypes[col-1]);
+            boolean isnull = rs.wasNull();
+            if (colAttribs[col-1]) {
+              if (!isnull) {
+                checkData(value);
+                // columns may share a name, so let the element replace.
+                entry.setAttribute(
+                    factory.attribute(name, value, Namespace.NO_NAMESPACE));
               }
             }
             else {
-              child = new Element(name, ns);
-              if (!rs.wasNull()) {
+              Element child = factory.element(name, ns);
+              if (!isnull) {
                 child.setText(value);
               } else {
                 if (nullAttribName != null) {
                   child.setAttribute(nullAttribName, nullAttribValue);
                 }
               }
-              entry.addContent(child);
+              factory.addContent(entry, child);
             }
           }
-          root.addContent(entry);
+          handler.handleRow(entry);
         }
 
-        return doc;
+        return rowCount;
       }
       catch (SQLException e) {
         throw new JDOMException("Database problem", e);
       }
     }
 
+    /**
+     * <p>
+     *   This writes the <code>java.sql.ResultSet</code> as an XML document,
+     *   building and writing one row at a time. The output is the same as
+     *   an <code>XMLOutputter</code> with this <code>Format</code> gives
+     *   for the result of {@link #build()}.
+     * </p>
+     *
+     * @param format <code>Format</code> to write the document with.
+     * @param out <code>Writer</code> to write the document to.
+     * @return <code>int</code> - the number of rows written.
+     * @throws <code>JDOMException</code> when there is a problem
+     *                                    with the build.
+     * @throws <code>IOException</code> when the document cannot be written.
+     */
+    public int build(Format format, Writer out)
+                     throws JDOMException, IOException {
+      checkName(rootName, false);
+      final RowPrinter printer = new RowPrinter(format, out);
+      printer.start(factory.element(rootName, ns));
+      int rows = build(printer);
+      printer.end();
+      out.flush();
+      return rows;
+    }
+
+    /**
+     * Prints the root element around the rows as they are built, with the
+     * same formatting and namespace scope as if they were in a document.
+     */
+    private static final class RowPrinter extends AbstractXMLOutputProcessor
+                                          implements RowHandler {
+      private final Writer out;
+      private final FormatStack fstack;
+      private final NamespaceStack nstack = new NamespaceStack();
+      private String qname = null;
+      private boolean open = false;
+
+      RowPrinter(Format format, Writer out) {
+        this.out = out;
+        this.fstack = new FormatStack(format);
+      }
+
+      void start(Element root) throws IOException {
+        qname = root.getQualifiedName();
+        printDeclaration(out, fstack);
+        nstack.push(root);
+        write(out, "<");
+        write(out, qname);
+        for (Namespace nsd : nstack.addedForward()) {
+          printNamespace(out, fstack, nsd);
+        }
+        fstack.push();
+      }
+
+      @Override
+      public void handleRow(Element row) throws IOException {
+        if (!open) {
+          write(out, ">");
+          open = true;
+        }
+        if (fstack.getPadBetween() != null) {
+          write(out, fstack.getPadBetween());
+        }
+        // unlike XMLOutputter.output(), this does not flush each row.
+        printElement(out, fstack, nstack, row);
+      }
+
+      void end() throws IOException {
+        if (!open) {
+          fstack.pop();
+          if (fstack.isExpandEmptyElements()) {
+            write(out, "></");
+            write(out, qname);
+            write(out, ">");
+          }
+          else {
+            write(out, " />");
+          }
+        }
+        else {
+          if (fstack.getPadLast() != null) {
+            write(out, fstack.getPadLast());
+          }
+          fstack.pop();
+          write(out, "</");
+          write(out, qname);
+          write(out, ">");
+        }
+        if (fstack.getLineSeparator() != null) {
+          write(out, fstack.getLineSeparator());
+        }
+      }
+    }
+
+    /**
+     * Work out the output name, type and placement of each column, and
+     * check the names, once for the whole build.
+     *
+     * @return the number of columns.
+     */
+    private int resolveColumns() throws SQLException {
+      checkName(rowName, false);
+      int colCount = rsmd.getColumnCount();
+      colNames = new String[colCount];
+      colAttribs = new boolean[colCount];
+      colTypes = new int[colCount];
+      for (int index = 0; index < colCount; index++) {
+        String columnName = rsmd.getColumnName(index+1);
+        colNames[index] = names.isEmpty() ? columnName : lookupName(columnName);
+        colAttribs[index] = !attribs.isEmpty() && isAttribute(columnName);
+        colTypes[index] = rsmd.getColumnType(index+1);
+        checkName(colNames[index], colAttribs[index]);
+      }
+      return colCount;
+    }
+
+    private static void checkName(String name, boolean attribute) {
+      String reason = attribute ? Verifier.checkAttributeName(name) :
+                                  Verifier.checkElementName(name);
+      if (reason != null) {
+        throw new IllegalNameException("The name \"" + name + 
+            "\" is not legal for JDOM/XML " + 
+            (attribute ? "attributes" : "elements") + ": " + reason + ".");
+      }
+    }
+
+    private static void checkData(String value) {
+      String reason = Verifier.checkCharacterData(value);
+      if (reason != null) {
+        throw new IllegalDataException("The data \"" + value + 
+            "\" is not legal for a JDOM attribute: " + reason + ".");
+      }
+    }
+
     protected String getString(ResultSet prs, int column, int columnType) 
                                    throws SQLException {
         if (columnType == Types.TIMESTAMP) {
             Timestamp timeStamp = prs.getTimestamp(column);
             if (timeStamp != null) {
-                return DateFormat.getDateTimeInstance(DateFormat.FULL,
-                                     DateFormat.FULL).format(timeStamp);
+                if (timestampFormat == null) {
+                    timestampFormat = DateFormat.getDateTimeInstance(
+                                     DateFormat.FULL, DateFormat.FULL);
+                }
+                return timestampFormat.format(timeStamp);
             }
         }
         if (columnType == Types.DATE) {
             java.sql.Date date = prs.getDate(column);
             if (date != null) {
-                return DateFormat.getDateInstance(DateFormat.FULL).format(date);
+                if (dateFormat == null) {
+                    dateFormat = DateFormat.getDateInstance(DateFormat.FULL);
+                }
+                return dateFormat.format(date);
             }
         }
         if (columnType == Types.TIME) {
             java.sql.Time time = prs.getTime(column);
             if (time != null) {
-                return DateFormat.getTimeInstance(DateFormat.FULL).format(time);
+                if (timeFormat == null) {
+                    timeFormat = DateFormat.getTimeInstance(DateFormat.FULL);
+                }
+                return timeFormat.format(time);
             }
         }
         return prs.getString(column);
@@ -348,6 +553,20 @@ public class ResultSetBuilder {
       this.maxRows = maxRows;
     }
 
+    /**
+     * <p>
+     *   Set the number of rows the database should fetch at a time
+     *   while building. This is passed to
+     *   <code>ResultSet.setFetchSize()</code> as a hint.
+     * </p>
+     *
+     * @param fetchSize <code>int</code> rows, or 0 for the driver default
+     *
+     */
+    public void setFetchSize(int fetchSize) {
+      this.fetchSize = fetchSize;
+    }
+
     /**
      * <p>
      *   Set a column as an <code>Attribute</code> of a row using the
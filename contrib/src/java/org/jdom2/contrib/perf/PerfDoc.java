@@ -89,6 +89,7 @@ import org.jdom2.Namespace;
 import org.jdom2.ProcessingInstruction;
 import org.jdom2.Text;
 import org.jdom2.UncheckedJDOMFactory;
+import org.jdom2.dom.DOM;
 import org.jdom2.filter.ElementFilter;
 import org.jdom2.input.DOMBuilder;
 import org.jdom2.input.SAXBuilder;
@@ -96,6 +97,7 @@ import org.jdom2.input.StAXEventBuilder;
 import org.jdom2.input.StAXStreamBuilder;
 import org.jdom2.input.sax.SAXHandler;
 import org.jdom2.internal.ArrayCopy;
+import org.jdom2.output.DOMOutputter;
 import org.jdom2.output.Format;
 import org.jdom2.output.SAXOutputter;
 import org.jdom2.output.XMLOutputter;
@@ -141,6 +143,8 @@ public class PerfDoc {
 	private long scanTime = -1L;
 	private long checkedTime = -1L;
 	private long uncheckedTime = -1L;
+	private long domOutTime = -1L;
+	private long domWrapTime = -1L;
 	
 	
 	private Document document = null;
@@ -458,6 +462,45 @@ public class PerfDoc {
 		return uncheckedTime;
 	}
 	
+	private static final int countDOM(org.w3c.dom.Node node) {
+		int cnt = 1;
+		for (org.w3c.dom.Node k = node.getFirstChild(); k != null; k = k.getNextSibling()) {
+			cnt += countDOM(k);
+		}
+		org.w3c.dom.NamedNodeMap atts = node.getAttributes();
+		if (atts != null) {
+			cnt += atts.getLength();
+		}
+		return cnt;
+	}
+	
+	public long domOutput() throws Exception {
+		final DOMOutputter domout = new DOMOutputter();
+		domOutTime = PerfTest.timeRun(new TimeRunnable() {
+			@Override
+			public void run() throws Exception {
+				// copy the whole document, then visit it.
+				if (countDOM(domout.output(document)) <= 0) {
+					throw new IllegalStateException("Empty DOM!");
+				}
+			}
+		});
+		return domOutTime;
+	}
+	
+	public long domWrap() throws Exception {
+		domWrapTime = PerfTest.timeRun(new TimeRunnable() {
+			@Override
+			public void run() throws Exception {
+				// wrap the document (no copy), then visit it.
+				if (countDOM(DOM.wrap(document)) <= 0) {
+					throw new IllegalStateException("Empty DOM!");
+				}
+			}
+		});
+		return domWrapTime;
+	}
+	
 	public long getSAXLoadTime() {
 		return saxTime;
 	}
@@ -489,6 +532,14 @@ public class PerfDoc {
 	}
 
 
+	public long getDomOutTime() {
+		return domOutTime;
+	}
+
+	public long getDomWrapTime() {
+		return domWrapTime;
+	}
+
 	public long getScanTime() {
 		return scanTime;
 	}
@@ -186,7 +186,7 @@ public class PerfTest {
 		html.append("\n\t<hr/>\n\t<p/>\n\tDescription - change me\n\t<br />\n\t<table border=\"1\">\n\t\t<tr>");
 		for (String h : new String[] {"Input", "JDOM", "SAX", "SAXJ", "DOM", "DOMJ", 
 				"StAXS", "StAXSJ", "StAXE", "StAXEJ", "Scan", "Dump", 
-				"Dupe", "XPath", "Checked", "UnChecked"}) {
+				"Dupe", "XPath", "Checked", "UnChecked", "DOMOut", "DOMWrap"}) {
 			html.append("<th>").append(h).append("</th>");
 		}
 		html.append("</tr>\n");
@@ -356,14 +356,28 @@ public class PerfTest {
 			}
 		}
 		
+		long domouttime = 0L;
+		long domwraptime = 0L;
+		for (PerfDoc pd : docs) {
+			try {
+				domouttime += pd.domOutput();
+				domwraptime += pd.domWrap();
+			} catch (Exception e) {
+				System.err.println("Failed to DOM-output " + pd);
+				e.printStackTrace();
+			}
+		}
+		
 		System.out.printf ("PERF: loadbytes=%s loadmem=%s sax=%.2fb(%.2fb) dom=%.2fb(%.2fb) " +
 				"staxs=%.2fb(%.2fb)  staxe=%.2fb(%.2fb) " +
-				"scan=%.2fb dump=%.2fb dupe=%.2fb xpath=%.2fb checked=%.2fb unchecked=%.2fb \n", 
+				"scan=%.2fb dump=%.2fb dupe=%.2fb xpath=%.2fb checked=%.2fb unchecked=%.2fb " +
+				"domout=%.2fb domwrap=%.2fb \n", 
 				formatMem(bytecnt), formatMem(loadmem), saxtime / mstime, saxdtime / mstime, 
 				domtime / mstime, domdtime / mstime, staxtime / mstime, staxdtime / mstime,
 				staxetime / mstime, staxdetime / mstime,
 				scantime / mstime, dumptime / mstime, dupetime / mstime, 
-				xpathtime / mstime, checkedtime / mstime, uncheckedtime / mstime);
+				xpathtime / mstime, checkedtime / mstime, uncheckedtime / mstime,
+				domouttime / mstime, domwraptime / mstime);
 
 		html.append("\t\t<tr><td>").append(formatMem(bytecnt)).append("</td><td>")
 			.append(formatMem(loadmem)).append("</td>");
@@ -371,7 +385,7 @@ public class PerfTest {
 		long[] times = new long[] {saxtime, saxtime - saxdtime, domtime, domtime - domdtime, 
 				staxtime, staxtime - staxdtime, staxetime, staxetime - staxdetime, 
 				scantime, dumptime, dupetime, 
-					xpathtime, checkedtime, uncheckedtime};
+					xpathtime, checkedtime, uncheckedtime, domouttime, domwraptime};
 		for (long t : times) {
 			html.append("<td>").append(String.format("%.2fms", t / mstime)).append("</td>");
 		}
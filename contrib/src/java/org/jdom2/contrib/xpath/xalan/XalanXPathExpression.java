@@ -83,8 +83,8 @@ import org.jdom2.Namespace;
 import org.jdom2.NamespaceAware;
 import org.jdom2.ProcessingInstruction;
 import org.jdom2.Text;
-import org.jdom2.contrib.dom.DOM;
-import org.jdom2.contrib.dom.Wrapper;
+import org.jdom2.dom.DOM;
+import org.jdom2.dom.Wrapper;
 import org.jdom2.filter.Filter;
 import org.jdom2.xpath.util.AbstractXPathCompiled;
 
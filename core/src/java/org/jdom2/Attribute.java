@@ -355,6 +355,8 @@ public class Attribute extends CloneBase
 		}
 		this.name = name;
 		specified = true;
+		keyChanged();
+		valueChanged();
 		return this;
 	}
 
@@ -454,6 +456,8 @@ public class Attribute extends CloneBase
 		}
 		this.namespace = namespace;
 		specified = true;
+		keyChanged();
+		valueChanged();
 		return this;
 	}
 
@@ -488,6 +492,7 @@ public class Attribute extends CloneBase
 		}
 		this.value = value;
 		specified = true;
+		valueChanged();
 		return this;
 	}
 
@@ -511,6 +516,7 @@ public class Attribute extends CloneBase
 	public Attribute setAttributeType(final AttributeType type) {
 		this.type = type == null ? AttributeType.UNDECLARED : type;
 		specified = true;
+		valueChanged();
 		return this;
 	}
 
@@ -547,6 +553,38 @@ public class Attribute extends CloneBase
 	 */
 	public void setSpecified(boolean specified) {
 		this.specified = specified;
+		valueChanged();
+	}
+
+	/**
+	 * Let the parent Element (if any) know that this Attribute has changed
+	 * (see {@link Element#getTreeStamp()}).
+	 */
+	private final void valueChanged() {
+		if (parent != null) {
+			parent.treeModified();
+		}
+	}
+
+	/**
+	 * Let the parent's attribute list know that the name or Namespace of
+	 * this Attribute changed.
+	 */
+	private final void keyChanged() {
+		if (parent != null && parent.attributes != null) {
+			parent.attributes.keyChanged();
+		}
+	}
+
+	/**
+	 * Calculate the structural hash of this Attribute. The hash is based on
+	 * the name, Namespace URI, and value only (consistent with
+	 * {@link Element#getTreeHash()}).
+	 * @return the structural hash.
+	 */
+	final int treeHash() {
+		return 31 * (31 * name.hashCode() + namespace.getURI().hashCode())
+				+ value.hashCode();
 	}
 	
 	/**
@@ -86,6 +86,28 @@ final class AttributeList extends AbstractList<Attribute>
 
 	/** The parent Element */
 	private final Element parent;
+
+	/**
+	 * Lists with more Attributes than this are searched through a hash
+	 * index rather than by a scan.
+	 */
+	private static final int INDEX_THRESHOLD = 12;
+
+	/**
+	 * Open-addressed hash index of the Attribute positions (stored as
+	 * position + 1, 0 is an empty slot), keyed on name and Namespace URI.
+	 * It is only built for large lists, and is dropped (to be rebuilt when
+	 * next needed) whenever positions or keys change, other than by appending.
+	 */
+	private int[] hashIndex = null;
+
+	/**
+	 * The Namespace URI bound to each Attribute prefix, used to check the
+	 * prefix of an added Attribute for collisions without a scan. Like the
+	 * hash index it is only built for large lists, and is dropped whenever
+	 * an Attribute is removed, replaced, or renamed.
+	 */
+	private HashMap<String, String> prefixIndex = null;
 	
 	private static final Comparator<Attribute> ATTRIBUTE_NATURAL = new Comparator<Attribute>() {
 
@@ -122,7 +144,9 @@ final class AttributeList extends AbstractList<Attribute>
 		a.parent = parent;
 		ensureCapacity(size + 1);
 		attributeData[size++] = a;
+		appended();
 		modCount++;
+		parent.treeModified();
 	}
 
 	/**
@@ -144,9 +168,9 @@ final class AttributeList extends AbstractList<Attribute>
 							+ attribute.getParent().getQualifiedName() + "\"");
 		}
 
-		if (Verifier.checkNamespaceCollision(attribute, parent) != null) {
-			throw new IllegalAddException(parent, attribute,
-					Verifier.checkNamespaceCollision(attribute, parent));
+		final String reason = checkCollision(attribute, -1);
+		if (reason != null) {
+			throw new IllegalAddException(parent, attribute, reason);
 		}
 
 		// returns -1 if not exist
@@ -155,12 +179,20 @@ final class AttributeList extends AbstractList<Attribute>
 			attribute.setParent(parent);
 			ensureCapacity(size + 1);
 			attributeData[size++] = attribute;
+			appended();
 			modCount++;
+			parent.treeModified();
 		} else {
+			// same key in the same place, the index is still good.
 			final Attribute old = attributeData[duplicate];
+			if (!old.getNamespacePrefix().equals(attribute.getNamespacePrefix())) {
+				// same URI, but the old prefix may no longer be in use.
+				prefixIndex = null;
+			}
 			old.setParent(null);
 			attributeData[duplicate] = attribute;
 			attribute.setParent(parent);
+			parent.treeModified();
 		}
 		return true;
 	}
@@ -192,7 +224,7 @@ final class AttributeList extends AbstractList<Attribute>
 			throw new IllegalAddException("Cannot add duplicate attribute");
 		}
 
-		final String reason = Verifier.checkNamespaceCollision(attribute, parent);
+		final String reason = checkCollision(attribute, -1);
 		if (reason != null) {
 			throw new IllegalAddException(parent, attribute, reason);
 		}
@@ -202,13 +234,17 @@ final class AttributeList extends AbstractList<Attribute>
 		ensureCapacity(size + 1);
 		if (index == size) {
 			attributeData[size++] = attribute;
+			appended();
 		} else {
 			System.arraycopy(attributeData, index, attributeData, index + 1, 
 					size - index);
 			attributeData[index] = attribute;
 			size++;
+			hashIndex = null;
+			prefixAdded(attribute);
 		}
 		modCount++;
+		parent.treeModified();
 	}
 
 	/**
@@ -299,7 +335,10 @@ final class AttributeList extends AbstractList<Attribute>
 				attributeData[size] = null;
 			}
 		}
+		hashIndex = null;
+		prefixIndex = null;
 		modCount++;
+		parent.treeModified();
 	}
 
 	/**
@@ -330,6 +369,8 @@ final class AttributeList extends AbstractList<Attribute>
 		}
 		size = 0;
 		attributeData = null;
+		hashIndex = null;
+		prefixIndex = null;
 
 		boolean ok = false;
 		try {
@@ -341,6 +382,8 @@ final class AttributeList extends AbstractList<Attribute>
 				// restore the old system.
 				// re-attach the old stuff
 				attributeData = old;
+				hashIndex = null;
+				prefixIndex = null;
 				while (size < oldSize) {
 					attributeData[size++].setParent(parent);
 				}
@@ -369,8 +412,13 @@ final class AttributeList extends AbstractList<Attribute>
 		// most JVM's allocate memory in multiples of 'double-words', on
 		// 64-bit it's 16-bytes, on 32-bit it's 8 bytes which all means it makes
 		// sense to increment the capacity in even values.
-		attributeData = ArrayCopy.copyOf(attributeData,
-				((minCapacity + INITIAL_ARRAY_SIZE) >>> 1) << 1);
+		int newcap = ((minCapacity + INITIAL_ARRAY_SIZE) >>> 1) << 1;
+		if (newcap > INDEX_THRESHOLD) {
+			// large lists grow by half (like ContentList) so that adding
+			// many Attributes does not copy the array each few adds.
+			newcap = Math.max(newcap, ((size * 3) / 2) + 1);
+		}
+		attributeData = ArrayCopy.copyOf(attributeData, newcap);
 	}
 
 	/**
@@ -425,6 +473,9 @@ final class AttributeList extends AbstractList<Attribute>
 				return indexOf(name, Namespace.NO_NAMESPACE);
 			}
 			final String uri = namespace.getURI();
+			if (size > INDEX_THRESHOLD) {
+				return indexFind(name, uri);
+			}
 			for (int i = 0; i < size; i++) {
 				final Attribute att = attributeData[i];
 				if (att.getNamespaceURI().equals(uri) &&
@@ -436,6 +487,135 @@ final class AttributeList extends AbstractList<Attribute>
 		return -1;
 	}
 
+	/**
+	 * Called when the name or Namespace of an Attribute in this list changes.
+	 */
+	void keyChanged() {
+		hashIndex = null;
+		prefixIndex = null;
+	}
+
+	private static final int keyHash(final String name, final String uri) {
+		final int h = name.hashCode() * 31 + uri.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Update the hash index (if there is one) after an Attribute was added
+	 * to the end of the list.
+	 */
+	private void appended() {
+		if (hashIndex != null) {
+			if ((size << 1) > hashIndex.length) {
+				// keep the load at or below one half.
+				buildIndex();
+			} else {
+				indexAdd(size - 1);
+			}
+		}
+		prefixAdded(attributeData[size - 1]);
+	}
+
+	/**
+	 * Update the prefix index (if there is one) after an Attribute was added.
+	 */
+	private void prefixAdded(final Attribute att) {
+		if (prefixIndex != null) {
+			final Namespace ns = att.getNamespace();
+			if (ns.getPrefix().length() > 0 && !prefixIndex.containsKey(ns.getPrefix())) {
+				prefixIndex.put(ns.getPrefix(), ns.getURI());
+			}
+		}
+	}
+
+	/**
+	 * Check whether the Namespace prefix of <i>attribute</i> collides with
+	 * the Namespaces of the parent Element, or with those of the other
+	 * Attributes. Large lists answer the latter from the prefix index rather
+	 * than a scan of the Attributes.
+	 * 
+	 * @param attribute
+	 *        The Attribute to check.
+	 * @param ignore
+	 *        The position of an Attribute that is being replaced, or -1.
+	 * @return the reason for the collision, or null if there is none.
+	 */
+	private String checkCollision(final Attribute attribute, final int ignore) {
+		if (size <= INDEX_THRESHOLD) {
+			return Verifier.checkNamespaceCollision(attribute, parent, ignore);
+		}
+		final Namespace ns = attribute.getNamespace();
+		final String prefix = ns.getPrefix();
+		if (prefix.length() == 0) {
+			return null;
+		}
+		final String reason = Verifier.checkElementNamespaceCollision(ns, parent);
+		if (reason != null) {
+			return reason;
+		}
+		if (prefixIndex == null) {
+			prefixIndex = new HashMap<String, String>();
+			for (int i = 0; i < size; i++) {
+				prefixAdded(attributeData[i]);
+			}
+		}
+		final String uri = prefixIndex.get(prefix);
+		if (uri == null || uri.equals(ns.getURI())) {
+			return null;
+		}
+		// a collision, unless only with the ignored Attribute. Rare, so
+		// let the Verifier scan for it, and word the reason.
+		return Verifier.checkNamespaceCollision(attribute, parent, ignore);
+	}
+
+	private void buildIndex() {
+		int cap = 32;
+		while (cap < (size << 1)) {
+			cap <<= 1;
+		}
+		hashIndex = new int[cap];
+		for (int i = 0; i < size; i++) {
+			indexAdd(i);
+		}
+	}
+
+	private void indexAdd(final int index) {
+		final Attribute att = attributeData[index];
+		final String name = att.getName();
+		final String uri = att.getNamespaceURI();
+		final int[] hi = hashIndex;
+		final int mask = hi.length - 1;
+		int slot = keyHash(name, uri) & mask;
+		int pos;
+		while ((pos = hi[slot]) != 0) {
+			final Attribute o = attributeData[pos - 1];
+			if (o.getName().equals(name) && o.getNamespaceURI().equals(uri)) {
+				// renamed attributes can duplicate keys, keep the first.
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		hi[slot] = index + 1;
+	}
+
+	private int indexFind(final String name, final String uri) {
+		if (hashIndex == null) {
+			buildIndex();
+		}
+		final int[] hi = hashIndex;
+		final int mask = hi.length - 1;
+		int slot = keyHash(name, uri) & mask;
+		int pos;
+		while ((pos = hi[slot]) != 0) {
+			final Attribute o = attributeData[pos - 1];
+			if (o.getName().equals(name) && o.getNamespaceURI().equals(uri)) {
+				return pos - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
 	/**
 	 * Remove the <code>Attribute</code> at <i>index</i>.
 	 * 
@@ -454,7 +634,10 @@ final class AttributeList extends AbstractList<Attribute>
 		System.arraycopy(attributeData, index + 1, attributeData, index,
 				size - index - 1);
 		attributeData[--size] = null; // Let gc do its work
+		hashIndex = null;
+		prefixIndex = null;
 		modCount++;
+		parent.treeModified();
 		return old;
 	}
 
@@ -506,7 +689,7 @@ final class AttributeList extends AbstractList<Attribute>
 			throw new IllegalAddException("Cannot set duplicate attribute");
 		}
 
-		final String reason = Verifier.checkNamespaceCollision(attribute, parent, index);
+		final String reason = checkCollision(attribute, index);
 		if (reason != null) {
 			throw new IllegalAddException(parent, attribute, reason);
 		}
@@ -516,6 +699,9 @@ final class AttributeList extends AbstractList<Attribute>
 
 		attributeData[index] = attribute;
 		attribute.setParent(parent);
+		hashIndex = null;
+		prefixIndex = null;
+		parent.treeModified();
 		return old;
 	}
 
@@ -607,6 +793,8 @@ final class AttributeList extends AbstractList<Attribute>
 		for (int i = 0; i < indexes.length; i ++) {
 			attributeData[unsorted[i]] = usc[i];
 		}
+		hashIndex = null;
+		parent.treeModified();
 	}
 
 	/**
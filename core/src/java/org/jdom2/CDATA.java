@@ -117,6 +117,7 @@ public class CDATA extends Text {
 
 		if (str == null || "".equals(str)) {
 			value = EMPTY_STRING;
+			valueChanged();
 			return this;
 		}
 
@@ -126,6 +127,7 @@ public class CDATA extends Text {
 		}
 
 		value = str;
+		valueChanged();
 
 		return this;
 	}
@@ -153,10 +155,11 @@ public class CDATA extends Text {
 		// we need a temp value to ensure that the value is changed _after_
 		// validation
 		final String tmpValue;
-		if (value == EMPTY_STRING) {
+		final String current = getText();
+		if (current == EMPTY_STRING) {
 			tmpValue = str;
 		} else {
-			tmpValue = value + str;
+			tmpValue = current + str;
 		}
 
 		// we have to do late checking since the end of a CDATA section could 
@@ -171,6 +174,26 @@ public class CDATA extends Text {
 		}
 
 		value = tmpValue;
+		valueChanged();
+	}
+
+	/**
+	 * This will append a range of characters to the content of this CDATA.
+	 * CDATA sections are checked as a whole, so this is the same as appending
+	 * the equivalent String.
+	 *
+	 * @param chars the characters to append.
+	 * @param start the offset of the first character to append.
+	 * @param len the number of characters to append.
+	 * @throws IllegalDataException if the result would not be a legal CDATA
+	 *         section.
+	 */
+	@Override
+	public void append(final char[] chars, final int start, final int len) {
+		if (chars == null || len == 0) {
+			return;
+		}
+		append(new String(chars, start, len));
 	}
 
 	/**
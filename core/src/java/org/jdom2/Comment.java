@@ -125,6 +125,7 @@ public class Comment extends Content {
 		}
 
 		this.text = text;
+		valueChanged();
 		return this;
 	}
 
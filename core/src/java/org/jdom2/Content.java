@@ -134,6 +134,13 @@ public abstract class Content extends CloneBase
 	 * instances are 'detached'
 	 */
 	protected transient Parent parent = null;
+
+	/**
+	 * Where this Content was last known to be in its parent's content. This
+	 * is only a hint, maintained by (and validated by) the parent's list.
+	 */
+	transient int indexHint = -1;
+
 	/**
 	 * The content type enumerate value for this Content
 	 * @serialField This is an Enum, and cannot be null.
@@ -204,6 +211,26 @@ public abstract class Content extends CloneBase
 		return (Element) ((pnt instanceof Element) ? pnt : null);
 	}
 
+	/**
+	 * Let the parent Element (if any) know that the value of this Content
+	 * has changed (see {@link Element#getTreeStamp()}).
+	 */
+	final void valueChanged() {
+		if (parent instanceof Element) {
+			((Element)parent).treeModified();
+		}
+	}
+
+	/**
+	 * Calculate the structural hash of this Content, consistent with
+	 * {@link Element#getTreeHash()}: Content that is structurally the same
+	 * has the same tree hash.
+	 * @return the structural hash of this Content.
+	 */
+	int treeHash() {
+		return 31 * ctype.ordinal() + getValue().hashCode();
+	}
+
 	/**
 	 * Sets the parent of this Content. The caller is responsible for removing
 	 * any pre-existing parentage.
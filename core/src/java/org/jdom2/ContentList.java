@@ -81,6 +81,12 @@ final class ContentList extends AbstractList<Content>
 
 	private static final int INITIAL_ARRAY_SIZE = 4;
 
+	/** How many cached ElementFilter positions are kept */
+	private static final int MAX_POSITIONS = 4;
+
+	/** The positions of a view that has not been synchronised yet */
+	private static final int[] NOPOSITIONS = new int[0];
+
 	/** Our backing list */
 	private Content elementData[] = null;
 	
@@ -106,6 +112,32 @@ final class ContentList extends AbstractList<Content>
 	/** Document or Element this list belongs to */
 	private final Parent parent;
 
+	/**
+	 * The number of leading positions for which the content's indexHint is
+	 * known to be right. Changes that shift content lower this, and it is
+	 * raised again as indexOf() repairs the hints.
+	 */
+	private transient int validHints = 0;
+
+	/**
+	 * The positions of the content matching an {@link ElementFilter} (all
+	 * the child elements, or those with a given name and namespace), as
+	 * published by a view that scanned the whole list. A new view for an
+	 * equal filter starts from these instead of re-scanning, and they are
+	 * kept in step with changes at a known index.
+	 * <p>
+	 * Views are created per call and are not thread-safe, but they only read
+	 * a PositionCache, and its fields are final, so views on different
+	 * threads may share one. Concurrent read-only access to the list (for
+	 * example getChildren() from several threads) is therefore safe; the
+	 * slots here are written without locks, and a lost write only costs a
+	 * re-scan.
+	 */
+	private transient PositionCache[] positions = null;
+
+	/** The next slot in positions to (re)use */
+	private transient int nextposition = 0;
+
 	/**
 	 * Force either a Document or Element parent
 	 * 
@@ -126,8 +158,10 @@ final class ContentList extends AbstractList<Content>
 	final void uncheckedAddContent(final Content c) {
 		c.parent = parent;
 		ensureCapacity(size + 1);
+		appendHint(c);
 		elementData[size++] = c;
 		incModCount();
+		positionsAdded(size - 1);
 	}
 
 	/**
@@ -154,7 +188,7 @@ final class ContentList extends AbstractList<Content>
 	 * 
 	 * @return mod the value.
 	 */
-	private final int getModCount() {
+	final int getModCount() {
 		return sizeModCount;
 	}
 
@@ -169,10 +203,22 @@ final class ContentList extends AbstractList<Content>
 		dataModiCount++;
 		// indicate there's a change to the size
 		sizeModCount++;
+		treeModified();
 	}
 	
 	private final void incDataModOnly() {
 		dataModiCount++;
+		treeModified();
+	}
+
+	/**
+	 * Let an Element parent know its tree has changed (see
+	 * {@link Element#getTreeStamp()}).
+	 */
+	private final void treeModified() {
+		if (parent instanceof Element) {
+			((Element)parent).treeModified();
+		}
 	}
 
 	/**
@@ -183,6 +229,16 @@ final class ContentList extends AbstractList<Content>
 		return dataModiCount;
 	}
 
+	/**
+	 * The backing array, for the DescendantIterator which walks it directly
+	 * and makes its own concurrent-modification checks with getModCount().
+	 * @return the array holding the size() Content, null if there never was
+	 *         any.
+	 */
+	final Content[] getElementData() {
+		return elementData;
+	}
+
 	private final void checkIndex(final int index, final boolean excludes) {
 		final int max = excludes ? size - 1 : size;
 
@@ -249,14 +305,18 @@ final class ContentList extends AbstractList<Content>
 
 		ensureCapacity(size + 1);
 		if (index == size) {
+			appendHint(child);
 			elementData[size++] = child;
 		} else {
 			System.arraycopy(elementData, index, elementData, index + 1, size - index);
 			elementData[index] = child;
+			child.indexHint = index;
 			size++;
+			shifted(index);
 		}
 		// Successful add's increment the AbstractList's modCount
 		incModCount();
+		positionsAdded(index);
 	}
 
 	/**
@@ -329,6 +389,7 @@ final class ContentList extends AbstractList<Content>
 				}
 				// restore the mod-counts.
 				setModCount(tmpmodcount, tmpdmc);
+				resetPositions();
 			}
 		}
 
@@ -348,6 +409,7 @@ final class ContentList extends AbstractList<Content>
 			elementData = null;
 			size = 0;
 		}
+		validHints = 0;
 		incModCount();
 	}
 
@@ -379,6 +441,8 @@ final class ContentList extends AbstractList<Content>
 		}
 		size = 0;
 		elementData = null;
+		validHints = 0;
+		resetPositions();
 
 		boolean ok = false;
 		try {
@@ -395,7 +459,9 @@ final class ContentList extends AbstractList<Content>
 				while (size < oldSize) {
 					elementData[size++].setParent(parent);
 				}
+				validHints = 0;
 				setModCount(oldModCount, oldDataModCount);
+				resetPositions();
 			}
 		}
 
@@ -441,6 +507,10 @@ final class ContentList extends AbstractList<Content>
 
 	/**
 	 * Return a view of this list based on the given filter.
+	 * <p>
+	 * Each call returns a new view. A view keeps its own positions, so views
+	 * must not be shared between threads, but separate views (even for equal
+	 * filters) can be read concurrently.
 	 * 
 	 * @param <E>
 	 *        The Generic type of the content as set by the Filter.
@@ -452,6 +522,111 @@ final class ContentList extends AbstractList<Content>
 		return new FilterList<E>(filter);
 	}
 
+	/**
+	 * Get the published positions for the filter, if they are current.
+	 * @param filter The filter to get the positions of.
+	 * @return the positions, or null if there are none.
+	 */
+	private final PositionCache getPositions(final Filter<?> filter) {
+		final PositionCache[] pcs = positions;
+		if (pcs == null || filter.getClass() != ElementFilter.class) {
+			// other filters may not be repeatable, or may be expensive.
+			return null;
+		}
+		for (int i = 0; i < pcs.length; i++) {
+			final PositionCache pc = pcs[i];
+			if (pc != null && pc.datamod == getDataModCount()
+					&& filter.equals(pc.filter)) {
+				// equal ElementFilters select the same content.
+				return pc;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Publish the positions a view found by scanning the whole list.
+	 * @param filter The filter the view uses.
+	 * @param backingpos The positions, which the view must not change from
+	 *        now on.
+	 * @param backingsize The number of positions.
+	 * @return true if the positions were published.
+	 */
+	private final boolean putPositions(final Filter<?> filter,
+			final int[] backingpos, final int backingsize) {
+		if (filter.getClass() != ElementFilter.class) {
+			return false;
+		}
+		PositionCache[] pcs = positions;
+		if (pcs == null) {
+			pcs = new PositionCache[MAX_POSITIONS];
+			positions = pcs;
+		}
+		final PositionCache pc = new PositionCache(filter, getDataModCount(),
+				backingpos, backingsize);
+		for (int i = 0; i < pcs.length; i++) {
+			final PositionCache old = pcs[i];
+			if (old != null && filter.equals(old.filter)) {
+				pcs[i] = pc;
+				return true;
+			}
+		}
+		final int slot = nextposition;
+		pcs[slot] = pc;
+		nextposition = (slot + 1) % MAX_POSITIONS;
+		return true;
+	}
+
+	/**
+	 * Content was inserted at the given index.
+	 * @param index The index of the new content.
+	 */
+	private final void positionsAdded(final int index) {
+		if (positions != null) {
+			for (int i = 0; i < positions.length; i++) {
+				if (positions[i] != null) {
+					positions[i] = positions[i].added(index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Content was removed from the given index.
+	 * @param index The index the content was removed from.
+	 */
+	private final void positionsRemoved(final int index) {
+		if (positions != null) {
+			for (int i = 0; i < positions.length; i++) {
+				if (positions[i] != null) {
+					positions[i] = positions[i].removed(index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Content at the given index was replaced.
+	 * @param index The index of the replaced content.
+	 */
+	private final void positionsReplaced(final int index) {
+		if (positions != null) {
+			for (int i = 0; i < positions.length; i++) {
+				if (positions[i] != null) {
+					positions[i] = positions[i].replaced(index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The content moved in a way the positions cannot follow (without the
+	 * data-mod count necessarily changing). Drop them.
+	 */
+	private final void resetPositions() {
+		positions = null;
+	}
+
 	/**
 	 * Return the index of the first Element in the list. If the parent is a
 	 * <code>Document</code> then the element is the root element. If the list
@@ -502,10 +677,150 @@ final class ContentList extends AbstractList<Content>
 		removeParent(old);
 		System.arraycopy(elementData, index + 1, elementData, index, size - index - 1);
 		elementData[--size] = null; // Let gc do its work
+		shifted(index);
 		incModCount();
+		positionsRemoved(index);
 		return old;
 	}
 
+	/**
+	 * Remove the specified content, if it is in this list. Uses the fast
+	 * {@link #indexOf(Object)}.
+	 * 
+	 * @param o
+	 *        The content to remove
+	 * @return true if the content was removed.
+	 */
+	@Override
+	public boolean remove(final Object o) {
+		final int index = indexOf(o);
+		if (index < 0) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Remove all the content that matches the filter, compacting the list
+	 * in a single pass.
+	 * 
+	 * @param <F>
+	 *        The Generic type of the content as set by the Filter.
+	 * @param filter
+	 *        The Filter that selects the content to remove.
+	 * @return The removed content, in the order it was in the list.
+	 */
+	<F extends Content> List<F> removeIf(final Filter<F> filter) {
+		final List<F> removed = new ArrayList<F>();
+		if (size == 0) {
+			return removed;
+		}
+		// filter everything before changing anything, in case the filter
+		// fails part way through.
+		final boolean[] drop = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			final F f = filter.filter(elementData[i]);
+			if (f != null) {
+				removed.add(f);
+				drop[i] = true;
+			}
+		}
+		if (removed.isEmpty()) {
+			return removed;
+		}
+		int to = 0;
+		for (int i = 0; i < size; i++) {
+			final Content c = elementData[i];
+			if (drop[i]) {
+				removeParent(c);
+			} else {
+				c.indexHint = to;
+				elementData[to++] = c;
+			}
+		}
+		while (size > to) {
+			elementData[--size] = null;
+		}
+		validHints = size;
+		incModCount();
+		return removed;
+	}
+
+	/**
+	 * Get the position of the specified content. A Content can only be in
+	 * one list, and only once, so this uses the content's parent and index
+	 * hint rather than a scan, and only scans (repairing hints as it goes)
+	 * from where the hints may be wrong.
+	 * 
+	 * @param o
+	 *        The content to locate.
+	 * @return the position of the content, or -1 if it is not in this list.
+	 */
+	@Override
+	public int indexOf(final Object o) {
+		if (!(o instanceof Content)) {
+			return -1;
+		}
+		final Content c = (Content)o;
+		if (c.parent != parent) {
+			return -1;
+		}
+		final int hint = c.indexHint;
+		if (hint >= 0 && hint < size && elementData[hint] == c) {
+			return hint;
+		}
+		for (int i = validHints; i < size; i++) {
+			final Content e = elementData[i];
+			e.indexHint = i;
+			if (e == c) {
+				validHints = i + 1;
+				return i;
+			}
+		}
+		validHints = size;
+		// the content should have had a valid hint. Just in case....
+		for (int i = 0; i < size; i++) {
+			if (elementData[i] == c) {
+				c.indexHint = i;
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int lastIndexOf(final Object o) {
+		// content is never in the list more than once.
+		return indexOf(o);
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/**
+	 * Set the index hint of content that is being added at the end.
+	 * @param c the content being appended.
+	 */
+	private final void appendHint(final Content c) {
+		c.indexHint = size;
+		if (validHints == size) {
+			validHints++;
+		}
+	}
+
+	/**
+	 * Content from the index on has moved.
+	 * @param index The first position that may have a wrong hint.
+	 */
+	private final void shifted(final int index) {
+		if (index < validHints) {
+			validHints = index;
+		}
+	}
+
 	/** Remove the parent of a Object */
 	private static void removeParent(final Content c) {
 		c.setParent(null);
@@ -538,10 +853,12 @@ final class ContentList extends AbstractList<Content>
 		final Content old = elementData[index];
 		removeParent(old);
 		child.setParent(parent);
+		child.indexHint = index;
 		elementData[index] = child;
 		// for set method we increment dataModCount, but not modCount
 		// set does not change the structure of the List (size())
 		incDataModOnly();
+		positionsReplaced(index);
 		return old;
 	}
 
@@ -593,7 +910,11 @@ final class ContentList extends AbstractList<Content>
 		// usc contains the content in their pre-sorted order....
 		for (int i = 0; i < indexes.length; i ++) {
 			elementData[unsorted[i]] = usc[i];
+			usc[i].indexHint = unsorted[i];
 		}
+		// the positions of other content may have changed.
+		resetPositions();
+		incDataModOnly();
 	}
 
 	/**
@@ -906,6 +1227,133 @@ final class ContentList extends AbstractList<Content>
 
 	}
 
+	/* * * * * * * * * * * * * PositionCache * * * * * * * * * * * * * * */
+	/* * * * * * * * * * * * * PositionCache * * * * * * * * * * * * * * */
+
+	/**
+	 * The positions in this list of all the content that matches a filter,
+	 * as at a data-mod count. Views only ever read a PositionCache. Changes
+	 * to the list move the positions in the same array (they need the same
+	 * exclusive access as any other change), and are published as a new
+	 * PositionCache; views of the old one see that the data-mod count has
+	 * changed and stop using it.
+	 */
+	private final class PositionCache {
+		final Filter<?> filter;
+		final int datamod;
+		final int[] backingpos;
+		final int backingsize;
+
+		PositionCache(final Filter<?> filter, final int datamod,
+				final int[] backingpos, final int backingsize) {
+			this.filter = filter;
+			this.datamod = datamod;
+			this.backingpos = backingpos;
+			this.backingsize = backingsize;
+		}
+
+		/**
+		 * Find the first position that is at or after the backing index.
+		 * @param index the backing index.
+		 * @return the position of it, or backingsize if there is none.
+		 */
+		private final int slot(final int index) {
+			int left = 0, right = backingsize;
+			while (left < right) {
+				final int mid = (left + right) >>> 1;
+				if (backingpos[mid] < index) {
+					left = mid + 1;
+				} else {
+					right = mid;
+				}
+			}
+			return left;
+		}
+
+		/**
+		 * Insert a position.
+		 * @param slot where in the positions to insert it.
+		 * @param index the backing index to insert.
+		 * @param bs the number of positions before the insert.
+		 * @return the positions, with the new one.
+		 */
+		private final PositionCache insert(final int slot, final int index,
+				final int bs) {
+			int[] bp = backingpos;
+			if (bs == bp.length) {
+				bp = ArrayCopy.copyOf(bp, bs + (bs >>> 1) + INITIAL_ARRAY_SIZE);
+			}
+			System.arraycopy(bp, slot, bp, slot + 1, bs - slot);
+			bp[slot] = index;
+			return new PositionCache(filter, getDataModCount(), bp, bs + 1);
+		}
+
+		/**
+		 * The positions after content was inserted in to the backing list.
+		 * @param index the backing index of the new content.
+		 * @return the new positions, or null if these were not current.
+		 */
+		final PositionCache added(final int index) {
+			if (datamod + 1 != getDataModCount()) {
+				return null;
+			}
+			final int slot = slot(index);
+			for (int i = slot; i < backingsize; i++) {
+				backingpos[i]++;
+			}
+			if (filter.matches(elementData[index])) {
+				return insert(slot, index, backingsize);
+			}
+			return new PositionCache(filter, getDataModCount(), backingpos,
+					backingsize);
+		}
+
+		/**
+		 * The positions after content was removed from the backing list.
+		 * @param index the backing index the content was removed from.
+		 * @return the new positions, or null if these were not current.
+		 */
+		final PositionCache removed(final int index) {
+			if (datamod + 1 != getDataModCount()) {
+				return null;
+			}
+			final int slot = slot(index);
+			int bs = backingsize;
+			if (slot < bs && backingpos[slot] == index) {
+				System.arraycopy(backingpos, slot + 1, backingpos, slot, bs - slot - 1);
+				bs--;
+			}
+			for (int i = slot; i < bs; i++) {
+				backingpos[i]--;
+			}
+			return new PositionCache(filter, getDataModCount(), backingpos, bs);
+		}
+
+		/**
+		 * The positions after content was replaced in the backing list.
+		 * @param index the backing index of the new content.
+		 * @return the new positions, or null if these were not current.
+		 */
+		final PositionCache replaced(final int index) {
+			if (datamod + 1 != getDataModCount()) {
+				return null;
+			}
+			final int slot = slot(index);
+			final boolean was = slot < backingsize && backingpos[slot] == index;
+			if (was == filter.matches(elementData[index])) {
+				return new PositionCache(filter, getDataModCount(), backingpos,
+						backingsize);
+			}
+			if (!was) {
+				return insert(slot, index, backingsize);
+			}
+			System.arraycopy(backingpos, slot + 1, backingpos, slot,
+					backingsize - slot - 1);
+			return new PositionCache(filter, getDataModCount(), backingpos,
+					backingsize - 1);
+		}
+	}
+
 	/* * * * * * * * * * * * * FilterList * * * * * * * * * * * * * * * */
 	/* * * * * * * * * * * * * FilterList * * * * * * * * * * * * * * * */
 
@@ -926,8 +1374,10 @@ final class ContentList extends AbstractList<Content>
 		final Filter<F> filter;
 		// correlate the position in the filtered list to the index in the
 		// backing ContentList.
-		int[] backingpos = new int[size + INITIAL_ARRAY_SIZE];
+		int[] backingpos = NOPOSITIONS;
 		int backingsize = 0;
+		// backingpos is published in a PositionCache, and must not change.
+		boolean sharedpos = true;
 		// track data modifications in the backing ContentList.
 		int xdata = -1;
 
@@ -972,9 +1422,18 @@ final class ContentList extends AbstractList<Content>
 				// The underlying list was modified somehow...
 				// we need to invalidate our research...
 				xdata = getDataModCount();
-				backingsize = 0;
-				if (size >= backingpos.length) {
-					backingpos = new int[size + 1];
+				final PositionCache pc = getPositions(filter);
+				if (pc != null) {
+					// ... unless someone has already done it.
+					backingpos = pc.backingpos;
+					backingsize = pc.backingsize;
+					sharedpos = true;
+				} else {
+					backingsize = 0;
+					if (sharedpos || size >= backingpos.length) {
+						backingpos = new int[size + 1];
+						sharedpos = false;
+					}
 				}
 			}
 
@@ -993,6 +1452,10 @@ final class ContentList extends AbstractList<Content>
 			while (bpi < size) {
 				final F gotit = filter.filter(elementData[bpi]);
 				if (gotit != null) {
+					if (sharedpos) {
+						backingpos = ArrayCopy.copyOf(backingpos, size);
+						sharedpos = false;
+					}
 					backingpos[backingsize] = bpi;
 					if (backingsize++ == index) {
 						return bpi;
@@ -1000,6 +1463,10 @@ final class ContentList extends AbstractList<Content>
 				}
 				bpi++;
 			}
+			if (!sharedpos && putPositions(filter, backingpos, backingsize)) {
+				// other views for the filter can use what we found.
+				sharedpos = true;
+			}
 			return size;
 		}
 
@@ -1026,15 +1493,17 @@ final class ContentList extends AbstractList<Content>
 			if (filter.matches(obj)) {
 				ContentList.this.add(adj, obj);
 
-				// we can optimise the laziness now by doing a partial reset on
-				// the backing list... invalidate everything *after* the added
-				// content
-				if (backingpos.length <= size) {
-					backingpos = ArrayCopy.copyOf(backingpos, backingpos.length + 1);
+				if (!sharedpos) {
+					// we can optimise the laziness now by doing a partial reset
+					// on the backing list... invalidate everything *after* the
+					// added content. Published positions follow the change.
+					if (backingpos.length <= size) {
+						backingpos = ArrayCopy.copyOf(backingpos, backingpos.length + 1);
+					}
+					backingpos[index] = adj;
+					backingsize = index + 1;
+					xdata = getDataModCount();
 				}
-				backingpos[index] = adj;
-				backingsize = index + 1;
-				xdata = getDataModCount();
 
 			} else {
 				throw new IllegalAddException("Filter won't allow the " +
@@ -1080,17 +1549,17 @@ final class ContentList extends AbstractList<Content>
 					}
 					if (filter.matches(c)) {
 						ContentList.this.add(adj + count, c);
-						// we can optimise the laziness now by doing a partial
-						// reset on
-						// the backing list... invalidate everything *after* the
-						// added
-						// content
-						if (backingpos.length <= size) {
-							backingpos = ArrayCopy.copyOf(backingpos, backingpos.length + addcnt);
+						if (!sharedpos) {
+							// we can optimise the laziness now by doing a
+							// partial reset on the backing list... invalidate
+							// everything *after* the added content
+							if (backingpos.length <= size) {
+								backingpos = ArrayCopy.copyOf(backingpos, backingpos.length + addcnt);
+							}
+							backingpos[index + count] = adj + count;
+							backingsize = index + count + 1;
+							xdata = getDataModCount();
 						}
-						backingpos[index + count] = adj + count;
-						backingsize = index + count + 1;
-						xdata = getDataModCount();
 
 						count++;
 					} else {
@@ -1109,6 +1578,7 @@ final class ContentList extends AbstractList<Content>
 					}
 					// restore the mod-counts.
 					setModCount(tmpmodcount, tmpdmc);
+					resetPositions();
 					// reset the cache... will need to redo some work on another
 					// call maybe....
 					backingsize = index;
@@ -1170,9 +1640,11 @@ final class ContentList extends AbstractList<Content>
 				throw new IndexOutOfBoundsException("Index: " + index + " Size: " + size());
 			}
 			final Content oldc = ContentList.this.remove(adj);
-			// optimise the backing cache.
-			backingsize = index;
-			xdata = getDataModCount();
+			if (!sharedpos) {
+				// optimise the backing cache.
+				backingsize = index;
+				xdata = getDataModCount();
+			}
 			// use Filter to ensure the cast is right.
 			return filter.filter(oldc);
 		}
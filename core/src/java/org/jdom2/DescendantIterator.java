@@ -57,13 +57,24 @@ package org.jdom2;
 import java.util.*;
 
 import org.jdom2.Content;
+import org.jdom2.Content.CType;
 import org.jdom2.Parent;
+import org.jdom2.filter.ContentFilter;
+import org.jdom2.filter.ElementFilter;
+import org.jdom2.filter.Filter;
+import org.jdom2.filter.Filters;
 import org.jdom2.internal.ArrayCopy;
 import org.jdom2.util.IteratorIterable;
 
 /**
  * Traverse all a parent's descendants (all children at any level below
  * the parent - excludes the parent itself).
+ * <p>
+ * The walk reads the ContentList arrays directly, keeping the list, position
+ * and expected modCount of the levels above the current one in plain arrays,
+ * so it allocates nothing as it goes down and up the tree. When the descendants are going to
+ * be filtered, the types of Content the filter can possibly match are skipped
+ * in the walk itself.
  *
  * @author Bradley S. Huffman
  * @author Jason Hunter
@@ -71,26 +82,48 @@ import org.jdom2.util.IteratorIterable;
  */
 final class DescendantIterator implements IteratorIterable<Content> {
 	
+	/** All types of Content are returned */
+	private static final int ALLTYPES = -1;
+	
 	/** Needed to be Iterable! */
 	private final Parent parent;
 	
+	/** The CType ordinals (as bits) of the Content to return */
+	private final int types;
+	
+	/** The ContentList being walked, null when there is nothing more */
+	private ContentList list;
+	/** The index of the next Content to look at in list */
+	private int cursor = 0;
+	/** The modCount list should have */
+	private int expect;
+
 	/*
-	 * Note, we use an Array of Object here, even through
-	 * List<Iterator<Content>> would look neater, etc.
+	 * Note, we use arrays here, even through a List of some level object
+	 * would look neater, etc.
 	 * Fact is, for 'hamlet', using a list for the stack takes about
 	 * twice as long as using the Object[] array.
 	 */
-	private Object[] stack = new Object[16];
-	private int ssize = 0;
-
-	/** The iterator that supplied to most recent next() */
-	private Iterator<Content> current = null;
-	/** The iterator going down the tree, null unless next() returned Parent */
-	private Iterator<Content> descending = null;
-	/** The iterator going up the tree, null unless next() returned dead-end */
-	private Iterator<Content> ascending = null;
-	/** what it says... */
-	private boolean hasnext = true;
+	/** The list, cursor and modCount of each level above the current one */
+	private ContentList[] lists = new ContentList[16];
+	private int[] cursors = new int[16];
+	private int[] expects = new int[16];
+	/** The number of levels above the current one */
+	private int depth = 0;
+
+	/** Content to descend in to before looking further, null if none */
+	private ContentList descend = null;
+	/** The modCount of the descend list when it was found */
+	private int descendexpect = 0;
+	/** True if the cursor is at the next Content to return */
+	private boolean ready = false;
+
+	/** The list and position of the Content last returned, for remove() */
+	private ContentList lastlist = null;
+	private int lastindex = -1;
+	private int lastdepth = -1;
+	private int lastexpect = 0;
+	private boolean canremove = false;
 
 	/**
 	 * Iterator for the descendants of the supplied object.
@@ -98,16 +131,196 @@ final class DescendantIterator implements IteratorIterable<Content> {
 	 * @param parent document or element whose descendants will be iterated
 	 */
 	DescendantIterator(Parent parent) {
+		this(parent, ALLTYPES);
+	}
+
+	/**
+	 * Iterator for the descendants of the supplied object that could match
+	 * the filter. The filter still needs to be applied to what is returned.
+	 *
+	 * @param parent document or element whose descendants will be iterated
+	 * @param filter the filter that the descendants will be put through.
+	 */
+	DescendantIterator(Parent parent, Filter<?> filter) {
+		this(parent, filterTypes(filter));
+	}
+
+	private DescendantIterator(Parent parent, int types) {
 		this.parent = parent;
+		this.types = types;
 		// can trust that parent is not null, DescendantIterator is package-private.
-		current = parent.getContent().iterator();
-		hasnext = current.hasNext();
+		final ContentList content = parent instanceof Element
+				? ((Element)parent).content : ((Document)parent).content;
+		list = content;
+		expect = content.getModCount();
+	}
+
+	/**
+	 * Work out which types of Content the filter could possibly match.
+	 * Filters that may be subclassed, or that are not recognised, could
+	 * match anything.
+	 * 
+	 * @param filter the filter to inspect.
+	 * @return the CType ordinals, as bits, that can match.
+	 */
+	private static final int filterTypes(final Filter<?> filter) {
+		if (filter == null) {
+			return ALLTYPES;
+		}
+		final Class<?> fclass = filter.getClass();
+		if (fclass == ElementFilter.class || filter == Filters.element()) {
+			return bit(CType.Element);
+		}
+		if (fclass == ContentFilter.class) {
+			final int mask = ((ContentFilter)filter).getFilterMask();
+			int types = 0;
+			if ((mask & ContentFilter.ELEMENT) != 0) {
+				types |= bit(CType.Element);
+			}
+			if ((mask & ContentFilter.CDATA) != 0) {
+				types |= bit(CType.CDATA);
+			}
+			if ((mask & ContentFilter.TEXT) != 0) {
+				types |= bit(CType.Text);
+			}
+			if ((mask & ContentFilter.COMMENT) != 0) {
+				types |= bit(CType.Comment);
+			}
+			if ((mask & ContentFilter.PI) != 0) {
+				types |= bit(CType.ProcessingInstruction);
+			}
+			if ((mask & ContentFilter.ENTITYREF) != 0) {
+				types |= bit(CType.EntityRef);
+			}
+			if ((mask & ContentFilter.DOCTYPE) != 0) {
+				types |= bit(CType.DocType);
+			}
+			return types;
+		}
+		if (filter == Filters.text()) {
+			return bit(CType.Text) | bit(CType.CDATA);
+		}
+		if (filter == Filters.cdata()) {
+			return bit(CType.CDATA);
+		}
+		if (filter == Filters.comment()) {
+			return bit(CType.Comment);
+		}
+		if (filter == Filters.processinginstruction()) {
+			return bit(CType.ProcessingInstruction);
+		}
+		if (filter == Filters.entityref()) {
+			return bit(CType.EntityRef);
+		}
+		if (filter == Filters.doctype()) {
+			return bit(CType.DocType);
+		}
+		return ALLTYPES;
+	}
+
+	private static final int bit(final CType ctype) {
+		return 1 << ctype.ordinal();
 	}
 	
 	@Override
 	public DescendantIterator iterator() {
 		// Implement the Iterable stuff.
-		return new DescendantIterator(parent);
+		return new DescendantIterator(parent, types);
+	}
+
+	/**
+	 * Start walking the content of an Element.
+	 */
+	private void push(final ContentList kids, final int kidsexpect) {
+		if (depth >= lists.length) {
+			lists = ArrayCopy.copyOf(lists, depth + 16);
+			cursors = ArrayCopy.copyOf(cursors, depth + 16);
+			expects = ArrayCopy.copyOf(expects, depth + 16);
+		}
+		lists[depth] = list;
+		cursors[depth] = cursor;
+		expects[depth] = expect;
+		depth++;
+		list = kids;
+		cursor = 0;
+		expect = kidsexpect;
+	}
+
+	/**
+	 * Go back to walking the parent's list, if there is one.
+	 */
+	private void pop() {
+		if (depth == 0) {
+			list = null;
+			return;
+		}
+		depth--;
+		list = lists[depth];
+		cursor = cursors[depth];
+		expect = expects[depth];
+		lists[depth] = null;
+	}
+
+	/**
+	 * Move the cursor to the next Content to return, descending in to the
+	 * previous one if needed, and skipping any Content of the wrong type.
+	 */
+	private void advance() {
+		if (descend != null) {
+			push(descend, descendexpect);
+			descend = null;
+		}
+		while (list != null) {
+			if (cursor >= list.size()) {
+				// our next will be up.
+				pop();
+				continue;
+			}
+			if (types == ALLTYPES) {
+				break;
+			}
+			// nothing can change while we are in here, so one check will do.
+			if (list.getModCount() != expect) {
+				throw new ConcurrentModificationException("ContentList was " +
+						"modified outside of this Iterator");
+			}
+			if (skip()) {
+				break;
+			}
+		}
+		ready = true;
+	}
+
+	/**
+	 * Skip the Content in the current list that cannot match, stopping at
+	 * Content that can, or going down in to an Element that has content.
+	 * 
+	 * @return true if the cursor is at Content that can match.
+	 */
+	private boolean skip() {
+		final Content[] data = list.getElementData();
+		final int size = list.size();
+		int c = cursor;
+		while (c < size) {
+			final Content content = data[c];
+			final CType ctype = content.ctype;
+			if ((types & (1 << ctype.ordinal())) != 0) {
+				cursor = c;
+				return true;
+			}
+			// skip it, but not what it contains.
+			c++;
+			if (ctype == CType.Element) {
+				final ContentList kids = ((Element)content).content;
+				if (kids.size() > 0) {
+					cursor = c;
+					push(kids, kids.getModCount());
+					return false;
+				}
+			}
+		}
+		cursor = c;
+		return false;
 	}
 
 	/**
@@ -117,7 +330,10 @@ final class DescendantIterator implements IteratorIterable<Content> {
 	 */
 	@Override
 	public boolean hasNext() {
-		return hasnext;
+		if (!ready) {
+			advance();
+		}
+		return list != null;
 	}
 
 	/**
@@ -127,51 +343,33 @@ final class DescendantIterator implements IteratorIterable<Content> {
 	 */
 	@Override
 	public Content next() {
-		// set the 'current' if it needs changing.
-		if (descending != null) {
-			current = descending;
-			descending = null;
-		} else if (ascending != null) {
-			current = ascending;
-			ascending = null;
-		}
-		
-		final Content ret = current.next();
-		
-		// got an item to return.
-		// sort out the next state....
-		if ((ret instanceof Element) && ((Element)ret).getContentSize() > 0) {
-			// there is another descendant, and it has values.
-			// our next will be down....
-			descending = ((Element)ret).getContent().iterator();
-			if (ssize >= stack.length) {
-				stack = ArrayCopy.copyOf(stack, ssize + 16);
-			}
-			stack[ssize++] = current;
-			return ret;
-		}
-		
-		if (current.hasNext()) {
-			// our next will be along....
-			return ret;
-		}
-		
-		// our next will be up.
-		while (ssize > 0) {
-			
-			// if the stack was generic, this would not be needed, but,
-			// the java.uti.* stack codes are too slow.
-			@SuppressWarnings("unchecked")
-			final Iterator<Content> subit = (Iterator<Content>)stack[--ssize];
-			ascending = subit;
-			stack[ssize] = null;
-			if (ascending.hasNext()) {
-				return ret;
+		if (!ready) {
+			advance();
+		}
+		if (list == null) {
+			throw new NoSuchElementException("Iterated beyond the end of " +
+					"the ContentList.");
+		}
+		if (list.getModCount() != expect) {
+			throw new ConcurrentModificationException("ContentList was " +
+					"modified outside of this Iterator");
+		}
+		final Content ret = list.getElementData()[cursor];
+		lastlist = list;
+		lastindex = cursor;
+		lastdepth = depth;
+		lastexpect = expect;
+		cursor++;
+		canremove = true;
+		ready = false;
+		if (ret.ctype == CType.Element) {
+			final ContentList kids = ((Element)ret).content;
+			if (kids.size() > 0) {
+				// our next will be down....
+				descend = kids;
+				descendexpect = kids.getModCount();
 			}
 		}
-
-		ascending = null;
-		hasnext = false;
 		return ret;
 	}
 
@@ -183,28 +381,37 @@ final class DescendantIterator implements IteratorIterable<Content> {
 	 */
 	@Override
 	public void remove() {
-		current.remove();
-		// if our next move was to go down, we can't.
-		// we can go along, or up.
-		descending = null;
-		if (current.hasNext() || ascending != null) {
-			// we have a next element, or our next move was up anyway.
-			return;
+		if (!canremove) {
+			throw new IllegalStateException("Can only remove() content " +
+					"after a call to next()");
 		}
-		// our next move was going to be down, or across, but those are not
-		// possible any more, need to check up.
-		// our next will be up.
-		while (ssize > 0) {
-			@SuppressWarnings("unchecked")
-			final Iterator<Content> subit = (Iterator<Content>)stack[--ssize];
-			stack[ssize] = null;
-			ascending = subit;
-			if (ascending.hasNext()) {
-				return;
+		if (lastlist.getModCount() != lastexpect) {
+			throw new ConcurrentModificationException("ContentList was " +
+					"modified outside of this Iterator");
+		}
+		canremove = false;
+		lastlist.remove(lastindex);
+		// if our next move was to go down, we can't.
+		descend = null;
+		if (depth == lastdepth && list == lastlist) {
+			// still walking the list we removed from.
+			cursor--;
+			expect = lastlist.getModCount();
+		} else if (depth > lastdepth && lists[lastdepth] == lastlist) {
+			// hasNext() went down in to the content after the removed one.
+			if (cursors[lastdepth] == lastindex + 1) {
+				// ... or in to the removed content itself, come back.
+				while (depth > lastdepth) {
+					pop();
+				}
+				ready = false;
+				cursor--;
+				expect = lastlist.getModCount();
+			} else {
+				cursors[lastdepth]--;
+				expects[lastdepth] = lastlist.getModCount();
 			}
 		}
-		ascending = null;
-		hasnext = false;
 	}
 
 }
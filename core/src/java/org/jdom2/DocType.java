@@ -278,6 +278,14 @@ public class DocType extends Content {
 		return internalSubset;
 	}
 
+	@Override
+	int treeHash() {
+		int h = 31 * ctype.ordinal() + elementName.hashCode();
+		h = 31 * h + (publicID == null ? 0 : publicID.hashCode());
+		h = 31 * h + (systemID == null ? 0 : systemID.hashCode());
+		return 31 * h + (internalSubset == null ? 0 : internalSubset.hashCode());
+	}
+
 	/**
 	 * This returns a <code>String</code> representation of the
 	 * <code>DocType</code>, suitable for debugging.
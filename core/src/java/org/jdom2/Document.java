@@ -460,14 +460,7 @@ public class Document extends CloneBase implements Parent {
 	 */
 	@Override
 	public <F extends Content> List<F> removeContent(Filter<F> filter) {
-		List<F> old = new ArrayList<F>();
-		Iterator<F> itr = content.getView(filter).iterator();
-		while (itr.hasNext()) {
-			F child = itr.next();
-			old.add(child);
-			itr.remove();
-		}
-		return old;
+		return content.removeIf(filter);
 	}
 
 	/**
@@ -739,7 +732,7 @@ public class Document extends CloneBase implements Parent {
 	 */
 	@Override
 	public <F extends Content> IteratorIterable<F> getDescendants(final Filter<F> filter) {
-		return new FilterIterator<F>(new DescendantIterator(this), filter);
+		return new FilterIterator<F>(new DescendantIterator(this, filter), filter);
 	}
 
 	/**
@@ -0,0 +1,92 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2;
+
+/**
+ * A {@link JDOMFactory} that also implements this interface is told when a
+ * builder starts and ends building a Document with it. This lets a factory
+ * keep per-Document state (for example, the
+ * {@link org.jdom2.located.LocationTableJDOMFactory} records the location of
+ * each Content it creates for the Document being built) without recording
+ * Content that is created with the factory between builds.
+ * <p>
+ * The JDOM builders (SAXBuilder, StAXStreamBuilder, StAXEventBuilder,
+ * DOMBuilder and AsyncJDOMBuilder) call {@link #startDocument(Document)}
+ * before they create any Content for a Document, and
+ * {@link #endDocument(Document)} when the Document is complete, or when the
+ * build fails. Building fragments does not call either method.
+ * 
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public interface DocumentBuildListener {
+
+	/**
+	 * Called when a builder starts building the given Document, before any of
+	 * its Content is created.
+	 * 
+	 * @param document The (empty) Document that is about to be built.
+	 */
+	public void startDocument(Document document);
+
+	/**
+	 * Called when a builder has finished building the given Document, or has
+	 * failed to.
+	 * 
+	 * @param document The Document that has been built.
+	 */
+	public void endDocument(Document document);
+
+}
@@ -60,6 +60,7 @@ import static org.jdom2.JDOMConstants.NS_PREFIX_XML;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.lang.ref.SoftReference;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -75,6 +76,7 @@ import org.jdom2.ContentList.FilterList;
 import org.jdom2.filter.ElementFilter;
 import org.jdom2.filter.Filter;
 import org.jdom2.filter.Filters;
+import org.jdom2.internal.ArrayCopy;
 import org.jdom2.util.IteratorIterable;
 
 /**
@@ -107,6 +109,9 @@ public class Element extends Content implements Parent {
 
 	private static final int INITIAL_ARRAY_SIZE = 5;
 
+	/** String values at least this long are cached by getValue() */
+	private static final int CACHEVALUELENGTH = 1024;
+
 	/** The local name of the element */
 	protected String name;
 
@@ -129,6 +134,23 @@ public class Element extends Content implements Parent {
 	 */
 	transient ContentList content = new ContentList(this);
 
+	/**
+	 * The tree stamp (see {@link #getTreeStamp()}). The stamp is odd while
+	 * this Element and all its descendants are unchanged since the stamp was
+	 * last observed, and is incremented (to an even value) on the first
+	 * change after that.
+	 */
+	private transient int treeStamp = 0;
+
+	/** The cached tree hash, valid only when its stamp is the treeStamp */
+	private transient TreeHash treeHashCache = null;
+
+	/** The cached string value (see {@link #getValue()}), if any */
+	private transient ValueCache valueCache = null;
+
+	/** The tree stamp the last time an uncached string value was built */
+	private transient int valueRequested = 0;
+
 	/**
 	 * This protected constructor is provided in order to support an Element
 	 * subclass that wants full control over variable initialization. It
@@ -228,6 +250,7 @@ public class Element extends Content implements Parent {
 			throw new IllegalNameException(name, "element", reason);
 		}
 		this.name = name;
+		treeModified();
 		return this;
 	}
 
@@ -271,6 +294,7 @@ public class Element extends Content implements Parent {
 		}
 		
 		this.namespace = namespace;
+		treeModified();
 		return this;
 	}
 
@@ -400,6 +424,7 @@ public class Element extends Content implements Parent {
 			throw new IllegalAddException(this, additionalNamespace, reason);
 		}
 
+		treeModified();
 		return additionalNamespaces.add(additionalNamespace);
 	}
 
@@ -417,7 +442,9 @@ public class Element extends Content implements Parent {
 		if (additionalNamespaces == null) {
 			return;
 		}
-		additionalNamespaces.remove(additionalNamespace);
+		if (additionalNamespaces.remove(additionalNamespace)) {
+			treeModified();
+		}
 	}
 
 	/**
@@ -450,14 +477,122 @@ public class Element extends Content implements Parent {
 	 */
 	@Override
 	public String getValue() {
-		final StringBuilder buffer = new StringBuilder();
+		final int stamp = getTreeStamp();
+		final ValueCache vc = valueCache;
+		if (vc != null && vc.stamp == stamp) {
+			final String cached = vc.value.get();
+			if (cached != null) {
+				return cached;
+			}
+		}
+		// first pass: the exact size, and the text node if there is just one
+		final TextWalker walker = new TextWalker(this);
+		Text first = null;
+		int count = 0;
+		int len = 0;
+		Text t = null;
+		while ((t = walker.next()) != null) {
+			if (first == null) {
+				first = t;
+			}
+			count++;
+			len += t.getValue().length();
+		}
+		if (count == 0) {
+			return "";
+		}
+		if (count == 1) {
+			return first.getValue();
+		}
+		final StringBuilder buffer = new StringBuilder(len);
+		walker.reset();
+		while ((t = walker.next()) != null) {
+			buffer.append(t.getValue());
+		}
+		final String value = buffer.toString();
+		// only cache values that are large, or asked for more than once.
+		if (len >= CACHEVALUELENGTH || valueRequested == stamp) {
+			valueCache = new ValueCache(stamp, value);
+		} else {
+			valueRequested = stamp;
+		}
+		return value;
+	}
+
+	/**
+	 * A string value and the tree stamp it was built for. The fields are
+	 * final so a reader never sees one without the other.
+	 */
+	private static final class ValueCache {
+		final int stamp;
+		final SoftReference<String> value;
+
+		ValueCache(final int stamp, final String value) {
+			this.stamp = stamp;
+			this.value = new SoftReference<String>(value);
+		}
+	}
 
-		for (Content child : getContent()) {
-			if (child instanceof Element || child instanceof Text) {
-				buffer.append(child.getValue());
+	/**
+	 * Append the XPath 1.0 string value of this element (see
+	 * {@link #getValue()}) to the given Appendable, without creating any
+	 * intermediate Strings.
+	 * 
+	 * @param out The Appendable to append the value to.
+	 * @throws IOException if the Appendable fails.
+	 * @since JDOM2
+	 */
+	public void appendValueTo(final Appendable out) throws IOException {
+		final TextWalker walker = new TextWalker(this);
+		Text t = null;
+		while ((t = walker.next()) != null) {
+			out.append(t.getValue());
+		}
+	}
+
+	/**
+	 * Walks the Text (and CDATA) descendants of an Element in document order,
+	 * without recursion.
+	 */
+	private static final class TextWalker {
+		private final Element root;
+		private ContentList[] lists = new ContentList[8];
+		private int[] index = new int[8];
+		private int depth = 0;
+
+		TextWalker(final Element root) {
+			this.root = root;
+			lists[0] = root.content;
+		}
+
+		void reset() {
+			lists[0] = root.content;
+			index[0] = 0;
+			depth = 0;
+		}
+
+		Text next() {
+			while (depth >= 0) {
+				final ContentList cl = lists[depth];
+				if (index[depth] >= cl.size()) {
+					lists[depth--] = null;
+					continue;
+				}
+				final Content c = cl.get(index[depth]++);
+				if (c instanceof Text) {
+					return (Text)c;
+				}
+				if (c instanceof Element) {
+					if (++depth == lists.length) {
+						lists = ArrayCopy.copyOf(lists, depth * 2);
+						index = ArrayCopy.copyOf(index, depth * 2);
+					}
+					lists[depth] = ((Element)c).content;
+					index[depth] = 0;
+				}
 			}
+			return null;
 		}
-		return buffer.toString();
 	}
 
 	/**
@@ -480,6 +615,197 @@ public class Element extends Content implements Parent {
 		return content.size();
 	}
 
+	/**
+	 * Hint that at least <code>capacity</code> content items will be held by
+	 * this Element. Builders that know how many children are coming (for
+	 * example {@link org.jdom2.input.DOMBuilder}) use this to avoid growing
+	 * the content storage one step at a time. The content itself is never
+	 * changed, and nothing happens if there is already enough room.
+	 *
+	 * @param capacity the number of content items to make room for.
+	 * @since JDOM2
+	 */
+	public void ensureContentCapacity(final int capacity) {
+		content.ensureCapacity(capacity);
+	}
+
+	/**
+	 * Get a stamp representing the current state of this Element and
+	 * everything it contains. The stamp changes whenever this Element (its
+	 * name, Namespace, Namespace declarations, attributes, or content) or any
+	 * of its descendants is modified. Comparing the stamp with one returned
+	 * earlier for the same Element instance is an O(1) way to tell whether
+	 * the subtree may have changed in between.
+	 * <p>
+	 * Stamps are only meaningful for the same Element instance; they are not
+	 * preserved when Elements are cloned or serialized.
+	 * <p>
+	 * The first call after a change walks the changed parts of the subtree,
+	 * subsequent calls are O(1). Modifications only cost anything when the
+	 * stamp of an ancestor Element has been observed since its last change.
+	 * 
+	 * @return the current tree stamp.
+	 * @since JDOM2
+	 */
+	public int getTreeStamp() {
+		if ((treeStamp & 1) == 0) {
+			// observed stamps are odd. Mark the unobserved part of the tree.
+			Element[] stack = new Element[16];
+			int sp = 0;
+			stack[sp++] = this;
+			while (sp > 0) {
+				final Element e = stack[--sp];
+				stack[sp] = null;
+				e.treeStamp |= 1;
+				final ContentList kids = e.content;
+				for (int i = kids.size() - 1; i >= 0; i--) {
+					final Content k = kids.get(i);
+					if (k instanceof Element && (((Element)k).treeStamp & 1) == 0) {
+						if (sp == stack.length) {
+							stack = ArrayCopy.copyOf(stack, sp * 2);
+						}
+						stack[sp++] = (Element)k;
+					}
+				}
+			}
+		}
+		return treeStamp;
+	}
+
+	/**
+	 * Get a structural hash of this Element and all its descendants (a
+	 * Merkle-style hash). Elements that are structurally the same, which
+	 * means they have the same name and Namespace URI, the same attributes
+	 * (by name, Namespace URI, and value, in any order), and structurally
+	 * the same content in the same order, have the same tree hash.
+	 * Namespace prefixes and declarations, and attribute types, are not
+	 * part of the hash.
+	 * <p>
+	 * The hash is cached for each Element in the subtree, and is only
+	 * recalculated for the Elements that changed (see
+	 * {@link #getTreeStamp()}), so repeated calls are cheap. Different hash
+	 * values mean the Elements are different, but, as with any hash, equal
+	 * values do not guarantee the Elements are the same.
+	 * 
+	 * @return the tree hash of this Element.
+	 * @since JDOM2
+	 */
+	public int getTreeHash() {
+		final TreeHash cached = validTreeHash();
+		if (cached != null) {
+			return cached.hash;
+		}
+		// post-order traversal, reusing the valid hashes of child Elements.
+		Element[] stack = new Element[16];
+		int[] index = new int[16];
+		int[] hash = new int[16];
+		int sp = 0;
+		stack[0] = this;
+		hash[0] = headHash();
+		while (sp >= 0) {
+			final Element e = stack[sp];
+			final ContentList kids = e.content;
+			if (index[sp] < kids.size()) {
+				final Content k = kids.get(index[sp]++);
+				if (k instanceof Element) {
+					final Element ke = (Element)k;
+					final TreeHash kh = ke.validTreeHash();
+					if (kh != null) {
+						hash[sp] = 31 * hash[sp] + kh.hash;
+					} else {
+						if (++sp == stack.length) {
+							stack = ArrayCopy.copyOf(stack, sp * 2);
+							index = ArrayCopy.copyOf(index, sp * 2);
+							hash = ArrayCopy.copyOf(hash, sp * 2);
+						}
+						stack[sp] = ke;
+						index[sp] = 0;
+						hash[sp] = ke.headHash();
+					}
+				} else {
+					hash[sp] = 31 * hash[sp] + k.treeHash();
+				}
+			} else {
+				// all the child Elements are now observed, so this one is too.
+				final int h = hash[sp];
+				e.treeStamp |= 1;
+				// publish the hash and its stamp together, for concurrent readers.
+				e.treeHashCache = new TreeHash(e.treeStamp, h);
+				stack[sp--] = null;
+				if (sp >= 0) {
+					hash[sp] = 31 * hash[sp] + h;
+				}
+			}
+		}
+		return hash[0];
+	}
+
+	/**
+	 * @return the cached tree hash, or null if the tree has changed since it
+	 *         was calculated.
+	 */
+	private final TreeHash validTreeHash() {
+		final TreeHash cached = treeHashCache;
+		final int stamp = treeStamp;
+		return cached != null && (stamp & 1) != 0 && cached.stamp == stamp
+				? cached : null;
+	}
+
+	/**
+	 * A tree hash and the tree stamp it was calculated for. The fields are
+	 * final so a reader never sees one without the other.
+	 */
+	private static final class TreeHash {
+		final int stamp;
+		final int hash;
+
+		TreeHash(final int stamp, final int hash) {
+			this.stamp = stamp;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * The hash of the name, Namespace URI, and attributes of this Element.
+	 * @return the hash of this Element excluding its content.
+	 */
+	private final int headHash() {
+		int h = 31 * (31 * ctype.ordinal() + name.hashCode())
+				+ namespace.getURI().hashCode();
+		// an empty AttributeList is the same as none at all.
+		if (hasAttributes()) {
+			int ah = 0;
+			for (int i = attributes.size() - 1; i >= 0; i--) {
+				// sum, so that the order of attributes is irrelevant.
+				ah += attributes.get(i).treeHash();
+			}
+			h = 31 * h + ah;
+		}
+		return h;
+	}
+
+	@Override
+	int treeHash() {
+		return getTreeHash();
+	}
+
+	/**
+	 * Called whenever this Element, or any Content or Attribute it contains,
+	 * is modified. Changes the stamp of this Element and every ancestor whose
+	 * stamp has been observed. Ancestors of an unobserved Element are never
+	 * observed, so the walk can stop at the first one.
+	 */
+	final void treeModified() {
+		Element e = this;
+		while ((e.treeStamp & 1) != 0) {
+			e.treeStamp++;
+			if (!(e.parent instanceof Element)) {
+				return;
+			}
+			e = (Element)e.parent;
+		}
+	}
+
 	@Override
 	public int indexOf(final Content child) {
 		return content.indexOf(child);
@@ -521,21 +847,35 @@ public class Element extends Content implements Parent {
 			return "";
 		}
 
-		// Else build String up
-		final StringBuilder textContent = new StringBuilder();
-		boolean hasText = false;
-
-		for (int i = 0; i < content.size(); i++) {
+		// Else build String up, sized exactly, or return the only Text.
+		Text first = null;
+		int count = 0;
+		int len = 0;
+		final int size = content.size();
+		for (int i = 0; i < size; i++) {
 			final Object obj = content.get(i);
 			if (obj instanceof Text) {
-				textContent.append(((Text) obj).getText());
-				hasText = true;
+				if (first == null) {
+					first = (Text)obj;
+				}
+				count++;
+				len += ((Text) obj).getText().length();
 			}
 		}
 
-		if (!hasText) {
+		if (count == 0) {
 			return "";
 		}
+		if (count == 1) {
+			return first.getText();
+		}
+		final StringBuilder textContent = new StringBuilder(len);
+		for (int i = 0; i < size; i++) {
+			final Object obj = content.get(i);
+			if (obj instanceof Text) {
+				textContent.append(((Text) obj).getText());
+			}
+		}
 		return textContent.toString();
 	}
 
@@ -805,14 +1145,7 @@ public class Element extends Content implements Parent {
 	 */
 	@Override
 	public <F extends Content> List<F> removeContent(final Filter<F> filter) {
-		final List<F> old = new ArrayList<F>();
-		final Iterator<F> iter = content.getView(filter).iterator();
-		while (iter.hasNext()) {
-			final F child = iter.next();
-			old.add(child);
-			iter.remove();
-		}
-		return old;
+		return content.removeIf(filter);
 	}
 
 	/**
@@ -1505,7 +1838,7 @@ public class Element extends Content implements Parent {
 	 */
 	@Override
 	public <F extends Content> IteratorIterable<F> getDescendants(final Filter<F> filter) {
-		return new FilterIterator<F>(new DescendantIterator(this), filter);
+		return new FilterIterator<F>(new DescendantIterator(this, filter), filter);
 	}
 
 
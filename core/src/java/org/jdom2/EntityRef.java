@@ -187,6 +187,7 @@ public class EntityRef extends Content {
 			throw new IllegalNameException(name, "EntityRef", reason);
 		}
 		this.name = name;
+		valueChanged();
 		return this;
 	}
 
@@ -204,6 +205,7 @@ public class EntityRef extends Content {
 			throw new IllegalDataException(publicID, "EntityRef", reason);
 		}
 		this.publicID = publicID;
+		valueChanged();
 		return this;
 	}
 
@@ -221,6 +223,7 @@ public class EntityRef extends Content {
 			throw new IllegalDataException(systemID, "EntityRef", reason);
 		}
 		this.systemID = systemID;
+		valueChanged();
 		return this;
 	}
 
@@ -258,6 +261,13 @@ public class EntityRef extends Content {
 		return (Element)super.getParent();
 	}
 
+	@Override
+	int treeHash() {
+		int h = 31 * ctype.ordinal() + name.hashCode();
+		h = 31 * h + (publicID == null ? 0 : publicID.hashCode());
+		return 31 * h + (systemID == null ? 0 : systemID.hashCode());
+	}
+
 	@Override
 	public EntityRef clone() {
 		return (EntityRef)super.clone();
@@ -138,6 +138,10 @@ public final class JDOMConstants {
 	/** Defined as {@value} */
 	public static final String SAX_FEATURE_NAMESPACE_PREFIXES =
 			"http://xml.org/sax/features/namespace-prefixes";
+	
+	/** Defined as {@value} */
+	public static final String SAX_FEATURE_STRING_INTERNING =
+			"http://xml.org/sax/features/string-interning";
 
 	
 	/**
@@ -173,4 +177,16 @@ public final class JDOMConstants {
 	public static final String JDOM2_PROPERTY_LINE_SEPARATOR =
 			"org.jdom2.output.LineSeparator";
 	
+	/**
+	 * System Property queried to obtain the number of levels of indenting
+	 * that are prepared in advance, and shared, for each indent and
+	 * line-separator combination used in formatted output. Deeper levels
+	 * are still indented, but are built as they are needed.
+	 * <p>
+	 * Defined as {@value}
+	 * @see org.jdom2.output.support.FormatStack
+	 */
+	public static final String JDOM2_PROPERTY_INDENT_DEPTH =
+			"org.jdom2.output.support.FormatStack.depth";
+	
 }
@@ -58,8 +58,8 @@ import static org.jdom2.JDOMConstants.*;
 
 import java.io.InvalidObjectException;
 import java.io.Serializable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 
 /**
  * An XML namespace representation, as well as a factory for creating XML
@@ -80,15 +80,172 @@ import java.util.concurrent.ConcurrentMap;
  */
 public final class Namespace implements Serializable {
 
-	/** 
-	 * Factory list of namespaces. 
-	 * Keys are <i>URI</i>&amp;<i>prefix</i>. 
-	 * Values are Namespace objects 
+	/**
+	 * The factory table of Namespaces. The table is keyed on the combined
+	 * <i>URI</i> and <i>prefix</i>, and holds the Namespace instances
+	 * weakly. A Namespace that is in use anywhere (Elements, Attributes, or
+	 * user code) is always the one returned by getNamespace(), so identity
+	 * is preserved, but Namespaces that are no longer used are released,
+	 * instead of being held forever.
+	 * <p>
+	 * The table is split in to segments that are locked independently. Reads
+	 * do not lock at all: the chains are immutable, and a miss is re-checked
+	 * while holding the segment's lock.
 	 */
-	
-	private static final ConcurrentMap<String, ConcurrentMap<String, Namespace>> 
-			namespacemap = new ConcurrentHashMap
-			<String, ConcurrentMap<String,Namespace>>(512, 0.75f, 64);
+	private static final class NamespaceTable {
+
+		private static final class Entry extends WeakReference<Namespace> {
+			private final int hash;
+			private final Entry next;
+
+			Entry(final Namespace ns, final int hash, final Entry next,
+					final ReferenceQueue<Namespace> queue) {
+				super(ns, queue);
+				this.hash = hash;
+				this.next = next;
+			}
+		}
+
+		private static final class Segment {
+			private final ReferenceQueue<Namespace> queue =
+					new ReferenceQueue<Namespace>();
+			private volatile Entry[] table = new Entry[32];
+			private int count = 0;
+
+			Namespace get(final String prefix, final String uri, final int hash) {
+				final Entry[] tab = table;
+				Entry e = tab[hash & (tab.length - 1)];
+				while (e != null) {
+					if (e.hash == hash) {
+						final Namespace ns = e.get();
+						if (ns != null && ns.uri.equals(uri)
+								&& ns.prefix.equals(prefix)) {
+							return ns;
+						}
+					}
+					e = e.next;
+				}
+				return null;
+			}
+
+			synchronized Namespace putIfAbsent(final Namespace ns, final int hash) {
+				purge();
+				final Namespace prev = get(ns.prefix, ns.uri, hash);
+				if (prev != null) {
+					return prev;
+				}
+				Entry[] tab = table;
+				if (count >= (tab.length >>> 1) + (tab.length >>> 2)) {
+					tab = resize(tab);
+				}
+				final int idx = hash & (tab.length - 1);
+				tab[idx] = new Entry(ns, hash, tab[idx], queue);
+				count++;
+				// write the volatile to publish the new entry.
+				table = tab;
+				return ns;
+			}
+
+			/**
+			 * Remove the entries of any Namespaces that have been collected.
+			 * Only called while holding the lock.
+			 */
+			private void purge() {
+				Entry stale = null;
+				while ((stale = (Entry)queue.poll()) != null) {
+					final Entry[] tab = table;
+					final int idx = stale.hash & (tab.length - 1);
+					final Entry first = tab[idx];
+					// chains are immutable, rebuild the part before the
+					// stale entry.
+					Entry e = first;
+					while (e != null && e != stale) {
+						e = e.next;
+					}
+					if (e == null) {
+						// already removed by a resize.
+						continue;
+					}
+					Entry chain = stale.next;
+					for (e = first; e != stale; e = e.next) {
+						final Namespace ns = e.get();
+						if (ns != null) {
+							chain = new Entry(ns, e.hash, chain, queue);
+						} else {
+							count--;
+						}
+					}
+					tab[idx] = chain;
+					count--;
+					table = tab;
+				}
+			}
+
+			private Entry[] resize(final Entry[] tab) {
+				final Entry[] ntab = new Entry[tab.length << 1];
+				final int mask = ntab.length - 1;
+				int live = 0;
+				for (Entry e : tab) {
+					while (e != null) {
+						final Namespace ns = e.get();
+						if (ns != null) {
+							final int idx = e.hash & mask;
+							ntab[idx] = new Entry(ns, e.hash, ntab[idx], queue);
+							live++;
+						}
+						e = e.next;
+					}
+				}
+				count = live;
+				return ntab;
+			}
+
+			synchronized int size() {
+				purge();
+				return count;
+			}
+		}
+
+		private final Segment[] segments = new Segment[16];
+
+		NamespaceTable() {
+			for (int i = 0; i < segments.length; i++) {
+				segments[i] = new Segment();
+			}
+		}
+
+		private static int hash(final String prefix, final String uri) {
+			int h = uri.hashCode() * 31 + prefix.hashCode();
+			// spread the bits, the high ones choose the segment.
+			h ^= (h >>> 20) ^ (h >>> 12);
+			return h ^ (h >>> 7) ^ (h >>> 4);
+		}
+
+		private Segment segment(final int hash) {
+			return segments[(hash >>> 28) & (segments.length - 1)];
+		}
+
+		Namespace get(final String prefix, final String uri) {
+			final int hash = hash(prefix, uri);
+			return segment(hash).get(prefix, uri, hash);
+		}
+
+		Namespace putIfAbsent(final Namespace ns) {
+			final int hash = hash(ns.prefix, ns.uri);
+			return segment(hash).putIfAbsent(ns, hash);
+		}
+
+		int size() {
+			int size = 0;
+			for (Segment seg : segments) {
+				size += seg.size();
+			}
+			return size;
+		}
+	}
+
+	/** Factory table of namespaces. */
+	private static final NamespaceTable namespaces = new NamespaceTable();
 	
 	/** Define a <code>Namespace</code> for when <i>not</i> in a namespace */
 	public static final Namespace NO_NAMESPACE = new Namespace(NS_PREFIX_DEFAULT, 
@@ -102,22 +259,24 @@ public final class Namespace implements Serializable {
 	        NS_URI_XMLNS);
 	
 	static {
-		// pre-populate the map with the constant namespaces that would 
-		// otherwise fail validation
-		final ConcurrentMap<String,Namespace> nmap = 
-				new ConcurrentHashMap<String, Namespace>();
-		nmap.put(NO_NAMESPACE.getPrefix(), NO_NAMESPACE);
-		namespacemap.put(NO_NAMESPACE.getURI(), nmap);
-
-		final ConcurrentMap<String,Namespace> xmap = 
-				new ConcurrentHashMap<String, Namespace>();
-		xmap.put(XML_NAMESPACE.getPrefix(), XML_NAMESPACE);
-		namespacemap.put(XML_NAMESPACE.getURI(), xmap);
-
-		final ConcurrentMap<String,Namespace> xnsmap = 
-		        new ConcurrentHashMap<String, Namespace>();
-		xnsmap.put(XMLNS_NAMESPACE.getPrefix(), XMLNS_NAMESPACE);
-		namespacemap.put(XMLNS_NAMESPACE.getURI(), xnsmap);
+		// pre-populate the table with the constant namespaces that would 
+		// otherwise fail validation. The constants keep them live.
+		namespaces.putIfAbsent(NO_NAMESPACE);
+		namespaces.putIfAbsent(XML_NAMESPACE);
+		namespaces.putIfAbsent(XMLNS_NAMESPACE);
+	}
+
+	/**
+	 * Get the number of Namespace instances currently held by the
+	 * {@link #getNamespace(String, String)} factory. Namespaces that are no
+	 * longer used anywhere are released by the factory, so this number goes
+	 * down as well as up. It is intended for monitoring.
+	 * 
+	 * @return the number of Namespaces in the factory table.
+	 * @since JDOM2
+	 */
+	public static int getNamespaceTableSize() {
+		return namespaces.size();
 	}
 
 	/**
@@ -153,39 +312,16 @@ public final class Namespace implements Serializable {
 					"Namespace URIs must be non-null and non-empty Strings");
 		}
 
-		// must have checked for 'null' uri else namespacemap throws NPE
 		// do not 'trim' uri's any more see issue #50
-		ConcurrentMap<String, Namespace> urimap = namespacemap.get(uri);
-		if (urimap == null) {
-			// no Namespaces yet with that URI.
-			// Ensure proper naming
-			String reason;
-			if ((reason = Verifier.checkNamespaceURI(uri)) != null) {
-				throw new IllegalNameException(uri, "Namespace URI", reason);
-			}
-
-			urimap = new ConcurrentHashMap<String, Namespace>();
-			final ConcurrentMap<String, Namespace> xmap = 
-					namespacemap.putIfAbsent(uri, urimap);
-			
-			if (xmap != null) {
-				// some other thread registered this URI between when we
-				// first checked, and when we got a new map created.
-				// we must use the already-registered value.
-				urimap = xmap;
-			}
-		}
-		
-		// OK, we have a container for the URI, let's search on the prefix.
-		
-		Namespace ns = urimap.get(prefix == null ? NS_PREFIX_DEFAULT : prefix);
+		final String pfx = prefix == null ? NS_PREFIX_DEFAULT : prefix;
+		Namespace ns = namespaces.get(pfx, uri);
 		if (ns != null) {
 			// got one.
 			return ns;
 		}
 		
-		// OK, no namespace yet for that uri/prefix
-		// validate the prefix (the uri is already validated).
+		// OK, no namespace (in use) for that uri/prefix
+		// validate the prefix and uri.
 		
 		if (NS_URI_DEFAULT.equals(uri)) {
 			// we have an attempt for some prefix
@@ -211,10 +347,12 @@ public final class Namespace implements Serializable {
                     "only the '" + NS_PREFIX_XMLNS + "' prefix.");        
         }
 
-		// no namespace found, we validate the prefix
-		final String pfx = prefix == null ? NS_PREFIX_DEFAULT : prefix;
-		
 		String reason;
+		if ((reason = Verifier.checkNamespaceURI(uri)) != null) {
+			throw new IllegalNameException(uri, "Namespace URI", reason);
+		}
+
+		// no namespace found, we validate the prefix
 		
         // http://www.w3.org/TR/REC-xml-names/#xmlReserved 
 		// checkNamespacePrefix no longer checks for xml prefix
@@ -239,14 +377,9 @@ public final class Namespace implements Serializable {
 		}
 		
 		// OK, good bet that we have a new Namespace.
-		ns = new Namespace(pfx, uri);
-		final Namespace prev = urimap.putIfAbsent(pfx, ns);
-		if (prev != null) {
-			// someone registered the same namespace as us while we were busy 
-			// validating. Use their registered copy.
-			ns = prev;
-		}
-		return ns;
+		// If someone registered the same namespace as us while we were busy 
+		// validating, then we get their registered copy.
+		return namespaces.putIfAbsent(new Namespace(pfx, uri));
 	}
 
 	/** The prefix mapped to this namespace */
@@ -148,6 +148,7 @@ public class ProcessingInstruction extends Content {
 		}
 
 		target = newTarget;
+		valueChanged();
 		return this;
 	}
 
@@ -206,6 +207,7 @@ public class ProcessingInstruction extends Content {
 
 		this.rawData = data;
 		this.mapData = parseData(data);
+		valueChanged();
 		return this;
 	}
 
@@ -228,6 +230,7 @@ public class ProcessingInstruction extends Content {
 
 		this.rawData = temp;
 		this.mapData = new LinkedHashMap<String,String>(data);
+		valueChanged();
 		return this;
 	}
 
@@ -267,6 +270,7 @@ public class ProcessingInstruction extends Content {
 
 		this.mapData.put(name, value);
 		this.rawData = toString(mapData);
+		valueChanged();
 		return this;
 	}
 
@@ -281,6 +285,7 @@ public class ProcessingInstruction extends Content {
 	public boolean removePseudoAttribute(String name) {
 		if ((mapData.remove(name)) != null) {
 			rawData = toString(mapData);
+			valueChanged();
 			return true;
 		}
 
@@ -460,6 +465,12 @@ public class ProcessingInstruction extends Content {
 		.toString();
 	}
 
+	@Override
+	int treeHash() {
+		return 31 * (31 * ctype.ordinal() + target.hashCode())
+				+ rawData.hashCode();
+	}
+
 	@Override
 	public ProcessingInstruction clone() {
 		ProcessingInstruction pi = (ProcessingInstruction) super.clone();
@@ -54,6 +54,9 @@
 
 package org.jdom2;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
 import org.jdom2.output.Format;
 
 /**
@@ -79,6 +82,16 @@ public class Text extends Content {
 	// from elharo for a description of why Java characters may not suffice
 	// long term
 	protected String value;
+
+	/**
+	 * Content appended since {@link #value} was last brought up to date.
+	 * While it is non-null it holds the complete text, and it is collapsed
+	 * back in to value the next time the text is read. This keeps a series
+	 * of appends (e.g. text delivered in many small chunks) linear.
+	 * Subclasses that read <code>value</code> directly should call
+	 * {@link #getText()} first.
+	 */
+	private transient StringBuilder pending = null;
 	
 	/**
 	 * CData type extends Text, and it needs to be able to change the Content
@@ -119,9 +132,35 @@ public class Text extends Content {
 	 * @return <code>String</code> - character content of this node.
 	 */
 	public String getText() {
+		return collapse();
+	}
+
+	/**
+	 * Bring the value up to date with any pending appends.
+	 * @return the up-to-date value.
+	 */
+	private final String collapse() {
+		final StringBuilder sb = pending;
+		if (sb != null) {
+			value = sb.toString();
+			pending = null;
+		}
 		return value;
 	}
 
+	/**
+	 * Get the buffer that appended content accumulates in, creating it from
+	 * the current value if needed.
+	 * @param extra The number of characters about to be appended.
+	 * @return the pending buffer.
+	 */
+	private final StringBuilder pending(final int extra) {
+		if (pending == null) {
+			pending = new StringBuilder(value.length() + extra + 16).append(value);
+		}
+		return pending;
+	}
+
 	/**
 	 * This returns the textual content with all surrounding whitespace
 	 * removed.  If only whitespace exists, the empty string is returned.
@@ -175,6 +214,8 @@ public class Text extends Content {
 
 		if (str == null) {
 			value = EMPTY_STRING;
+			pending = null;
+			valueChanged();
 			return this;
 		}
 
@@ -182,6 +223,8 @@ public class Text extends Content {
 			throw new IllegalDataException(str, "character content", reason);
 		}
 		value = str;
+		pending = null;
+		valueChanged();
 		return this;
 	}
 
@@ -205,8 +248,39 @@ public class Text extends Content {
 		}
 
 		if (str.length() > 0) {
-			value += str;
+			if (pending == null && value.length() == 0) {
+				value = str;
+			} else {
+				pending(str.length()).append(str);
+			}
+			valueChanged();
+		}
+	}
+
+	/**
+	 * This will append a range of characters to whatever content already
+	 * exists within this <code>Text</code> node, without first creating a
+	 * String from them.
+	 *
+	 * @param chars the characters to append.
+	 * @param start the offset of the first character to append.
+	 * @param len the number of characters to append.
+	 * @throws IllegalDataException if the characters contain an
+	 *         illegal character such as a vertical tab (as determined
+	 *         by {@link org.jdom2.Verifier#checkCharacterData})
+	 * @since JDOM2
+	 */
+	public void append(final char[] chars, final int start, final int len) {
+		if (chars == null || len == 0) {
+			return;
+		}
+		final String reason = Verifier.checkCharacterData(chars, start, len);
+		if (reason != null) {
+			throw new IllegalDataException(new String(chars, start, len),
+					"character content", reason);
 		}
+		pending(len).append(chars, start, len);
+		valueChanged();
 	}
 
 	/**
@@ -219,7 +293,16 @@ public class Text extends Content {
 		if (text == null) {
 			return;
 		}
-		value += text.getText();
+		final String str = text.getText();
+		if (str.length() == 0) {
+			return;
+		}
+		if (pending == null && value.length() == 0) {
+			value = str;
+		} else {
+			pending(str.length()).append(str);
+		}
+		valueChanged();
 	}
 
 	/**
@@ -230,7 +313,7 @@ public class Text extends Content {
 	 */
 	@Override
 	public String getValue() {
-		return value;
+		return collapse();
 	}
 
 	/**
@@ -254,11 +337,22 @@ public class Text extends Content {
 
 	@Override
 	public Text clone() {
+		final String val = collapse();
 		Text text = (Text)super.clone();
-		text.value = value;
+		text.value = val;
 		return text;
 	}
 
+	/**
+	 * Make sure pending appends are part of the serialized value.
+	 * @param out where to write the Text to.
+	 * @throws IOException if the destination fails.
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		collapse();
+		out.defaultWriteObject();
+	}
+
 	@Override
 	public Text detach() {
 		return (Text)super.detach();
@@ -495,6 +495,35 @@ final public class Verifier {
 		return null;
 	}
 
+	/**
+	 * This will check the supplied range of characters in the same way as
+	 * {@link #checkCharacterData(String)}, without first having to create a
+	 * String from them.
+	 *
+	 * @param chars the characters to check.
+	 * @param start the offset of the first character to check.
+	 * @param len the number of characters to check.
+	 * @return <code>String</code> reason the data is illegal, or
+	 *         <code>null</code> if it is OK.
+	 * @since JDOM2
+	 */
+	public static String checkCharacterData(final char[] chars, final int start,
+			final int len) {
+		if (chars == null) {
+			return "A null is not a legal XML value";
+		}
+		final int end = start + len;
+		for (int i = start; i < end; i++) {
+			// see checkCharacterData(String) for why this simple test works.
+			if (CHARFLAGS[chars[i]] == (byte)0) {
+				// surrogate pairs, or a bad char, let the String check sort
+				// out the remainder.
+				return checkCharacterData(new String(chars, i, end - i));
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * This will check the supplied data to see if it is legal for use as
 	 * JDOM <code>{@link CDATA}</code>.
@@ -685,18 +714,9 @@ final public class Verifier {
 	 */
 	public static String checkNamespaceCollision(final Namespace namespace,
 			final Element element, final int ignoreatt) {
-		String reason = checkNamespaceCollision(namespace,
-				element.getNamespace());
+		String reason = checkElementNamespaceCollision(namespace, element);
 		if (reason != null) {
-			return reason + " with the element namespace prefix";
-		}
-
-		if (element.hasAdditionalNamespaces()) {
-			reason = checkNamespaceCollision(namespace,
-					element.getAdditionalNamespaces());
-			if (reason != null) {
-				return reason;
-			}
+			return reason;
 		}
 
 		if (element.hasAttributes()) {
@@ -709,6 +729,31 @@ final public class Verifier {
 		return null;
 	}
 
+	/**
+	 * Check if a <code>{@link Namespace}</code> collides with the namespace
+	 * of an <code>{@link Element}</code>, or with its additional namespaces
+	 * (but not with the namespaces of its attributes).
+	 *
+	 * @param namespace <code>Namespace</code> to check.
+	 * @param element <code>Element</code> to check against.
+	 * @return <code>String</code> reason for collision, or
+	 *         <code>null</code> if no collision.
+	 */
+	static String checkElementNamespaceCollision(final Namespace namespace,
+			final Element element) {
+		final String reason = checkNamespaceCollision(namespace,
+				element.getNamespace());
+		if (reason != null) {
+			return reason + " with the element namespace prefix";
+		}
+
+		if (element.hasAdditionalNamespaces()) {
+			return checkNamespaceCollision(namespace,
+					element.getAdditionalNamespaces());
+		}
+		return null;
+	}
+
 	/**
 	 * Check if a <code>{@link Namespace}</code> collides with a
 	 * <code>{@link Attribute}</code>'s namespace.
@@ -52,7 +52,7 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.CDATASection;
@@ -68,11 +68,28 @@ import org.jdom2.Content;
 
 /**
  * Access JDOM Content using a (Read-Only) DOM model
+ * <p>
+ * Unlike {@link org.jdom2.output.DOMOutputter} nothing is copied: the DOM
+ * nodes are thin wrappers around the JDOM content, they are created lazily
+ * as the DOM model is navigated, and each wrapper is cached so that the same
+ * JDOM content always returns the same DOM Node (within the same wrapped
+ * Document).
+ * <p>
+ * The DOM view is read-only. All methods that would modify the model throw a
+ * DOMException with the code NO_MODIFICATION_ALLOWED_ERR. The JDOM content
+ * should also not be modified while the DOM view is in use: the view
+ * records the structure it has already navigated and will not reflect later
+ * changes.
  * 
  * @author Rolf Lear
- *
+ * @since JDOM2
  */
 public final class DOM {
+
+	private DOM() {
+		// static access only.
+	}
+
 	/**
 	 * Wrap a JDOM Document in a org.w3c.dom.Document instance.
 	 * @param doc The JDOM Document to wrap.
@@ -52,8 +52,9 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 
 import org.w3c.dom.Attr;
@@ -128,8 +129,12 @@ final class JAttribute extends JNamespaceAware implements Attr {
 	}
 	@Override
 	public String getBaseURI() {
+		if (attribute.getParent() == null) {
+			return null;
+		}
 		try {
-			return attribute.getParent().getXMLBaseURI().toASCIIString();
+			final URI base = attribute.getParent().getXMLBaseURI();
+			return base == null ? null : base.toASCIIString();
 		} catch (final URISyntaxException e) {
 			throw new IllegalStateException("Unable to process URI", e);
 		}
@@ -52,7 +52,7 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import org.w3c.dom.DOMConfiguration;
 import org.w3c.dom.DOMException;
@@ -52,12 +52,13 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.CDATASection;
@@ -94,6 +95,8 @@ class JDocument extends JParent implements Document {
 	private static final JDOMConfiguration configuration =
 			new JDOMConfiguration();
 
+	private static final Namespace[] NODECLARATIONS = new Namespace[0];
+
 	private boolean allscanned = false;
 	private final JElement root;
 	private final JDocType doctype;
@@ -137,15 +140,29 @@ class JDocument extends JParent implements Document {
 		allscanned = true;
 		final Iterator<org.jdom2.Element> it = shadow.getDescendants(Filters.element());
 		while (it.hasNext()) {
-			find(it.next());
+			final org.jdom2.Element emt = it.next();
+			if (emt.hasAttributes()) {
+				checkID(emt);
+			}
 		}
 	}
 
+	/*
+	 * Wrappers are created by their parent JParent when it hydrates its
+	 * children (and by JElement when it builds its attributes). Those
+	 * wrappers are the 'real' ones. The find() methods locate the wrapper
+	 * for arbitrary JDOM content by finding the parent wrapper and then
+	 * indexing in to its children. The results of find() are cached in the
+	 * 'mapped' identity map, but plain navigation of the DOM model never
+	 * needs to touch the map.
+	 */
+
 	public JElement find(final org.jdom2.Element emt) {
 		final JNamespaceAware me = mapped.get(emt);
 		if (me != null) {
 			return (JElement)me;
 		}
+		final JElement ret;
 		final org.jdom2.Element jp = emt.getParentElement();
 		if (jp == null) {
 			// root level element (or detached).
@@ -156,31 +173,95 @@ class JDocument extends JParent implements Document {
 				throw new DOMException(DOMException.WRONG_DOCUMENT_ERR,
 						"Element is not part of our document");
 			}
-			// OK, we are a root level Element... let's map ourselves.
-			final NamespaceStack ns = new NamespaceStack(scope);
-			ns.push(emt);
-			final ArrayList<Namespace> added = new ArrayList<Namespace>();
-			for (final Namespace ans : ns.addedForward()) {
-				added.add(ans);
+			ret = jd == null ? wrap(this, emt) : (JElement)childWrapper(emt);
+		} else {
+			ret = (JElement)find(jp).childWrapper(emt);
+		}
+		mapped.put(emt, ret);
+		return ret;
+	}
+
+	private static final boolean inScope(final Namespace ns,
+			final Namespace[] pscope) {
+		for (int i = 0; i < pscope.length; i++) {
+			if (pscope[i] == ns) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns true if the Element does not change the namespace scope of
+	 * its parent. This is the common case, and it means the parent's scope
+	 * array can be shared instead of building a new NamespaceStack.
+	 */
+	private static final boolean sameScope(final org.jdom2.Element emt,
+			final Namespace[] pscope) {
+		final Namespace mns = emt.getNamespace();
+		if (mns != pscope[0] || emt.hasAdditionalNamespaces()) {
+			return false;
+		}
+		if (emt.hasAttributes()) {
+			final List<Attribute> atts = emt.getAttributes();
+			for (int i = atts.size() - 1; i >= 0; i--) {
+				final Namespace ans = atts.get(i).getNamespace();
+				if (ans != Namespace.NO_NAMESPACE && ans != mns
+						&& !inScope(ans, pscope)) {
+					return false;
+				}
 			}
-			final JElement je = new JElement(this, this, emt, ns.getScope(),
-					added.toArray(new Namespace[added.size()]));
-			mapped.put(emt, je);
-			checkID(je);
-			return je;
 		}
-		final JElement pnt = find(jp);
+		return true;
+	}
+
+	/**
+	 * Create the wrapper for an Element that is a child of the given parent.
+	 */
+	JElement wrap(final JParent pnt, final org.jdom2.Element emt) {
+		if (sameScope(emt, pnt.scope)) {
+			return new JElement(this, pnt, emt, pnt.scope, NODECLARATIONS);
+		}
 		final NamespaceStack ns = new NamespaceStack(pnt.scope);
 		ns.push(emt);
 		final ArrayList<Namespace> added = new ArrayList<Namespace>();
 		for (final Namespace ans : ns.addedForward()) {
 			added.add(ans);
 		}
-		final JElement ret = new JElement(this, pnt, emt, ns.getScope(),
+		return new JElement(this, pnt, emt, ns.getScope(),
 				added.toArray(new Namespace[added.size()]));
-		mapped.put(emt, ret);
-		checkID(ret);
-		return ret;
+	}
+
+	/**
+	 * Create the wrapper for an Attribute of the given parent.
+	 */
+	JAttribute wrap(final JParent pnt, final org.jdom2.Attribute att) {
+		final NamespaceStack ns = new NamespaceStack(pnt.scope);
+		ns.push(att);
+		return new JAttribute(this, pnt, att, ns.getScope());
+	}
+
+	/**
+	 * Create the wrapper for non-Element content of the given parent.
+	 */
+	JContent wrap(final JParent pnt, final org.jdom2.Content content) {
+		switch (content.getCType()) {
+			case CDATA:
+				return new JCDATA(this, pnt, content, pnt.scope);
+			case Comment:
+				return new JComment(this, pnt, content, pnt.scope);
+			case DocType:
+				return new JDocType(this, pnt, content, pnt.scope);
+			case EntityRef:
+				return new JEntityRef(this, pnt, content, pnt.scope);
+			case ProcessingInstruction:
+				return new JProcessingInstruction(this, pnt, content, pnt.scope);
+			case Text:
+				return new JText(this, pnt, content, pnt.scope);
+			default:
+				throw new IllegalStateException(
+						"Other types should have their own methods.");
+		}
 	}
 
 	public JAttribute find(final org.jdom2.Attribute att) {
@@ -189,13 +270,10 @@ class JDocument extends JParent implements Document {
 			return (JAttribute)me;
 		}
 		final org.jdom2.Element jp = att.getParent();
-		final JParent pnt = jp == null ? this : find(jp);
-		final NamespaceStack ns = jp == null ?
-				new NamespaceStack() : new NamespaceStack(find(jp).scope);
-				ns.push(att);
-				final JAttribute ret = new JAttribute(this, pnt, att, ns.getScope());
-				mapped.put(att, ret);
-				return ret;
+		final JAttribute ret = jp == null ? wrap(this, att)
+				: find(jp).attributeWrapper(att);
+		mapped.put(att, ret);
+		return ret;
 	}
 
 	private JContent findContent(final org.jdom2.Content content) {
@@ -203,31 +281,18 @@ class JDocument extends JParent implements Document {
 		if (me != null) {
 			return (JContent)me;
 		}
-		final org.jdom2.Element jp = content.getParentElement();
-		final JParent pnt = jp == null ? this : find(jp);
-		JContent ret = null;
-		switch (content.getCType()) {
-			case CDATA:
-				ret = new JCDATA(this, pnt, content, pnt.scope);
-				break;
-			case Comment:
-				ret = new JComment(this, pnt, content, pnt.scope);
-				break;
-			case DocType:
-				ret = new JDocType(this, pnt, content, pnt.scope);
-				break;
-			case EntityRef:
-				ret = new JEntityRef(this, pnt, content, pnt.scope);
-				break;
-			case ProcessingInstruction:
-				ret = new JProcessingInstruction(this, pnt, content, pnt.scope);
-				break;
-			case Text:
-				ret = new JText(this, pnt, content, pnt.scope);
-				break;
-			default:
-				throw new IllegalStateException(
-						"Other types should have their own methods.");
+		final Parent jp = content.getParent();
+		final JContent ret;
+		if (jp == null) {
+			// detached content.
+			ret = wrap(this, content);
+		} else if (jp instanceof org.jdom2.Element) {
+			ret = (JContent)find((org.jdom2.Element)jp).childWrapper(content);
+		} else if (jp == shadow) {
+			ret = (JContent)childWrapper(content);
+		} else {
+			throw new DOMException(DOMException.WRONG_DOCUMENT_ERR,
+					"Content is not part of our document");
 		}
 		mapped.put(content, ret);
 		return ret;
@@ -258,12 +323,11 @@ class JDocument extends JParent implements Document {
 		return (JText)findContent(content);
 	}
 
-	private void checkID(final JElement je) {
-		final org.jdom2.Element emt = (org.jdom2.Element)(je.shadow);
+	private void checkID(final org.jdom2.Element emt) {
 		if (emt.hasAttributes()) {
 			for (final Attribute a : emt.getAttributes()) {
 				if (a.getAttributeType() == AttributeType.ID) {
-					if (idmap.put(a.getValue(), je) != null) {
+					if (idmap.put(a.getValue(), find(emt)) != null) {
 						throw new DOMException(DOMException.INVALID_STATE_ERR,
 								"Multiple elements with id " + a.getValue());
 					}
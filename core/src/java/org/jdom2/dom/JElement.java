@@ -52,8 +52,9 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Iterator;
 import java.util.List;
@@ -182,7 +183,7 @@ class JElement extends JParent implements Element {
 					ja[i] = new JNamespace(topdoc, this, nsdec[i], scope);
 				}
 				for (int i = 0; i < sz; i++) {
-					ja[nsdec.length + i] = topdoc.find(list.get(i));
+					ja[nsdec.length + i] = topdoc.wrap(this, list.get(i));
 				}
 				attmap = new AttMap(ja);
 			} else {
@@ -192,6 +193,20 @@ class JElement extends JParent implements Element {
 		return attmap;
 	}
 
+	/**
+	 * Get the wrapper for one of the JDOM attributes of this element.
+	 * @param att The JDOM Attribute
+	 * @return the wrapper for that Attribute.
+	 */
+	final JAttribute attributeWrapper(final Attribute att) {
+		final int index = ((org.jdom2.Element)shadow).getAttributes().indexOf(att);
+		if (index < 0) {
+			throw new DOMException(DOMException.NOT_FOUND_ERR,
+					"Attribute is not on this Element");
+		}
+		return (JAttribute)getAttributes().item(nsdec.length + index);
+	}
+
 	@Override
 	public final String getNamespaceURI() {
 		return ((org.jdom2.Element)shadow).getNamespaceURI();
@@ -210,7 +225,8 @@ class JElement extends JParent implements Element {
 	@Override
 	public final String getBaseURI() {
 		try {
-			return ((org.jdom2.Element)shadow).getXMLBaseURI().toASCIIString();
+			final URI base = ((org.jdom2.Element)shadow).getXMLBaseURI();
+			return base == null ? null : base.toASCIIString();
 		} catch (final URISyntaxException e) {
 			throw new IllegalStateException("Broken base URI references.", e);
 		}
@@ -234,8 +250,7 @@ class JElement extends JParent implements Element {
 
 	@Override
 	public TypeInfo getSchemaTypeInfo() {
-		// TODO Auto-generated method stub
-		return null;
+		return TYPEINFO;
 	}
 
 	@Override
@@ -255,7 +270,8 @@ class JElement extends JParent implements Element {
 
 	@Override
 	public final boolean hasAttributes() {
-		return ((org.jdom2.Element)shadow).hasAttributes();
+		// namespace declarations are reported as attributes in getAttributes()
+		return nsdec.length > 0 || ((org.jdom2.Element)shadow).hasAttributes();
 	}
 
 	@Override
@@ -52,7 +52,7 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import org.w3c.dom.DOMException;
 import org.w3c.dom.EntityReference;
@@ -80,8 +80,8 @@ class JEntityRef extends JSimpleContent implements EntityReference {
 
 	@Override
 	public String getTextContent() throws DOMException {
-		throw new DOMException(DOMException.NO_MODIFICATION_ALLOWED_ERR,
-				"Cannot modify JDOM Wrapper DOM objects.");
+		// JDOM EntityRef instances never have child nodes.
+		return "";
 	}
 
 }
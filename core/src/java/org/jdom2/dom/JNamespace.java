@@ -52,7 +52,7 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.DOMException;
@@ -109,11 +109,13 @@ final class JNamespace extends JNamespaceAware implements Attr {
 	}
 	@Override
 	public String getNamespaceURI() {
-		return "".equals(ns.getPrefix()) ? "" : JDOMConstants.NS_URI_XMLNS;
+		// DOM puts all namespace declarations (including the default) in
+		// the xmlns namespace.
+		return JDOMConstants.NS_URI_XMLNS;
 	}
 	@Override
 	public String getPrefix() {
-		return "".equals(ns.getPrefix()) ? "" : JDOMConstants.NS_PREFIX_XMLNS;
+		return "".equals(ns.getPrefix()) ? null : JDOMConstants.NS_PREFIX_XMLNS;
 	}
 	@Override
 	public String getLocalName() {
@@ -133,7 +135,7 @@ final class JNamespace extends JNamespaceAware implements Attr {
 	}
 	@Override
 	public String getName() {
-		return "".equals(ns.getPrefix()) ? ns.getPrefix() : (JDOMConstants.NS_PREFIX_XMLNS + ":" + ns.getPrefix());
+		return "".equals(ns.getPrefix()) ? JDOMConstants.NS_PREFIX_XMLNS : (JDOMConstants.NS_PREFIX_XMLNS + ":" + ns.getPrefix());
 	}
 	@Override
 	public boolean getSpecified() {
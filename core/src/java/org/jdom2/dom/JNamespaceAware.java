@@ -52,7 +52,7 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import org.jdom2.Namespace;
 
@@ -88,8 +88,10 @@ abstract class JNamespaceAware extends JNode {
 
 	@Override
 	public final String lookupNamespaceURI(final String prefix) {
+		// DOM uses null to look up the default namespace.
+		final String pfx = prefix == null ? "" : prefix;
 		for (int i = 0; i < scope.length; i++) {
-			if (scope[i].getPrefix().equals(prefix)) {
+			if (scope[i].getPrefix().equals(pfx)) {
 				return scope[i].getURI();
 			}
 		}
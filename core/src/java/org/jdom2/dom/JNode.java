@@ -52,7 +52,7 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -153,6 +153,12 @@ abstract class JNode implements Node, Wrapper {
 
 	private HashMap<String, Object> userdata;
 
+	/**
+	 * The position of this node in the parent's child list, set when the
+	 * parent hydrates its children. -1 until then (and for Attr nodes).
+	 */
+	int siblingIndex = -1;
+
 	JNode(final JDocument topdoc, final JParent parent, final short nodetype) {
 		// the rule is that only JDocument constructor can pass a null topdoc.
 		this.topdoc = topdoc == null ? (JDocument)this : topdoc;
@@ -52,23 +52,18 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import java.util.List;
 
+import org.w3c.dom.DOMException;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
-import org.jdom2.CDATA;
-import org.jdom2.Comment;
 import org.jdom2.Content;
-import org.jdom2.DocType;
 import org.jdom2.Element;
-import org.jdom2.EntityRef;
 import org.jdom2.Namespace;
 import org.jdom2.Parent;
-import org.jdom2.ProcessingInstruction;
-import org.jdom2.Text;
 
 abstract class JParent extends JNamespaceAware implements NodeList {
 
@@ -90,23 +85,10 @@ abstract class JParent extends JNamespaceAware implements NodeList {
 
 
 	private final JNamespaceAware hydrate(final Content k) {
-		switch(k.getCType()) {
-			case CDATA:
-				return topdoc.find((CDATA)k);
-			case Comment:
-				return topdoc.find((Comment)k);
-			case DocType:
-				return topdoc.find((DocType)k);
-			case Element:
-				return topdoc.find((Element)k);
-			case EntityRef:
-				return topdoc.find((EntityRef)k);
-			case ProcessingInstruction:
-				return topdoc.find((ProcessingInstruction)k);
-			case Text:
-				return topdoc.find((Text)k);
+		if (k instanceof Element) {
+			return topdoc.wrap(this, (Element)k);
 		}
-		throw new IllegalStateException("Unexpected content " + k);
+		return topdoc.wrap(this, k);
 	}
 
 	protected final JNamespaceAware[] checkKids() {
@@ -123,29 +105,44 @@ abstract class JParent extends JNamespaceAware implements NodeList {
 		kids = new JNamespaceAware[content.size()];
 		for (int i = 0; i < kids.length; i++) {
 			kids[i] = hydrate( content.get(i) );
+			kids[i].siblingIndex = i;
 		}
 
 		return kids;
 	}
 
+	/**
+	 * Get the wrapper for one of the JDOM children of this parent.
+	 * @param child The JDOM child content
+	 * @return the wrapper for that content.
+	 */
+	final JNamespaceAware childWrapper(final Content child) {
+		checkKids();
+		final int index = shadow == null ? -1 : shadow.indexOf(child);
+		if (index < 0 || index >= kids.length) {
+			throw new DOMException(DOMException.NOT_FOUND_ERR,
+					"Content is not a child of this Node (has it been " +
+					"added since the DOM view was created?)");
+		}
+		return kids[index];
+	}
+
 	protected final JNode getPreviousSibling(final JNode jNode) {
 		checkKids();
-		for (int i = 0; i < kids.length; i++) {
-			if (kids[i] == jNode) {
-				return i > 0 ? kids[i - 1] : null;
-			}
+		final int i = jNode.siblingIndex;
+		if (i < 0 || i >= kids.length || kids[i] != jNode) {
+			return null;
 		}
-		return null;
+		return i > 0 ? kids[i - 1] : null;
 	}
 
 	protected final JNode getNextSibling(final JNode jNode) {
 		checkKids();
-		for (int i = 0; i < kids.length; i++) {
-			if (kids[i] == jNode) {
-				return i < kids.length - 1 ? kids[i + 1] : null;
-			}
+		final int i = jNode.siblingIndex;
+		if (i < 0 || i >= kids.length || kids[i] != jNode) {
+			return null;
 		}
-		return null;
+		return i < kids.length - 1 ? kids[i + 1] : null;
 	}
 
 	@Override
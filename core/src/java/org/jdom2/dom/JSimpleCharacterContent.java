@@ -52,7 +52,7 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import org.w3c.dom.CharacterData;
 import org.w3c.dom.DOMException;
@@ -95,7 +95,14 @@ abstract class JSimpleCharacterContent extends JSimpleContent implements Charact
 
 	@Override
 	public final String substringData(final int offset, final int count) throws DOMException {
-		return getData().substring(offset, offset + count);
+		final String data = getData();
+		if (offset < 0 || count < 0 || offset > data.length()) {
+			throw new DOMException(DOMException.INDEX_SIZE_ERR,
+					"Illegal offset " + offset + " or count " + count);
+		}
+		// DOM specifies that an over-long count returns the remaining data.
+		final int end = count > data.length() - offset ? data.length() : offset + count;
+		return data.substring(offset, end);
 	}
 
 	@Override
@@ -52,9 +52,10 @@
 
  */
 
-package org.jdom2.contrib.dom;
+package org.jdom2.dom;
 
 import org.w3c.dom.DOMException;
+import org.w3c.dom.Node;
 import org.w3c.dom.Text;
 
 import org.jdom2.Content;
@@ -86,7 +87,21 @@ class JText extends JSimpleCharacterContent implements Text {
 
 	@Override
 	public final String getWholeText() {
-		return getData();
+		Node first = this;
+		Node prev = getPreviousSibling();
+		while (prev instanceof Text) {
+			first = prev;
+			prev = prev.getPreviousSibling();
+		}
+		if (first == this && !(getNextSibling() instanceof Text)) {
+			// the common case - no logically-adjacent text.
+			return getData();
+		}
+		final StringBuilder sb = new StringBuilder();
+		for (Node n = first; n instanceof Text; n = n.getNextSibling()) {
+			sb.append(((Text)n).getData());
+		}
+		return sb.toString();
 	}
 
 	@Override
@@ -0,0 +1,1492 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.input;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.xml.sax.SAXParseException;
+
+import org.jdom2.AttributeType;
+import org.jdom2.DefaultJDOMFactory;
+import org.jdom2.DocType;
+import org.jdom2.Document;
+import org.jdom2.DocumentBuildListener;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.JDOMFactory;
+import org.jdom2.Namespace;
+import org.jdom2.Verifier;
+
+/**
+ * Builds a JDOM Document from XML that arrives in pieces, without ever
+ * blocking to wait for more input.
+ * <p>
+ * The other builders pull their input from an InputStream, Reader, or
+ * XMLStreamReader, and a thread has to wait inside the build whenever the
+ * input is not yet available. With an AsyncJDOMBuilder the input is pushed
+ * in instead: each chunk of bytes is passed to {@link #feed(ByteBuffer)} as
+ * it arrives, and as much of the Document as the bytes so far allow is built
+ * straight away. When the last chunk has been fed, {@link #endOfInput()}
+ * completes the build and returns the Document. Neither method ever waits for
+ * input, so they can be called from a network event loop.
+ * <p>
+ * The XML is tokenized by the AsyncJDOMBuilder itself, with the following
+ * features (and limits):
+ * <ul>
+ * <li>The encoding is found the same way as a SAX parser does, from a Byte
+ *     Order Mark or the XML declaration, and is UTF-8 otherwise. Any
+ *     encoding Java supports can be used.
+ * <li>Namespaces, CDATA, comments, processing instructions, character
+ *     references and the predefined entities are all supported.
+ * <li>Internal entities declared in the DOCTYPE's internal subset are
+ *     expanded. External entities are never fetched (that would block), they
+ *     are built as {@link org.jdom2.EntityRef} content instead. So are
+ *     references to entities that may be declared in an external DTD (when
+ *     there is one, and the document is not standalone).
+ * <li>Like the JDK's parsers, there may be at most 64000 entity expansions,
+ *     and 50000000 chars of expanded text, in a document.
+ * <li>The document is checked to be well-formed, but not validated. External
+ *     DTDs are not read, so there are no defaulted attributes, and all
+ *     attributes are {@link AttributeType#CDATA}.
+ * </ul>
+ * The names and text are checked by the JDOMFactory's content (so use an
+ * {@link org.jdom2.UncheckedJDOMFactory} only for trusted input).
+ * Any problem with the XML is reported as a {@link JDOMParseException}, and
+ * {@link BuildLimits} can be used to bound the build too.
+ * <p>
+ * An AsyncJDOMBuilder builds one Document at a time, and is not thread-safe,
+ * but it does not care which thread feeds it each chunk. Use
+ * {@link #reset()} to start a new Document.
+ * 
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public class AsyncJDOMBuilder {
+
+	/** Longest entity or character reference name to look for */
+	private static final int MAXREFERENCE = 1024;
+	/** Longest XML declaration to look for when choosing an encoding */
+	private static final int MAXDECLARATION = 1024;
+	/** Most entity expansions in one document, same as the JDK's default */
+	private static final int MAXEXPANSIONS = 64000;
+	/** Most chars of expanded entity text in one document, same as the JDK's default */
+	private static final int MAXEXPANDED = 50000000;
+
+	private final JDOMFactory factory;
+	private boolean ignoringBoundaryWhite = false;
+	private BuildLimits buildLimits = null;
+
+	/* Per-build state, set in reset() */
+	private ByteBuffer bytes = ByteBuffer.allocate(8192);
+	private CharsetDecoder decoder = null;
+	private char[] buf = new char[8192];
+	private int pos = 0;
+	private int end = 0;
+	/** the document offset of buf[0] */
+	private long base = 0;
+	private boolean firstchar = true;
+	private boolean skiplf = false;
+
+	private int line = 1;
+	private long linestart = 0;
+
+	/** Where the search for the end of the current markup resumes */
+	private int resume = -1;
+	private char quote = 0;
+	private int dtdepth = 0;
+
+	private final StringBuilder text = new StringBuilder();
+	private int textline = 0, textcol = 0;
+
+	private final ArrayList<Element> stack = new ArrayList<Element>();
+	private final ArrayList<String> qnames = new ArrayList<String>();
+	private Element current = null;
+	private Document document = null;
+	private final Map<String, String> entities = new HashMap<String, String>();
+	private final Map<String, String[]> externals = new HashMap<String, String[]>();
+	private int expansions = 0;
+	private long expandedchars = 0;
+	/** Whether the document says it is standalone */
+	private boolean standalone = false;
+	/** Whether all the entity declarations are in the internal subset */
+	private boolean alldeclared = true;
+	/** The entities being expanded, innermost last */
+	private final ArrayList<Expansion> expanding = new ArrayList<Expansion>();
+
+	private final ArrayList<String> attnames = new ArrayList<String>();
+	private final ArrayList<String> attvalues = new ArrayList<String>();
+	private final ArrayList<Namespace> declared = new ArrayList<Namespace>();
+
+	private BuildLimits.Tracker tracker = null;
+	private boolean started = false;
+	private boolean finished = false;
+
+	/**
+	 * Create an AsyncJDOMBuilder that uses a {@link DefaultJDOMFactory}.
+	 */
+	public AsyncJDOMBuilder() {
+		this(null);
+	}
+
+	/**
+	 * Create an AsyncJDOMBuilder that builds with the given JDOMFactory.
+	 * @param factory The JDOMFactory to build with (null for the default).
+	 */
+	public AsyncJDOMBuilder(final JDOMFactory factory) {
+		this.factory = factory == null ? new DefaultJDOMFactory() : factory;
+		reset();
+	}
+
+	/**
+	 * @return the JDOMFactory this builder builds with.
+	 */
+	public JDOMFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Returns whether or not the builder will eliminate whitespace-only
+	 * text.
+	 * @return whether only whitespace content will be ignored during build.
+	 * @see #setIgnoringBoundaryWhitespace
+	 */
+	public boolean getIgnoringBoundaryWhitespace() {
+		return ignoringBoundaryWhite;
+	}
+
+	/**
+	 * Specifies whether or not the builder should eliminate boundary
+	 * whitespace. This works the same way as
+	 * {@link SAXBuilder#setIgnoringBoundaryWhitespace(boolean)}. The default
+	 * is <code>false</code>.
+	 * @param ignoringBoundaryWhite Whether to ignore whitespace-only text
+	 */
+	public void setIgnoringBoundaryWhitespace(final boolean ignoringBoundaryWhite) {
+		this.ignoringBoundaryWhite = ignoringBoundaryWhite;
+	}
+
+	/**
+	 * Returns the limits that each build must stay within.
+	 * @return the limits, or null if builds are not limited.
+	 */
+	public BuildLimits getBuildLimits() {
+		return buildLimits;
+	}
+
+	/**
+	 * Set the limits that each build must stay within. The timeout (if any)
+	 * is counted from the first chunk of input, so it includes the time
+	 * spent waiting for the rest of the input to arrive.
+	 * @param limits The limits to apply, or null to not limit builds.
+	 */
+	public void setBuildLimits(final BuildLimits limits) {
+		this.buildLimits = limits;
+	}
+
+	/**
+	 * Discard any build in progress, and get ready to build a new Document.
+	 */
+	public void reset() {
+		bytes.clear();
+		decoder = null;
+		pos = 0;
+		end = 0;
+		base = 0;
+		firstchar = true;
+		skiplf = false;
+		line = 1;
+		linestart = 0;
+		resume = -1;
+		quote = 0;
+		dtdepth = 0;
+		text.setLength(0);
+		stack.clear();
+		qnames.clear();
+		current = null;
+		document = factory.document(null);
+		entities.clear();
+		externals.clear();
+		expansions = 0;
+		expandedchars = 0;
+		standalone = false;
+		alldeclared = true;
+		expanding.clear();
+		tracker = null;
+		started = false;
+		finished = false;
+	}
+
+	/**
+	 * Add the next chunk of input. All the remaining bytes in the buffer are
+	 * used (the buffer's position is moved to its limit). As much of the
+	 * Document as possible is built before this method returns.
+	 * @param data The next chunk of input
+	 * @throws JDOMException if the input is not well-formed, or a
+	 *         BuildLimits limit is broken.
+	 */
+	public void feed(final ByteBuffer data) throws JDOMException {
+		checkState();
+		if (bytes.remaining() < data.remaining()) {
+			final ByteBuffer grown = ByteBuffer.allocate(
+					Math.max(bytes.capacity() * 2, bytes.position() + data.remaining()));
+			bytes.flip();
+			grown.put(bytes);
+			bytes = grown;
+		}
+		bytes.put(data);
+		process(false);
+	}
+
+	/**
+	 * Add the next chunk of input from a byte array. As much of the Document
+	 * as possible is built before this method returns.
+	 * @param data The array containing the input
+	 * @param offset The position of the first byte of input
+	 * @param length The number of bytes of input.
+	 * @throws JDOMException if the input is not well-formed, or a
+	 *         BuildLimits limit is broken.
+	 */
+	public void feed(final byte[] data, final int offset, final int length)
+			throws JDOMException {
+		feed(ByteBuffer.wrap(data, offset, length));
+	}
+
+	/**
+	 * Indicate that all the input has been fed, and complete the build.
+	 * @return the built Document.
+	 * @throws JDOMException if the input is not a complete well-formed
+	 *         document, or a BuildLimits limit is broken.
+	 */
+	public Document endOfInput() throws JDOMException {
+		checkState();
+		process(true);
+		if (!stack.isEmpty()) {
+			throw error("Unexpected end of input inside Element <" +
+					qnames.get(qnames.size() - 1) + ">", null);
+		}
+		if (!document.hasRootElement()) {
+			throw error("The document has no root Element", null);
+		}
+		finish();
+		return document;
+	}
+
+	private void checkState() throws BuildLimitException {
+		if (finished) {
+			throw new IllegalStateException("The build is complete. " +
+					"Use reset() to start a new build.");
+		}
+		if (!started) {
+			started = true;
+			if (factory instanceof DocumentBuildListener) {
+				((DocumentBuildListener)factory).startDocument(document);
+			}
+		}
+		if (buildLimits != null) {
+			if (tracker == null) {
+				tracker = buildLimits.startBuild();
+			}
+			tracker.check();
+		}
+	}
+
+	/**
+	 * Build a JDOMParseException for the current position, and fail the
+	 * build.
+	 */
+	private JDOMParseException error(final String message, final Exception cause) {
+		finish();
+		final int col = col(pos);
+		final SAXParseException spe =
+				new SAXParseException(message, null, null, line, col, cause);
+		return new JDOMParseException("Error on line " + line + ": " + message,
+				spe, document.hasRootElement() ? document : null);
+	}
+
+	/**
+	 * End the build, whether it worked or not.
+	 */
+	private void finish() {
+		finished = true;
+		if (factory instanceof DocumentBuildListener) {
+			((DocumentBuildListener)factory).endDocument(document);
+		}
+	}
+
+	private int col(final int p) {
+		return (int)(base + p - linestart + 1);
+	}
+
+	/* ================================================================
+	 * Bytes to chars.
+	 * ================================================================ */
+
+	private void process(final boolean last) throws JDOMException {
+		try {
+			if (decoder == null && !chooseDecoder(last)) {
+				return;
+			}
+			bytes.flip();
+			try {
+				CoderResult cr = null;
+				do {
+					makeSpace();
+					final CharBuffer out = CharBuffer.wrap(buf, end, buf.length - end);
+					cr = decoder.decode(bytes, out, last);
+					if (cr.isError()) {
+						throw error("Input is not valid " +
+								decoder.charset().name(), null);
+					}
+					normalize(out.position());
+					parse(false);
+				} while (cr.isOverflow());
+				if (last) {
+					do {
+						makeSpace();
+						final CharBuffer out = CharBuffer.wrap(buf, end, buf.length - end);
+						cr = decoder.flush(out);
+						normalize(out.position());
+					} while (cr.isOverflow());
+					parse(true);
+				}
+			} finally {
+				bytes.compact();
+			}
+		} catch (IllegalArgumentException iae) {
+			// the factory's content rejected a name or some text.
+			throw error(iae.getMessage(), iae);
+		} catch (BuildLimitException ble) {
+			finish();
+			throw ble;
+		}
+	}
+
+	/**
+	 * Work out the input encoding, the same way a SAX parser does.
+	 * @return true if the decoder is ready, false if more bytes are needed.
+	 */
+	private boolean chooseDecoder(final boolean last) throws JDOMException {
+		final int len = bytes.position();
+		if (len < 4 && !last) {
+			return false;
+		}
+		final byte[] data = bytes.array();
+		final int b0 = len > 0 ? data[0] & 0xff : -1;
+		final int b1 = len > 1 ? data[1] & 0xff : -1;
+		final int b2 = len > 2 ? data[2] & 0xff : -1;
+		final int b3 = len > 3 ? data[3] & 0xff : -1;
+		String encoding = "UTF-8";
+		if ((b0 == 0xfe && b1 == 0xff) || (b0 == 0xff && b1 == 0xfe)) {
+			encoding = "UTF-16";
+		} else if (b0 == '<' && b1 == 0 && b2 == '?' && b3 == 0) {
+			encoding = "UTF-16LE";
+		} else if (b0 == 0 && b1 == '<' && b2 == 0 && b3 == '?') {
+			encoding = "UTF-16BE";
+		} else if (b0 == '<' && b1 == '?' && b2 == 'x' && b3 == 'm') {
+			// an ASCII compatible encoding, see what the declaration says.
+			int gt = 4;
+			while (gt < len && data[gt] != '>') {
+				gt++;
+			}
+			if (gt == len) {
+				if (len < MAXDECLARATION && !last) {
+					return false;
+				}
+				throw error("The XML declaration is not complete", null);
+			}
+			final char[] decl = new char[gt];
+			for (int i = 0; i < gt; i++) {
+				decl[i] = (char)(data[i] & 0xff);
+			}
+			final String enc = pseudoAttribute(new String(decl), "encoding");
+			if (enc != null) {
+				encoding = enc;
+			}
+		}
+		try {
+			decoder = Charset.forName(encoding).newDecoder();
+		} catch (IllegalArgumentException e) {
+			throw error("Unsupported encoding " + encoding, e);
+		}
+		return true;
+	}
+
+	/**
+	 * Get the value of a pseudo-attribute from the XML declaration.
+	 */
+	private static String pseudoAttribute(final String decl, final String name) {
+		int i = decl.indexOf(name);
+		while (i > 0) {
+			int v = i + name.length();
+			while (v < decl.length() && Verifier.isXMLWhitespace(decl.charAt(v))) {
+				v++;
+			}
+			if (v < decl.length() && decl.charAt(v) == '=' &&
+					Verifier.isXMLWhitespace(decl.charAt(i - 1))) {
+				v++;
+				while (v < decl.length() && Verifier.isXMLWhitespace(decl.charAt(v))) {
+					v++;
+				}
+				if (v < decl.length()) {
+					final char q = decl.charAt(v);
+					final int e = decl.indexOf(q, v + 1);
+					if ((q == '"' || q == '\'') && e > v) {
+						return decl.substring(v + 1, e);
+					}
+				}
+				return null;
+			}
+			i = decl.indexOf(name, i + 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Make room in the char buffer for more decoded input, by dropping the
+	 * chars already parsed, or if that is not enough, growing the buffer.
+	 */
+	private void makeSpace() {
+		makeSpace(1024);
+	}
+
+	/**
+	 * Make room in the char buffer for some more chars.
+	 * @param need the number of free chars needed after the end.
+	 */
+	private void makeSpace(final int need) {
+		if (pos > 0) {
+			System.arraycopy(buf, pos, buf, 0, end - pos);
+			base += pos;
+			if (resume >= 0) {
+				resume -= pos;
+			}
+			end -= pos;
+			pos = 0;
+		}
+		if (buf.length - end < need) {
+			final char[] grown = new char[Math.max(buf.length * 2, end + need)];
+			System.arraycopy(buf, 0, grown, 0, end);
+			buf = grown;
+		}
+	}
+
+	/**
+	 * Normalize the line ends in the newly decoded chars, and drop any
+	 * Byte Order Mark.
+	 */
+	private void normalize(final int newend) {
+		int r = end;
+		if (firstchar && newend > end) {
+			firstchar = false;
+			if (buf[r] == '\uFEFF') {
+				r++;
+			}
+		}
+		int w = end;
+		for (; r < newend; r++) {
+			char ch = buf[r];
+			if (skiplf) {
+				skiplf = false;
+				if (ch == '\n') {
+					continue;
+				}
+			}
+			if (ch == '\r') {
+				ch = '\n';
+				skiplf = true;
+			}
+			buf[w++] = ch;
+		}
+		// the new chars come after the text of any entity being expanded.
+		for (final Expansion x : expanding) {
+			x.tail += w - end;
+		}
+		end = w;
+	}
+
+	/* ================================================================
+	 * Chars to Content.
+	 * ================================================================ */
+
+	/**
+	 * Move the parse position on, keeping track of the line numbers.
+	 */
+	private void advance(final int to) {
+		for (int i = pos; i < to; i++) {
+			if (buf[i] == '\n') {
+				line++;
+				linestart = base + i + 1;
+			}
+		}
+		pos = to;
+		resume = -1;
+		quote = 0;
+		dtdepth = 0;
+	}
+
+	/**
+	 * Build as much content as the available chars allow.
+	 * @param last true if no more input will come.
+	 */
+	private void parse(final boolean last) throws JDOMException {
+		while (pos < end) {
+			int lim = end;
+			if (!expanding.isEmpty()) {
+				lim = expansionEnd();
+			}
+			final char c = buf[pos];
+			if (c == '<') {
+				if (!markup(last)) {
+					return;
+				}
+			} else if (c == '&') {
+				if (!reference(last)) {
+					return;
+				}
+			} else {
+				int i = pos;
+				while (i < lim && buf[i] != '<' && buf[i] != '&') {
+					if (buf[i] == '>' && i >= pos + 2
+							&& buf[i - 1] == ']' && buf[i - 2] == ']') {
+						throw error("']]>' is not allowed in character data", null);
+					}
+					i++;
+				}
+				if (i == end && !last) {
+					// keep a trailing ']' or "]]" until we know what follows.
+					int keep = 0;
+					while (keep < 2 && i - keep > pos && buf[i - keep - 1] == ']') {
+						keep++;
+					}
+					if (i - keep == pos) {
+						return;
+					}
+					i -= keep;
+				}
+				appendText(pos, i);
+				advance(i);
+			}
+		}
+	}
+
+	/**
+	 * Called when the end of some markup is not yet available.
+	 * @return false, to wait for more input
+	 */
+	private boolean needMore(final boolean last) throws JDOMParseException {
+		if (last) {
+			throw error("Unexpected end of input", null);
+		}
+		return false;
+	}
+
+	private void appendText(final int from, final int to) throws JDOMException {
+		if (current == null) {
+			for (int i = from; i < to; i++) {
+				if (!Verifier.isXMLWhitespace(buf[i])) {
+					throw error("Text is only allowed inside the root Element", null);
+				}
+			}
+			return;
+		}
+		if (text.length() == 0) {
+			textline = line;
+			textcol = col(from);
+		}
+		text.append(buf, from, to - from);
+		if (tracker != null) {
+			tracker.text(to - from);
+		}
+	}
+
+	private void appendText(final String value) throws JDOMException {
+		if (current == null) {
+			throw error("Text is only allowed inside the root Element", null);
+		}
+		if (text.length() == 0) {
+			textline = line;
+			textcol = col(pos);
+		}
+		text.append(value);
+		if (tracker != null) {
+			tracker.text(value.length());
+		}
+	}
+
+	private void flushText() {
+		if (text.length() == 0) {
+			return;
+		}
+		final String value = text.toString();
+		text.setLength(0);
+		if (ignoringBoundaryWhite && Verifier.isAllXMLWhitespace(value)) {
+			return;
+		}
+		factory.addContent(current, factory.text(textline, textcol, value));
+	}
+
+	/**
+	 * Find a sequence of chars, resuming where a previous search stopped.
+	 */
+	private int find(final int from, final String seq) {
+		final int lim = end - seq.length();
+		final char first = seq.charAt(0);
+		int i = resume >= 0 ? resume : from;
+		for (; i <= lim; i++) {
+			if (buf[i] == first) {
+				int m = 1;
+				while (m < seq.length() && buf[i + m] == seq.charAt(m)) {
+					m++;
+				}
+				if (m == seq.length()) {
+					return i;
+				}
+			}
+		}
+		resume = Math.max(from, lim + 1);
+		return -1;
+	}
+
+	/**
+	 * Find a sequence of chars in the available input.
+	 * @return the index of the sequence, or -1 if it is not there (yet).
+	 */
+	private int indexOf(final int from, final String seq) {
+		final int lim = end - seq.length();
+		for (int i = from; i <= lim; i++) {
+			int m = 0;
+			while (m < seq.length() && buf[i + m] == seq.charAt(m)) {
+				m++;
+			}
+			if (m == seq.length()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compare the chars at a position with some markup.
+	 * @return 1 if they match, -1 if they do not, 0 if more input is needed.
+	 */
+	private int matches(final int at, final String markup) {
+		final int len = Math.min(markup.length(), end - at);
+		for (int i = 0; i < len; i++) {
+			if (buf[at + i] != markup.charAt(i)) {
+				return -1;
+			}
+		}
+		return len == markup.length() ? 1 : 0;
+	}
+
+	private boolean markup(final boolean last) throws JDOMException {
+		if (end - pos < 2) {
+			return needMore(last);
+		}
+		final char next = buf[pos + 1];
+		if (next == '/') {
+			final int gt = find(pos + 2, ">");
+			if (gt < 0) {
+				return needMore(last);
+			}
+			endTag(pos + 2, gt);
+			advance(gt + 1);
+			return true;
+		}
+		if (next == '?') {
+			final int e = find(pos + 2, "?>");
+			if (e < 0) {
+				return needMore(last);
+			}
+			processingInstruction(pos + 2, e);
+			advance(e + 2);
+			return true;
+		}
+		if (next == '!') {
+			int m = matches(pos, "<!--");
+			if (m > 0) {
+				final int e = find(pos + 4, "-->");
+				if (e < 0) {
+					return needMore(last);
+				}
+				flushText();
+				addContent(factory.comment(line, col(pos),
+						new String(buf, pos + 4, e - pos - 4)));
+				advance(e + 3);
+				return true;
+			}
+			final int c = matches(pos, "<![CDATA[");
+			if (c > 0) {
+				final int e = find(pos + 9, "]]>");
+				if (e < 0) {
+					return needMore(last);
+				}
+				if (current == null) {
+					throw error("CDATA is only allowed inside the root Element", null);
+				}
+				flushText();
+				if (tracker != null) {
+					tracker.text(e - pos - 9);
+				}
+				factory.addContent(current, factory.cdata(line, col(pos),
+						new String(buf, pos + 9, e - pos - 9)));
+				advance(e + 3);
+				return true;
+			}
+			final int d = matches(pos, "<!DOCTYPE");
+			if (d > 0) {
+				final int e = findDocTypeEnd(pos + 9);
+				if (e < 0) {
+					return needMore(last);
+				}
+				docType(pos + 9, e);
+				advance(e + 1);
+				return true;
+			}
+			if (m == 0 || c == 0 || d == 0) {
+				return needMore(last);
+			}
+			throw error("Unexpected markup", null);
+		}
+		final int gt = findTagEnd(pos + 1);
+		if (gt < 0) {
+			return needMore(last);
+		}
+		startTag(pos + 1, gt);
+		advance(gt + 1);
+		return true;
+	}
+
+	private int findTagEnd(final int from) throws JDOMParseException {
+		char q = quote;
+		for (int i = resume >= 0 ? resume : from; i < end; i++) {
+			final char ch = buf[i];
+			if (q != 0) {
+				if (ch == q) {
+					q = 0;
+				}
+			} else if (ch == '"' || ch == '\'') {
+				q = ch;
+			} else if (ch == '>') {
+				return i;
+			} else if (ch == '<') {
+				throw error("Unexpected '<' in tag", null);
+			}
+		}
+		resume = end;
+		quote = q;
+		return -1;
+	}
+
+	private int findDocTypeEnd(final int from) {
+		char q = quote;
+		int depth = dtdepth;
+		for (int i = resume >= 0 ? resume : from; i < end; i++) {
+			final char ch = buf[i];
+			if (q != 0) {
+				if (ch == q) {
+					q = 0;
+				}
+			} else if (ch == '"' || ch == '\'') {
+				q = ch;
+			} else if (ch == '<' && depth > 0) {
+				// comments and PIs in the internal subset may hold quotes
+				// and brackets, skip them.
+				final int c = matches(i, "<!--");
+				final int p = matches(i, "<?");
+				int e = -1;
+				if (c > 0) {
+					e = indexOf(i + 4, "-->");
+					if (e >= 0) {
+						i = e + 2;
+					}
+				} else if (p > 0) {
+					e = indexOf(i + 2, "?>");
+					if (e >= 0) {
+						i = e + 1;
+					}
+				}
+				if (c == 0 || p == 0 || ((c > 0 || p > 0) && e < 0)) {
+					// look at it again when there is more input.
+					resume = i;
+					quote = q;
+					dtdepth = depth;
+					return -1;
+				}
+			} else if (ch == '[') {
+				depth++;
+			} else if (ch == ']') {
+				depth--;
+			} else if (ch == '>' && depth <= 0) {
+				return i;
+			}
+		}
+		resume = end;
+		quote = q;
+		dtdepth = depth;
+		return -1;
+	}
+
+	private void addContent(final org.jdom2.Content content) {
+		if (current == null) {
+			factory.addContent(document, content);
+		} else {
+			factory.addContent(current, content);
+		}
+	}
+
+	private static boolean isSpace(final char ch) {
+		return Verifier.isXMLWhitespace(ch);
+	}
+
+	private int skipSpace(int i, final int to) {
+		while (i < to && isSpace(buf[i])) {
+			i++;
+		}
+		return i;
+	}
+
+	private void startTag(final int from, final int to) throws JDOMException {
+		int i = from;
+		while (i < to && !isSpace(buf[i]) && buf[i] != '/') {
+			i++;
+		}
+		if (i == from) {
+			throw error("Missing Element name", null);
+		}
+		final String qname = new String(buf, from, i - from);
+		boolean empty = false;
+		attnames.clear();
+		attvalues.clear();
+		declared.clear();
+		while (true) {
+			final int ws = i;
+			i = skipSpace(i, to);
+			if (i == to) {
+				break;
+			}
+			if (buf[i] == '/') {
+				if (i + 1 != to) {
+					throw error("Expected '>' after '/' in <" + qname + ">", null);
+				}
+				empty = true;
+				break;
+			}
+			if (ws == i) {
+				throw error("Expected whitespace before Attribute in <" + qname + ">", null);
+			}
+			final int nstart = i;
+			while (i < to && !isSpace(buf[i]) && buf[i] != '=') {
+				i++;
+			}
+			final String aname = new String(buf, nstart, i - nstart);
+			i = skipSpace(i, to);
+			if (i == to || buf[i] != '=') {
+				throw error("Expected '=' after Attribute " + aname, null);
+			}
+			i = skipSpace(i + 1, to);
+			if (i == to || (buf[i] != '"' && buf[i] != '\'')) {
+				throw error("Expected a quoted value for Attribute " + aname, null);
+			}
+			final char q = buf[i];
+			int vend = i + 1;
+			while (buf[vend] != q) {
+				vend++;
+			}
+			final String value = attributeValue(i + 1, vend);
+			i = vend + 1;
+			if (aname.equals("xmlns")) {
+				declared.add(Namespace.getNamespace("", value));
+			} else if (aname.startsWith("xmlns:")) {
+				declared.add(Namespace.getNamespace(aname.substring(6), value));
+			} else {
+				attnames.add(aname);
+				attvalues.add(value);
+			}
+		}
+
+		if (current == null && document.hasRootElement()) {
+			throw error("Only one root Element is allowed", null);
+		}
+		if (tracker != null) {
+			tracker.startElement(attnames.size());
+		}
+		flushText();
+
+		final int colon = qname.indexOf(':');
+		if (colon == 0) {
+			throw error("Missing namespace prefix in <" + qname + ">", null);
+		}
+		final String prefix = colon < 0 ? "" : qname.substring(0, colon);
+		Namespace ns = null;
+		for (final Namespace d : declared) {
+			if (d.getPrefix().equals(prefix)) {
+				ns = d;
+			}
+		}
+		if (ns == null) {
+			ns = current == null ? null : current.getNamespace(prefix);
+			if (ns == null) {
+				if ("xml".equals(prefix)) {
+					ns = Namespace.XML_NAMESPACE;
+				} else if (colon < 0) {
+					ns = Namespace.NO_NAMESPACE;
+				} else {
+					throw error("The prefix " + prefix + " is not bound in <" +
+							qname + ">", null);
+				}
+			}
+		}
+		final Element element = factory.element(line, col(pos),
+				qname.substring(colon + 1), ns);
+		for (final Namespace d : declared) {
+			if (d != ns) {
+				factory.addNamespaceDeclaration(element, d);
+			}
+		}
+		if (current == null) {
+			factory.setRoot(document, element);
+		} else {
+			factory.addContent(current, element);
+		}
+
+		for (int a = 0; a < attnames.size(); a++) {
+			final String aname = attnames.get(a);
+			final int acolon = aname.indexOf(':');
+			Namespace ans = Namespace.NO_NAMESPACE;
+			if (acolon >= 0) {
+				final String apfx = aname.substring(0, acolon);
+				ans = apfx.length() == 0 ? null : element.getNamespace(apfx);
+				if (ans == null) {
+					throw error("The prefix " + apfx + " is not bound in <" +
+							qname + ">", null);
+				}
+			}
+			final String alocal = aname.substring(acolon + 1);
+			if (element.getAttribute(alocal, ans) != null) {
+				throw error("Attribute " + aname + " appears twice in <" +
+						qname + ">", null);
+			}
+			factory.setAttribute(element, factory.attribute(alocal,
+					attvalues.get(a), AttributeType.CDATA, ans));
+		}
+
+		if (empty) {
+			if (tracker != null) {
+				tracker.endElement();
+			}
+		} else {
+			stack.add(element);
+			qnames.add(qname);
+			current = element;
+		}
+	}
+
+	private void endTag(final int from, final int to) throws JDOMException {
+		int e = to;
+		while (e > from && isSpace(buf[e - 1])) {
+			e--;
+		}
+		final String qname = new String(buf, from, e - from);
+		if (current == null) {
+			throw error("Unexpected end tag </" + qname + ">", null);
+		}
+		final String open = qnames.get(qnames.size() - 1);
+		if (!open.equals(qname)) {
+			throw error("End tag </" + qname + "> does not match <" + open + ">", null);
+		}
+		if (!expanding.isEmpty()) {
+			final Expansion x = expanding.get(expanding.size() - 1);
+			if (stack.size() <= x.depth) {
+				throw notBalanced(x);
+			}
+		}
+		flushText();
+		if (tracker != null) {
+			tracker.endElement();
+		}
+		stack.remove(stack.size() - 1);
+		qnames.remove(qnames.size() - 1);
+		current = stack.isEmpty() ? null : stack.get(stack.size() - 1);
+	}
+
+	private void processingInstruction(final int from, final int to)
+			throws JDOMException {
+		int i = from;
+		while (i < to && !isSpace(buf[i])) {
+			i++;
+		}
+		final String target = new String(buf, from, i - from);
+		if ("xml".equals(target) && base + pos == 0) {
+			// the XML declaration, the encoding has already been used.
+			standalone = "yes".equals(
+					pseudoAttribute(new String(buf, from, to - from), "standalone"));
+			return;
+		}
+		i = skipSpace(i, to);
+		flushText();
+		addContent(factory.processingInstruction(line, col(pos), target,
+				new String(buf, i, to - i)));
+	}
+
+	private void docType(final int from, final int to) throws JDOMException {
+		if (document.hasRootElement() || document.getDocType() != null) {
+			throw error("The DOCTYPE must come before the root Element", null);
+		}
+		int i = skipSpace(from, to);
+		final int nstart = i;
+		while (i < to && !isSpace(buf[i]) && buf[i] != '[') {
+			i++;
+		}
+		final String name = new String(buf, nstart, i - nstart);
+		String publicID = null;
+		String systemID = null;
+		i = skipSpace(i, to);
+		if (matches(i, "PUBLIC") > 0) {
+			final int[] range = quoted(i + 6, to);
+			publicID = new String(buf, range[0], range[1] - range[0]);
+			final int[] srange = quoted(range[1] + 1, to);
+			systemID = new String(buf, srange[0], srange[1] - srange[0]);
+			i = skipSpace(srange[1] + 1, to);
+		} else if (matches(i, "SYSTEM") > 0) {
+			final int[] range = quoted(i + 6, to);
+			systemID = new String(buf, range[0], range[1] - range[0]);
+			i = skipSpace(range[1] + 1, to);
+		}
+		final DocType doctype = factory.docType(line, col(pos), name,
+				publicID, systemID);
+		if (systemID != null) {
+			alldeclared = false;
+		}
+		if (i < to && buf[i] == '[') {
+			int e = to;
+			while (e > i && buf[e] != ']') {
+				e--;
+			}
+			final String subset = new String(buf, i + 1, e - i - 1);
+			doctype.setInternalSubset(subset);
+			declareEntities(subset);
+		}
+		factory.addContent(document, doctype);
+	}
+
+	/**
+	 * @return the start and end of the quoted value after some whitespace.
+	 */
+	private int[] quoted(final int from, final int to) throws JDOMParseException {
+		final int i = skipSpace(from, to);
+		if (i < to && (buf[i] == '"' || buf[i] == '\'')) {
+			for (int e = i + 1; e < to; e++) {
+				if (buf[e] == buf[i]) {
+					return new int[] {i + 1, e};
+				}
+			}
+		}
+		throw error("Expected a quoted value in the DOCTYPE", null);
+	}
+
+	/**
+	 * Record the general entities declared in the internal subset.
+	 */
+	private void declareEntities(final String subset) throws JDOMException {
+		final int len = subset.length();
+		int i = 0;
+		while (i < len) {
+			final char ch = subset.charAt(i);
+			if (ch == '"' || ch == '\'') {
+				final int e = subset.indexOf(ch, i + 1);
+				i = e < 0 ? len : e + 1;
+			} else if (subset.startsWith("<!--", i)) {
+				final int e = subset.indexOf("-->", i + 4);
+				i = e < 0 ? len : e + 3;
+			} else if (subset.startsWith("<?", i)) {
+				final int e = subset.indexOf("?>", i + 2);
+				i = e < 0 ? len : e + 2;
+			} else if (subset.startsWith("<!ENTITY", i)) {
+				i = declareEntity(subset, i + 8);
+			} else if (ch == '%') {
+				// a parameter entity reference may declare more entities.
+				alldeclared = false;
+				i++;
+			} else {
+				i++;
+			}
+		}
+	}
+
+	private int declareEntity(final String subset, int i) throws JDOMException {
+		final int len = subset.length();
+		while (i < len && isSpace(subset.charAt(i))) {
+			i++;
+		}
+		if (i < len && subset.charAt(i) == '%') {
+			// a parameter entity, not used for content.
+			return i + 1;
+		}
+		final int nstart = i;
+		while (i < len && !isSpace(subset.charAt(i))) {
+			i++;
+		}
+		final String name = subset.substring(nstart, i);
+		while (i < len && isSpace(subset.charAt(i))) {
+			i++;
+		}
+		if (i >= len) {
+			return i;
+		}
+		final char q = subset.charAt(i);
+		if (q == '"' || q == '\'') {
+			final int e = subset.indexOf(q, i + 1);
+			if (e < 0) {
+				return len;
+			}
+			if (!entities.containsKey(name) && !externals.containsKey(name)) {
+				entities.put(name, characterReferences(subset.substring(i + 1, e)));
+			}
+			return e + 1;
+		}
+		// an external entity, PUBLIC "pub" "sys" or SYSTEM "sys".
+		final ArrayList<String> ids = new ArrayList<String>(2);
+		while (i < len && subset.charAt(i) != '>' && ids.size() < 2) {
+			final char c = subset.charAt(i);
+			if (c == '"' || c == '\'') {
+				final int e = subset.indexOf(c, i + 1);
+				if (e < 0) {
+					return len;
+				}
+				ids.add(subset.substring(i + 1, e));
+				i = e;
+			}
+			i++;
+		}
+		if (!entities.containsKey(name) && !externals.containsKey(name)) {
+			externals.put(name, ids.size() == 2
+					? new String[] {ids.get(0), ids.get(1)}
+					: new String[] {null, ids.isEmpty() ? null : ids.get(0)});
+		}
+		return i;
+	}
+
+	/**
+	 * Replace the character references in an entity value.
+	 */
+	private String characterReferences(final String value) throws JDOMException {
+		int amp = value.indexOf("&#");
+		if (amp < 0) {
+			return value;
+		}
+		final StringBuilder sb = new StringBuilder(value.length());
+		int from = 0;
+		while (amp >= 0) {
+			final int semi = value.indexOf(';', amp);
+			if (semi < 0) {
+				throw error("Unterminated character reference in an entity", null);
+			}
+			sb.append(value, from, amp);
+			sb.append(characterReference(value.substring(amp + 1, semi)));
+			from = semi + 1;
+			amp = value.indexOf("&#", from);
+		}
+		sb.append(value, from, value.length());
+		return sb.toString();
+	}
+
+	/**
+	 * @param name the reference name, starting with '#'.
+	 * @return the referenced character
+	 */
+	private String characterReference(final String name) throws JDOMException {
+		int cp = -1;
+		try {
+			cp = name.startsWith("#x")
+					? Integer.parseInt(name.substring(2), 16)
+					: Integer.parseInt(name.substring(1));
+		} catch (NumberFormatException nfe) {
+			// handled below.
+		}
+		if (cp < 0 || !Verifier.isXMLCharacter(cp)) {
+			throw error("Illegal character reference &" + name + ";", null);
+		}
+		return new String(Character.toChars(cp));
+	}
+
+	/**
+	 * @return the value of a predefined entity, or null if it is not one.
+	 */
+	private static String predefined(final String name) {
+		if ("lt".equals(name)) {
+			return "<";
+		}
+		if ("gt".equals(name)) {
+			return ">";
+		}
+		if ("amp".equals(name)) {
+			return "&";
+		}
+		if ("quot".equals(name)) {
+			return "\"";
+		}
+		if ("apos".equals(name)) {
+			return "'";
+		}
+		return null;
+	}
+
+	/**
+	 * Start expanding an entity, unless it is already being expanded.
+	 * @param name The entity name
+	 * @param length The length of the replacement text
+	 * @param tail Where the replacement text ends, as the number of chars
+	 *        after it in the buffer, or -1 for Attribute values.
+	 */
+	private void expand(final String name, final int length, final int tail)
+			throws JDOMParseException {
+		if (++expansions > MAXEXPANSIONS) {
+			throw error("More than " + MAXEXPANSIONS +
+					" entity expansions in the document", null);
+		}
+		expandedchars += length;
+		if (expandedchars > MAXEXPANDED) {
+			throw error("More than " + MAXEXPANDED +
+					" chars of expanded entities in the document", null);
+		}
+		for (final Expansion x : expanding) {
+			if (x.name.equals(name)) {
+				throw error("Recursive entity reference " + name, null);
+			}
+		}
+		expanding.add(new Expansion(name, tail, stack.size()));
+	}
+
+	/**
+	 * Finish the expansions whose replacement text has been parsed.
+	 * @return where the text of the innermost remaining expansion ends, or
+	 *         the end of the input if there is none.
+	 */
+	private int expansionEnd() throws JDOMParseException {
+		while (!expanding.isEmpty()) {
+			final Expansion x = expanding.get(expanding.size() - 1);
+			final int xend = end - x.tail;
+			if (pos < xend) {
+				return xend;
+			}
+			if (pos > xend || stack.size() != x.depth) {
+				// markup started in the text and ended after it, or an
+				// Element started in it was not ended in it.
+				throw notBalanced(x);
+			}
+			expanding.remove(expanding.size() - 1);
+		}
+		return end;
+	}
+
+	private JDOMParseException notBalanced(final Expansion x) {
+		return error("The replacement text of entity " + x.name +
+				" is not well-formed", null);
+	}
+
+	/**
+	 * Process an entity or character reference in content.
+	 */
+	private boolean reference(final boolean last) throws JDOMException {
+		int semi = pos + 1;
+		final int lim = Math.min(end, pos + MAXREFERENCE);
+		while (semi < lim && buf[semi] != ';') {
+			semi++;
+		}
+		if (semi == lim) {
+			if (lim < end || lim - pos >= MAXREFERENCE) {
+				throw error("Unterminated entity reference", null);
+			}
+			return needMore(last);
+		}
+		final String name = new String(buf, pos + 1, semi - pos - 1);
+		if (name.startsWith("#")) {
+			appendText(characterReference(name));
+			advance(semi + 1);
+			return true;
+		}
+		final String pre = predefined(name);
+		if (pre != null) {
+			appendText(pre);
+			advance(semi + 1);
+			return true;
+		}
+		if (current == null) {
+			throw error("Entity references are only allowed inside the root Element", null);
+		}
+		final String value = entities.get(name);
+		if (value != null) {
+			// replace the reference with its value, and parse that instead.
+			final int reflen = semi + 1 - pos;
+			final int tail = end - pos - reflen;
+			expand(name, value.length(), tail);
+			if (value.length() > buf.length - pos - tail) {
+				makeSpace(value.length() - reflen);
+			}
+			System.arraycopy(buf, pos + reflen, buf, pos + value.length(), tail);
+			value.getChars(0, value.length(), buf, pos);
+			end = pos + value.length() + tail;
+			return true;
+		}
+		final String[] ids = externals.get(name);
+		if (ids == null) {
+			if (alldeclared || standalone) {
+				throw error("The entity " + name + " is not declared", null);
+			}
+			// it may be declared in the external DTD, which is not read.
+			flushText();
+			factory.addContent(current, factory.entityRef(line, col(pos), name));
+			advance(semi + 1);
+			return true;
+		}
+		flushText();
+		factory.addContent(current, factory.entityRef(line, col(pos), name,
+				ids[0], ids[1]));
+		advance(semi + 1);
+		return true;
+	}
+
+	/**
+	 * Build an attribute value, normalizing whitespace, and replacing
+	 * references.
+	 */
+	private String attributeValue(final int from, final int to) throws JDOMException {
+		int i = from;
+		while (i < to) {
+			final char ch = buf[i];
+			if (ch == '&' || ch == '<' || ch == '\t' || ch == '\n') {
+				break;
+			}
+			i++;
+		}
+		if (i == to) {
+			return new String(buf, from, to - from);
+		}
+		final StringBuilder sb = new StringBuilder(to - from + 16);
+		sb.append(buf, from, i - from);
+		appendAttributeValue(sb, CharBuffer.wrap(buf, i, to - i));
+		return sb.toString();
+	}
+
+	private void appendAttributeValue(final StringBuilder sb,
+			final CharSequence value) throws JDOMException {
+		final int len = value.length();
+		for (int i = 0; i < len; i++) {
+			final char ch = value.charAt(i);
+			switch (ch) {
+				case '<':
+					throw error("'<' is not allowed in Attribute values", null);
+				case '\t':
+				case '\n':
+				case '\r':
+					sb.append(' ');
+					break;
+				case '&':
+					int semi = i + 1;
+					while (semi < len && value.charAt(semi) != ';') {
+						semi++;
+					}
+					if (semi == len) {
+						throw error("Unterminated reference in an Attribute value", null);
+					}
+					final String name = value.subSequence(i + 1, semi).toString();
+					if (name.startsWith("#")) {
+						sb.append(characterReference(name));
+					} else if (predefined(name) != null) {
+						sb.append(predefined(name));
+					} else {
+						final String ent = entities.get(name);
+						if (ent == null) {
+							throw error("The entity " + name + " can not be " +
+									"used in an Attribute value", null);
+						}
+						expand(name, ent.length(), -1);
+						appendAttributeValue(sb, ent);
+						expanding.remove(expanding.size() - 1);
+					}
+					i = semi;
+					break;
+				default:
+					sb.append(ch);
+			}
+		}
+	}
+
+	/**
+	 * An entity whose replacement text is being parsed.
+	 */
+	private static final class Expansion {
+		final String name;
+		/** the number of buffered chars after the replacement text */
+		int tail;
+		/** the number of open Elements when the expansion started */
+		final int depth;
+
+		Expansion(final String name, final int tail, final int depth) {
+			this.name = name;
+			this.tail = tail;
+			this.depth = depth;
+		}
+	}
+
+}
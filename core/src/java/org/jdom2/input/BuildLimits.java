@@ -0,0 +1,314 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.input;
+
+/**
+ * Limits on what a single build may consume, and a way to cancel builds.
+ * <p>
+ * BuildLimits can be set on a {@link SAXBuilder} or a
+ * {@link StAXStreamBuilder}. While a document is being built the builder
+ * checks the limits as each Element starts and as each piece of text arrives,
+ * and the build is stopped with a {@link BuildLimitException} as soon as any
+ * limit is broken. This allows bad (or malicious) input to be rejected before
+ * it uses more than a bounded amount of CPU time and memory.
+ * <p>
+ * The following can be limited (by default nothing is limited):
+ * <ul>
+ * <li>the total number of Elements in the document
+ * <li>the depth to which Elements are nested
+ * <li>the number of Attributes on any one Element
+ * <li>the total number of characters of text (including CDATA)
+ * <li>the time a single build may take
+ * </ul>
+ * Calling {@link #cancel()} (typically from some other thread) stops any
+ * build currently using these limits, and all subsequent builds that use
+ * them too. Use a separate BuildLimits instance for each build that needs to
+ * be cancelled independently.
+ * <p>
+ * The checks happen as the parser reports content. A parser that is blocked
+ * waiting for input is only stopped when more input arrives, so a build
+ * reading from a network connection should also use a read timeout on that
+ * connection.
+ * <p>
+ * The limits may be changed between builds, but not during one.
+ * 
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public class BuildLimits {
+
+	/**
+	 * The different limits that can stop a build.
+	 */
+	public static enum Limit {
+		/** The build was cancelled */
+		CANCELLED,
+		/** The build took too long */
+		TIMEOUT,
+		/** The document has too many Elements */
+		ELEMENTS,
+		/** The Elements are nested too deeply */
+		DEPTH,
+		/** An Element has too many Attributes */
+		ATTRIBUTES,
+		/** The document has too much text */
+		TEXT
+	}
+
+	/**
+	 * Tracks the progress of a single build against its BuildLimits.
+	 * Builders get one from {@link BuildLimits#startBuild()} at the start of
+	 * each build, and then report the content to it as it is parsed.
+	 */
+	public static final class Tracker {
+		private final BuildLimits limits;
+		private final long deadline;
+		private int elements = 0;
+		private int depth = 0;
+		private long text = 0L;
+
+		private Tracker(final BuildLimits limits) {
+			this.limits = limits;
+			this.deadline = limits.timeout > 0L
+					? System.nanoTime() + limits.timeout * 1000000L : 0L;
+		}
+
+		/**
+		 * Check whether the build has been cancelled, or has run out of time.
+		 * @throws BuildLimitException if it has
+		 */
+		public void check() throws BuildLimitException {
+			if (limits.cancelled) {
+				throw new BuildLimitException(Limit.CANCELLED,
+						"The build was cancelled");
+			}
+			if (deadline != 0L && System.nanoTime() - deadline > 0L) {
+				throw new BuildLimitException(Limit.TIMEOUT,
+						"The build took longer than " + limits.timeout + "ms");
+			}
+		}
+
+		/**
+		 * Report the start of an Element.
+		 * @param attributes the number of Attributes the Element has
+		 * @throws BuildLimitException if a limit is broken
+		 */
+		public void startElement(final int attributes) throws BuildLimitException {
+			check();
+			if (++elements > limits.maxElements) {
+				throw new BuildLimitException(Limit.ELEMENTS,
+						"The document has more than " + limits.maxElements +
+						" Elements");
+			}
+			if (++depth > limits.maxDepth) {
+				throw new BuildLimitException(Limit.DEPTH,
+						"The Elements are nested deeper than " + limits.maxDepth);
+			}
+			if (attributes > limits.maxAttributes) {
+				throw new BuildLimitException(Limit.ATTRIBUTES,
+						"An Element has " + attributes + " Attributes, more than " +
+						limits.maxAttributes);
+			}
+		}
+
+		/**
+		 * Report the end of an Element.
+		 */
+		public void endElement() {
+			depth--;
+		}
+
+		/**
+		 * Report some text (or CDATA).
+		 * @param length the number of characters of text
+		 * @throws BuildLimitException if a limit is broken
+		 */
+		public void text(final int length) throws BuildLimitException {
+			check();
+			text += length;
+			if (text > limits.maxTextLength) {
+				throw new BuildLimitException(Limit.TEXT,
+						"The document has more than " + limits.maxTextLength +
+						" characters of text");
+			}
+		}
+	}
+
+	private int maxElements = Integer.MAX_VALUE;
+	private int maxDepth = Integer.MAX_VALUE;
+	private int maxAttributes = Integer.MAX_VALUE;
+	private long maxTextLength = Long.MAX_VALUE;
+	private long timeout = 0L;
+	private volatile boolean cancelled = false;
+
+	/**
+	 * Create BuildLimits that do not limit anything (until they are set).
+	 */
+	public BuildLimits() {
+		// nothing limited.
+	}
+
+	/**
+	 * Limit the total number of Elements in a document.
+	 * @param maxElements the most Elements allowed
+	 * @return this BuildLimits, for chaining
+	 */
+	public BuildLimits setMaxElements(final int maxElements) {
+		this.maxElements = maxElements;
+		return this;
+	}
+
+	/**
+	 * @return the most Elements allowed in a document.
+	 */
+	public int getMaxElements() {
+		return maxElements;
+	}
+
+	/**
+	 * Limit how deeply Elements may be nested. The root Element is at
+	 * depth 1.
+	 * @param maxDepth the deepest nesting allowed
+	 * @return this BuildLimits, for chaining
+	 */
+	public BuildLimits setMaxDepth(final int maxDepth) {
+		this.maxDepth = maxDepth;
+		return this;
+	}
+
+	/**
+	 * @return the deepest Element nesting allowed.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Limit the number of Attributes on each Element.
+	 * @param maxAttributes the most Attributes allowed on one Element
+	 * @return this BuildLimits, for chaining
+	 */
+	public BuildLimits setMaxAttributes(final int maxAttributes) {
+		this.maxAttributes = maxAttributes;
+		return this;
+	}
+
+	/**
+	 * @return the most Attributes allowed on one Element.
+	 */
+	public int getMaxAttributes() {
+		return maxAttributes;
+	}
+
+	/**
+	 * Limit the total characters of text (and CDATA) in a document. All text
+	 * counts, including whitespace that is later ignored.
+	 * @param maxTextLength the most characters of text allowed
+	 * @return this BuildLimits, for chaining
+	 */
+	public BuildLimits setMaxTextLength(final long maxTextLength) {
+		this.maxTextLength = maxTextLength;
+		return this;
+	}
+
+	/**
+	 * @return the most characters of text allowed in a document.
+	 */
+	public long getMaxTextLength() {
+		return maxTextLength;
+	}
+
+	/**
+	 * Limit the time that each build may take.
+	 * @param millis the most milliseconds a build may take, 0 for no limit.
+	 * @return this BuildLimits, for chaining
+	 */
+	public BuildLimits setTimeout(final long millis) {
+		this.timeout = millis < 0L ? 0L : millis;
+		return this;
+	}
+
+	/**
+	 * @return the most milliseconds a build may take, 0 if not limited.
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Cancel all builds that use these limits, both any that are running now,
+	 * and any started later. This method may be called from any thread.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return true if {@link #cancel()} has been called.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Start tracking a new build against these limits. The timeout (if any)
+	 * is counted from now.
+	 * @return the Tracker to report the build's progress to.
+	 */
+	public Tracker startBuild() {
+		return new Tracker(this);
+	}
+
+}
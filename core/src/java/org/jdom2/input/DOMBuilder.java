@@ -68,9 +68,11 @@ import org.jdom2.Attribute;
 import org.jdom2.DefaultJDOMFactory;
 import org.jdom2.DocType;
 import org.jdom2.Document;
+import org.jdom2.DocumentBuildListener;
 import org.jdom2.Element;
 import org.jdom2.JDOMFactory;
 import org.jdom2.Namespace;
+import org.jdom2.internal.ArrayCopy;
 
 
 /**
@@ -91,6 +93,17 @@ import org.jdom2.Namespace;
  *     DocumentBuilder dombuilder = domfac.newDocumentBuilder();
  *     org.w3c.dom.Document doc = dombuilder.parse(....);
  * </pre>
+ * <p>
+ * The DOM content is all re-verified as the JDOM content is created. If the
+ * DOM is known to be well-formed (for example, it was produced by a
+ * parser) the verification can be skipped by using an
+ * {@link org.jdom2.UncheckedJDOMFactory}:
+ * <p>
+ * <pre>
+ *     DOMBuilder builder = new DOMBuilder();
+ *     builder.setFactory(new UncheckedJDOMFactory());
+ *     Document jdoc = builder.build(doc);
+ * </pre>
  * 
  * @author  Brett McLaughlin
  * @author  Jason Hunter
@@ -138,7 +151,16 @@ public class DOMBuilder {
 	 */
 	public Document build(org.w3c.dom.Document domDocument) {
 		Document doc = factory.document(null);
-		buildTree(domDocument, doc, null, true);
+		if (factory instanceof DocumentBuildListener) {
+			((DocumentBuildListener)factory).startDocument(doc);
+		}
+		try {
+			buildTree(domDocument, doc);
+		} finally {
+			if (factory instanceof DocumentBuildListener) {
+				((DocumentBuildListener)factory).endDocument(doc);
+			}
+		}
 		return doc;
 	}
 
@@ -150,7 +172,7 @@ public class DOMBuilder {
 	 */
 	public org.jdom2.Element build(org.w3c.dom.Element domElement) {
 		Document doc = factory.document(null);
-		buildTree(domElement, doc, null, true);
+		buildTree(domElement, doc);
 		return doc.getRootElement();
 	}
 	
@@ -230,205 +252,109 @@ public class DOMBuilder {
 	
 	
 
+	/**
+	 * Per-build cache of the Namespace instances used for each namespace URI.
+	 * DOM documents typically use one prefix per URI, so this avoids going
+	 * through the global Namespace lookup for every Element and Attribute.
+	 */
+	private static final class NamespaceCache {
+		private final HashMap<String, Namespace> byuri =
+				new HashMap<String, Namespace>();
+
+		Namespace get(final String prefix, final String uri) {
+			Namespace ns = byuri.get(uri);
+			if (ns == null || !ns.getPrefix().equals(prefix)) {
+				ns = Namespace.getNamespace(prefix, uri);
+				byuri.put(uri, ns);
+			}
+			return ns;
+		}
+	}
+
 	/**
 	 * This takes a DOM <code>Node</code> and builds up
-	 * a JDOM tree, recursing until the DOM tree is exhausted
+	 * a JDOM tree until the DOM tree is exhausted
 	 * and the JDOM tree results.
+	 * <p>
+	 * The DOM tree is walked iteratively (using the DOM sibling and parent
+	 * references) so that deep documents do not risk a StackOverflowError.
 	 *
 	 * @param node <code>Code</node> to examine.
 	 * @param doc JDOM <code>Document</code> being built.
-	 * @param current <code>Element</code> that is current parent.
-	 * @param atRoot <code>boolean</code> indicating whether at root level.
 	 */
-	private void buildTree(org.w3c.dom.Node node,
-			Document doc,
-			Element current,
-			boolean atRoot) {
-		// Recurse through the tree
-		switch (node.getNodeType()) {
-			case org.w3c.dom.Node.DOCUMENT_NODE:
-				org.w3c.dom.NodeList nodes = node.getChildNodes();
-				for (int i=0, size=nodes.getLength(); i<size; i++) {
-					buildTree(nodes.item(i), doc, current, true);
-				}
-				break;
-
-			case org.w3c.dom.Node.ELEMENT_NODE:
-				String nodeName = node.getNodeName();
-				String prefix = NS_PREFIX_DEFAULT;
-				String localName = nodeName;
-				int colon = nodeName.indexOf(':');
-				if (colon >= 0) {
-					prefix = nodeName.substring(0, colon);
-					localName = nodeName.substring(colon + 1);
-				}
-
-				// Get element's namespace
-				Namespace ns = null;
-				String uri = node.getNamespaceURI();
-				if (uri == null) {
-					ns = (current == null) ? Namespace.NO_NAMESPACE
-							: current.getNamespace(prefix);
-				}
-				else {
-					ns = Namespace.getNamespace(prefix, uri);
-				}
-
-				Element element = factory.element(localName, ns);
-
-				if (atRoot) {
-					// If at root, set as document root
-					factory.setRoot(doc, element);
-				} else {
-					// else add to parent element
-					factory.addContent(current, element);
-				}
-
-				// Add namespaces
-				org.w3c.dom.NamedNodeMap attributeList = node.getAttributes();
-				int attsize = attributeList.getLength();
-
-				for (int i = 0; i < attsize; i++) {
-					org.w3c.dom.Attr att = (org.w3c.dom.Attr) attributeList.item(i);
-
-					String attname = att.getName();
-					if (attname.startsWith(NS_PREFIX_XMLNS)) {
-						String attPrefix = NS_PREFIX_DEFAULT;
-						colon = attname.indexOf(':');
-						if (colon >= 0) {
-							attPrefix = attname.substring(colon + 1);
-						}
-
-						String attvalue = att.getValue();
-
-						Namespace declaredNS =
-								Namespace.getNamespace(attPrefix, attvalue);
-
-						// Add as additional namespaces if it's different
-						// to this element's namespace (perhaps we should
-						// also have logic not to mark them as additional if
-						// it's been done already, but it probably doesn't
-						// matter)
-						if (prefix.equals(attPrefix)) {
-							// RL: note, it should also be true that uri.equals(attvalue)
-							// if not, then the parser is boken.
-							// further, declaredNS should be exactly the same as ns
-							// so the following should in fact do nothing.
-							element.setNamespace(declaredNS);
-						}
-						else {
-							factory.addNamespaceDeclaration(element, declaredNS);
-						}
-					}
-				}
-
-				// Add attributes
-				for (int i = 0; i < attsize; i++) {
-					org.w3c.dom.Attr att = (org.w3c.dom.Attr) attributeList.item(i);
-
-					String attname = att.getName();
-
-					if ( !attname.startsWith(NS_PREFIX_XMLNS)) {
-						String attPrefix = NS_PREFIX_DEFAULT;
-						String attLocalName = attname;
-						colon = attname.indexOf(':');
-						if (colon >= 0) {
-							attPrefix = attname.substring(0, colon);
-							attLocalName = attname.substring(colon + 1);
-						}
-
-						String attvalue = att.getValue();
-
-						// Get attribute's namespace
-						Namespace attNS = null;
-						String attURI = att.getNamespaceURI(); 
-						if (attPrefix.isEmpty() && (attURI == null || NS_URI_DEFAULT.equals(attURI))) {
-							attNS = Namespace.NO_NAMESPACE;
-						} else {
-							// various conditions can lead here.
-							// the logical one is that we have a prefix for the
-							// attribute, and also a namespace URI.
-							// The alternative to that is in some conditions,
-							// the parser could have a 'default' or 'fixed'
-							// attribute that comes from an XSD used for
-							// validation. In that case there may not be a prefix
-							// There's also the possibility the DOM contains
-							// garbage.
-							if (attPrefix.length() > 0) {
-								// If the att has a prefix, we can assume that
-								// the DOM is valid, and we can just use the prefix.
-								// if this prefix conflicts with some other namespace
-								// then we re-declare it. If redeclaring it screws up
-								// other attributes in this Element, then the DOM
-								// was broken to start with.
-								if (attURI == null) {
-									// this can happen when the DOM is created
-									// without being namespace aware. we have a
-									// prefix, but the URI is not embedded in
-									// the Attribute itself. It must be declared
-									// on the element somewhere....
-									// https://github.com/hunterhacker/jdom/issues/138
-									attNS = element.getNamespace(attPrefix);
-								} else {
-									attNS = Namespace.getNamespace(attPrefix, attURI);
-								}
-							} else {
-								// OK, no prefix.
-								// must be a defaulted value from an XSD.
-								// perhaps we can find the namespace in our
-								// element's ancestry, and use the prefix from that.
-								HashMap<String, Namespace> tmpmap = new HashMap<String, Namespace>();
-								for(Namespace nss : element.getNamespacesInScope()) {
-									if (nss.getPrefix().length() > 0 && nss.getURI().equals(attURI)) {
-										attNS = nss;
-										break;
-									}
-									tmpmap.put(nss.getPrefix(), nss);
-								}
-								if (attNS == null) {
-									// we cannot find a 'prevailing' namespace that has a prefix
-									// that is for this namespace.
-									// This basically means that there's an XMLSchema, for the
-									// DEFAULT namespace, and there's a defaulted/fixed
-									// attribute definition in the XMLSchema that's targeted
-									// for this namespace,... but, the user has either not
-									// declared a prefixed version of the namespace, or has
-									// re-declared the same prefix at a lower level with a
-									// different namespace.
-									// All of these things are possible.
-									// Create some sort of default prefix.
-									int cnt = 0;
-									String base = "attns";
-									String pfx = base + cnt;
-									while (tmpmap.containsKey(pfx)) {
-										cnt++;
-										pfx = base + cnt;
-									}
-									attNS = Namespace.getNamespace(pfx, attURI);
-								}
-							}
-						}
+	private void buildTree(final org.w3c.dom.Node node, final Document doc) {
+		final NamespaceCache nscache = new NamespaceCache();
+		if (node.getNodeType() == org.w3c.dom.Node.DOCUMENT_NODE) {
+			for (org.w3c.dom.Node kid = node.getFirstChild(); kid != null;
+					kid = kid.getNextSibling()) {
+				buildSubTree(kid, doc, nscache);
+			}
+		} else {
+			buildSubTree(node, doc, nscache);
+		}
+	}
 
-						Attribute attribute =
-								factory.attribute(attLocalName, attvalue, attNS);
-						factory.setAttribute(element, attribute);
-					}
+	/**
+	 * Build the JDOM equivalent of a document-level DOM node, and all its
+	 * descendants.
+	 *
+	 * @param top the DOM node to build.
+	 * @param doc JDOM <code>Document</code> being built.
+	 * @param nscache the Namespaces used in this build.
+	 */
+	private void buildSubTree(final org.w3c.dom.Node top, final Document doc,
+			final NamespaceCache nscache) {
+		// the JDOM Element for each DOM Element we have descended in to.
+		Element[] stack = new Element[16];
+		int depth = 0;
+		Element current = null;
+		org.w3c.dom.Node node = top;
+		while (true) {
+			final Element created = buildNode(node, doc, current, nscache);
+			final org.w3c.dom.Node kid =
+					created == null ? null : node.getFirstChild();
+			if (kid != null) {
+				// descend.
+				if (depth == stack.length) {
+					stack = ArrayCopy.copyOf(stack, depth * 2);
 				}
+				stack[depth++] = current;
+				current = created;
+				node = kid;
+				continue;
+			}
+			// ascend until there's a next sibling (or we are done).
+			while (node != top && node.getNextSibling() == null) {
+				node = node.getParentNode();
+				current = stack[--depth];
+			}
+			if (node == top) {
+				return;
+			}
+			node = node.getNextSibling();
+		}
+	}
 
-				// Recurse on child nodes
-				// The list should never be null nor should it ever contain
-				// null nodes, but some DOM impls are broken
-				org.w3c.dom.NodeList children = node.getChildNodes();
-				if (children != null) {
-					int size = children.getLength();
-					for (int i = 0; i < size; i++) {
-						org.w3c.dom.Node item = children.item(i);
-						if (item != null) {
-							buildTree(item, doc, element, false);
-						}
-					}
-				}
-				break;
+	/**
+	 * This takes a single DOM <code>Node</code> and adds the JDOM equivalent
+	 * to the JDOM tree. The children of the node are not processed.
+	 *
+	 * @param node <code>Code</node> to examine.
+	 * @param doc JDOM <code>Document</code> being built.
+	 * @param current <code>Element</code> that is current parent, or null
+	 *        if the node is at the Document level.
+	 * @param nscache the Namespaces used in this build.
+	 * @return the new JDOM Element if the node is an Element (and its
+	 *        children should be processed next), otherwise null.
+	 */
+	private Element buildNode(final org.w3c.dom.Node node,
+			final Document doc,
+			final Element current,
+			final NamespaceCache nscache) {
+		final boolean atRoot = current == null;
+		switch (node.getNodeType()) {
+			case org.w3c.dom.Node.ELEMENT_NODE:
+				return buildElement(node, doc, current, nscache);
 
 			case org.w3c.dom.Node.TEXT_NODE:
 				factory.addContent(current, build((org.w3c.dom.Text)node));
@@ -468,5 +394,181 @@ public class DOMBuilder {
 				factory.addContent(doc, build((org.w3c.dom.DocumentType)node));
 				break;
 		}
+		return null;
+	}
+
+	private Element buildElement(final org.w3c.dom.Node node,
+			final Document doc,
+			final Element current,
+			final NamespaceCache nscache) {
+		String nodeName = node.getNodeName();
+		String prefix = NS_PREFIX_DEFAULT;
+		String localName = nodeName;
+		int colon = nodeName.indexOf(':');
+		if (colon >= 0) {
+			prefix = nodeName.substring(0, colon);
+			localName = nodeName.substring(colon + 1);
+		}
+
+		// Get element's namespace
+		Namespace ns = null;
+		String uri = node.getNamespaceURI();
+		if (uri == null) {
+			ns = (current == null) ? Namespace.NO_NAMESPACE
+					: current.getNamespace(prefix);
+		}
+		else {
+			ns = nscache.get(prefix, uri);
+		}
+
+		Element element = factory.element(localName, ns);
+
+		if (current == null) {
+			// If at root, set as document root
+			factory.setRoot(doc, element);
+		} else {
+			// else add to parent element
+			factory.addContent(current, element);
+		}
+
+		// Add namespaces
+		org.w3c.dom.NamedNodeMap attributeList = node.getAttributes();
+		int attsize = attributeList.getLength();
+
+		for (int i = 0; i < attsize; i++) {
+			org.w3c.dom.Attr att = (org.w3c.dom.Attr) attributeList.item(i);
+
+			String attname = att.getName();
+			if (attname.startsWith(NS_PREFIX_XMLNS)) {
+				String attPrefix = NS_PREFIX_DEFAULT;
+				colon = attname.indexOf(':');
+				if (colon >= 0) {
+					attPrefix = attname.substring(colon + 1);
+				}
+
+				String attvalue = att.getValue();
+
+				Namespace declaredNS = nscache.get(attPrefix, attvalue);
+
+				// Add as additional namespaces if it's different
+				// to this element's namespace (perhaps we should
+				// also have logic not to mark them as additional if
+				// it's been done already, but it probably doesn't
+				// matter)
+				if (prefix.equals(attPrefix)) {
+					// RL: note, it should also be true that uri.equals(attvalue)
+					// if not, then the parser is boken.
+					// further, declaredNS should be exactly the same as ns
+					// so the following should in fact do nothing.
+					element.setNamespace(declaredNS);
+				}
+				else {
+					factory.addNamespaceDeclaration(element, declaredNS);
+				}
+			}
+		}
+
+		// Add attributes
+		for (int i = 0; i < attsize; i++) {
+			org.w3c.dom.Attr att = (org.w3c.dom.Attr) attributeList.item(i);
+
+			String attname = att.getName();
+
+			if ( !attname.startsWith(NS_PREFIX_XMLNS)) {
+				String attPrefix = NS_PREFIX_DEFAULT;
+				String attLocalName = attname;
+				colon = attname.indexOf(':');
+				if (colon >= 0) {
+					attPrefix = attname.substring(0, colon);
+					attLocalName = attname.substring(colon + 1);
+				}
+
+				String attvalue = att.getValue();
+
+				// Get attribute's namespace
+				Namespace attNS = null;
+				String attURI = att.getNamespaceURI(); 
+				if (attPrefix.isEmpty() && (attURI == null || NS_URI_DEFAULT.equals(attURI))) {
+					attNS = Namespace.NO_NAMESPACE;
+				} else {
+					// various conditions can lead here.
+					// the logical one is that we have a prefix for the
+					// attribute, and also a namespace URI.
+					// The alternative to that is in some conditions,
+					// the parser could have a 'default' or 'fixed'
+					// attribute that comes from an XSD used for
+					// validation. In that case there may not be a prefix
+					// There's also the possibility the DOM contains
+					// garbage.
+					if (attPrefix.length() > 0) {
+						// If the att has a prefix, we can assume that
+						// the DOM is valid, and we can just use the prefix.
+						// if this prefix conflicts with some other namespace
+						// then we re-declare it. If redeclaring it screws up
+						// other attributes in this Element, then the DOM
+						// was broken to start with.
+						if (attURI == null) {
+							// this can happen when the DOM is created
+							// without being namespace aware. we have a
+							// prefix, but the URI is not embedded in
+							// the Attribute itself. It must be declared
+							// on the element somewhere....
+							// https://github.com/hunterhacker/jdom/issues/138
+							attNS = element.getNamespace(attPrefix);
+						} else {
+							attNS = nscache.get(attPrefix, attURI);
+						}
+					} else {
+						// OK, no prefix.
+						// must be a defaulted value from an XSD.
+						// perhaps we can find the namespace in our
+						// element's ancestry, and use the prefix from that.
+						HashMap<String, Namespace> tmpmap = new HashMap<String, Namespace>();
+						for(Namespace nss : element.getNamespacesInScope()) {
+							if (nss.getPrefix().length() > 0 && nss.getURI().equals(attURI)) {
+								attNS = nss;
+								break;
+							}
+							tmpmap.put(nss.getPrefix(), nss);
+						}
+						if (attNS == null) {
+							// we cannot find a 'prevailing' namespace that has a prefix
+							// that is for this namespace.
+							// This basically means that there's an XMLSchema, for the
+							// DEFAULT namespace, and there's a defaulted/fixed
+							// attribute definition in the XMLSchema that's targeted
+							// for this namespace,... but, the user has either not
+							// declared a prefixed version of the namespace, or has
+							// re-declared the same prefix at a lower level with a
+							// different namespace.
+							// All of these things are possible.
+							// Create some sort of default prefix.
+							int cnt = 0;
+							String base = "attns";
+							String pfx = base + cnt;
+							while (tmpmap.containsKey(pfx)) {
+								cnt++;
+								pfx = base + cnt;
+							}
+							attNS = Namespace.getNamespace(pfx, attURI);
+						}
+					}
+				}
+
+				Attribute attribute =
+						factory.attribute(attLocalName, attvalue, attNS);
+				factory.setAttribute(element, attribute);
+			}
+		}
+
+		if (node.hasChildNodes()) {
+			// pre-size the content to the number of children.
+			// The list should never be null but some DOM impls are broken
+			final org.w3c.dom.NodeList children = node.getChildNodes();
+			if (children != null) {
+				element.ensureContentCapacity(children.getLength());
+			}
+		}
+		return element;
 	}
 }
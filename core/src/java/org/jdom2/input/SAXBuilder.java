@@ -54,6 +54,7 @@
 
 package org.jdom2.input;
 
+import static org.jdom2.JDOMConstants.SAX_FEATURE_STRING_INTERNING;
 import static org.jdom2.JDOMConstants.SAX_PROPERTY_DECLARATION_HANDLER;
 import static org.jdom2.JDOMConstants.SAX_PROPERTY_LEXICAL_HANDLER;
 import static org.jdom2.JDOMConstants.SAX_PROPERTY_LEXICAL_HANDLER_ALT;
@@ -65,6 +66,7 @@ import java.io.Reader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.xml.sax.DTDHandler;
@@ -76,6 +78,7 @@ import org.xml.sax.SAXNotSupportedException;
 import org.xml.sax.XMLFilter;
 import org.xml.sax.XMLReader;
 
+import org.jdom2.Content;
 import org.jdom2.DefaultJDOMFactory;
 import org.jdom2.DocType;
 import org.jdom2.Document;
@@ -88,11 +91,13 @@ import org.jdom2.input.sax.BuilderErrorHandler;
 import org.jdom2.input.sax.DefaultSAXHandlerFactory;
 import org.jdom2.input.sax.SAXBuilderEngine;
 import org.jdom2.input.sax.SAXEngine;
+import org.jdom2.input.sax.SAXFragmentHandler;
 import org.jdom2.input.sax.SAXHandler;
 import org.jdom2.input.sax.SAXHandlerFactory;
 import org.jdom2.input.sax.XMLReaderJDOMFactory;
 import org.jdom2.input.sax.XMLReaderSAX2Factory;
 import org.jdom2.input.sax.XMLReaders;
+import org.jdom2.input.stax.StAXFilter;
 
 /**
  * Builds a JDOM Document using a SAX parser.
@@ -197,6 +202,9 @@ public class SAXBuilder implements SAXEngine {
 	/** Whether to ignore all whitespace content */
 	private boolean ignoringBoundaryWhite = false;
 
+	/** The limits each build must stay within, if any */
+	private BuildLimits buildLimits = null;
+
 	/** Whether parser reuse is allowed. */
 	private boolean reuseParser = true;
 
@@ -680,6 +688,30 @@ public class SAXBuilder implements SAXEngine {
 		engine = null;
 	}
 
+	/**
+	 * Returns the limits that each build must stay within.
+	 * 
+	 * @return the limits, or null if builds are not limited.
+	 * @see #setBuildLimits(BuildLimits)
+	 */
+	public BuildLimits getBuildLimits() {
+		return buildLimits;
+	}
+
+	/**
+	 * Set the limits that each build must stay within. A build that breaks
+	 * any of the limits (or is cancelled) is stopped with a
+	 * {@link BuildLimitException}. See {@link BuildLimits} for the details.
+	 * The default is <code>null</code>, which does not limit builds.
+	 * 
+	 * @param limits
+	 *        The limits to apply, or null to not limit builds.
+	 */
+	public void setBuildLimits(final BuildLimits limits) {
+		this.buildLimits = limits;
+		engine = null;
+	}
+
 	/**
 	 * Returns whether or not entities are being expanded into normal text
 	 * content.
@@ -853,6 +885,7 @@ public class SAXBuilder implements SAXEngine {
 		contentHandler.setExpandEntities(getExpandEntities());
 		contentHandler.setIgnoringElementContentWhitespace(ignoringWhite);
 		contentHandler.setIgnoringBoundaryWhitespace(ignoringBoundaryWhite);
+		contentHandler.setBuildLimits(buildLimits);
 
 		final XMLReader parser = createParser();
 		// Configure parser
@@ -984,6 +1017,18 @@ public class SAXBuilder implements SAXEngine {
 			internalSetFeature(parser, me.getKey(), me.getValue().booleanValue(), me.getKey());
 		}
 
+		// Parsers that intern the names they report let the handler
+		// recognise them by identity.
+		boolean interning = false;
+		try {
+			interning = parser.getFeature(SAX_FEATURE_STRING_INTERNING);
+		} catch (final SAXNotSupportedException e) {
+			// names are not known to be interned
+		} catch (final SAXNotRecognizedException e) {
+			// names are not known to be interned
+		}
+		contentHandler.setInternedNames(interning);
+
 		// Try setting the DeclHandler if entity expansion is off
 		if (!getExpandEntities()) {
 			try {
@@ -1290,4 +1335,130 @@ public class SAXBuilder implements SAXEngine {
 		}
 	}
 
+
+	/**
+	 * Build a List of JDOM content fragments from the supplied input, keeping
+	 * only the content the supplied filter selects. The filter is applied
+	 * while parsing (see {@link SAXFragmentHandler}), so content that is
+	 * skipped is never built. This makes it practical to extract a small part
+	 * of a very large document.
+	 * <p>
+	 * The filter works the same way as for
+	 * {@link StAXStreamBuilder#buildFragments(javax.xml.stream.XMLStreamReader, StAXFilter)}.
+	 * All the other settings of this SAXBuilder apply as they do for a build.
+	 * The SAXHandlerFactory is not used, the content is built by a
+	 * SAXFragmentHandler using the current JDOMFactory.
+	 * 
+	 * @param in
+	 *        <code>InputSource</code> to read from
+	 * @param filter
+	 *        The filter selecting the content to build
+	 * @return the List of content fragments in document order
+	 * @throws JDOMException
+	 *         when errors occur in parsing
+	 * @throws IOException
+	 *         when an I/O error prevents a document from being fully parsed
+	 * @since JDOM2
+	 */
+	public List<Content> buildFragments(final InputSource in,
+			final StAXFilter filter) throws JDOMException, IOException {
+		final SAXFragmentHandler handler = new SAXFragmentHandler(jdomfac, filter);
+		handler.setExpandEntities(getExpandEntities());
+		handler.setIgnoringElementContentWhitespace(ignoringWhite);
+		handler.setIgnoringBoundaryWhitespace(ignoringBoundaryWhite);
+		handler.setBuildLimits(buildLimits);
+
+		final XMLReader parser = createParser();
+		configureParser(parser, handler);
+		// the engine resets the handler when it is done, which starts a new
+		// list, so keep a reference to the list this parse fills.
+		final List<Content> fragments = handler.getFragments();
+		new SAXBuilderEngine(parser, handler, readerfac.isValidating()).build(in);
+		return fragments;
+	}
+
+	/**
+	 * Build a List of filtered JDOM content fragments from the supplied
+	 * InputStream.
+	 * 
+	 * @param in
+	 *        <code>InputStream</code> to read from
+	 * @param filter
+	 *        The filter selecting the content to build
+	 * @return the List of content fragments in document order
+	 * @throws JDOMException
+	 *         when errors occur in parsing
+	 * @throws IOException
+	 *         when an I/O error prevents a document from being fully parsed
+	 * @see #buildFragments(InputSource, StAXFilter)
+	 * @since JDOM2
+	 */
+	public List<Content> buildFragments(final InputStream in,
+			final StAXFilter filter) throws JDOMException, IOException {
+		return buildFragments(new InputSource(in), filter);
+	}
+
+	/**
+	 * Build a List of filtered JDOM content fragments from the supplied
+	 * Reader.
+	 * 
+	 * @param characterStream
+	 *        <code>Reader</code> to read from
+	 * @param filter
+	 *        The filter selecting the content to build
+	 * @return the List of content fragments in document order
+	 * @throws JDOMException
+	 *         when errors occur in parsing
+	 * @throws IOException
+	 *         when an I/O error prevents a document from being fully parsed
+	 * @see #buildFragments(InputSource, StAXFilter)
+	 * @since JDOM2
+	 */
+	public List<Content> buildFragments(final Reader characterStream,
+			final StAXFilter filter) throws JDOMException, IOException {
+		return buildFragments(new InputSource(characterStream), filter);
+	}
+
+	/**
+	 * Build a List of filtered JDOM content fragments from the supplied
+	 * URL.
+	 * 
+	 * @param url
+	 *        <code>URL</code> to read from
+	 * @param filter
+	 *        The filter selecting the content to build
+	 * @return the List of content fragments in document order
+	 * @throws JDOMException
+	 *         when errors occur in parsing
+	 * @throws IOException
+	 *         when an I/O error prevents a document from being fully parsed
+	 * @see #buildFragments(InputSource, StAXFilter)
+	 * @since JDOM2
+	 */
+	public List<Content> buildFragments(final URL url,
+			final StAXFilter filter) throws JDOMException, IOException {
+		return buildFragments(new InputSource(url.toExternalForm()), filter);
+	}
+
+	/**
+	 * Build a List of filtered JDOM content fragments from the supplied
+	 * File.
+	 * 
+	 * @param file
+	 *        <code>File</code> to read from
+	 * @param filter
+	 *        The filter selecting the content to build
+	 * @return the List of content fragments in document order
+	 * @throws JDOMException
+	 *         when errors occur in parsing
+	 * @throws IOException
+	 *         when an I/O error prevents a document from being fully parsed
+	 * @see #buildFragments(InputSource, StAXFilter)
+	 * @since JDOM2
+	 */
+	public List<Content> buildFragments(final File file,
+			final StAXFilter filter) throws JDOMException, IOException {
+		return buildFragments(file.getAbsoluteFile().toURI().toURL(), filter);
+	}
+
 }
@@ -69,6 +69,7 @@ import org.jdom2.Comment;
 import org.jdom2.DefaultJDOMFactory;
 import org.jdom2.DocType;
 import org.jdom2.Document;
+import org.jdom2.DocumentBuildListener;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.JDOMFactory;
@@ -92,6 +93,9 @@ import org.jdom2.input.stax.DTDParser;
  * <code>http://java.sun.com/xml/stream/properties/report-cdata-event</code>
  * for the default Java StAX implementation, or the equivalent property for your
  * StAX engine.
+ * <li>StAX parsers may split a single run of text in to several events.
+ * Adjacent character events are always joined back together in to a single
+ * Text (or CDATA) node.
  * <li>The remaining XMLInputFactory settings are likely to work fine at their
  * default values.
  * <li>StAX is not likely to be your best option if you want a validating
@@ -116,16 +120,22 @@ public class StAXEventBuilder {
 	 * Create a Document from an XMLEventReader
 	 * @param factory the {@link JDOMFactory} to use
 	 * @param stream the XMLEventReader to read from
+	 * @param ignoreBoundary whether whitespace-only text is dropped
 	 * @return the parsed Document
 	 * @throws JDOMException if there is any issue
 	 * 				(XMLStreamExceptions are wrapped).
 	 */
 	private static final Document process(final JDOMFactory factory, 
-			final XMLEventReader events) throws JDOMException {
+			final XMLEventReader events, final boolean ignoreBoundary)
+					throws JDOMException {
+		final Document document = factory.document(null);
+		if (factory instanceof DocumentBuildListener) {
+			((DocumentBuildListener)factory).startDocument(document);
+		}
 		try {
 
-			final Document document = factory.document(null);
 			Element current = null;
+			final StAXTextBuffer run = new StAXTextBuffer();
 
 			XMLEvent event = events.peek();
 
@@ -137,6 +147,15 @@ public class StAXEventBuilder {
 
 
 			while (event.getEventType() != XMLStreamConstants.END_DOCUMENT) {
+				if (run.isActive() && !(event.isCharacters() && run.accepts(
+						event.asCharacters().isCData() ? XMLStreamConstants.CDATA
+								: XMLStreamConstants.CHARACTERS))) {
+					final String value = run.take(ignoreBoundary);
+					if (value != null) {
+						current.addContent(run.isCDATA()
+								? factory.cdata(value) : factory.text(value));
+					}
+				}
 				if (event.isStartDocument()) {
 					document.setBaseURI(event.getLocation().getSystemId());
 					document.setProperty("ENCODING_SCHEME",
@@ -166,13 +185,8 @@ public class StAXEventBuilder {
 					// ignore any character-based content (should only be spaces)
 					// outside of the root element.
 					final Characters chars = event.asCharacters();
-					if (chars.isCData()) {
-						current.addContent(factory.cdata(
-								((Characters)event).getData()));
-					} else {
-						current.addContent(factory.text(
-								((Characters)event).getData()));
-					}
+					run.start(chars.isCData(), -1, -1);
+					run.append(chars.getData());
 				} else if (event instanceof javax.xml.stream.events.Comment) {
 					final Comment comment = factory.comment(
 							((javax.xml.stream.events.Comment)event).getText());
@@ -205,6 +219,10 @@ public class StAXEventBuilder {
 			return document;
 		} catch (final XMLStreamException xse) {
 			throw new JDOMException("Unable to process XMLStream. See Cause.", xse);
+		} finally {
+			if (factory instanceof DocumentBuildListener) {
+				((DocumentBuildListener)factory).endDocument(document);
+			}
 		}
 	}
 
@@ -247,6 +265,9 @@ public class StAXEventBuilder {
 	
 	/** The factory to use for parsing */
 	private JDOMFactory factory = new DefaultJDOMFactory();
+
+	/** Whether to ignore whitespace-only text */
+	private boolean ignoringBoundaryWhite = false;
 	
 	/**
 	 * Returns the current {@link org.jdom2.JDOMFactory} in use.
@@ -265,6 +286,35 @@ public class StAXEventBuilder {
 	public void setFactory(JDOMFactory factory) {
 		this.factory = factory;
 	}
+
+	/**
+	 * Returns whether or not the builder will eliminate whitespace-only
+	 * text.
+	 * 
+	 * @return <code>boolean</code> - whether only whitespace content will be
+	 *         ignored during build.
+	 * @see #setIgnoringBoundaryWhitespace
+	 */
+	public boolean getIgnoringBoundaryWhitespace() {
+		return ignoringBoundaryWhite;
+	}
+
+	/**
+	 * Specifies whether or not the builder should eliminate boundary
+	 * whitespace, a term that indicates whitespace-only text between element
+	 * tags. This works the same way as
+	 * {@link SAXBuilder#setIgnoringBoundaryWhitespace(boolean)}: all
+	 * whitespace-only Text inside the Elements is removed, which can (like
+	 * between an element tag and a comment) include whitespace that isn't
+	 * strictly boundary whitespace. CDATA sections are always kept. The
+	 * default is <code>false</code>.
+	 * 
+	 * @param ignoringBoundaryWhite
+	 *        Whether to ignore whitespace-only text nodes
+	 */
+	public void setIgnoringBoundaryWhitespace(final boolean ignoringBoundaryWhite) {
+		this.ignoringBoundaryWhite = ignoringBoundaryWhite;
+	}
 	
 	/**
 	 * This builds a document from the supplied
@@ -277,7 +327,7 @@ public class StAXEventBuilder {
 	 * @throws JDOMException when errors occur in parsing
 	 */
 	public Document build(XMLEventReader events) throws JDOMException {
-		return process(factory, events);
+		return process(factory, events, ignoringBoundaryWhite);
 	}
 	
 }
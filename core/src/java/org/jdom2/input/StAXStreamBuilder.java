@@ -60,6 +60,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
@@ -67,6 +68,7 @@ import org.jdom2.AttributeType;
 import org.jdom2.Content;
 import org.jdom2.DefaultJDOMFactory;
 import org.jdom2.Document;
+import org.jdom2.DocumentBuildListener;
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.JDOMFactory;
@@ -91,6 +93,9 @@ import org.jdom2.input.stax.StAXFilter;
  * <code>http://java.sun.com/xml/stream/properties/report-cdata-event</code>
  * for the default Java StAX implementation, or the equivalent property for your
  * StAX engine.
+ * <li>StAX parsers may split a single run of text in to several events.
+ * Adjacent character events are always joined back together in to a single
+ * Text (or CDATA) node.
  * <li>The remaining XMLInputFactory settings are likely to work fine at their
  * default values.
  * <li>StAX is not likely to be your best option if you want a validating
@@ -110,16 +115,73 @@ import org.jdom2.input.stax.StAXFilter;
  */
 public class StAXStreamBuilder {
 
+	/**
+	 * Get the line of the current event, if available.
+	 * @param reader The XMLStreamReader to query
+	 * @return the line, or -1 if it is not available
+	 */
+	private static final int line(final XMLStreamReader reader) {
+		final Location loc = reader.getLocation();
+		return loc == null ? -1 : loc.getLineNumber();
+	}
+
+	/**
+	 * Get the column of the current event, if available.
+	 * @param reader The XMLStreamReader to query
+	 * @return the column, or -1 if it is not available
+	 */
+	private static final int col(final XMLStreamReader reader) {
+		final Location loc = reader.getLocation();
+		return loc == null ? -1 : loc.getColumnNumber();
+	}
+
+	/**
+	 * Add the current event's characters to the text run, starting a new run
+	 * if needed.
+	 * @param text The run to add to
+	 * @param reader The XMLStreamReader positioned on a character event
+	 * @throws XMLStreamException if the reader fails
+	 */
+	private static final void appendText(final StAXTextBuffer text,
+			final XMLStreamReader reader) throws XMLStreamException {
+		if (!text.isActive()) {
+			text.start(reader.getEventType() == CDATA, line(reader), col(reader));
+		}
+		text.append(reader);
+	}
+
+	/**
+	 * End the current text run, and create the matching Text or CDATA.
+	 * @param factory The {@link JDOMFactory} to use
+	 * @param text The text run to end
+	 * @param ignoreBoundary whether whitespace-only text is dropped
+	 * @return the new Content, or null if there is none
+	 */
+	private static final Content takeText(final JDOMFactory factory,
+			final StAXTextBuffer text, final boolean ignoreBoundary) {
+		final String value = text.take(ignoreBoundary);
+		if (value == null) {
+			return null;
+		}
+		return text.isCDATA()
+				? factory.cdata(text.getLine(), text.getColumn(), value)
+				: factory.text(text.getLine(), text.getColumn(), value);
+	}
+
 	/**
 	 * Create a Document from an XMLStreamReader
 	 * @param factory The {@link JDOMFactory} to use
 	 * @param stream The XMLStreamReader to read from
+	 * @param ignoreBoundary whether whitespace-only text is dropped
+	 * @param limits the limits to build within, may be null
 	 * @return the parsed Document
 	 * @throws JDOMException if there is any issue
 	 * 				(XMLStreamExceptions are wrapped).
 	 */
 	private static final Document process(final JDOMFactory factory, 
-			final XMLStreamReader stream) throws JDOMException {
+			final XMLStreamReader stream, final boolean ignoreBoundary,
+			final BuildLimits limits) throws JDOMException {
+		Document document = null;
 		try {
 
 			int state = stream.getEventType();
@@ -129,7 +191,12 @@ public class StAXStreamBuilder {
 						"are at their beginning when being processed.");
 			}
 
-			final Document document = factory.document(null);
+			document = factory.document(null);
+			if (factory instanceof DocumentBuildListener) {
+				((DocumentBuildListener)factory).startDocument(document);
+			}
+			final BuildLimits.Tracker tracker =
+					limits == null ? null : limits.startBuild();
 
 			while (state != END_DOCUMENT) {
 				switch (state) {
@@ -151,7 +218,8 @@ public class StAXStreamBuilder {
 						break;
 
 					case START_ELEMENT:
-						document.setRootElement(processElementFragment(factory, stream));
+						document.setRootElement(processElementFragment(factory,
+								stream, ignoreBoundary, tracker));
 						break;
 
 					case END_ELEMENT:
@@ -162,7 +230,7 @@ public class StAXStreamBuilder {
 						throw new JDOMException("Unexpected XMLStream event at Document level: CDATA");
 					case SPACE:
 						// Can happen when XMLInputFactory2.P_REPORT_PROLOG_WHITESPACE is set to true
-						document.addContent(factory.text(stream.getText()));
+						document.addContent(factory.text(line(stream), col(stream), stream.getText()));
 						break;
 					case CHARACTERS:
 						final String badtxt = stream.getText();
@@ -174,11 +242,11 @@ public class StAXStreamBuilder {
 
 					case COMMENT:
 						document.addContent(
-								factory.comment(stream.getText()));
+								factory.comment(line(stream), col(stream), stream.getText()));
 						break;
 
 					case PROCESSING_INSTRUCTION:
-						document.addContent(factory.processingInstruction(
+						document.addContent(factory.processingInstruction(line(stream), col(stream),
 								stream.getPITarget(), stream.getPIData()));
 						break;
 
@@ -195,12 +263,17 @@ public class StAXStreamBuilder {
 			return document;
 		} catch (final XMLStreamException xse) {
 			throw new JDOMException("Unable to process XMLStream. See Cause.", xse);
+		} finally {
+			if (document != null && factory instanceof DocumentBuildListener) {
+				((DocumentBuildListener)factory).endDocument(document);
+			}
 		}
 	}
 
 	private List<Content> processFragments(JDOMFactory factory, XMLStreamReader stream, StAXFilter filter) throws JDOMException {
 		
 		int state = stream.getEventType();
+		final StAXTextBuffer run = new StAXTextBuffer();
 
 		if (START_DOCUMENT != state) {
 			throw new JDOMException("JDOM requires that XMLStreamReaders " +
@@ -213,6 +286,9 @@ public class StAXStreamBuilder {
 		
 		try {
 			while (stream.hasNext() && (state = stream.next()) != END_DOCUMENT) {
+				if (run.isActive() && !run.accepts(state)) {
+					includeText(factory, run, depth, filter, ret);
+				}
 				switch (state) {
 					case START_DOCUMENT:
 						throw new JDOMException("Illegal state for XMLStreamReader. Cannot get XML Fragment for state START_DOCUMENT" );
@@ -225,7 +301,8 @@ public class StAXStreamBuilder {
 						final QName qn = stream.getName();
 						if (filter.includeElement(depth, qn.getLocalPart(), 
 								Namespace.getNamespace(qn.getPrefix(), qn.getNamespaceURI()))) {
-							ret.add(processPrunableElement(factory, stream, depth, filter));
+							ret.add(processPrunableElement(factory, stream, depth,
+								filter, ignoringBoundaryWhite));
 						} else {
 							final int back = depth;
 							depth++;
@@ -248,33 +325,26 @@ public class StAXStreamBuilder {
 						break;
 
 					case CDATA:
-						if ((text = filter.includeCDATA(depth, stream.getText())) != null) {
-							ret.add(factory.cdata(text));
-						}
-						break;
-
 					case SPACE:
 					case CHARACTERS:
-						if ((text = filter.includeText(depth, stream.getText())) != null) {
-							ret.add(factory.text(text));
-						}
+						appendText(run, stream);
 						break;
 
 					case COMMENT:
 						if ((text = filter.includeComment(depth, stream.getText())) != null) {
-							ret.add(factory.comment(text));
+							ret.add(factory.comment(line(stream), col(stream), text));
 						}
 						break;
 
 					case ENTITY_REFERENCE:
 						if (filter.includeEntityRef(depth, stream.getLocalName())) {
-							ret.add(factory.entityRef(stream.getLocalName()));
+							ret.add(factory.entityRef(line(stream), col(stream), stream.getLocalName()));
 						}
 						break;
 
 					case PROCESSING_INSTRUCTION:
 						if (filter.includeProcessingInstruction(depth, stream.getPITarget())) {
-							ret.add(factory.processingInstruction(
+							ret.add(factory.processingInstruction(line(stream), col(stream),
 								stream.getPITarget(), stream.getPIData()));
 						}
 						break;
@@ -283,6 +353,9 @@ public class StAXStreamBuilder {
 						throw new JDOMException("Unexpected XMLStream event " + stream.getEventType());
 				}
 			}
+			if (run.isActive()) {
+				includeText(factory, run, depth, filter, ret);
+			}
 		} catch (XMLStreamException e) {
 			throw new JDOMException("Unable to process fragments from XMLStreamReader.", e);
 		}
@@ -290,9 +363,52 @@ public class StAXStreamBuilder {
 		return ret;
 	}
 
+	/**
+	 * End the current text run, and add it to the fragments if the filter
+	 * includes it.
+	 */
+	private static final void includeText(final JDOMFactory factory,
+			final StAXTextBuffer run, final int depth, final StAXFilter filter,
+			final List<Content> ret) {
+		final String value = run.take(false);
+		if (value == null) {
+			return;
+		}
+		final String text = run.isCDATA()
+				? filter.includeCDATA(depth, value)
+				: filter.includeText(depth, value);
+		if (text != null) {
+			ret.add(run.isCDATA()
+					? factory.cdata(run.getLine(), run.getColumn(), text)
+					: factory.text(run.getLine(), run.getColumn(), text));
+		}
+	}
+
+	/**
+	 * End the current text run, and add it to the Element unless the filter
+	 * prunes it.
+	 */
+	private static final void pruneText(final JDOMFactory factory,
+			final StAXTextBuffer run, final int depth, final StAXFilter filter,
+			final Element current, final boolean ignoreBoundary) {
+		final String value = run.take(ignoreBoundary);
+		if (value == null) {
+			return;
+		}
+		final String text = run.isCDATA()
+				? filter.pruneCDATA(depth, value)
+				: filter.pruneText(depth, value);
+		if (text != null) {
+			current.addContent(run.isCDATA()
+					? factory.cdata(run.getLine(), run.getColumn(), text)
+					: factory.text(run.getLine(), run.getColumn(), text));
+		}
+	}
+
 	
 	private static final Element processPrunableElement(final JDOMFactory factory, 
-			final XMLStreamReader reader, final int topdepth, StAXFilter filter) 
+			final XMLStreamReader reader, final int topdepth, StAXFilter filter,
+			final boolean ignoreBoundary) 
 					throws XMLStreamException, JDOMException {
 
 		if (START_ELEMENT != reader.getEventType()) {
@@ -305,8 +421,13 @@ public class StAXStreamBuilder {
 		Element current = fragment;
 		int depth = topdepth + 1;
 		String text = null;
+		final StAXTextBuffer run = new StAXTextBuffer();
 		while (depth > topdepth && reader.hasNext()) {
-			switch(reader.next()) {
+			final int state = reader.next();
+			if (run.isActive() && !run.accepts(state)) {
+				pruneText(factory, run, depth, filter, current, ignoreBoundary);
+			}
+			switch(state) {
 				case START_ELEMENT:
 					QName qn = reader.getName();
 					if (!filter.pruneElement(depth, qn.getLocalPart(), 
@@ -319,12 +440,12 @@ public class StAXStreamBuilder {
 					} else {
 						final int edepth = depth;
 						depth++;
-						int state = 0;
+						int skip = 0;
 						while (depth > edepth && reader.hasNext() && 
-								(state = reader.next()) != END_DOCUMENT) {
-							if (state == START_ELEMENT) {
+								(skip = reader.next()) != END_DOCUMENT) {
+							if (skip == START_ELEMENT) {
 								depth++;
-							} else if (state == END_ELEMENT) {
+							} else if (skip == END_ELEMENT) {
 								depth--;
 							}
 						}
@@ -335,33 +456,26 @@ public class StAXStreamBuilder {
 					depth--;
 					break;
 				case CDATA:
-					if ((text = filter.pruneCDATA(depth, reader.getText())) != null) {
-						current.addContent(factory.cdata(text));
-					}
-					break;
-
 				case SPACE:
 				case CHARACTERS:
-					if ((text = filter.pruneText(depth, reader.getText())) != null) {
-						current.addContent(factory.text(text));
-					}
+					appendText(run, reader);
 					break;
 
 				case COMMENT:
 					if ((text = filter.pruneComment(depth, reader.getText())) != null) {
-						current.addContent(factory.comment(text));
+						current.addContent(factory.comment(line(reader), col(reader), text));
 					}
 					break;
 
 				case ENTITY_REFERENCE:
 					if (!filter.pruneEntityRef(depth, reader.getLocalName())) {
-						current.addContent(factory.entityRef(reader.getLocalName()));
+						current.addContent(factory.entityRef(line(reader), col(reader), reader.getLocalName()));
 					}
 					break;
 
 				case PROCESSING_INSTRUCTION:
 					if (!filter.pruneProcessingInstruction(depth, reader.getPITarget())) {
-						current.addContent(factory.processingInstruction(
+						current.addContent(factory.processingInstruction(line(reader), col(reader),
 								reader.getPITarget(), reader.getPIData()));
 					}
 					break;
@@ -378,15 +492,20 @@ public class StAXStreamBuilder {
 	/**
 	 * Create a Content from an XMLStreamReader
 	 * The stream is advanced to the event after the current event (or to the
-	 * event after the matching END_ELEMENT for an Element fragment).
+	 * event after the matching END_ELEMENT for an Element fragment, or after
+	 * the last of a run of adjacent character events).
 	 * @param factory The {@link JDOMFactory} to use
 	 * @param stream The XMLStreamReader to read from
+	 * @param ignoreBoundary whether whitespace-only text is dropped inside
+	 *        Element fragments
+	 * @param limits the limits to build Element fragments within, may be null
 	 * @return the parsed Document
 	 * @throws JDOMException if there is any issue
 	 * 				(XMLStreamExceptions are wrapped).
 	 */
 	private static final Content processFragment(final JDOMFactory factory, 
-			final XMLStreamReader stream) throws JDOMException {
+			final XMLStreamReader stream, final boolean ignoreBoundary,
+			final BuildLimits limits) throws JDOMException {
 		try {
 			
 			switch (stream.getEventType()) {
@@ -399,7 +518,8 @@ public class StAXStreamBuilder {
 					throw new JDOMException("Illegal state for XMLStreamReader. Cannot get XML Fragment for state END_ELEMENT" );
 
 				case START_ELEMENT:
-					Element emt = processElementFragment(factory, stream);
+					Element emt = processElementFragment(factory, stream,
+							ignoreBoundary, limits == null ? null : limits.startBuild());
 					stream.next();
 					return emt;
 
@@ -409,28 +529,27 @@ public class StAXStreamBuilder {
 					return dt;
 
 				case CDATA:
-					Content cd = factory.cdata(stream.getText());
-					stream.next();
-					return cd;
-
 				case SPACE:
 				case CHARACTERS:
-					Content txt = factory.text(stream.getText());
-					stream.next();
-					return txt;
+					final StAXTextBuffer run = new StAXTextBuffer();
+					appendText(run, stream);
+					while (stream.hasNext() && run.accepts(stream.next())) {
+						appendText(run, stream);
+					}
+					return takeText(factory, run, false);
 
 				case COMMENT:
-					Content comment = factory.comment(stream.getText());
+					Content comment = factory.comment(line(stream), col(stream), stream.getText());
 					stream.next();
 					return comment;
 
 				case ENTITY_REFERENCE:
-					Content er = factory.entityRef(stream.getLocalName());
+					Content er = factory.entityRef(line(stream), col(stream), stream.getLocalName());
 					stream.next();
 					return er;
 
 				case PROCESSING_INSTRUCTION:
-					Content pi = factory.processingInstruction(
+					Content pi = factory.processingInstruction(line(stream), col(stream),
 							stream.getPITarget(), stream.getPIData());
 					stream.next();
 					return pi;
@@ -445,7 +564,9 @@ public class StAXStreamBuilder {
 	}
 
 	private static final Element processElementFragment(final JDOMFactory factory, 
-			final XMLStreamReader reader) throws XMLStreamException, JDOMException {
+			final XMLStreamReader reader, final boolean ignoreBoundary,
+			final BuildLimits.Tracker tracker)
+					throws XMLStreamException, JDOMException {
 
 		if (START_ELEMENT != reader.getEventType()) {
 			throw new JDOMException("JDOM requires that the XMLStreamReader " +
@@ -453,40 +574,57 @@ public class StAXStreamBuilder {
 					"Element Fragment.");
 		}
 		
+		if (tracker != null) {
+			tracker.startElement(reader.getAttributeCount());
+		}
 		final Element fragment = processElement(factory, reader);
 		Element current = fragment;
 		int depth = 1;
+		final StAXTextBuffer run = new StAXTextBuffer();
 		while (depth > 0 && reader.hasNext()) {
-			switch(reader.next()) {
+			final int state = reader.next();
+			if (run.isActive() && !run.accepts(state)) {
+				final Content txt = takeText(factory, run, ignoreBoundary);
+				if (txt != null) {
+					current.addContent(txt);
+				}
+			}
+			switch(state) {
 				case START_ELEMENT:
+					if (tracker != null) {
+						tracker.startElement(reader.getAttributeCount());
+					}
 					Element tmp = processElement(factory, reader);
 					current.addContent(tmp);
 					current = tmp;
 					depth++;
 					break;
 				case END_ELEMENT:
+					if (tracker != null) {
+						tracker.endElement();
+					}
 					current = current.getParentElement();
 					depth--;
 					break;
 				case CDATA:
-					current.addContent(factory.cdata(reader.getText()));
-					break;
-
 				case SPACE:
 				case CHARACTERS:
-					current.addContent(factory.text(reader.getText()));
+					if (tracker != null) {
+						tracker.text(reader.getTextLength());
+					}
+					appendText(run, reader);
 					break;
 
 				case COMMENT:
-					current.addContent(factory.comment(reader.getText()));
+					current.addContent(factory.comment(line(reader), col(reader), reader.getText()));
 					break;
 
 				case ENTITY_REFERENCE:
-					current.addContent(factory.entityRef(reader.getLocalName()));
+					current.addContent(factory.entityRef(line(reader), col(reader), reader.getLocalName()));
 					break;
 
 				case PROCESSING_INSTRUCTION:
-					current.addContent(factory.processingInstruction(
+					current.addContent(factory.processingInstruction(line(reader), col(reader),
 							reader.getPITarget(), reader.getPIData()));
 					break;
 
@@ -502,7 +640,7 @@ public class StAXStreamBuilder {
 	private static final Element processElement(final JDOMFactory factory, 
 			final XMLStreamReader reader) {
 
-		final Element element = factory.element(reader.getLocalName(),
+		final Element element = factory.element(line(reader), col(reader), reader.getLocalName(),
 				Namespace.getNamespace(reader.getPrefix(), 
 						reader.getNamespaceURI()));
 
@@ -529,6 +667,12 @@ public class StAXStreamBuilder {
 	/** The factory to use for parsing */
 	private JDOMFactory builderfactory = new DefaultJDOMFactory();
 
+	/** Whether to ignore whitespace-only text */
+	private boolean ignoringBoundaryWhite = false;
+
+	/** The limits each build must stay within, if any */
+	private BuildLimits buildLimits = null;
+
 	/**
 	 * Returns the current {@link org.jdom2.JDOMFactory} in use.
 	 * @return the factory in use
@@ -547,6 +691,59 @@ public class StAXStreamBuilder {
 		this.builderfactory = factory;
 	}
 
+	/**
+	 * Returns whether or not the builder will eliminate whitespace-only
+	 * text.
+	 * 
+	 * @return <code>boolean</code> - whether only whitespace content will be
+	 *         ignored during build.
+	 * @see #setIgnoringBoundaryWhitespace
+	 */
+	public boolean getIgnoringBoundaryWhitespace() {
+		return ignoringBoundaryWhite;
+	}
+
+	/**
+	 * Specifies whether or not the builder should eliminate boundary
+	 * whitespace, a term that indicates whitespace-only text between element
+	 * tags. This works the same way as
+	 * {@link SAXBuilder#setIgnoringBoundaryWhitespace(boolean)}: all
+	 * whitespace-only Text inside the Elements is removed, which can (like
+	 * between an element tag and a comment) include whitespace that isn't
+	 * strictly boundary whitespace. CDATA sections are always kept. The
+	 * default is <code>false</code>.
+	 * 
+	 * @param ignoringBoundaryWhite
+	 *        Whether to ignore whitespace-only text nodes
+	 */
+	public void setIgnoringBoundaryWhitespace(final boolean ignoringBoundaryWhite) {
+		this.ignoringBoundaryWhite = ignoringBoundaryWhite;
+	}
+
+	/**
+	 * Returns the limits that each build must stay within.
+	 * 
+	 * @return the limits, or null if builds are not limited.
+	 * @see #setBuildLimits(BuildLimits)
+	 */
+	public BuildLimits getBuildLimits() {
+		return buildLimits;
+	}
+
+	/**
+	 * Set the limits that each {@link #build(XMLStreamReader)} (and each
+	 * Element {@link #fragment(XMLStreamReader)}) must stay within. A build
+	 * that breaks any of the limits (or is cancelled) is stopped with a
+	 * {@link BuildLimitException}. See {@link BuildLimits} for the details.
+	 * The default is <code>null</code>, which does not limit builds.
+	 * 
+	 * @param limits
+	 *        The limits to apply, or null to not limit builds.
+	 */
+	public void setBuildLimits(final BuildLimits limits) {
+		this.buildLimits = limits;
+	}
+
 	/**
 	 * This builds a document from the supplied
 	 * XMLStreamReader.
@@ -558,7 +755,7 @@ public class StAXStreamBuilder {
 	 * @throws JDOMException when errors occur in parsing
 	 */
 	public Document build(XMLStreamReader reader) throws JDOMException {
-		return process(builderfactory, reader);
+		return process(builderfactory, reader, ignoringBoundaryWhite, buildLimits);
 	}
 	
 	/**
@@ -584,7 +781,8 @@ public class StAXStreamBuilder {
 	 * XMLStreamReader or some other issue with the processing.
 	 */
 	public Content fragment(XMLStreamReader reader) throws JDOMException {
-		return processFragment(builderfactory, reader);
+		return processFragment(builderfactory, reader, ignoringBoundaryWhite,
+				buildLimits);
 	}
 
 }
@@ -471,7 +471,19 @@ public class StAXStreamWriter implements XMLStreamWriter {
 	@Override
 	public void writeCharacters(final char[] chars, final int start,
 			final int len) throws XMLStreamException {
-		writeCharacters(new String(chars, start, len));
+		if (document == null || done) {
+			throw new XMLStreamException("Unable to add Characters at this point in the stream.");
+		}
+		flushActiveElement();
+		if (chars == null) {
+			return;
+		}
+		if (activetext != null) {
+			// append the chunk directly, no intermediate String.
+			activetext.append(chars, start, len);
+		} else {
+			writeCharacters(new String(chars, start, len));
+		}
 	}
 
 	@Override
@@ -0,0 +1,254 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.input;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jdom2.Verifier;
+import org.jdom2.internal.ArrayCopy;
+
+/**
+ * A non-public utility class that gathers adjacent StAX character events in
+ * to a single run of text, much like the TextBuffer does for SAXHandler.
+ * StAX parsers are free to split text at their own buffer boundaries, so
+ * without this a single text value could become several adjacent Text nodes.
+ * <p>
+ * Character data is copied straight out of the XMLStreamReader in to a
+ * reusable char array, so no String is created until the whole run is
+ * available. Short whitespace-only runs (typically indenting) are very
+ * repetitive, and are shared from a small cache instead of creating a new
+ * String for each one.
+ * 
+ * @author Rolf Lear
+ */
+final class StAXTextBuffer {
+
+	/** Whitespace runs longer than this are not cached */
+	private static final int MAXCACHED = 32;
+
+	/** The number of slots in the whitespace cache, a power of 2 */
+	private static final int CACHESIZE = 64;
+
+	private final String[] whitespace = new String[CACHESIZE];
+
+	private char[] chars = new char[256];
+
+	private int size = 0;
+
+	private boolean active = false;
+
+	private boolean cdata = false;
+
+	private int line = -1;
+
+	private int col = -1;
+
+	/**
+	 * Is there a run of text in progress.
+	 * @return true if text has been started but not taken.
+	 */
+	boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * Can an event of the given type be added to the current run.
+	 * @param state The StAX event type.
+	 * @return true if there is no run in progress, or the event and the run
+	 *         are both character/space. Each CDATA section is kept as its
+	 *         own run, adjacent sections are how <code>]]&gt;</code> is put
+	 *         in CDATA.
+	 */
+	boolean accepts(final int state) {
+		switch (state) {
+			case XMLStreamReader.CDATA:
+				return !active;
+			case XMLStreamReader.CHARACTERS:
+			case XMLStreamReader.SPACE:
+				return !active || !cdata;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Start a new run if one is not already in progress.
+	 * @param iscdata whether the run is CDATA
+	 * @param sline the line the run starts on
+	 * @param scol the column the run starts on
+	 */
+	void start(final boolean iscdata, final int sline, final int scol) {
+		if (!active) {
+			active = true;
+			cdata = iscdata;
+			line = sline;
+			col = scol;
+			size = 0;
+		}
+	}
+
+	/**
+	 * Copy the characters of the reader's current event in to the run.
+	 * @param reader The reader positioned on a character event
+	 * @throws XMLStreamException if the reader fails
+	 */
+	void append(final XMLStreamReader reader) throws XMLStreamException {
+		final int len = reader.getTextLength();
+		ensure(len);
+		int done = 0;
+		while (done < len) {
+			final int got = reader.getTextCharacters(done, chars, size + done,
+					len - done);
+			if (got <= 0) {
+				break;
+			}
+			done += got;
+		}
+		size += done;
+	}
+
+	/**
+	 * Add the characters of a String to the run.
+	 * @param data the characters to add
+	 */
+	void append(final String data) {
+		final int len = data.length();
+		ensure(len);
+		data.getChars(0, len, chars, size);
+		size += len;
+	}
+
+	private void ensure(final int len) {
+		if (size + len > chars.length) {
+			chars = ArrayCopy.copyOf(chars, size + len + (chars.length >> 1));
+		}
+	}
+
+	/**
+	 * Was the most recent run CDATA.
+	 * @return true if the run is/was CDATA
+	 */
+	boolean isCDATA() {
+		return cdata;
+	}
+
+	/**
+	 * The line the most recent run started on.
+	 * @return the line
+	 */
+	int getLine() {
+		return line;
+	}
+
+	/**
+	 * The column the most recent run started on.
+	 * @return the column
+	 */
+	int getColumn() {
+		return col;
+	}
+
+	/**
+	 * End the current run, and get its value.
+	 * @param ignoreBoundary if true, non-CDATA runs that are all whitespace
+	 *        are discarded.
+	 * @return the run's text, or null if there is no text or it is ignored.
+	 */
+	String take(final boolean ignoreBoundary) {
+		if (!active) {
+			return null;
+		}
+		active = false;
+		if (size == 0) {
+			return cdata ? "" : null;
+		}
+		int i = size;
+		while (--i >= 0) {
+			if (!Verifier.isXMLWhitespace(chars[i])) {
+				return String.valueOf(chars, 0, size);
+			}
+		}
+		// all whitespace.
+		if (ignoreBoundary && !cdata) {
+			return null;
+		}
+		if (size > MAXCACHED) {
+			return String.valueOf(chars, 0, size);
+		}
+		int hash = size;
+		for (i = 0; i < size; i++) {
+			hash = 31 * hash + chars[i];
+		}
+		hash ^= hash >>> 7;
+		final int slot = hash & (CACHESIZE - 1);
+		final String cached = whitespace[slot];
+		if (cached != null && cached.length() == size) {
+			i = size;
+			while (--i >= 0) {
+				if (cached.charAt(i) != chars[i]) {
+					break;
+				}
+			}
+			if (i < 0) {
+				return cached;
+			}
+		}
+		final String ret = String.valueOf(chars, 0, size);
+		whitespace[slot] = ret;
+		return ret;
+	}
+
+}
@@ -82,6 +82,7 @@ import org.jdom2.JDOMException;
 public abstract class AbstractReaderSchemaFactory implements XMLReaderJDOMFactory {
 
 	private final SAXParserFactory saxfac;
+	private final Schema schema;
 
 	/**
 	 * XMLReader instances from this class will be configured to validate using
@@ -97,6 +98,7 @@ public abstract class AbstractReaderSchemaFactory implements XMLReaderJDOMFactor
 			throw new NullPointerException("Cannot create a " +
 					"SchemaXMLReaderFactory with a null schema");
 		}
+		this.schema = schema;
 		saxfac = fac;
 		if (saxfac != null) {
 			saxfac.setNamespaceAware(true);
@@ -128,4 +130,16 @@ public abstract class AbstractReaderSchemaFactory implements XMLReaderJDOMFactor
 		return true;
 	}
 
+	/**
+	 * The Schema the XMLReaders validate with. The Schema is thread-safe, and
+	 * can be used to validate JDOM content directly, for example with a
+	 * {@link org.jdom2.output.SchemaValidator}.
+	 * 
+	 * @return the Schema this factory was created with.
+	 * @since JDOM2
+	 */
+	public Schema getSchema() {
+		return schema;
+	}
+
 }
@@ -57,8 +57,14 @@ package org.jdom2.input.sax;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Source;
@@ -84,11 +90,142 @@ import org.jdom2.JDOMException;
  * File xmlfile = new File(&quot;data.xml&quot;);
  * Document validdoc = builder.build(xmlfile);
  * </pre>
+ * <p>
+ * Schemas compiled from SystemID, URL or File references are cached (keyed
+ * on the SchemaFactoryProvider and the references), so that factories created
+ * for the same XSDs share one compiled, thread-safe Schema. The cache holds
+ * the Schemas softly, and only a limited number of them, so a Schema may be
+ * compiled again after memory pressure or once many other XSDs were used.
+ * A File reference is compiled again when its modification time changes
+ * (replacing the Schema from the older version), but only the referenced
+ * Files are checked: changes to XSDs they pull in with xs:include or
+ * xs:import are not detected. Use {@link #clearSchemaCache()} if those, or
+ * the XSDs behind a SystemID or URL, change. Schemas from other Transform
+ * Sources are not cached.
  * 
  * @see org.jdom2.input.sax
  * @author Rolf Lear
  */
 public class AbstractReaderXSDFactory extends AbstractReaderSchemaFactory {
+
+	/**
+	 * The most Schemas to cache; past this, entries are evicted.
+	 */
+	private static final int SCHEMACACHELIMIT = 64;
+
+	/**
+	 * A softly-held Schema, and the stamp (File modification times) of
+	 * the references it was compiled from.
+	 */
+	private static final class CachedSchema {
+		private final List<Long> stamp;
+		private final SoftReference<Schema> schema;
+
+		private CachedSchema(final List<Long> stamp, final Schema schema) {
+			this.stamp = stamp;
+			this.schema = new SoftReference<Schema>(schema);
+		}
+
+		/**
+		 * @param current the stamp of the references now
+		 * @return the Schema, or null if it is gone or out of date.
+		 */
+		private Schema get(final List<Long> current) {
+			if (stamp == null ? current != null : !stamp.equals(current)) {
+				return null;
+			}
+			return schema.get();
+		}
+	}
+
+	/**
+	 * Compiled Schemas, keyed on a List of the SchemaFactoryProvider and the
+	 * source references.
+	 */
+	private static final ConcurrentMap<List<Object>, CachedSchema> schemacache =
+			new ConcurrentHashMap<List<Object>, CachedSchema>();
+
+	/**
+	 * Discard all the cached Schemas, so that factories created after this
+	 * compile their XSDs again.
+	 * @since JDOM2
+	 */
+	public static void clearSchemaCache() {
+		schemacache.clear();
+	}
+
+	/**
+	 * Build the cache key for a set of references.
+	 * @param sfp The provider of the SchemaFactory that compiles them
+	 * @param refs The references (in order)
+	 * @return the key
+	 */
+	private static final List<Object> cacheKey(final SchemaFactoryProvider sfp,
+			final Object[] refs) {
+		final List<Object> key = new ArrayList<Object>(refs.length + 1);
+		key.add(sfp);
+		for (Object ref : refs) {
+			key.add(ref);
+		}
+		return key;
+	}
+
+	/**
+	 * Get the Schema for the key from the cache.
+	 * @param key The cache key
+	 * @param stamp The modification times of the references, or null
+	 * @return the Schema, or null if it is not cached (or is out of date)
+	 */
+	private static final Schema cachedSchema(final List<Object> key,
+			final List<Long> stamp) {
+		final CachedSchema cached = schemacache.get(key);
+		return cached == null ? null : cached.get(stamp);
+	}
+
+	/**
+	 * Get the Schema for the key from the cache, or compile and cache it.
+	 * @param sfp The provider of the SchemaFactory to compile with
+	 * @param key The cache key
+	 * @param stamp The modification times of the references, or null
+	 * @param sources The sources to compile, if not cached
+	 * @return the Schema
+	 * @throws JDOMException if there is a problem with the Sources
+	 */
+	private static final Schema getCachedSchema(final SchemaFactoryProvider sfp,
+			final List<Object> key, final List<Long> stamp,
+			final Source[] sources) throws JDOMException {
+		final Schema cached = cachedSchema(key, stamp);
+		if (cached != null) {
+			return cached;
+		}
+		final Schema schema = getSchemaFromSource(sfp, sources);
+		// replaces any out-of-date or collected Schema for the same key.
+		schemacache.put(key, new CachedSchema(stamp, schema));
+		if (schemacache.size() > SCHEMACACHELIMIT) {
+			trimSchemaCache(key);
+		}
+		return schema;
+	}
+
+	/**
+	 * Remove the collected Schemas from the cache, and if there are still
+	 * too many, evict others (but not <i>keep</i>) until half remain.
+	 * @param keep The key of the Schema just cached
+	 */
+	private static final void trimSchemaCache(final List<Object> keep) {
+		final Iterator<CachedSchema> it = schemacache.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().schema.get() == null) {
+				it.remove();
+			}
+		}
+		final Iterator<List<Object>> kit = schemacache.keySet().iterator();
+		while (schemacache.size() > SCHEMACACHELIMIT / 2 && kit.hasNext()) {
+			if (!keep.equals(kit.next())) {
+				kit.remove();
+			}
+		}
+	}
 	
 	/**
 	 * Simple interface makes it easier to pass logic around in static methods.
@@ -129,7 +266,7 @@ public class AbstractReaderXSDFactory extends AbstractReaderSchemaFactory {
 			}
 			urls[i] = new StreamSource(systemID[i]);
 		}
-		return getSchemaFromSource(sfp, urls);
+		return getCachedSchema(sfp, cacheKey(sfp, systemID), null, urls);
 	}
 
 	/**
@@ -152,13 +289,18 @@ public class AbstractReaderXSDFactory extends AbstractReaderSchemaFactory {
 					"XSD source for an XML Schema validator");
 		}
 		Source[] sources = new Source[systemID.length];
+		Object[] refs = new Object[systemID.length];
+		// a changed file replaces the schema compiled from the old version.
+		List<Long> stamp = new ArrayList<Long>(systemID.length);
 		for (int i = 0; i < systemID.length; i++) {
 			if (systemID[i] == null) {
 				throw new NullPointerException("Cannot specify a null SystemID");
 			}
 			sources[i] = new StreamSource(systemID[i]);
+			refs[i] = systemID[i].getAbsoluteFile();
+			stamp.add(Long.valueOf(systemID[i].lastModified()));
 		}
-		return getSchemaFromSource(sfp, sources);
+		return getCachedSchema(sfp, cacheKey(sfp, refs), stamp, sources);
 	}
 
 	/**
@@ -180,6 +322,19 @@ public class AbstractReaderXSDFactory extends AbstractReaderSchemaFactory {
 			throw new IllegalArgumentException("You need at least one " +
 					"XSD source for an XML Schema validator");
 		}
+		// URL.equals() may resolve host names, so key on the text.
+		final Object[] refs = new Object[systemID.length];
+		for (int i = 0; i < systemID.length; i++) {
+			if (systemID[i] == null) {
+				throw new NullPointerException("Cannot specify a null SystemID");
+			}
+			refs[i] = systemID[i].toExternalForm();
+		}
+		final List<Object> key = cacheKey(sfp, refs);
+		final Schema cached = cachedSchema(key, null);
+		if (cached != null) {
+			return cached;
+		}
 		InputStream[] streams = new InputStream[systemID.length];
 		try {
 			Source[] sources = new Source[systemID.length];
@@ -197,7 +352,7 @@ public class AbstractReaderXSDFactory extends AbstractReaderSchemaFactory {
 				streams[i] = is;
 				sources[i] = new StreamSource(is, systemID[i].toString());
 			}
-			return getSchemaFromSource(sfp, sources);
+			return getCachedSchema(sfp, key, null, sources);
 		} finally {
 			for (InputStream is : streams) {
 				if (is != null) {
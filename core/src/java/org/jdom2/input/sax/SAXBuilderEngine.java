@@ -70,8 +70,10 @@ import org.xml.sax.SAXParseException;
 import org.xml.sax.XMLReader;
 
 import org.jdom2.Document;
+import org.jdom2.DocumentBuildListener;
 import org.jdom2.JDOMException;
 import org.jdom2.JDOMFactory;
+import org.jdom2.input.BuildLimitException;
 import org.jdom2.input.JDOMParseException;
 
 /**
@@ -212,12 +214,21 @@ public class SAXBuilderEngine implements SAXEngine {
 	@Override
 	public Document build(final InputSource in)
 			throws JDOMException, IOException {
+		final JDOMFactory factory = saxHandler.getFactory();
+		// the handler's Document was created when it was last reset.
+		final Document document = saxHandler.getDocument();
+		if (factory instanceof DocumentBuildListener) {
+			((DocumentBuildListener)factory).startDocument(document);
+		}
 		try {
 			// Parse the document.
 			saxParser.parse(in);
 
 			return saxHandler.getDocument();
 		} catch (final SAXParseException e) {
+			if (e.getException() instanceof BuildLimitException) {
+				throw (BuildLimitException)e.getException();
+			}
 			Document doc = saxHandler.getDocument();
 			if (doc.hasRootElement() == false) {
 				doc = null;
@@ -233,9 +244,16 @@ public class SAXBuilderEngine implements SAXEngine {
 					e.getLineNumber() + ": " +
 							e.getMessage(), e, doc);
 		} catch (final SAXException e) {
+			if (e.getException() instanceof BuildLimitException) {
+				// the build was stopped by the SAXHandler's BuildLimits.
+				throw (BuildLimitException)e.getException();
+			}
 			throw new JDOMParseException("Error in building: " +
 					e.getMessage(), e, saxHandler.getDocument());
 		} finally {
+			if (factory instanceof DocumentBuildListener) {
+				((DocumentBuildListener)factory).endDocument(document);
+			}
 			// Explicitly nullify the handler to encourage GC
 			// It's a stack var so this shouldn't be necessary, but it
 			// seems to help on some JVMs
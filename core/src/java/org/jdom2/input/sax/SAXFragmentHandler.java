@@ -0,0 +1,422 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.input.sax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import org.jdom2.Content;
+import org.jdom2.DocType;
+import org.jdom2.JDOMFactory;
+import org.jdom2.Namespace;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.stax.StAXFilter;
+
+/**
+ * A SAXHandler that builds a List of JDOM content fragments instead of a
+ * Document, using a {@link StAXFilter} to decide what to keep. The filter has
+ * exactly the same contract as it does for
+ * {@link org.jdom2.input.StAXStreamBuilder#buildFragments(javax.xml.stream.XMLStreamReader, StAXFilter)}:
+ * <ul>
+ * <li>Document-level content (DocType, Comments, ProcessingInstructions and
+ *     the root Element) is offered to the <code>include*</code> methods, and
+ *     the included content becomes a fragment.
+ * <li>Content inside an included Element is offered to the
+ *     <code>prune*</code> methods.
+ * </ul>
+ * The filtering is done as the SAX events arrive. Elements that are not
+ * included (or are pruned) are skipped along with all their descendants:
+ * none of the events inside them are processed, so no JDOM content or text
+ * is created for them. This makes it cheap to pull a small part out of a
+ * very large document.
+ * <p>
+ * Use this through {@link SAXBuilder#buildFragments(org.xml.sax.InputSource, StAXFilter)}
+ * (or the other buildFragments methods), which sets the handler up the same
+ * way as the SAXHandler for a regular build.
+ * <p>
+ * The handler is reusable. Each parse fills a new List, which is available
+ * from {@link #getFragments()} both during, and after the parse (until the
+ * handler is reset).
+ * 
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public class SAXFragmentHandler extends SAXHandler {
+
+	/** The filter deciding what is included */
+	private final StAXFilter filter;
+
+	/** The fragments being built - assigned in resetSubCLass() */
+	private List<Content> fragments;
+
+	/** Prefix mappings for the next Element - assigned in resetSubCLass() */
+	private List<String> prefixes;
+
+	/** The depth of the next Element (the root Element is at depth 0) */
+	private int depth;
+
+	/** Whether there is an included Element in progress */
+	private boolean infragment;
+
+	/**
+	 * The number of open Elements (and Entities) in the content being
+	 * skipped, or 0 if nothing is being skipped.
+	 */
+	private int skip;
+
+	/** Whether the text being flushed is a CDATA section */
+	private boolean cdataflush;
+
+	/** Whether the DTD is being parsed */
+	private boolean indtd;
+
+	/** How many entities are open */
+	private int entities;
+
+	/**
+	 * Create a SAXFragmentHandler that builds content with the supplied
+	 * factory.
+	 * 
+	 * @param factory
+	 *        The JDOMFactory to build content with (null for the default).
+	 * @param filter
+	 *        The filter deciding which content is included.
+	 */
+	public SAXFragmentHandler(final JDOMFactory factory, final StAXFilter filter) {
+		super(factory);
+		if (filter == null) {
+			throw new NullPointerException("A StAXFilter is required");
+		}
+		this.filter = filter;
+	}
+
+	@Override
+	protected void resetSubCLass() {
+		// This is called from the super constructor, before field initializers
+		fragments = new ArrayList<Content>();
+		prefixes = new ArrayList<String>();
+		depth = 0;
+		infragment = false;
+		skip = 0;
+		cdataflush = false;
+		indtd = false;
+		entities = 0;
+	}
+
+	/**
+	 * The fragments built by the current (or most recent) parse.
+	 * 
+	 * @return the List of fragments.
+	 */
+	public List<Content> getFragments() {
+		return fragments;
+	}
+
+	/**
+	 * Get the filter this handler uses.
+	 * 
+	 * @return the StAXFilter.
+	 */
+	public StAXFilter getFilter() {
+		return filter;
+	}
+
+	@Override
+	public void startPrefixMapping(final String prefix, final String uri)
+			throws SAXException {
+		if (skip == 0) {
+			// hold on to these until we know whether the Element is skipped.
+			prefixes.add(prefix);
+			prefixes.add(uri);
+		}
+	}
+
+	@Override
+	public void startElement(final String namespaceURI, final String localName,
+			final String qName, final Attributes atts) throws SAXException {
+		if (skip > 0) {
+			skip++;
+			return;
+		}
+
+		String name = localName;
+		String prefix = "";
+		if (!"".equals(qName)) {
+			final int colon = qName.indexOf(':');
+			if (colon > 0) {
+				prefix = qName.substring(0, colon);
+			}
+			if (name == null || name.length() == 0) {
+				name = qName.substring(colon + 1);
+			}
+		}
+		final Namespace ns = Namespace.getNamespace(prefix, namespaceURI);
+
+		final boolean keep = infragment
+				? !filter.pruneElement(depth, name, ns)
+				: filter.includeElement(depth, name, ns);
+		if (!keep) {
+			// keep the text either side of the skipped Element separate.
+			flushCharacters();
+			prefixes.clear();
+			skip = 1;
+			return;
+		}
+
+		for (int i = 0; i < prefixes.size(); i += 2) {
+			super.startPrefixMapping(prefixes.get(i), prefixes.get(i + 1));
+		}
+		prefixes.clear();
+		super.startElement(namespaceURI, localName, qName, atts);
+		infragment = true;
+		depth++;
+	}
+
+	@Override
+	public void endElement(final String namespaceURI, final String localName,
+			final String qName) throws SAXException {
+		if (skip > 0) {
+			skip--;
+			return;
+		}
+		super.endElement(namespaceURI, localName, qName);
+		if (--depth == 0) {
+			// the included fragment is complete.
+			infragment = false;
+			fragments.add(getDocument().detachRootElement());
+		}
+	}
+
+	@Override
+	public void characters(final char[] ch, final int start, final int length)
+			throws SAXException {
+		if (skip == 0) {
+			super.characters(ch, start, length);
+		}
+	}
+
+	@Override
+	protected void flushCharacters(final String data) throws SAXException {
+		if (data.length() == 0 && !cdataflush) {
+			super.flushCharacters(data);
+			return;
+		}
+		final String text;
+		if (cdataflush) {
+			text = infragment
+					? filter.pruneCDATA(depth, data)
+					: filter.includeCDATA(depth, data);
+		} else {
+			text = infragment
+					? filter.pruneText(depth, data)
+					: filter.includeText(depth, data);
+		}
+		if (infragment) {
+			if (text != null) {
+				super.flushCharacters(text);
+			} else if (!cdataflush) {
+				// nothing to add, but the CDATA state needs to move on.
+				super.flushCharacters("");
+			}
+			return;
+		}
+		if (text != null) {
+			final JDOMFactory factory = getFactory();
+			fragments.add(cdataflush ? factory.cdata(text) : factory.text(text));
+		}
+		if (!cdataflush) {
+			super.flushCharacters("");
+		}
+	}
+
+	@Override
+	public void startCDATA() {
+		if (skip == 0) {
+			super.startCDATA();
+		}
+	}
+
+	@Override
+	public void endCDATA() throws SAXException {
+		if (skip == 0) {
+			cdataflush = true;
+			try {
+				super.endCDATA();
+			} finally {
+				cdataflush = false;
+			}
+		}
+	}
+
+	@Override
+	public void comment(final char[] ch, final int start, final int length)
+			throws SAXException {
+		if (skip > 0) {
+			return;
+		}
+		if (indtd) {
+			super.comment(ch, start, length);
+			return;
+		}
+		flushCharacters();
+		final String comment = new String(ch, start, length);
+		if (infragment) {
+			final String text = filter.pruneComment(depth, comment);
+			if (text != null) {
+				super.comment(text.toCharArray(), 0, text.length());
+			}
+		} else {
+			final String text = filter.includeComment(depth, comment);
+			if (text != null) {
+				fragments.add(getFactory().comment(text));
+			}
+		}
+	}
+
+	@Override
+	public void processingInstruction(final String target, final String data)
+			throws SAXException {
+		if (skip > 0) {
+			return;
+		}
+		if (infragment) {
+			if (filter.pruneProcessingInstruction(depth, target)) {
+				flushCharacters();
+			} else {
+				super.processingInstruction(target, data);
+			}
+		} else if (!indtd) {
+			flushCharacters();
+			if (filter.includeProcessingInstruction(depth, target)) {
+				fragments.add(getFactory().processingInstruction(target, data));
+			}
+		}
+	}
+
+	@Override
+	public void skippedEntity(final String name) throws SAXException {
+		if (skip > 0 || name.startsWith("%")) {
+			return;
+		}
+		if (infragment) {
+			if (filter.pruneEntityRef(depth, name)) {
+				flushCharacters();
+			} else {
+				super.skippedEntity(name);
+			}
+		} else {
+			flushCharacters();
+			if (filter.includeEntityRef(depth, name)) {
+				fragments.add(getFactory().entityRef(name));
+			}
+		}
+	}
+
+	@Override
+	public void startEntity(final String name) throws SAXException {
+		if (skip > 0) {
+			skip++;
+			return;
+		}
+		entities++;
+		if (entities == 1 && infragment && !indtd && !getExpandEntities()
+				&& !name.startsWith("%") && !name.startsWith("[")
+				&& !"amp".equals(name) && !"lt".equals(name)
+				&& !"gt".equals(name) && !"apos".equals(name)
+				&& !"quot".equals(name)
+				&& filter.pruneEntityRef(depth, name)) {
+			// skip the EntityRef the super class would create.
+			flushCharacters();
+			entities--;
+			skip = 1;
+			return;
+		}
+		super.startEntity(name);
+	}
+
+	@Override
+	public void endEntity(final String name) throws SAXException {
+		if (skip > 0) {
+			skip--;
+			return;
+		}
+		entities--;
+		super.endEntity(name);
+	}
+
+	@Override
+	public void startDTD(final String name, final String publicID,
+			final String systemID) throws SAXException {
+		super.startDTD(name, publicID, systemID);
+		indtd = true;
+	}
+
+	@Override
+	public void endDTD() {
+		super.endDTD();
+		indtd = false;
+		final DocType doctype = getDocument().getDocType();
+		if (doctype != null) {
+			getDocument().setDocType(null);
+			if (filter.includeDocType()) {
+				fragments.add(doctype);
+			}
+		}
+	}
+
+}
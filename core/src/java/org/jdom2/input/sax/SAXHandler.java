@@ -84,6 +84,8 @@ import org.jdom2.Namespace;
 import org.jdom2.Parent;
 import org.jdom2.ProcessingInstruction;
 import org.jdom2.Text;
+import org.jdom2.input.BuildLimitException;
+import org.jdom2.input.BuildLimits;
 import org.jdom2.input.SAXBuilder;
 
 /**
@@ -186,6 +188,68 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 	
 	private int lastline = 0, lastcol = 0;
 
+	/** The limits to apply to each build, kept on reset() */
+	private BuildLimits limits = null;
+
+	/** The progress of the current build - must be reset() */
+	private BuildLimits.Tracker tracker = null;
+
+	/** Resolved Element names, when the parser interns them, kept on reset() */
+	private NameCache elementNames = null;
+
+	/** Resolved Attribute names, when the parser interns them, kept on reset() */
+	private NameCache attributeNames = null;
+
+	/**
+	 * A small direct-mapped cache from the qName and namespace URI Strings
+	 * reported by the parser to the local name and Namespace they resolve to.
+	 * Entries are matched by identity, which is what makes the cache cheap,
+	 * and also safe: a hit is only ever the same String instances as before,
+	 * and a parser that does not intern its names just misses.
+	 */
+	private static final class NameCache {
+		private static final int SIZE = 256;
+		private final String[] qnames = new String[SIZE];
+		private final String[] uris = new String[SIZE];
+		private final String[] locals = new String[SIZE];
+		private final Namespace[] namespaces = new Namespace[SIZE];
+		private int slot = -1;
+
+		/**
+		 * Look for the resolved name, and remember where it would be stored
+		 * if it is not there.
+		 */
+		boolean find(final String qName, final String uri) {
+			if (qName.length() == 0 || uri == null) {
+				slot = -1;
+				return false;
+			}
+			slot = (qName.hashCode() * 31 + uri.hashCode()) & (SIZE - 1);
+			return qnames[slot] == qName && uris[slot] == uri;
+		}
+
+		String local() {
+			return locals[slot];
+		}
+
+		Namespace namespace() {
+			return namespaces[slot];
+		}
+
+		/**
+		 * Store the name resolved after the last find() missed.
+		 */
+		void store(final String qName, final String uri, final String local,
+				final Namespace namespace) {
+			if (slot >= 0) {
+				qnames[slot] = qName;
+				uris[slot] = uri;
+				locals[slot] = local;
+				namespaces[slot] = namespace;
+			}
+		}
+	}
+
 	/**
 	 * This will create a new <code>SAXHandler</code> that listens to SAX events
 	 * and creates a JDOM Document. The objects will be constructed using the
@@ -241,6 +305,7 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 		externalEntities.clear();
 		ignoringWhite = false;
 		ignoringBoundaryWhite = false;
+		tracker = null;
 		resetSubCLass();
 	}
 
@@ -361,8 +426,85 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 		return ignoringWhite;
 	}
 
+	/**
+	 * Set the limits that each subsequent build must stay within. Unlike
+	 * the other settings, the limits are kept when this handler is reset().
+	 * 
+	 * @param limits
+	 *        the limits to apply, or null for none.
+	 * @see SAXBuilder#setBuildLimits(BuildLimits)
+	 */
+	public void setBuildLimits(final BuildLimits limits) {
+		this.limits = limits;
+	}
+
+	/**
+	 * Returns the limits each build must stay within.
+	 * 
+	 * @return the limits, or null if there are none.
+	 */
+	public BuildLimits getBuildLimits() {
+		return limits;
+	}
+
+	/**
+	 * Indicate whether the parser interns the element and attribute names,
+	 * and namespace URIs it reports (the SAX
+	 * <code>http://xml.org/sax/features/string-interning</code> feature).
+	 * When it does, the names are resolved once and then recognised by
+	 * identity, instead of being split and looked up for every Element and
+	 * Attribute. Like the build limits, this is kept when this handler is
+	 * reset().
+	 * 
+	 * @param interned
+	 *        true if the parser interns the names it reports.
+	 * @see SAXBuilder#configureParser(org.xml.sax.XMLReader, SAXHandler)
+	 */
+	public void setInternedNames(final boolean interned) {
+		if (!interned) {
+			elementNames = null;
+			attributeNames = null;
+		} else if (elementNames == null) {
+			elementNames = new NameCache();
+			attributeNames = new NameCache();
+		}
+	}
+
+	/**
+	 * Returns whether the parser is known to intern the names it reports.
+	 * 
+	 * @return true if names are resolved by identity.
+	 * @see #setInternedNames(boolean)
+	 */
+	public boolean getInternedNames() {
+		return elementNames != null;
+	}
+
+	/**
+	 * Report a new Element to the build limits, if there are any.
+	 * 
+	 * @param attributes
+	 *        the number of attributes on the Element
+	 * @throws SAXException
+	 *         wrapping a BuildLimitException if a limit is broken
+	 */
+	private void trackElement(final int attributes) throws SAXException {
+		if (limits == null) {
+			return;
+		}
+		if (tracker == null) {
+			tracker = limits.startBuild();
+		}
+		try {
+			tracker.startElement(attributes);
+		} catch (BuildLimitException e) {
+			throw new SAXException(e);
+		}
+	}
+
 	@Override
 	public void startDocument() {
+		tracker = limits == null ? null : limits.startBuild();
 		if (currentLocator != null) {
 			currentDocument.setBaseURI(currentLocator.getSystemId());
 		}
@@ -572,29 +714,45 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 	@Override
 	public void startElement(final String namespaceURI, String localName,
 			final String qName, final Attributes atts) throws SAXException {
+		trackElement(atts.getLength());
+
 		if (suppress)
 			return;
 
-		String prefix = "";
+		final Namespace namespace;
+		if (elementNames != null && elementNames.find(qName, namespaceURI)) {
+			// seen these very Strings before.
+			localName = elementNames.local();
+			namespace = elementNames.namespace();
+		} else {
+			String prefix = "";
+
+			// If QName is set, then set prefix and local name as necessary
+			if (!"".equals(qName)) {
+				final int colon = qName.indexOf(':');
 
-		// If QName is set, then set prefix and local name as necessary
-		if (!"".equals(qName)) {
-			final int colon = qName.indexOf(':');
+				if (colon > 0) {
+					prefix = qName.substring(0, colon);
+				}
 
-			if (colon > 0) {
-				prefix = qName.substring(0, colon);
+				// If local name is not set, try to get it from the QName
+				if ((localName == null) || (localName.equals(""))) {
+					localName = qName.substring(colon + 1);
+				}
 			}
+			// At this point either prefix and localName are set correctly or
+			// there is an error in the parser.
 
-			// If local name is not set, try to get it from the QName
-			if ((localName == null) || (localName.equals(""))) {
-				localName = qName.substring(colon + 1);
+			namespace = Namespace.getNamespace(prefix, namespaceURI);
+			if (elementNames != null) {
+				elementNames.store(qName, namespaceURI, localName, namespace);
 			}
 		}
-		// At this point either prefix and localName are set correctly or
-		// there is an error in the parser.
 
-		final Namespace namespace = Namespace
-				.getNamespace(prefix, namespaceURI);
+		// Flush any pending text before creating the Element so that the
+		// factory sees Content created in document order.
+		flushCharacters();
+
 		final Element element = currentLocator == null ? factory.element(
 				localName, namespace) : factory.element(
 				currentLocator.getLineNumber(),
@@ -606,8 +764,6 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 			transferNamespaces(element);
 		}
 
-		flushCharacters();
-
 		if (atRoot) {
 			factory.setRoot(currentDocument, element); // Yes, use a factory
 			// call...
@@ -620,97 +776,121 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 		// Handle attributes
 		for (int i = 0, len = atts.getLength(); i < len; i++) {
 
-			String attPrefix = "";
-			String attLocalName = atts.getLocalName(i);
 			final String attQName = atts.getQName(i);
+			final String attURI = atts.getURI(i);
 			final boolean specified = (atts instanceof Attributes2) ? ((Attributes2)atts).isSpecified(i) : true;
+			String attLocalName;
+			final Namespace attNs;
 
-			// If attribute QName is set, then set attribute prefix and
-			// attribute local name as necessary
-			if (!attQName.equals("")) {
-				// Bypass any xmlns attributes which might appear, as we got
-				// them already in startPrefixMapping(). This is sometimes
-				// necessary when SAXHandler is used with another source than
-				// SAXBuilder, as with JDOMResult.
-				if (attQName.startsWith("xmlns:") || attQName.equals("xmlns")) {
+			if (attributeNames != null && attributeNames.find(attQName, attURI)) {
+				attNs = attributeNames.namespace();
+				if (attNs == null) {
+					// a namespace declaration, see below.
 					continue;
 				}
+				attLocalName = attributeNames.local();
+			} else {
+				String attPrefix = "";
+				attLocalName = atts.getLocalName(i);
+
+				// If attribute QName is set, then set attribute prefix and
+				// attribute local name as necessary
+				if (!attQName.equals("")) {
+					// Bypass any xmlns attributes which might appear, as we got
+					// them already in startPrefixMapping(). This is sometimes
+					// necessary when SAXHandler is used with another source than
+					// SAXBuilder, as with JDOMResult.
+					if (attQName.startsWith("xmlns:") || attQName.equals("xmlns")) {
+						if (attributeNames != null) {
+							attributeNames.store(attQName, attURI, null, null);
+						}
+						continue;
+					}
 
-				final int attColon = attQName.indexOf(':');
+					final int attColon = attQName.indexOf(':');
 
-				if (attColon > 0) {
-					attPrefix = attQName.substring(0, attColon);
-				}
+					if (attColon > 0) {
+						attPrefix = attQName.substring(0, attColon);
+					}
 
-				// If localName is not set, try to get it from the QName
-				if ("".equals(attLocalName)) {
-					attLocalName = attQName.substring(attColon + 1);
+					// If localName is not set, try to get it from the QName
+					if ("".equals(attLocalName)) {
+						attLocalName = attQName.substring(attColon + 1);
+					}
 				}
-			}
 
-			final AttributeType attType = AttributeType.getAttributeType(atts
-					.getType(i));
-			final String attValue = atts.getValue(i);
-			final String attURI = atts.getURI(i);
-
-			if (XMLConstants.XMLNS_ATTRIBUTE.equals(attLocalName)
-					|| XMLConstants.XMLNS_ATTRIBUTE.equals(attPrefix)
-					|| XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attURI)) {
-				// use the actual Namespace to check too, because, in theory, a
-				// namespace-aware parser does not need to set the qName unless
-				// the namespace-prefixes feature is set as well.
-				continue;
-			}
-			// At this point either attPrefix and attLocalName are set
-			// correctly or there is an error in the parser.
-
-			// just one thing to sort out....
-			// the prefix for the namespace.
-			if (!"".equals(attURI) && "".equals(attPrefix)) {
-				// the localname and qName are the same, but there is a
-				// Namspace URI. We need to figure out the namespace prefix.
-				// this is an unusual condition. Currently the only known
-				// trigger
-				// is when there is a fixed/defaulted attribute from a
-				// validating
-				// XMLSchema, and the attribute is in a different namespace
-				// than the rest of the document, this happens whenever there
-				// is an attribute definition that has form="qualified".
-				// <xs:attribute name="attname" form="qualified" ... />
-				// or the schema sets attributeFormDefault="qualified"
-				final HashMap<String, Namespace> tmpmap = new HashMap<String, Namespace>();
-				for (final Namespace nss : element.getNamespacesInScope()) {
-					if (nss.getPrefix().length() > 0
-							&& nss.getURI().equals(attURI)) {
-						attPrefix = nss.getPrefix();
-						break;
+				if (XMLConstants.XMLNS_ATTRIBUTE.equals(attLocalName)
+						|| XMLConstants.XMLNS_ATTRIBUTE.equals(attPrefix)
+						|| XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(attURI)) {
+					// use the actual Namespace to check too, because, in theory, a
+					// namespace-aware parser does not need to set the qName unless
+					// the namespace-prefixes feature is set as well.
+					if (attributeNames != null) {
+						attributeNames.store(attQName, attURI, null, null);
 					}
-					tmpmap.put(nss.getPrefix(), nss);
+					continue;
 				}
+				// At this point either attPrefix and attLocalName are set
+				// correctly or there is an error in the parser.
+
+				// just one thing to sort out....
+				// the prefix for the namespace.
+				// this depends on the namespaces in scope, so it is not cached.
+				boolean scoped = false;
+				if (!"".equals(attURI) && "".equals(attPrefix)) {
+					scoped = true;
+					// the localname and qName are the same, but there is a
+					// Namspace URI. We need to figure out the namespace prefix.
+					// this is an unusual condition. Currently the only known
+					// trigger
+					// is when there is a fixed/defaulted attribute from a
+					// validating
+					// XMLSchema, and the attribute is in a different namespace
+					// than the rest of the document, this happens whenever there
+					// is an attribute definition that has form="qualified".
+					// <xs:attribute name="attname" form="qualified" ... />
+					// or the schema sets attributeFormDefault="qualified"
+					final HashMap<String, Namespace> tmpmap = new HashMap<String, Namespace>();
+					for (final Namespace nss : element.getNamespacesInScope()) {
+						if (nss.getPrefix().length() > 0
+								&& nss.getURI().equals(attURI)) {
+							attPrefix = nss.getPrefix();
+							break;
+						}
+						tmpmap.put(nss.getPrefix(), nss);
+					}
 
-				if ("".equals(attPrefix)) {
-					// we cannot find a 'prevailing' namespace that has a prefix
-					// that is for this namespace.
-					// This basically means that there's an XMLSchema, for the
-					// DEFAULT namespace, and there's a defaulted/fixed
-					// attribute definition in the XMLSchema that's targeted
-					// for this namespace,... but, the user has either not
-					// declared a prefixed version of the namespace, or has
-					// re-declared the same prefix at a lower level with a
-					// different namespace.
-					// All of these things are possible.
-					// Create some sort of default prefix.
-					int cnt = 0;
-					final String base = "attns";
-					String pfx = base + cnt;
-					while (tmpmap.containsKey(pfx)) {
-						cnt++;
-						pfx = base + cnt;
+					if ("".equals(attPrefix)) {
+						// we cannot find a 'prevailing' namespace that has a prefix
+						// that is for this namespace.
+						// This basically means that there's an XMLSchema, for the
+						// DEFAULT namespace, and there's a defaulted/fixed
+						// attribute definition in the XMLSchema that's targeted
+						// for this namespace,... but, the user has either not
+						// declared a prefixed version of the namespace, or has
+						// re-declared the same prefix at a lower level with a
+						// different namespace.
+						// All of these things are possible.
+						// Create some sort of default prefix.
+						int cnt = 0;
+						final String base = "attns";
+						String pfx = base + cnt;
+						while (tmpmap.containsKey(pfx)) {
+							cnt++;
+							pfx = base + cnt;
+						}
+						attPrefix = pfx;
 					}
-					attPrefix = pfx;
+				}
+				attNs = Namespace.getNamespace(attPrefix, attURI);
+				if (attributeNames != null && !scoped) {
+					attributeNames.store(attQName, attURI, attLocalName, attNs);
 				}
 			}
-			final Namespace attNs = Namespace.getNamespace(attPrefix, attURI);
+
+			final AttributeType attType = AttributeType.getAttributeType(atts
+					.getType(i));
+			final String attValue = atts.getValue(i);
 
 			final Attribute attribute = factory.attribute(attLocalName,
 					attValue, attType, attNs);
@@ -753,6 +933,14 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 	public void characters(final char[] ch, final int start, final int length)
 			throws SAXException {
 
+		if (tracker != null) {
+			try {
+				tracker.text(length);
+			} catch (BuildLimitException e) {
+				throw new SAXException(e);
+			}
+		}
+
 		if (suppress || (length == 0 && !inCDATA))
 			return;
 
@@ -863,6 +1051,10 @@ public class SAXHandler extends DefaultHandler implements LexicalHandler,
 	public void endElement(final String namespaceURI, final String localName,
 			final String qName) throws SAXException {
 
+		if (tracker != null) {
+			tracker.endElement();
+		}
+
 		if (suppress)
 			return;
 
@@ -0,0 +1,335 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.located;
+
+import java.util.Iterator;
+
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Parent;
+import org.jdom2.internal.ArrayCopy;
+
+/**
+ * A compact side-table of line and column values for the Content of a single
+ * Document.
+ * <p>
+ * Instead of using {@link Located} subclasses of every Content type (which
+ * carry the location in each node), the {@link LocationTableJDOMFactory}
+ * creates regular JDOM content and records the location of each Content in
+ * this table, as two <code>int</code> values per node, in the order the
+ * Content was created. The SAX and StAX builders create Content in document
+ * order, so the location of any node can later be found by computing its
+ * position in the document.
+ * <p>
+ * Because the table is indexed by document order, it is only accurate for as
+ * long as the Document is not modified. The state of the Document is noted
+ * when the build ends, and once the Document's content, or anything in the
+ * root Element's tree (see {@link Element#getTreeStamp()}), has changed the
+ * table returns no locations. Once the location data is no longer needed the
+ * table can simply be discarded (see {@link #release(Document)}) and the
+ * Document is left as plain JDOM content.
+ * <p>
+ * Looking up a location walks the preceding siblings of the Content and of
+ * each of its ancestors, so it is intended for occasional queries (for
+ * example, for error reporting), not for bulk processing of every node.
+ * <p>
+ * Like the Located values, the locations are those reported by the parser,
+ * which are typically the <strong>end</strong> of the parse event. Content
+ * created without location data has the line and column values -1.
+ * 
+ * @see LocationTableJDOMFactory
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public final class LocationTable {
+
+	/**
+	 * The Document property under which the {@link LocationTableJDOMFactory}
+	 * stores the LocationTable for a built Document.
+	 */
+	public static final String PROPERTY = LocationTable.class.getName();
+
+	/**
+	 * Get the LocationTable that was recorded for the given Document.
+	 * @param document The Document to get the table for.
+	 * @return the LocationTable, or null if the Document was not built using a
+	 *         {@link LocationTableJDOMFactory}, or if the table has been
+	 *         released.
+	 */
+	public static LocationTable getLocationTable(final Document document) {
+		final Object table = document.getProperty(PROPERTY);
+		return table instanceof LocationTable ? (LocationTable)table : null;
+	}
+
+	/**
+	 * Remove the LocationTable (if any) from the given Document so that the
+	 * memory it uses can be reclaimed.
+	 * @param document The Document to release the table from.
+	 */
+	public static void release(final Document document) {
+		if (document.getProperty(PROPERTY) != null) {
+			document.setProperty(PROPERTY, null);
+		}
+	}
+
+	/**
+	 * A Located view of a single entry in the table.
+	 */
+	private final class Entry implements Located {
+		private final int index;
+
+		private Entry(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public int getLine() {
+			return locations[index << 1];
+		}
+
+		@Override
+		public int getColumn() {
+			return locations[(index << 1) + 1];
+		}
+
+		@Override
+		public void setLine(final int line) {
+			locations[index << 1] = line;
+		}
+
+		@Override
+		public void setColumn(final int col) {
+			locations[(index << 1) + 1] = col;
+		}
+
+		@Override
+		public String toString() {
+			return "[Located: line " + getLine() + ", column " + getColumn() + "]";
+		}
+	}
+
+	private static final int[] EMPTY = new int[0];
+
+	private final Document document;
+	/** line and column pairs, in creation (document) order */
+	private int[] locations = EMPTY;
+	private int size = 0;
+	/** The Document's content when the build ended, null until then */
+	private Content[] top = null;
+	/** The root Element's tree stamp when the build ended */
+	private int rootstamp = 0;
+
+	/**
+	 * Create an empty table for the Content of the given Document.
+	 * @param document The Document the locations are for.
+	 */
+	LocationTable(final Document document) {
+		this.document = document;
+	}
+
+	/**
+	 * Record the location of the next Content in document order.
+	 * @param line The line
+	 * @param col The column
+	 */
+	void add(final int line, final int col) {
+		if ((size << 1) >= locations.length) {
+			locations = ArrayCopy.copyOf(locations,
+					locations.length == 0 ? 64 : (locations.length << 1));
+		}
+		locations[size << 1] = line;
+		locations[(size << 1) + 1] = col;
+		size++;
+	}
+
+	/**
+	 * Note the state of the Document when its build has ended.
+	 */
+	void seal() {
+		top = document.getContent().toArray(new Content[document.getContentSize()]);
+		if (document.hasRootElement()) {
+			rootstamp = document.getRootElement().getTreeStamp();
+		}
+	}
+
+	/**
+	 * @return true if the Document has been modified since its build ended.
+	 */
+	private boolean isModified() {
+		if (top == null) {
+			// still being built.
+			return false;
+		}
+		if (top.length != document.getContentSize()) {
+			return true;
+		}
+		for (int i = 0; i < top.length; i++) {
+			if (top[i] != document.getContent(i)) {
+				return true;
+			}
+		}
+		return document.hasRootElement() &&
+				document.getRootElement().getTreeStamp() != rootstamp;
+	}
+
+	/**
+	 * The Document this table holds the locations for.
+	 * @return the Document.
+	 */
+	public Document getDocument() {
+		return document;
+	}
+
+	/**
+	 * The number of Content locations recorded in this table.
+	 * @return the number of recorded locations.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the location of the given Content as a {@link Located} instance.
+	 * The returned instance is a live view in to this table.
+	 * @param content The Content to locate.
+	 * @return the Located view, or null if the Content is not part of this
+	 *         table's Document, or the Document has been modified.
+	 */
+	public Located getLocated(final Content content) {
+		final int index = indexOf(content);
+		return index < 0 ? null : new Entry(index);
+	}
+
+	/**
+	 * Get the line of the given Content.
+	 * @param content The Content to locate.
+	 * @return the line, or -1 if the Content is not part of this
+	 *         table's Document, if the Document has been modified, or if no
+	 *         line was available.
+	 */
+	public int getLine(final Content content) {
+		final int index = indexOf(content);
+		return index < 0 ? -1 : locations[index << 1];
+	}
+
+	/**
+	 * Get the column of the given Content.
+	 * @param content The Content to locate.
+	 * @return the column, or -1 if the Content is not part of this
+	 *         table's Document, if the Document has been modified, or if no
+	 *         column was available.
+	 */
+	public int getColumn(final Content content) {
+		final int index = indexOf(content);
+		return index < 0 ? -1 : locations[(index << 1) + 1];
+	}
+
+	/**
+	 * Compute the document-order position of the Content: the number of
+	 * Content nodes that precede it in the Document.
+	 * @param content The content to locate
+	 * @return the position, or -1 if the content is not in the Document, or
+	 *         the Document has been modified.
+	 */
+	private int indexOf(final Content content) {
+		if (content == null || isModified()) {
+			return -1;
+		}
+		int pos = 0;
+		Content current = content;
+		Parent parent = current.getParent();
+		while (parent != null) {
+			final int ci = parent.indexOf(current);
+			for (int i = 0; i < ci; i++) {
+				pos += countNodes(parent.getContent(i));
+			}
+			if (parent == document) {
+				return pos < size ? pos : -1;
+			}
+			if (!(parent instanceof Element)) {
+				return -1;
+			}
+			// the parent Element itself precedes its content.
+			pos++;
+			current = (Element)parent;
+			parent = current.getParent();
+		}
+		return -1;
+	}
+
+	private static final int countNodes(final Content content) {
+		if (!(content instanceof Element)) {
+			return 1;
+		}
+		final Element emt = (Element)content;
+		if (emt.getContentSize() == 0) {
+			return 1;
+		}
+		int cnt = 1;
+		final Iterator<Content> it = emt.getDescendants();
+		while (it.hasNext()) {
+			it.next();
+			cnt++;
+		}
+		return cnt;
+	}
+
+	@Override
+	public String toString() {
+		return "[LocationTable: " + size + " locations]";
+	}
+
+}
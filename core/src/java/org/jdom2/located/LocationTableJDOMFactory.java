@@ -0,0 +1,235 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.located;
+
+import java.util.Map;
+
+import org.jdom2.CDATA;
+import org.jdom2.Comment;
+import org.jdom2.DefaultJDOMFactory;
+import org.jdom2.DocType;
+import org.jdom2.Document;
+import org.jdom2.DocumentBuildListener;
+import org.jdom2.Element;
+import org.jdom2.EntityRef;
+import org.jdom2.Namespace;
+import org.jdom2.ProcessingInstruction;
+import org.jdom2.Text;
+
+/**
+ * A JDOMFactory that creates regular JDOM Content, and records the line and
+ * column values of the Content in a compact {@link LocationTable} instead of
+ * in {@link Located} subclasses.
+ * <p>
+ * Each Document built with this factory gets a new LocationTable when the
+ * build starts (see {@link DocumentBuildListener}), which is stored as a
+ * property of the Document and can be retrieved with
+ * {@link LocationTable#getLocationTable(Document)}. All Content created
+ * during the build is recorded in that table. The JDOM builders create the
+ * Content of a Document in document order.
+ * <p>
+ * Recording stops when the build ends, so Content created with this factory
+ * between builds is not added to the table of any Document, neither the
+ * previous one nor the next. Any later change to the Document makes the
+ * table return no locations (see {@link LocationTable}).
+ * <p>
+ * Because the factory tracks the table for the Document being built, an
+ * instance should not be used by more than one builder at a time.
+ * <p>
+ * Content created when there is no current Document (for example, when
+ * building fragments) is not recorded.
+ * 
+ * @see LocatedJDOMFactory
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public class LocationTableJDOMFactory extends DefaultJDOMFactory
+		implements DocumentBuildListener {
+
+	private LocationTable table = null;
+
+	private final <T> T record(final int line, final int col, final T content) {
+		if (table != null) {
+			table.add(line, col);
+		}
+		return content;
+	}
+
+	/**
+	 * Start recording Content in to a new LocationTable for the given
+	 * Document.
+	 * 
+	 * @param document The Document that is about to be built.
+	 */
+	@Override
+	public void startDocument(final Document document) {
+		table = new LocationTable(document);
+		document.setProperty(LocationTable.PROPERTY, table);
+	}
+
+	/**
+	 * Stop recording Content in to the LocationTable of the given Document,
+	 * and note the state of the Document so later changes to it can be
+	 * detected. If the Document is not the one currently being recorded this
+	 * does nothing.
+	 * 
+	 * @param document The Document that has been built.
+	 */
+	@Override
+	public void endDocument(final Document document) {
+		if (table != null && table.getDocument() == document) {
+			table.seal();
+			table = null;
+		}
+	}
+
+	@Override
+	public CDATA cdata(int line, int col, String text) {
+		return record(line, col, super.cdata(line, col, text));
+	}
+
+	@Override
+	public Text text(int line, int col, String text) {
+		return record(line, col, super.text(line, col, text));
+	}
+
+	@Override
+	public Comment comment(int line, int col, String text) {
+		return record(line, col, super.comment(line, col, text));
+	}
+
+	@Override
+	public DocType docType(int line, int col, String elementName,
+			String publicID, String systemID) {
+		return record(line, col,
+				super.docType(line, col, elementName, publicID, systemID));
+	}
+
+	@Override
+	public DocType docType(int line, int col, String elementName,
+			String systemID) {
+		return record(line, col,
+				super.docType(line, col, elementName, systemID));
+	}
+
+	@Override
+	public DocType docType(int line, int col, String elementName) {
+		return record(line, col, super.docType(line, col, elementName));
+	}
+
+	@Override
+	public Element element(int line, int col, String name,
+			Namespace namespace) {
+		return record(line, col, super.element(line, col, name, namespace));
+	}
+
+	@Override
+	public Element element(int line, int col, String name) {
+		return record(line, col, super.element(line, col, name));
+	}
+
+	@Override
+	public Element element(int line, int col, String name, String uri) {
+		return record(line, col, super.element(line, col, name, uri));
+	}
+
+	@Override
+	public Element element(int line, int col, String name, String prefix,
+			String uri) {
+		return record(line, col,
+				super.element(line, col, name, prefix, uri));
+	}
+
+	@Override
+	public ProcessingInstruction processingInstruction(int line, int col,
+			String target) {
+		return record(line, col,
+				super.processingInstruction(line, col, target));
+	}
+
+	@Override
+	public ProcessingInstruction processingInstruction(int line, int col,
+			String target, Map<String, String> data) {
+		return record(line, col,
+				super.processingInstruction(line, col, target, data));
+	}
+
+	@Override
+	public ProcessingInstruction processingInstruction(int line, int col,
+			String target, String data) {
+		return record(line, col,
+				super.processingInstruction(line, col, target, data));
+	}
+
+	@Override
+	public EntityRef entityRef(int line, int col, String name) {
+		return record(line, col, super.entityRef(line, col, name));
+	}
+
+	@Override
+	public EntityRef entityRef(int line, int col, String name,
+			String publicID, String systemID) {
+		return record(line, col,
+				super.entityRef(line, col, name, publicID, systemID));
+	}
+
+	@Override
+	public EntityRef entityRef(int line, int col, String name,
+			String systemID) {
+		return record(line, col,
+				super.entityRef(line, col, name, systemID));
+	}
+
+}
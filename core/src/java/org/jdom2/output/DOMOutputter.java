@@ -69,6 +69,7 @@ import org.jdom2.ProcessingInstruction;
 import org.jdom2.Text;
 import org.jdom2.adapters.DOMAdapter;
 import org.jdom2.adapters.JAXPDOMAdapter;
+import org.jdom2.dom.DOM;
 import org.jdom2.internal.ReflectionConstructor;
 import org.jdom2.output.support.AbstractDOMOutputProcessor;
 import org.jdom2.output.support.DOMOutputProcessor;
@@ -82,6 +83,13 @@ import org.jdom2.output.support.DOMOutputProcessor;
  * node using the DOMAdapter to create a new org.w3c.dom.Document. The other
  * version creates the new DOM Nodes using the supplied org.w3c.dom.Document
  * instance.
+ * <p>
+ * The output methods all copy the JDOM content in to a new DOM model. When
+ * the DOM model is only going to be read (for example, by a signature
+ * checker or a schema validator) the {@link #wrap(Document)} methods can be
+ * used instead. These return a read-only DOM view of the JDOM content that
+ * is created lazily as it is navigated, and does not copy the content. See
+ * {@link DOM} for the details.
  * 
  * @author Brett McLaughlin
  * @author Jason Hunter
@@ -611,4 +619,38 @@ public class DOMOutputter {
 		return processor.process(basedoc, format, list);
 	}
 
+	/**
+	 * This wraps the JDOM <code>Document</code> parameter in a read-only DOM
+	 * Document view. Unlike {@link #output(Document)} the JDOM content is
+	 * not copied, and the DOMAdapter, Format and DOMOutputProcessor of this
+	 * DOMOutputter are not used.
+	 * 
+	 * @param document
+	 *        <code>Document</code> to wrap.
+	 * @return a read-only <code>org.w3c.dom.Document</code> view of the
+	 *        input document.
+	 * @see DOM#wrap(Document)
+	 * @since JDOM2
+	 */
+	public org.w3c.dom.Document wrap(Document document) {
+		return DOM.wrap(document);
+	}
+
+	/**
+	 * This wraps the JDOM <code>Element</code> parameter in a read-only DOM
+	 * Element view. Unlike {@link #output(Element)} the JDOM content is not
+	 * copied, and the DOMAdapter, Format and DOMOutputProcessor of this
+	 * DOMOutputter are not used.
+	 * 
+	 * @param element
+	 *        <code>Element</code> to wrap.
+	 * @return a read-only <code>org.w3c.dom.Element</code> view of the
+	 *        input element.
+	 * @see DOM#wrap(Element)
+	 * @since JDOM2
+	 */
+	public org.w3c.dom.Element wrap(Element element) {
+		return DOM.wrap(element);
+	}
+
 }
@@ -54,6 +54,7 @@
 
 package org.jdom2.output;
 
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.util.Locale;
@@ -457,12 +458,7 @@ public class Format implements Cloneable {
 			final String eol, final String value) {
 		final int right = value.length();
 		int idx = 0;
-		checkloop: while (idx < right) {
-			final char ch = value.charAt(idx);
-			if (ch == '<' || ch == '>' || ch == '&' || ch == '\r' || ch == '\n'
-					|| strategy.shouldEscape(ch)) {
-				break checkloop;
-			}
+		while (idx < right && !escapeTextChar(strategy, value.charAt(idx))) {
 			idx++;
 		}
 		
@@ -471,13 +467,48 @@ public class Format implements Cloneable {
 			return value;
 		}
 		
-		StringBuilder sb = new StringBuilder();
-		if (idx > 0) {
+		final StringBuilder sb = new StringBuilder(right + 16);
+		try {
 			sb.append(value, 0, idx);
+			escapeText(strategy, eol, value, idx, right, sb);
+		} catch (IOException e) {
+			// no IOException on StringBuilder....
 		}
+		return sb.toString();
+	}
+
+	/**
+	 * Escape part of some text, the same way as
+	 * {@link #escapeText(EscapeStrategy, String, String)}, and append the
+	 * result to an Appendable. This does not create any intermediate
+	 * Strings for the text.
+	 * 
+	 * @param strategy
+	 *        The EscapeStrategy
+	 * @param eol
+	 *        The End-Of-Line sequence to be used (may be null).
+	 * @param value
+	 *        The text to escape
+	 * @param from
+	 *        The index of the first char to escape
+	 * @param to
+	 *        The index after the last char to escape
+	 * @param out
+	 *        Where to append the escaped text
+	 * @throws IOException
+	 *         if the Appendable fails
+	 * @throws IllegalDataException
+	 *         if an entity can not be escaped
+	 * @since JDOM2
+	 */
+	public static final void escapeText(final EscapeStrategy strategy,
+			final String eol, final CharSequence value, final int from,
+			final int to, final Appendable out) throws IOException {
+		// the chars from 'plain' to idx need no escaping.
+		int plain = from;
 		char highsurrogate = 0;
-		while (idx < right) {
-			final char ch = value.charAt(idx++);
+		for (int idx = from; idx < to; idx++) {
+			final char ch = value.charAt(idx);
 			if (highsurrogate > 0) {
 				if (!Verifier.isLowSurrogate(ch)) {
 					throw new IllegalDataException(
@@ -486,43 +517,46 @@ public class Format implements Cloneable {
 									+ Integer.toHexString(ch));
 				}
 				int chp = Verifier.decodeSurrogatePair(highsurrogate, ch);
-				sb.append("&#x" + Integer.toHexString(chp) + ";");
+				out.append("&#x" + Integer.toHexString(chp) + ";");
 				highsurrogate = 0;
+				plain = idx + 1;
+				continue;
+			}
+			if (!escapeTextChar(strategy, ch)) {
 				continue;
 			}
+			if (plain < idx) {
+				out.append(value, plain, idx);
+			}
+			plain = idx + 1;
 			switch (ch) {
 				case '<':
-					sb.append("&lt;");
+					out.append("&lt;");
 					break;
 				case '>':
-					sb.append("&gt;");
+					out.append("&gt;");
 					break;
 				case '&':
-					sb.append("&amp;");
+					out.append("&amp;");
 					break;
 				case '\r':
-					sb.append("&#xD;");
+					out.append("&#xD;");
 					break;
 				case '\n':
 					if (eol != null) {
-						sb.append(eol);
+						out.append(eol);
 					} else {
-						sb.append('\n');
+						out.append('\n');
 					}
 					break;
 				default:
-
-					if (strategy.shouldEscape(ch)) {
-						// make sure what we are escaping is not the
-						// beginning of a multi-byte character.
-						if (Verifier.isHighSurrogate(ch)) {
-							// this is a the high of a surrogate pair
-							highsurrogate = ch;
-						} else {
-							sb.append("&#x" + Integer.toHexString(ch) + ";");
-						}
+					// make sure what we are escaping is not the
+					// beginning of a multi-byte character.
+					if (Verifier.isHighSurrogate(ch)) {
+						// this is a the high of a surrogate pair
+						highsurrogate = ch;
 					} else {
-						sb.append(ch);
+						out.append("&#x" + Integer.toHexString(ch) + ";");
 					}
 					break;
 			}
@@ -531,9 +565,22 @@ public class Format implements Cloneable {
 			throw new IllegalDataException("Surrogate pair 0x" +
 					Integer.toHexString(highsurrogate) + "truncated");
 		}
-		
-		return sb.toString();
+		if (plain < to) {
+			if (plain == 0 && to == value.length()) {
+				out.append(value);
+			} else {
+				out.append(value, plain, to);
+			}
+		}
+	}
 
+	/**
+	 * @return true if the char can not be output as-is in text.
+	 */
+	private static final boolean escapeTextChar(final EscapeStrategy strategy,
+			final char ch) {
+		return ch == '<' || ch == '>' || ch == '&' || ch == '\r' || ch == '\n'
+				|| strategy.shouldEscape(ch);
 	}
 	
 	private static final EscapeStrategy chooseStrategy(String encoding) {
@@ -0,0 +1,227 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.output;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+
+/**
+ * Validate JDOM Documents, or Element subtrees, against a compiled
+ * {@link Schema}. The content is fed to a {@link ValidatorHandler} straight
+ * from the JDOM tree (using a {@link SAXOutputter}), so there is no
+ * serialization and no re-parse.
+ * <p>
+ * A SchemaValidator is thread-safe. ValidatorHandlers are not, so each
+ * validation takes one from a pool, and returns it when done. The pool only
+ * grows as large as the number of concurrent validations.
+ * <p>
+ * The Schema can come from a JAXP SchemaFactory, or from an
+ * {@link org.jdom2.input.sax.XMLReaderXSDFactory} (see
+ * {@link org.jdom2.input.sax.AbstractReaderSchemaFactory#getSchema()}),
+ * which caches the compiled Schemas for its XSDs:
+ * 
+ * <pre>
+ * XMLReaderXSDFactory xsdfac = new XMLReaderXSDFactory(new File(&quot;schema.xsd&quot;));
+ * SchemaValidator validator = new SchemaValidator(xsdfac.getSchema());
+ * validator.validate(document);
+ * </pre>
+ * 
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public final class SchemaValidator {
+
+	private final Schema schema;
+
+	/** SAXOutputters, each with its own ValidatorHandler as ContentHandler */
+	private final ConcurrentLinkedQueue<SAXOutputter> pool =
+			new ConcurrentLinkedQueue<SAXOutputter>();
+
+	/**
+	 * Create a SchemaValidator for the given Schema.
+	 * 
+	 * @param schema
+	 *        The Schema to validate against.
+	 */
+	public SchemaValidator(final Schema schema) {
+		if (schema == null) {
+			throw new NullPointerException("Cannot validate with a null Schema");
+		}
+		this.schema = schema;
+	}
+
+	/**
+	 * The Schema this validates against.
+	 * 
+	 * @return the Schema.
+	 */
+	public Schema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Validate the Document, failing at the first error.
+	 * 
+	 * @param document
+	 *        The Document to validate.
+	 * @throws JDOMException
+	 *         if the Document is not valid, the cause is the SAXException.
+	 */
+	public void validate(final Document document) throws JDOMException {
+		validate(document, null);
+	}
+
+	/**
+	 * Validate the Document, reporting problems to the ErrorHandler.
+	 * 
+	 * @param document
+	 *        The Document to validate.
+	 * @param handler
+	 *        The ErrorHandler to report problems to. If null, the validation
+	 *        fails at the first error.
+	 * @throws JDOMException
+	 *         if the validation fails, the cause is the SAXException.
+	 */
+	public void validate(final Document document, final ErrorHandler handler)
+			throws JDOMException {
+		if (document == null) {
+			throw new NullPointerException("Cannot validate a null Document");
+		}
+		final SAXOutputter out = checkout(handler);
+		try {
+			out.output(document);
+		} catch (JDOMException e) {
+			throw failed(e);
+		}
+		checkin(out);
+	}
+
+	/**
+	 * Validate the Element and its descendants as if it were the root of a
+	 * Document, failing at the first error.
+	 * 
+	 * @param element
+	 *        The Element to validate.
+	 * @throws JDOMException
+	 *         if the Element is not valid, the cause is the SAXException.
+	 */
+	public void validate(final Element element) throws JDOMException {
+		validate(element, null);
+	}
+
+	/**
+	 * Validate the Element and its descendants as if it were the root of a
+	 * Document, reporting problems to the ErrorHandler.
+	 * 
+	 * @param element
+	 *        The Element to validate.
+	 * @param handler
+	 *        The ErrorHandler to report problems to. If null, the validation
+	 *        fails at the first error.
+	 * @throws JDOMException
+	 *         if the validation fails, the cause is the SAXException.
+	 */
+	public void validate(final Element element, final ErrorHandler handler)
+			throws JDOMException {
+		if (element == null) {
+			throw new NullPointerException("Cannot validate a null Element");
+		}
+		final SAXOutputter out = checkout(handler);
+		try {
+			out.output(element);
+		} catch (JDOMException e) {
+			throw failed(e);
+		}
+		checkin(out);
+	}
+
+	private SAXOutputter checkout(final ErrorHandler handler) {
+		SAXOutputter out = pool.poll();
+		if (out == null) {
+			out = new SAXOutputter(schema.newValidatorHandler());
+		}
+		((ValidatorHandler)out.getContentHandler()).setErrorHandler(handler);
+		return out;
+	}
+
+	private void checkin(final SAXOutputter out) {
+		// do not hold on to the caller's handler.
+		((ValidatorHandler)out.getContentHandler()).setErrorHandler(null);
+		pool.offer(out);
+	}
+
+	/**
+	 * A failed validation leaves its ValidatorHandler part way through a
+	 * document, so it is not returned to the pool. Report the SAX problem
+	 * rather than the output wrapper.
+	 */
+	private static JDOMException failed(final JDOMException e) {
+		if (e.getCause() instanceof SAXException) {
+			return new JDOMException("Validation failed: " + 
+					e.getCause().getMessage(), e.getCause());
+		}
+		return e;
+	}
+
+}
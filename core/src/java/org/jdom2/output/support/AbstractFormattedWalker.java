@@ -54,12 +54,14 @@
 
 package org.jdom2.output.support;
 
+import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.jdom2.CDATA;
 import org.jdom2.Content;
+import org.jdom2.Verifier;
 import org.jdom2.internal.ArrayCopy;
 import org.jdom2.output.EscapeStrategy;
 import org.jdom2.output.Format;
@@ -187,38 +189,104 @@ public abstract class AbstractFormattedWalker implements Walker {
 			if (tlen == 0) {
 				return;
 			}
-			String toadd = null;
+			// trim, compact and escape straight in to the buffer, rather
+			// than through intermediate Strings.
+			int left = 0;
+			int right = tlen;
 			switch (trim) {
-				case NONE:
-					toadd = text;
-					break;
 				case BOTH:
-					toadd = Format.trimBoth(text);
-					break;
+				case COMPACT:
+					while (right > 1 && Verifier.isXMLWhitespace(text.charAt(right - 1))) {
+						right--;
+					}
+					// fall through
 				case LEFT:
-					toadd = Format.trimLeft(text);
+					while (left < right && Verifier.isXMLWhitespace(text.charAt(left))) {
+						left++;
+					}
 					break;
 				case RIGHT:
-					toadd = Format.trimRight(text);
+					while (right > 0 && Verifier.isXMLWhitespace(text.charAt(right - 1))) {
+						right--;
+					}
 					break;
-				case COMPACT:
-					toadd = Format.compact(text);
+				case NONE:
 					break;
 			}
-			if (toadd != null) {
-				toadd = escapeText(toadd);
-				mtbuffer.append(toadd);
-				mtgottext = true;
+			mtgottext = true;
+			if (left >= right) {
+				return;
+			}
+			final EscapeStrategy strategy = 
+					escape == null || !fstack.getEscapeOutput() ? null : escape;
+			if (trim != Trim.COMPACT) {
+				appendEscaped(text, left, right, strategy);
+				return;
+			}
+			// each run of whitespace inside the text becomes a single space.
+			int from = left;
+			while (true) {
+				int word = from;
+				while (word < right && !Verifier.isXMLWhitespace(text.charAt(word))) {
+					word++;
+				}
+				appendEscaped(text, from, word, strategy);
+				if (word == right) {
+					return;
+				}
+				mtbuffer.append(' ');
+				from = word + 1;
+				while (Verifier.isXMLWhitespace(text.charAt(from))) {
+					from++;
+				}
 			}
 		}
 		
-		private String escapeText(final String text) {
-			if (escape == null || !fstack.getEscapeOutput()) {
-				return text;
+		/**
+		 * Append part of a String to the buffer, escaping it if there is an
+		 * escape strategy.
+		 * @param text The text to append from
+		 * @param from the first char to append
+		 * @param to the char after the last to append
+		 * @param strategy the escape strategy, or null if not escaping
+		 */
+		private void appendEscaped(final String text, final int from, final int to,
+				final EscapeStrategy strategy) {
+			if (strategy == null) {
+				appendRange(text, from, to);
+				return;
+			}
+			try {
+				Format.escapeText(strategy, endofline, text, from, to, mtbuffer);
+			} catch (IOException e) {
+				// no IOException on StringBuilder....
 			}
-			return Format.escapeText(escape, endofline, text);
 		}
 
+		/**
+		 * Append part of a String to the buffer. Whole values are appended
+		 * directly, parts are copied through a reused char[] (which is
+		 * faster than the CharSequence append, and does not substring).
+		 * @param text The text to append from
+		 * @param from the first char to append
+		 * @param to the char after the last to append
+		 */
+		private void appendRange(final String text, final int from, final int to) {
+			final int len = to - from;
+			if (len <= 0) {
+				return;
+			}
+			if (len == text.length()) {
+				mtbuffer.append(text);
+				return;
+			}
+			if (len > mtchars.length) {
+				mtchars = new char[len + 32];
+			}
+			text.getChars(from, to, mtchars, 0);
+			mtbuffer.append(mtchars, 0, len);
+		}
+		
 		private String escapeCDATA(final String text) {
 			if (escape == null) {
 				return text;
@@ -335,6 +403,8 @@ public abstract class AbstractFormattedWalker implements Walker {
 	private final MultiText holdingmt = new MultiText();
 	
 	private final StringBuilder mtbuffer = new StringBuilder();
+	// scratch space for copying trimmed parts of text in to mtbuffer.
+	private char[] mtchars = new char[64];
 	// if there should be indenting after this text.
 	private boolean mtpostpad;
 	// indicate whether there is something actually added.
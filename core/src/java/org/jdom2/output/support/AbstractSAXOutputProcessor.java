@@ -71,12 +71,9 @@ import org.xml.sax.SAXParseException;
 import org.xml.sax.XMLReader;
 import org.xml.sax.ext.DeclHandler;
 import org.xml.sax.ext.LexicalHandler;
-import org.xml.sax.helpers.AttributesImpl;
 import org.xml.sax.helpers.DefaultHandler;
 import org.xml.sax.helpers.XMLReaderFactory;
 
-import org.jdom2.Attribute;
-import org.jdom2.AttributeType;
 import org.jdom2.CDATA;
 import org.jdom2.Comment;
 import org.jdom2.Content;
@@ -85,9 +82,11 @@ import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.EntityRef;
 import org.jdom2.JDOMException;
+import org.jdom2.JDOMFactory;
 import org.jdom2.Namespace;
 import org.jdom2.ProcessingInstruction;
 import org.jdom2.Text;
+import org.jdom2.UncheckedJDOMFactory;
 import org.jdom2.output.Format;
 import org.jdom2.output.Format.TextMode;
 import org.jdom2.output.XMLOutputter;
@@ -121,6 +120,12 @@ import org.jdom2.util.NamespaceStack;
 public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 		implements SAXOutputProcessor {
 
+	/**
+	 * Formatted text and indenting are built from content that is already
+	 * legal, so they are created without being verified again.
+	 */
+	private static final JDOMFactory RAWFACTORY = new UncheckedJDOMFactory();
+
 	private static void locate(SAXTarget out) {
 		out.getContentHandler().setDocumentLocator(out.getLocator());
 	}
@@ -491,13 +496,12 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 			final CDATA cdata) throws SAXException {
 		// CDATAs are treated like text, not indented/newline content.
 		final LexicalHandler lexicalHandler = out.getLexicalHandler();
-		final char[] chars = cdata.getText().toCharArray();
 		if (lexicalHandler != null) {
 			lexicalHandler.startCDATA();
-			out.getContentHandler().characters(chars, 0, chars.length);
+			characters(out, cdata.getText());
 			lexicalHandler.endCDATA();
 		} else {
-			out.getContentHandler().characters(chars, 0, chars.length);
+			characters(out, cdata.getText());
 		}
 	}
 
@@ -515,8 +519,25 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 	 */
 	protected void printText(final SAXTarget out, final FormatStack fstack,
 			final Text text) throws SAXException {
-		final char[] chars = text.getText().toCharArray();
-		out.getContentHandler().characters(chars, 0, chars.length);
+		characters(out, text.getText());
+	}
+
+	/**
+	 * Send text to the ContentHandler through the target's re-used buffer.
+	 * 
+	 * @param out
+	 *        <code>SAXTarget</code> to use.
+	 * @param text
+	 *        the characters to send.
+	 * @throws SAXException
+	 *         if the destination SAXTarget fails
+	 */
+	private static void characters(final SAXTarget out, final String text)
+			throws SAXException {
+		final int len = text.length();
+		final char[] chars = out.getCharBuffer(len);
+		text.getChars(0, len, chars, 0);
+		out.getContentHandler().characters(chars, 0, len);
 	}
 
 	/**
@@ -548,39 +569,28 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 			// update locator
 			out.getLocator().setNode(element);
 
-			AttributesImpl atts = new AttributesImpl();
+			// The same Attributes view is used for every Element, it is
+			// only valid during the startElement call.
+			final SAXAttributes atts = out.getAttributes();
+			atts.reset();
 
 			// contentHandler.startPrefixMapping()
+			final boolean declare = out.isDeclareNamespaces();
 			for (Namespace ns : nstack.addedForward()) {
 				ch.startPrefixMapping(ns.getPrefix(), ns.getURI());
-				if (out.isDeclareNamespaces()) {
+				if (declare) {
 					// add a physical attribute if requested.
-					String prefix = ns.getPrefix();
-					if (prefix.equals("")) {
-						atts.addAttribute("", "", "xmlns", "CDATA", ns.getURI());
-					} else {
-						atts.addAttribute("", "", "xmlns:" + ns.getPrefix(),
-								"CDATA", ns.getURI());
-					}
+					atts.addDeclaration(ns);
 				}
 			}
 
-			// Allocate attribute list.
-			if (element.hasAttributes()) {
-				for (Attribute a : element.getAttributes()) {
-					if (!a.isSpecified() && fstack.isSpecifiedAttributesOnly()) {
-						continue;
-					}
-					atts.addAttribute(a.getNamespaceURI(), a.getName(),
-							a.getQualifiedName(),
-							getAttributeTypeName(a.getAttributeType()),
-							a.getValue());
-				}
-			}
+			atts.setAttributes(element, fstack.isSpecifiedAttributesOnly());
 
 			// contentHandler.startElement()
+			final String qname = element.getQualifiedName();
 			ch.startElement(element.getNamespaceURI(), element.getName(),
-					element.getQualifiedName(), atts);
+					qname, atts);
+			atts.reset();
 
 			final List<Content> content = element.getContent();
 
@@ -608,7 +618,7 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 								&& fstack.getPadBetween() != null) {
 							// we need to newline/indent
 							final String indent = fstack.getPadBetween();
-							printText(out, fstack, new Text(indent));
+							printText(out, fstack, RAWFACTORY.text(indent));
 						}
 						
 						printContent(out, fstack, nstack, walker);
@@ -618,7 +628,7 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 							// we need to newline/indent
 							final String indent = 
 									fstack.getPadLast();
-							printText(out, fstack, new Text(indent));
+							printText(out, fstack, RAWFACTORY.text(indent));
 						}
 						
 					}
@@ -629,8 +639,8 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 			}
 
 			// contentHandler.endElement()
-			out.getContentHandler().endElement(element.getNamespaceURI(),
-					element.getName(), element.getQualifiedName());
+			ch.endElement(element.getNamespaceURI(),
+					element.getName(), qname);
 
 			// contentHandler.endPrefixMapping()
 			// de-map in reverse order to the mapping.
@@ -670,9 +680,9 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 				// Formatted Text or CDATA
 				final String text = walker.text();
 				if (walker.isCDATA()) {
-					printCDATA(out, fstack, new CDATA(text));
+					printCDATA(out, fstack, RAWFACTORY.cdata(text));
 				} else {
-					printText(out, fstack, new Text(text));
+					printText(out, fstack, RAWFACTORY.text(text));
 				}
 			} else {
 				switch (c.getCType()) {
@@ -703,27 +713,6 @@ public class AbstractSAXOutputProcessor extends AbstractOutputProcessor
 		}
 	}
 
-	/**
-	 * <p>
-	 * Returns the SAX 2.0 attribute type string from the type of a JDOM
-	 * Attribute.
-	 * </p>
-	 * 
-	 * @param type
-	 *        <code>int</code> the type of the JDOM attribute.
-	 * @return <code>String</code> the SAX 2.0 attribute type string.
-	 * @see org.jdom2.Attribute#getAttributeType
-	 * @see org.xml.sax.Attributes#getType
-	 */
-	private static String getAttributeTypeName(AttributeType type) {
-		switch (type) {
-			case UNDECLARED:
-				return "CDATA";
-			default:
-				return type.name();
-		}
-	}
-
 	/**
 	 * <p>
 	 * Creates a SAX XMLReader.
@@ -59,6 +59,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLStreamException;
@@ -73,9 +74,11 @@ import org.jdom2.DocType;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.EntityRef;
+import org.jdom2.JDOMFactory;
 import org.jdom2.Namespace;
 import org.jdom2.ProcessingInstruction;
 import org.jdom2.Text;
+import org.jdom2.UncheckedJDOMFactory;
 import org.jdom2.Verifier;
 import org.jdom2.output.Format;
 import org.jdom2.output.Format.TextMode;
@@ -122,7 +125,41 @@ import org.jdom2.util.NamespaceStack;
  */
 public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor 
 		implements StAXEventProcessor {
-	
+
+	/**
+	 * Formatted text and indenting are built from content that is already
+	 * legal, so they are created without being verified again.
+	 */
+	private static final JDOMFactory RAWFACTORY = new UncheckedJDOMFactory();
+
+	/**
+	 * Most Elements have no new Namespaces, and many have no Attributes.
+	 * The XMLEvents themselves are immutable and cannot be reused, but the
+	 * empty iterators can be shared.
+	 */
+	private static final class EmptyIterator<T> implements Iterator<T> {
+		@Override
+		public boolean hasNext() {
+			return false;
+		}
+
+		@Override
+		public T next() {
+			throw new NoSuchElementException("Empty Iterator");
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Empty Iterator");
+		}
+	}
+
+	private static final Iterator<javax.xml.stream.events.Attribute> NOATTRIBUTES =
+			new EmptyIterator<javax.xml.stream.events.Attribute>();
+
+	private static final Iterator<javax.xml.stream.events.Namespace> NONAMESPACES =
+			new EmptyIterator<javax.xml.stream.events.Namespace>();
+
 	private static final class NSIterator implements Iterator<javax.xml.stream.events.Namespace> {
 		private final Iterator<Namespace> source;
 		private final XMLEventFactory fac;
@@ -277,7 +314,7 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 		if (walker.hasNext()) {
 			final Content c = walker.next();
 			if (c == null) {
-				printCDATA(out, fstack, eventfactory, new CDATA(walker.text()));
+				printCDATA(out, fstack, eventfactory, RAWFACTORY.cdata(walker.text()));
 			} else if (c.getCType() == CType.CDATA) {
 				printCDATA(out, fstack, eventfactory, (CDATA)c);
 			}
@@ -299,7 +336,7 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 		if (walker.hasNext()) {
 			final Content c = walker.next();
 			if (c == null) {
-				printText(out, fstack, eventfactory, new Text(walker.text()));
+				printText(out, fstack, eventfactory, RAWFACTORY.text(walker.text()));
 			} else if (c.getCType() == CType.Text) {
 				printText(out, fstack, eventfactory, (Text)c);
 			}
@@ -637,24 +674,18 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 		nstack.push(element);
 		try {
 			
-			Namespace ns = element.getNamespace();
-			Iterator<Attribute> ait = element.hasAttributes() ?
-					element.getAttributes().iterator() :
-						null;
-			if (ns == Namespace.NO_NAMESPACE) {
-				out.add(eventfactory.createStartElement("", "", element.getName(), 
-						new AttIterator(ait, eventfactory, fstack.isSpecifiedAttributesOnly()), 
-						new NSIterator(nstack.addedForward().iterator(), eventfactory)));
-			} else if ("".equals(ns.getPrefix())) {
-				out.add(eventfactory.createStartElement("", ns.getURI(), element.getName(), 
-						new AttIterator(ait, eventfactory, fstack.isSpecifiedAttributesOnly()), 
-						new NSIterator(nstack.addedForward().iterator(), eventfactory)));
-			} else {
-				out.add(eventfactory.createStartElement(ns.getPrefix(), ns.getURI(), element.getName(), 
-						new AttIterator(ait, eventfactory, fstack.isSpecifiedAttributesOnly()), 
-						new NSIterator(nstack.addedForward().iterator(), eventfactory)));
-			}
-			ait = null;
+			final Namespace ns = element.getNamespace();
+			final Iterator<javax.xml.stream.events.Attribute> atts =
+					element.hasAttributes()
+					? new AttIterator(element.getAttributes().iterator(),
+							eventfactory, fstack.isSpecifiedAttributesOnly())
+					: NOATTRIBUTES;
+			final Iterator<Namespace> added = nstack.addedForward().iterator();
+			final Iterator<javax.xml.stream.events.Namespace> nsis =
+					added.hasNext() ? new NSIterator(added, eventfactory) : NONAMESPACES;
+			// NO_NAMESPACE has an empty prefix and URI.
+			out.add(eventfactory.createStartElement(ns.getPrefix(), ns.getURI(),
+					element.getName(), atts, nsis));
 			
 			final List<Content> content = element.getContent();
 			
@@ -682,7 +713,7 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 						if (!walker.isAllText() && fstack.getPadBetween() != null) {
 							// we need to newline/indent
 							final String indent = fstack.getPadBetween();
-							printText(out, fstack, eventfactory, new Text(indent));
+							printText(out, fstack, eventfactory, RAWFACTORY.text(indent));
 						}
 						
 						printContent(out, fstack, nstack, eventfactory, walker);
@@ -690,7 +721,7 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 						if (!walker.isAllText() && fstack.getPadLast() != null) {
 							// we need to newline/indent
 							final String indent = fstack.getPadLast(); 
-							printText(out, fstack, eventfactory, new Text(indent));
+							printText(out, fstack, eventfactory, RAWFACTORY.text(indent));
 						}
 					}
 				} finally {
@@ -701,7 +732,7 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 			
 			out.add(eventfactory.createEndElement(element.getNamespacePrefix(), 
 					element.getNamespaceURI(), element.getName(), 
-					new NSIterator(nstack.addedReverse().iterator(), eventfactory)));
+					endNamespaces(nstack, eventfactory)));
 		
 
 		} finally {
@@ -709,6 +740,12 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 		}
 	}
 
+	private static final Iterator<javax.xml.stream.events.Namespace> endNamespaces(
+			final NamespaceStack nstack, final XMLEventFactory eventfactory) {
+		final Iterator<Namespace> it = nstack.addedReverse().iterator();
+		return it.hasNext() ? new NSIterator(it, eventfactory) : NONAMESPACES;
+	}
+
 	/**
 	 * This will handle printing of a List of {@link Content}.
 	 * <p>
@@ -737,9 +774,9 @@ public abstract class AbstractStAXEventProcessor extends AbstractOutputProcessor
 			
 			if (content == null) {
 				if (walker.isCDATA()) {
-					printCDATA(out, fstack, eventfactory, new CDATA(walker.text()));
+					printCDATA(out, fstack, eventfactory, RAWFACTORY.cdata(walker.text()));
 				} else {
-					printText(out, fstack, eventfactory, new Text(walker.text()));
+					printText(out, fstack, eventfactory, RAWFACTORY.text(walker.text()));
 				}
 			} else {
 				switch (content.getCType()) {
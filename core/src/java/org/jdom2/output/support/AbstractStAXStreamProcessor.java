@@ -72,9 +72,11 @@ import org.jdom2.DocType;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.EntityRef;
+import org.jdom2.JDOMFactory;
 import org.jdom2.Namespace;
 import org.jdom2.ProcessingInstruction;
 import org.jdom2.Text;
+import org.jdom2.UncheckedJDOMFactory;
 import org.jdom2.Verifier;
 import org.jdom2.output.Format;
 import org.jdom2.output.Format.TextMode;
@@ -125,6 +127,12 @@ import org.jdom2.util.NamespaceStack;
 public abstract class AbstractStAXStreamProcessor
 		extends AbstractOutputProcessor implements StAXStreamProcessor {
 
+	/**
+	 * Formatted text and indenting are built from content that is already
+	 * legal, so they are created without being verified again.
+	 */
+	private static final JDOMFactory RAWFACTORY = new UncheckedJDOMFactory();
+
 
 	/* *******************************************
 	 * StAXStreamProcessor implementation.
@@ -204,7 +212,7 @@ public abstract class AbstractStAXStreamProcessor
 		if (walker.hasNext()) {
 			final Content c = walker.next();
 			if (c == null) {
-				printCDATA(out, fstack, new CDATA(walker.text()));
+				printCDATA(out, fstack, RAWFACTORY.cdata(walker.text()));
 			} else if (c.getCType() == CType.CDATA) {
 				printCDATA(out, fstack, (CDATA)c);
 			}
@@ -227,7 +235,7 @@ public abstract class AbstractStAXStreamProcessor
 		if (walker.hasNext()) {
 			final Content c = walker.next();
 			if (c == null) {
-				printText(out, fstack, new Text(walker.text()));
+				printText(out, fstack, RAWFACTORY.text(walker.text()));
 			} else if (c.getCType() == CType.Text) {
 				printText(out, fstack, (Text)c);
 			}
@@ -556,7 +564,15 @@ public abstract class AbstractStAXStreamProcessor
 			final NamespaceStack nstack, final Element element) throws XMLStreamException {
 
 		nstack.push(element);
+		// New namespace bindings have to be made outside the parent's start
+		// tag (bug in standard StAX implementation adds them to the parent's
+		// context otherwise), so the parent's tag is closed off here, but
+		// only when it is actually needed.
+		final boolean bind = nstack.addedForward().iterator().hasNext();
 		try {
+			if (bind && fstack.isNested()) {
+				out.writeCharacters("");
+			}
 			for (Namespace nsa : nstack.addedForward()) {
 				if (JDOMConstants.NS_PREFIX_DEFAULT.equals(nsa.getPrefix())) {
 					out.setDefaultNamespace(nsa.getURI());
@@ -626,11 +642,9 @@ public abstract class AbstractStAXStreamProcessor
 						printAttribute(out, fstack, attribute);
 					}
 				}
-				
-				// This neatens up the output stream for some reason - bug in standard StAX
-				// implementation requires us to close off the Element start tag before we
-				// start adding new Namespaces to child contexts...
-				out.writeCharacters("");
+				// There is no need to close off the start tag here: the
+				// content, or the end tag, will do that, and a child that
+				// binds new namespaces closes it before it does so.
 
 				// OK, now we print out the meat of the Element
 				if (walker != null) {
@@ -641,7 +655,7 @@ public abstract class AbstractStAXStreamProcessor
 						if (!walker.isAllText() && fstack.getPadBetween() != null) {
 							// we need to newline/indent
 							final String indent = fstack.getPadBetween();
-							printText(out, fstack, new Text(indent));
+							printText(out, fstack, RAWFACTORY.text(indent));
 						}
 						
 						printContent(out, fstack, nstack, walker);
@@ -649,7 +663,7 @@ public abstract class AbstractStAXStreamProcessor
 						if (!walker.isAllText() && fstack.getPadLast() != null) {
 							// we need to newline/indent
 							final String indent = fstack.getPadLast(); 
-							printText(out, fstack, new Text(indent));
+							printText(out, fstack, RAWFACTORY.text(indent));
 						}
 					} finally {
 						fstack.pop();
@@ -677,8 +691,12 @@ public abstract class AbstractStAXStreamProcessor
 				for (final Attribute attribute : element.getAttributes()) {
 					printAttribute(out, fstack, attribute);
 				}
-				// This neatens up the output stream for some reason.
-				out.writeCharacters("");
+				// The empty tag has to be closed before any rebound namespaces
+				// are restored, and at the top level there is nothing after it
+				// to close it. Otherwise the next event closes it.
+				if (bind || !fstack.isNested()) {
+					out.writeCharacters("");
+				}
 			}
 
 		} finally {
@@ -720,9 +738,9 @@ public abstract class AbstractStAXStreamProcessor
 			
 			if (content == null) {
 				if (walker.isCDATA()) {
-					printCDATA(out, fstack, new CDATA(walker.text()));
+					printCDATA(out, fstack, RAWFACTORY.cdata(walker.text()));
 				} else {
-					printText(out, fstack, new Text(walker.text()));
+					printText(out, fstack, RAWFACTORY.text(walker.text()));
 				}
 			} else {
 				switch (content.getCType()) {
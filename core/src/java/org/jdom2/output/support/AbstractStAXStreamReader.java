@@ -57,7 +57,6 @@ package org.jdom2.output.support;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-import javax.xml.XMLConstants;
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.namespace.QName;
 import javax.xml.stream.Location;
@@ -147,9 +146,81 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
 		
 	}
 
+	/**
+	 * Elements with no content do not need a walker of their own.
+	 */
+	private static final Walker EMPTYWALKER = new Walker() {
+		@Override
+		public boolean isAllText() {
+			return false;
+		}
+
+		@Override
+		public boolean isAllWhitespace() {
+			return false;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return false;
+		}
+
+		@Override
+		public Content next() {
+			throw new NoSuchElementException("No Content");
+		}
+
+		@Override
+		public String text() {
+			return null;
+		}
+
+		@Override
+		public boolean isCDATA() {
+			return false;
+		}
+	};
+
+	private static final Namespace[] NONAMESPACES = new Namespace[0];
+
+	private static final Location NOLOCATION = new Location() {
+		@Override
+		public int getLineNumber() {
+			return -1;
+		}
+
+		@Override
+		public int getColumnNumber() {
+			return -1;
+		}
+
+		@Override
+		public int getCharacterOffset() {
+			return -1;
+		}
+
+		@Override
+		public String getPublicId() {
+			return null;
+		}
+
+		@Override
+		public String getSystemId() {
+			return null;
+		}
+	};
+
 	private final FormatStack formatstack;
 	private final NamespaceStack nsstack = new NamespaceStack();
 	
+	/*
+	 * Consumers (unmarshallers especially) ask for the same names over and
+	 * over again. This is a small direct-mapped cache of the QName instances
+	 * handed out, keyed on the local name and URI (the prefix is checked on
+	 * a hit).
+	 */
+	private final QName[] qnames = new QName[256];
+	
     private Document document;
     
     private String curi = null, clocalname = null, cprefix = null, 
@@ -160,6 +231,10 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
     
     private int currentEvt = START_DOCUMENT;
     
+    // lazily calculated values for the current event.
+    private char[] cchars = null;
+    private Namespace[] cnamespaces = null;
+    
     /**
      * Create a new AbstractStAXStreamReader that outputs a JDOM Document as an XMLStream.
      * @param document the document to output.
@@ -197,6 +272,8 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
         ctext = null;
         ctarget = null;
         cdata = null;
+        cchars = null;
+        cnamespaces = null;
         
         if (currentEvt == END_ELEMENT) {
         	nsstack.pop();
@@ -276,7 +353,8 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
 		}
 		
 		emtstack[depth] = emt;
-		stack[depth] = buildWalker(formatstack, emt.getContent(), false);
+		stack[depth] = emt.getContentSize() == 0 ? EMPTYWALKER
+				: buildWalker(formatstack, emt.getContent(), false);
 
 		return currentEvt = START_ELEMENT;
         
@@ -339,15 +417,36 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
     	switch (currentEvt) {
     		case START_ELEMENT:
     			final Element emts = emtstack[depth];
-    			return new QName(emts.getNamespaceURI(), emts.getName(), emts.getNamespacePrefix());
+    			return getQName(emts.getNamespaceURI(), emts.getName(), emts.getNamespacePrefix());
     		case END_ELEMENT:
     			final Element emte = emtstack[depth + 1];
-    			return new QName(emte.getNamespaceURI(), emte.getName(), emte.getNamespacePrefix());
+    			return getQName(emte.getNamespaceURI(), emte.getName(), emte.getNamespacePrefix());
     		default:
     			throw new IllegalStateException("getName not supported for event " + currentEvt);
         }
     }
 
+    /**
+     * Get a QName instance for the given name, reusing a previous instance
+     * if one is available.
+     * @param uri The namespace URI
+     * @param localname The local name
+     * @param prefix The namespace prefix
+     * @return the QName
+     */
+    private final QName getQName(final String uri, final String localname,
+    		final String prefix) {
+    	final int slot = (localname.hashCode() ^ uri.hashCode()) & (qnames.length - 1);
+    	QName qn = qnames[slot];
+    	if (qn == null || !localname.equals(qn.getLocalPart())
+    			|| !uri.equals(qn.getNamespaceURI())
+    			|| !prefix.equals(qn.getPrefix())) {
+    		qn = new QName(uri, localname, prefix);
+    		qnames[slot] = qn;
+    	}
+    	return qn;
+    }
+
     @Override
     public String getLocalName() {
     	switch (currentEvt) {
@@ -473,6 +572,8 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
     	ctarget = null;
     	ctext = null;
     	curi = null;
+    	cchars = null;
+    	cnamespaces = null;
         this.document = null;
     }
 
@@ -523,15 +624,7 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
         
         final Attribute a = emtstack[depth].getAttributes().get(index);
         
-        String ns = a.getNamespaceURI();
-        if("".equals(ns))
-            ns = null;
-        String prefix = a.getNamespacePrefix();
-        if(prefix == null || "".equals(prefix)){
-            prefix = XMLConstants.DEFAULT_NS_PREFIX;
-        }
-        
-        return new QName(ns, a.getName(), prefix);
+        return getQName(a.getNamespaceURI(), a.getName(), a.getNamespacePrefix());
     }
 
     @Override
@@ -599,30 +692,44 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
         switch(currentEvt){
             case START_ELEMENT:
             case END_ELEMENT:
-            	final Iterator<?> it = nsstack.addedForward().iterator();
-            	int cnt = 0;
-            	while (it.hasNext()) {
-            		cnt++;
-            		it.next();
-            	}
-            	return cnt;
+            	return getAddedNamespaces().length;
         }
         
         throw new IllegalStateException("getNamespaceCount not supported for event " + currentEvt);
     }
     
-    private final Namespace getNamespaceByIndex(int index) {
-    	final Iterator<Namespace> it = nsstack.addedForward().iterator();
-    	int cnt = 0;
-    	while (it.hasNext()) {
-    		if (cnt == index) {
-    			return it.next();
+    /**
+     * The Namespaces introduced by the current START_ELEMENT or END_ELEMENT,
+     * calculated once per event (when first needed).
+     * @return the added Namespaces
+     */
+    private final Namespace[] getAddedNamespaces() {
+    	if (cnamespaces == null) {
+    		final Iterable<Namespace> added = nsstack.addedForward();
+    		int cnt = 0;
+    		for (Iterator<Namespace> it = added.iterator(); it.hasNext(); it.next()) {
+    			cnt++;
     		}
-    		it.next();
-    		cnt++;
+    		if (cnt == 0) {
+    			cnamespaces = NONAMESPACES;
+    		} else {
+    			cnamespaces = new Namespace[cnt];
+    			cnt = 0;
+    			for (Namespace ns : added) {
+    				cnamespaces[cnt++] = ns;
+    			}
+    		}
+    	}
+    	return cnamespaces;
+    }
+    
+    private final Namespace getNamespaceByIndex(int index) {
+    	final Namespace[] added = getAddedNamespaces();
+    	if (index < 0 || index >= added.length) {
+    		throw new NoSuchElementException("No Namespace with index " + index + 
+    				" (there are only " + added.length + ").");
     	}
-    	throw new NoSuchElementException("No Namespace with index " + index + 
-    			" (there are only " + cnt + ").");
+    	return added[index];
     }
 
     @Override
@@ -685,25 +792,32 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
 
     @Override
     public char[] getTextCharacters() {
-        return getText().toCharArray();
+    	// only copy the text once, no matter how often it is requested.
+    	if (cchars == null) {
+    		cchars = getText().toCharArray();
+    	}
+        return cchars;
     }
 
     @Override
     public int getTextCharacters(int sourceStart, char[] target, int targetStart, int length) throws XMLStreamException {
-        char[] chars = getText().toCharArray();
-        int i = 0;
-        for(; i < length; i++){
-            if(sourceStart > chars.length){
-                return i;
-            }
-            if(targetStart > target.length){
-                return i;
-            }
-            
-            target[targetStart++] = chars[sourceStart++];
+        final String text = getText();
+        if (targetStart < 0 || length < 0 || targetStart > target.length
+        		|| length > target.length - targetStart) {
+        	throw new IndexOutOfBoundsException("Unable to copy " + length + 
+        			" characters in to an array of length " + target.length +
+        			" at index " + targetStart);
         }
-        
-        return i;
+        if (sourceStart < 0) {
+        	throw new IndexOutOfBoundsException("Illegal source index " + sourceStart);
+        }
+        if (sourceStart >= text.length()) {
+        	return 0;
+        }
+        // copy straight from the text value, no intermediate array.
+        final int cnt = Math.min(length, text.length() - sourceStart);
+        text.getChars(sourceStart, sourceStart + cnt, target, targetStart);
+        return cnt;
     }
 
     @Override
@@ -727,33 +841,7 @@ public abstract class AbstractStAXStreamReader extends AbstractOutputProcessor i
 
     @Override
     public Location getLocation() {
-        return new Location(){
-            @Override
-            public int getLineNumber() {
-                return -1;
-            }
-
-            @Override
-            public int getColumnNumber() {
-                return -1;
-            }
-
-            @Override
-            public int getCharacterOffset() {
-                return -1;
-            }
-
-            @Override
-            public String getPublicId() {
-                return null;
-            }
-
-            @Override
-            public String getSystemId() {
-                return null;
-            }
-            
-        };
+        return NOLOCATION;
     }
 
 
@@ -0,0 +1,329 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.output.support;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.output.EscapeStrategy;
+import org.jdom2.output.Format.TextMode;
+import org.jdom2.output.XMLOutputter;
+import org.jdom2.util.NamespaceStack;
+
+/**
+ * An {@link XMLOutputProcessor} that remembers the serialized form of each
+ * Element it outputs, and reuses it the next time the same Element is output
+ * if nothing in the Element has changed since.
+ * <p>
+ * This is useful when the same large Document is output repeatedly with
+ * only small changes in between (for example, updating a timestamp
+ * attribute). Each Element's output is cached with its
+ * {@link Element#getTreeStamp()}, and the formatting and Namespace context
+ * it was output in. Unchanged Elements are then written from the cache
+ * without walking or escaping their content again, so the cost of
+ * re-serializing is proportional to what changed (the changed Elements and
+ * their ancestors), not to the size of the Document.
+ * <p>
+ * Use it by supplying an instance to the XMLOutputter:
+ * <pre>
+ *   XMLOutputter out = new XMLOutputter(format, new CachingXMLOutputProcessor());
+ * </pre>
+ * <p>
+ * Unlike the other processors this class has state (the cache), which is
+ * safe for concurrent use. The cache only weakly references the Elements, so
+ * it does not keep discarded content in memory, but it does hold the
+ * serialized text of the Elements it has seen; use {@link #clear()} to
+ * release it. The first output of a Document is somewhat slower than with the
+ * regular processor because the output is recorded as it is produced.
+ * <p>
+ * Subclasses that override the <code>print*()</code> methods of
+ * {@link AbstractXMLOutputProcessor} should make sure the output of an
+ * Element depends only on the Element, the FormatStack, and the
+ * NamespaceStack, otherwise the cached output may be stale.
+ * 
+ * @see XMLOutputter
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public class CachingXMLOutputProcessor extends AbstractXMLOutputProcessor {
+
+	/**
+	 * Cached output of a child Element that is smaller than this is copied
+	 * in to the parent's cached output, larger output is referenced.
+	 */
+	private static final int INLINE = 256;
+
+	/**
+	 * The output of one Element, and the context it was output in.
+	 */
+	private static final class Entry {
+		private final int stamp;
+		private final Namespace[] scope;
+		private final String indent;
+		private final String lineSeparator;
+		private final String levelIndent;
+		private final String levelEOL;
+		private final String padBetween;
+		private final String padLast;
+		private final TextMode mode;
+		private final TextMode defaultMode;
+		private final boolean escapeOutput;
+		private final boolean ignoreTrAX;
+		private final boolean expandEmpty;
+		private final boolean specifiedOnly;
+		private final EscapeStrategy escapeStrategy;
+		/** String and Entry instances */
+		private Object[] segments = null;
+		private int length = 0;
+
+		private Entry(final int stamp, final FormatStack fstack,
+				final Namespace[] scope) {
+			this.stamp = stamp;
+			this.scope = scope;
+			this.indent = fstack.getIndent();
+			this.lineSeparator = fstack.getLineSeparator();
+			this.levelIndent = fstack.getLevelIndent();
+			this.levelEOL = fstack.getLevelEOL();
+			this.padBetween = fstack.getPadBetween();
+			this.padLast = fstack.getPadLast();
+			this.mode = fstack.getTextMode();
+			this.defaultMode = fstack.getDefaultMode();
+			this.escapeOutput = fstack.getEscapeOutput();
+			this.ignoreTrAX = fstack.isIgnoreTrAXEscapingPIs();
+			this.expandEmpty = fstack.isExpandEmptyElements();
+			this.specifiedOnly = fstack.isSpecifiedAttributesOnly();
+			this.escapeStrategy = fstack.getEscapeStrategy();
+		}
+
+		private static final boolean same(final String a, final String b) {
+			return a == null ? b == null : (a == b || a.equals(b));
+		}
+
+		/**
+		 * Is this entry valid for the Element at the given stamp, when output
+		 * in the given context.
+		 */
+		private boolean matches(final int estamp, final FormatStack fstack,
+				final NamespaceStack nstack) {
+			if (estamp != stamp
+					|| mode != fstack.getTextMode()
+					|| escapeOutput != fstack.getEscapeOutput()
+					|| ignoreTrAX != fstack.isIgnoreTrAXEscapingPIs()
+					|| expandEmpty != fstack.isExpandEmptyElements()
+					|| specifiedOnly != fstack.isSpecifiedAttributesOnly()
+					|| defaultMode != fstack.getDefaultMode()
+					|| escapeStrategy != fstack.getEscapeStrategy()
+					|| !same(levelIndent, fstack.getLevelIndent())
+					|| !same(levelEOL, fstack.getLevelEOL())
+					|| !same(padBetween, fstack.getPadBetween())
+					|| !same(padLast, fstack.getPadLast())
+					|| !same(indent, fstack.getIndent())
+					|| !same(lineSeparator, fstack.getLineSeparator())) {
+				return false;
+			}
+			int i = 0;
+			for (final Namespace ns : nstack) {
+				// Namespace instances are unique for each prefix/URI pair.
+				if (i >= scope.length || scope[i++] != ns) {
+					return false;
+				}
+			}
+			return i == scope.length;
+		}
+
+		private void emit(final Writer out) throws IOException {
+			for (final Object seg : segments) {
+				if (seg instanceof String) {
+					out.write((String)seg);
+				} else {
+					((Entry)seg).emit(out);
+				}
+			}
+		}
+
+		private void appendTo(final StringBuilder sb) {
+			for (final Object seg : segments) {
+				if (seg instanceof String) {
+					sb.append((String)seg);
+				} else {
+					((Entry)seg).appendTo(sb);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A Writer that records the output of one Element, including the cached
+	 * output of its child Elements.
+	 */
+	private static final class Recorder extends Writer {
+		private final StringBuilder buffer = new StringBuilder();
+		private final ArrayList<Object> segments = new ArrayList<Object>();
+		private int length = 0;
+
+		private void flushBuffer() {
+			if (buffer.length() > 0) {
+				length += buffer.length();
+				segments.add(buffer.toString());
+				buffer.setLength(0);
+			}
+		}
+
+		private void append(final Entry child) {
+			if (child.length <= INLINE) {
+				child.appendTo(buffer);
+			} else {
+				flushBuffer();
+				segments.add(child);
+				length += child.length;
+			}
+		}
+
+		private void complete(final Entry entry) {
+			flushBuffer();
+			entry.segments = segments.toArray();
+			entry.length = length;
+		}
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) {
+			buffer.append(cbuf, off, len);
+		}
+
+		@Override
+		public void write(final int c) {
+			buffer.append((char)c);
+		}
+
+		@Override
+		public void write(final String str) {
+			buffer.append(str);
+		}
+
+		@Override
+		public void write(final String str, final int off, final int len) {
+			buffer.append(str, off, off + len);
+		}
+
+		@Override
+		public void flush() {
+			// nothing
+		}
+
+		@Override
+		public void close() {
+			// nothing
+		}
+	}
+
+	private final Map<Element, Entry> cache =
+			Collections.synchronizedMap(new WeakHashMap<Element, Entry>());
+
+	/**
+	 * Create a new processor with an empty cache.
+	 */
+	public CachingXMLOutputProcessor() {
+		super();
+	}
+
+	/**
+	 * Discard all cached output.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * The number of Elements that currently have cached output.
+	 * @return the number of cached Elements.
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	@Override
+	protected void printElement(final Writer out, final FormatStack fstack,
+			final NamespaceStack nstack, final Element element) throws IOException {
+
+		final int stamp = element.getTreeStamp();
+		Entry entry = cache.get(element);
+		if (entry == null || !entry.matches(stamp, fstack, nstack)) {
+			final ArrayList<Namespace> scope = new ArrayList<Namespace>();
+			for (final Namespace ns : nstack) {
+				scope.add(ns);
+			}
+			entry = new Entry(stamp, fstack, scope.toArray(new Namespace[scope.size()]));
+			final Recorder recorder = new Recorder();
+			super.printElement(recorder, fstack, nstack, element);
+			recorder.complete(entry);
+			if (entry.escapeOutput == fstack.getEscapeOutput()) {
+				// a TrAX escaping PI did not change the state for what follows.
+				cache.put(element, entry);
+			}
+		}
+		if (out instanceof Recorder) {
+			((Recorder)out).append(entry);
+		} else {
+			entry.emit(out);
+		}
+	}
+
+}
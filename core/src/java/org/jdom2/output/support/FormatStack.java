@@ -54,7 +54,9 @@
 
 package org.jdom2.output.support;
 
+import org.jdom2.JDOMConstants;
 import org.jdom2.internal.ArrayCopy;
+import org.jdom2.internal.SystemProperty;
 import org.jdom2.output.EscapeStrategy;
 import org.jdom2.output.Format;
 import org.jdom2.output.Format.TextMode;
@@ -70,7 +72,12 @@ import org.jdom2.output.Format.TextMode;
  * <p>
  * The value this class adds is:
  * <ul>
- * <li>Fast - 
+ * <li>Fast - the indent and end-of-line Strings for each depth are prepared
+ *     once for each indent/line-separator combination, and shared by all
+ *     FormatStack instances (and threads) that use them. Pushing and popping
+ *     levels only moves a cursor over those prepared values. The number of
+ *     prepared levels can be set with the
+ *     {@link JDOMConstants#JDOM2_PROPERTY_INDENT_DEPTH} system property.
  * </ul>
  * 
  * @since JDOM2
@@ -78,6 +85,75 @@ import org.jdom2.output.Format.TextMode;
  */
 public final class FormatStack {
 
+	/**
+	 * The immutable indent, pad-between, and pad-last values for each depth
+	 * of one indent/line-separator combination.
+	 */
+	private static final class Indents {
+		private final String indent;
+		private final String eol;
+		private final String[] levelIndent;
+		private final String[] padBetween;
+		private final String[] padLast;
+
+		private Indents(final String indent, final String eol, final int depth) {
+			this.indent = indent;
+			this.eol = eol;
+			levelIndent = new String[depth];
+			padBetween = new String[depth];
+			padLast = new String[depth];
+			final StringBuilder sb = new StringBuilder();
+			for (int d = 0; d < depth; d++) {
+				padLast[d] = d == 0 ? eol : padBetween[d - 1];
+				levelIndent[d] = sb.toString();
+				padBetween[d] = eol + levelIndent[d];
+				sb.append(indent);
+			}
+		}
+	}
+
+	/** How many levels of indents to prepare for each combination */
+	private static final int INDENTDEPTH;
+	/** The most indent/line-separator combinations to keep */
+	private static final int MAXINDENTS = 16;
+	/** Copy-on-write, so it can be read without any locking */
+	private static volatile Indents[] indentcache = new Indents[0];
+
+	static {
+		int depth = 32;
+		try {
+			depth = Integer.parseInt(SystemProperty.get(
+					JDOMConstants.JDOM2_PROPERTY_INDENT_DEPTH, "32"));
+		} catch (NumberFormatException nfe) {
+			// use the default.
+		}
+		INDENTDEPTH = depth < 1 ? 1 : depth;
+	}
+
+	/**
+	 * Get the shared prepared indents for an indent and line separator.
+	 * @param indent The indent to use (not null)
+	 * @param eol The line separator to use (not null)
+	 * @return the prepared Indents.
+	 */
+	private static final Indents getIndents(final String indent, final String eol) {
+		final Indents[] cache = indentcache;
+		for (final Indents ind : cache) {
+			if (ind.indent.equals(indent) && ind.eol.equals(eol)) {
+				return ind;
+			}
+		}
+		final Indents ind = new Indents(indent, eol, INDENTDEPTH);
+		if (cache.length < MAXINDENTS) {
+			// a racing thread may lose its addition, but it will simply be
+			// added again the next time it is needed.
+			final Indents[] grown = ArrayCopy.copyOf(cache, cache.length + 1);
+			grown[cache.length] = ind;
+			indentcache = grown;
+		}
+		return ind;
+	}
+
 	private int capacity = 16; // can grow if more than 16 levels in XML
 	private int depth = 0; // current level in XML
 
@@ -124,6 +200,9 @@ public final class FormatStack {
 	/** entity escape logic */
 	private final EscapeStrategy escapeStrategy;
 
+	/** The prepared indents, null if there is no indent or line separator */
+	private final Indents indents;
+
 	/*
 	 * ====================================================================
 	 * The following values can be changed mid-way through the output, hence
@@ -142,6 +221,12 @@ public final class FormatStack {
 	
 	/** The padding to put after the last item (typically one less indent) */
 	private String[] termEOLIndent  = new String[capacity];
+
+	/**
+	 * The prepared Indents depth each level's values come from, or -1 if
+	 * the level's values were set (or built) some other way.
+	 */
+	private int[] indentLevel = new int[capacity];
 	
 	/**
 	 * Whether TrAX output escaping disabling/enabling PIs are ignored or
@@ -172,6 +257,8 @@ public final class FormatStack {
 		escapeStrategy = format.getEscapeStrategy();
 		defaultMode = format.getTextMode();
 		specifiedAttributesOnly = format.isSpecifiedAttributesOnly();
+		indents = indent == null || lineSeparator == null
+				? null : getIndents(indent, lineSeparator);
 
         mode[depth] = format.getTextMode();
         if (mode[depth] == TextMode.PRESERVE) {
@@ -189,6 +276,8 @@ public final class FormatStack {
             termEOLIndent[depth] = levelEOLIndent[depth];
             
         }
+        indentLevel[depth] = mode[depth] == TextMode.PRESERVE || indents == null
+                ? -1 : 0;
 		ignoreTrAXEscapingPIs[depth] = format.getIgnoreTrAXEscapingPIs();
 		escapeOutput[depth] = true;
 	}
@@ -351,6 +440,7 @@ public final class FormatStack {
 		this.levelIndent[depth] = indent;
 		levelEOLIndent[depth] = (indent == null || levelEOL[depth] == null) ?  
 				null : (levelEOL[depth] + indent);
+		indentLevel[depth] = -1;
 		resetReusableIndents();
 	}
 
@@ -369,6 +459,7 @@ public final class FormatStack {
 	 */
 	public void setLevelEOL(String newline) {
 		this.levelEOL[depth] = newline;
+		indentLevel[depth] = -1;
 		resetReusableIndents();
 	}
 
@@ -390,6 +481,7 @@ public final class FormatStack {
 			return;
 		}
 		this.mode[depth] = mode;
+		indentLevel[depth] = -1;
 		switch (mode) {
 			case PRESERVE:
 				levelEOL[depth] = null;
@@ -402,6 +494,11 @@ public final class FormatStack {
 				if (indent == null || lineSeparator == null) {
 					levelEOLIndent[depth] = null;
 					termEOLIndent[depth] = null;
+				} else if (depth < indents.levelIndent.length) {
+					levelIndent[depth] = indents.levelIndent[depth];
+					levelEOLIndent[depth] = indents.padBetween[depth];
+					termEOLIndent[depth] = indents.padLast[depth];
+					indentLevel[depth] = depth;
 				} else {
 					if (depth > 0) {
 						final StringBuilder sb = new StringBuilder(indent.length() * depth);
@@ -437,6 +534,7 @@ public final class FormatStack {
 			levelEOL = ArrayCopy.copyOf(levelEOL, capacity);
 			levelEOLIndent = ArrayCopy.copyOf(levelEOLIndent, capacity);
 			termEOLIndent = ArrayCopy.copyOf(termEOLIndent, capacity);
+			indentLevel = ArrayCopy.copyOf(indentLevel, capacity);
 			ignoreTrAXEscapingPIs = ArrayCopy.copyOf(ignoreTrAXEscapingPIs, capacity);
 			mode = ArrayCopy.copyOf(mode, capacity);
 			escapeOutput = ArrayCopy.copyOf(escapeOutput, capacity);
@@ -446,11 +544,20 @@ public final class FormatStack {
 		mode[depth] = mode[prev];
 		escapeOutput[depth] = escapeOutput[prev];
 		
+		final int ilevel = indentLevel[prev] + 1;
 		if (levelIndent[prev] == null || levelEOL[prev] == null) {
 			levelIndent[depth] = null;
 			levelEOL[depth] = null;
 			levelEOLIndent[depth] = null;
 			termEOLIndent[depth] = null;
+			indentLevel[depth] = -1;
+		} else if (ilevel > 0 && ilevel < indents.levelIndent.length) {
+			// just point at the prepared values.
+			levelEOL[depth] = levelEOL[prev];
+			levelIndent[depth] = indents.levelIndent[ilevel];
+			levelEOLIndent[depth] = indents.padBetween[ilevel];
+			termEOLIndent[depth] = indents.padLast[ilevel];
+			indentLevel[depth] = ilevel;
 		} else if (levelIndent[depth] == null) {
 			// we need to build our level details ....
 			// cannot reuse previous ones.
@@ -458,9 +565,18 @@ public final class FormatStack {
 			termEOLIndent[depth] = levelEOL[depth] + levelIndent[prev];
 			levelIndent[depth] = levelIndent[prev] + indent;
 			levelEOLIndent[depth] = levelEOL[depth] + levelIndent[depth];
+			indentLevel[depth] = -1;
 		}
 	}
 
+	/**
+	 * @return true if the stack has been pushed, i.e. output is currently
+	 *         inside the content of an Element.
+	 */
+	boolean isNested() {
+		return depth > 0;
+	}
+
 	/**
 	 * Move back a level on the stack.
 	 */
@@ -0,0 +1,309 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+
+package org.jdom2.output.support;
+
+import java.util.HashMap;
+import java.util.List;
+
+import org.xml.sax.Attributes;
+
+import org.jdom2.Attribute;
+import org.jdom2.AttributeType;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.internal.ArrayCopy;
+
+/**
+ * A re-usable SAX {@link Attributes} implementation that is a view over an
+ * Element's Attributes (and the namespace declarations, if they are to be
+ * reported as attributes). A single instance is used for all the startElement
+ * calls of a SAX output process, instead of building an AttributesImpl for
+ * each Element.
+ * <p>
+ * As per the SAX specification the instance is only valid for the duration
+ * of the startElement call it is passed to.
+ * 
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+final class SAXAttributes implements Attributes {
+
+	private static final String[] EMPTYSTRINGS = new String[0];
+
+	/** Cache of the xmlns:prefix attribute names for the output process */
+	private final HashMap<String, String> xmlnsnames = new HashMap<String, String>();
+
+	private Namespace[] decls = new Namespace[4];
+	private int declcount = 0;
+
+	private List<Attribute> atts = null;
+	/** true if only some of the Element's attributes are reported */
+	private boolean mapped = false;
+	/** the Element's attribute index for each reported attribute */
+	private int[] map = null;
+	private int attcount = 0;
+
+	/** qualified names, calculated as needed for the current Element */
+	private String[] qnames = EMPTYSTRINGS;
+
+	/**
+	 * Clear the view, ready for the next Element.
+	 */
+	void reset() {
+		final int len = Math.min(getLength(), qnames.length);
+		for (int i = 0; i < len; i++) {
+			qnames[i] = null;
+		}
+		for (int i = 0; i < declcount; i++) {
+			decls[i] = null;
+		}
+		declcount = 0;
+		atts = null;
+		mapped = false;
+		attcount = 0;
+	}
+
+	/**
+	 * Report a Namespace declaration as an xmlns attribute.
+	 * @param ns The declared Namespace.
+	 */
+	void addDeclaration(final Namespace ns) {
+		if (declcount >= decls.length) {
+			decls = ArrayCopy.copyOf(decls, declcount * 2);
+		}
+		decls[declcount++] = ns;
+	}
+
+	/**
+	 * Report the Element's attributes (after any declarations).
+	 * @param element The Element with the attributes
+	 * @param specifiedonly whether only the specified attributes are reported
+	 */
+	void setAttributes(final Element element, final boolean specifiedonly) {
+		if (!element.hasAttributes()) {
+			return;
+		}
+		atts = element.getAttributes();
+		final int size = atts.size();
+		if (!specifiedonly) {
+			attcount = size;
+			return;
+		}
+		int cnt = 0;
+		for (int i = 0; i < size; i++) {
+			if (atts.get(i).isSpecified()) {
+				if (mapped) {
+					map[cnt] = i;
+				}
+				cnt++;
+			} else if (!mapped) {
+				// only need a map once something is skipped.
+				mapped = true;
+				if (map == null || map.length < size) {
+					map = new int[size];
+				}
+				for (int j = 0; j < cnt; j++) {
+					map[j] = j;
+				}
+			}
+		}
+		attcount = cnt;
+	}
+
+	private final Attribute attribute(final int index) {
+		final int ai = index - declcount;
+		return atts.get(mapped ? map[ai] : ai);
+	}
+
+	private final boolean inRange(final int index) {
+		return index >= 0 && index < declcount + attcount;
+	}
+
+	@Override
+	public int getLength() {
+		return declcount + attcount;
+	}
+
+	@Override
+	public String getURI(final int index) {
+		if (!inRange(index)) {
+			return null;
+		}
+		return index < declcount ? "" : attribute(index).getNamespaceURI();
+	}
+
+	@Override
+	public String getLocalName(final int index) {
+		if (!inRange(index)) {
+			return null;
+		}
+		return index < declcount ? "" : attribute(index).getName();
+	}
+
+	@Override
+	public String getQName(final int index) {
+		if (!inRange(index)) {
+			return null;
+		}
+		if (index >= qnames.length) {
+			qnames = ArrayCopy.copyOf(qnames, getLength() + 4);
+		}
+		String qn = qnames[index];
+		if (qn == null) {
+			qn = index < declcount
+					? xmlnsName(decls[index].getPrefix())
+					: attribute(index).getQualifiedName();
+			qnames[index] = qn;
+		}
+		return qn;
+	}
+
+	private final String xmlnsName(final String prefix) {
+		if (prefix.length() == 0) {
+			return "xmlns";
+		}
+		String name = xmlnsnames.get(prefix);
+		if (name == null) {
+			name = "xmlns:" + prefix;
+			xmlnsnames.put(prefix, name);
+		}
+		return name;
+	}
+
+	@Override
+	public String getType(final int index) {
+		if (!inRange(index)) {
+			return null;
+		}
+		if (index < declcount) {
+			return "CDATA";
+		}
+		return getAttributeTypeName(attribute(index).getAttributeType());
+	}
+
+	/**
+	 * <p>
+	 * Returns the SAX 2.0 attribute type string from the type of a JDOM
+	 * Attribute.
+	 * </p>
+	 * 
+	 * @param type
+	 *        <code>int</code> the type of the JDOM attribute.
+	 * @return <code>String</code> the SAX 2.0 attribute type string.
+	 * @see org.jdom2.Attribute#getAttributeType
+	 * @see org.xml.sax.Attributes#getType
+	 */
+	private static String getAttributeTypeName(AttributeType type) {
+		switch (type) {
+			case UNDECLARED:
+				return "CDATA";
+			default:
+				return type.name();
+		}
+	}
+
+	@Override
+	public String getValue(final int index) {
+		if (!inRange(index)) {
+			return null;
+		}
+		return index < declcount ? decls[index].getURI()
+				: attribute(index).getValue();
+	}
+
+	@Override
+	public int getIndex(final String uri, final String localName) {
+		final int len = getLength();
+		for (int i = 0; i < len; i++) {
+			if (getLocalName(i).equals(localName) && getURI(i).equals(uri)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int getIndex(final String qName) {
+		final int len = getLength();
+		for (int i = 0; i < len; i++) {
+			if (getQName(i).equals(qName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String getType(final String uri, final String localName) {
+		return getType(getIndex(uri, localName));
+	}
+
+	@Override
+	public String getType(final String qName) {
+		return getType(getIndex(qName));
+	}
+
+	@Override
+	public String getValue(final String uri, final String localName) {
+		return getValue(getIndex(uri, localName));
+	}
+
+	@Override
+	public String getValue(final String qName) {
+		return getValue(getIndex(qName));
+	}
+
+}
@@ -161,6 +161,12 @@ public final class SAXTarget {
 	 */
 	private final boolean reportDtdEvents;
 
+	/** The Attributes view re-used for each startElement */
+	private SAXAttributes attributes = null;
+
+	/** The buffer re-used for characters() calls */
+	private char[] charbuffer = null;
+
 	/**
 	 * Create the collection of handlers for a SAXOutputProcessor
 	 * 
@@ -266,4 +272,27 @@ public final class SAXTarget {
 		return locator;
 	}
 
+	/**
+	 * @return the Attributes instance to re-use for each startElement
+	 */
+	SAXAttributes getAttributes() {
+		if (attributes == null) {
+			attributes = new SAXAttributes();
+		}
+		return attributes;
+	}
+
+	/**
+	 * Get a char array to pass text to the ContentHandler. The array is
+	 * re-used, and is only valid until the next call.
+	 * @param length The minimum capacity needed.
+	 * @return a char array with at least the given capacity
+	 */
+	char[] getCharBuffer(final int length) {
+		if (charbuffer == null || charbuffer.length < length) {
+			charbuffer = new char[Math.max(length, 1024)];
+		}
+		return charbuffer;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,764 @@
+/*-- 
+
+ Copyright (C) 2012 Jason Hunter & Brett McLaughlin.
+ All rights reserved.
+
+ Redistribution and use in source and binary forms, with or without
+ modification, are permitted provided that the following conditions
+ are met:
+
+ 1. Redistributions of source code must retain the above copyright
+    notice, this list of conditions, and the following disclaimer.
+
+ 2. Redistributions in binary form must reproduce the above copyright
+    notice, this list of conditions, and the disclaimer that follows 
+    these conditions in the documentation and/or other materials 
+    provided with the distribution.
+
+ 3. The name "JDOM" must not be used to endorse or promote products
+    derived from this software without prior written permission.  For
+    written permission, please contact <request_AT_jdom_DOT_org>.
+
+ 4. Products derived from this software may not be called "JDOM", nor
+    may "JDOM" appear in their name, without prior written permission
+    from the JDOM Project Management <request_AT_jdom_DOT_org>.
+
+ In addition, we request (but do not require) that you include in the 
+ end-user documentation provided with the redistribution and/or in the 
+ software itself an acknowledgement equivalent to the following:
+     "This product includes software developed by the
+      JDOM Project (http://www.jdom.org/)."
+ Alternatively, the acknowledgment may be graphical using the logos 
+ available at http://www.jdom.org/images/logos.
+
+ THIS SOFTWARE IS PROVIDED ``AS IS'' AND ANY EXPRESSED OR IMPLIED
+ WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ DISCLAIMED.  IN NO EVENT SHALL THE JDOM AUTHORS OR THE PROJECT
+ CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF
+ USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ SUCH DAMAGE.
+
+ This software consists of voluntary contributions made by many 
+ individuals on behalf of the JDOM Project and was originally 
+ created by Jason Hunter <jhunter_AT_jdom_DOT_org> and
+ Brett McLaughlin <brett_AT_jdom_DOT_org>.  For more information
+ on the JDOM Project, please see <http://www.jdom.org/>.
+
+ */
+
+package org.jdom2.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jdom2.Attribute;
+import org.jdom2.Comment;
+import org.jdom2.Content;
+import org.jdom2.DocType;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.EntityRef;
+import org.jdom2.Parent;
+import org.jdom2.ProcessingInstruction;
+import org.jdom2.Text;
+import org.jdom2.internal.ArrayCopy;
+
+/**
+ * Structural comparison of JDOM trees.
+ * <p>
+ * JDOM Content uses identity for <code>equals()</code> and
+ * <code>hashCode()</code>. This class compares the structure instead:
+ * {@link #deepEquals(Content, Content)} tells whether two trees are the same,
+ * and {@link #diff(Element, Element)} produces a list of {@link Edit}
+ * operations that transform one tree in to the other.
+ * <p>
+ * Two Elements are structurally the same when they have the same name and
+ * Namespace URI, the same attributes (by name, Namespace URI, and value, in
+ * any order), and structurally the same content, in the same order. Namespace
+ * prefixes and declarations, and attribute types, are ignored. Text and CDATA
+ * are different types of content, and whitespace is significant. This is
+ * consistent with {@link Element#getTreeHash()}, which is used to reject
+ * different Elements in O(1) time once the hashes are cached.
+ * <p>
+ * Equal tree hashes do not guarantee the trees are the same, so by default
+ * a diff confirms that each apparently unchanged subtree really is the same
+ * with a full deepEquals walk. Diffing two large Documents that differ in
+ * one place therefore still takes time in proportion to the size of the
+ * Documents. The diff methods that take a <code>trustHashes</code> flag can
+ * instead treat Elements with equal tree hashes as the same, which skips
+ * unchanged subtrees in O(1) time, and only walks the path to each change
+ * (and the siblings along it). The cost is that a change that happens to
+ * leave the tree hash the same (a hash collision) is not found.
+ * 
+ * @since JDOM2
+ * @author Rolf Lear
+ */
+public final class TreeDiff {
+
+	/**
+	 * The types of edit operation produced by a diff.
+	 */
+	public static enum EditType {
+		/**
+		 * Insert (a copy of) {@link Edit#getTo()} in to
+		 * {@link Edit#getParent()} at {@link Edit#getIndex()}.
+		 */
+		INSERT,
+		/**
+		 * Remove {@link Edit#getFrom()} which is at {@link Edit#getIndex()}
+		 * in {@link Edit#getParent()}.
+		 */
+		DELETE,
+		/**
+		 * Change the value of {@link Edit#getFrom()} to that of
+		 * {@link Edit#getTo()} - the text of Text, CDATA, and Comment, the
+		 * target and data of a ProcessingInstruction, the name and IDs of an
+		 * EntityRef or DocType, or the name and Namespace of an Element (the
+		 * attributes and content of an Element have their own edits).
+		 */
+		UPDATE,
+		/**
+		 * Add (a copy of) {@link Edit#getAttribute()} to
+		 * {@link Edit#getElement()}, replacing any attribute with the same
+		 * name and Namespace.
+		 */
+		SET_ATTRIBUTE,
+		/**
+		 * Remove the {@link Edit#getAttribute()} from 
+		 * {@link Edit#getElement()}.
+		 */
+		REMOVE_ATTRIBUTE
+	}
+
+	/**
+	 * A single edit operation. All nodes that are changed (the parent, from,
+	 * and element values) are in the 'from' tree, all the nodes that supply
+	 * new values (the to value, and the attribute of a SET_ATTRIBUTE) are in
+	 * the 'to' tree. Edits are in the order that they can be applied, and the
+	 * index values take the earlier edits in to account.
+	 */
+	public static final class Edit {
+		private final EditType type;
+		private final Parent parent;
+		private final int index;
+		private final Content from;
+		private final Content to;
+		private final Element element;
+		private final Attribute attribute;
+
+		private Edit(final EditType type, final Parent parent, final int index,
+				final Content from, final Content to, final Element element,
+				final Attribute attribute) {
+			this.type = type;
+			this.parent = parent;
+			this.index = index;
+			this.from = from;
+			this.to = to;
+			this.element = element;
+			this.attribute = attribute;
+		}
+
+		/**
+		 * @return the type of this edit.
+		 */
+		public EditType getType() {
+			return type;
+		}
+
+		/**
+		 * @return the Parent (in the 'from' tree) of an INSERT or DELETE.
+		 */
+		public Parent getParent() {
+			return parent;
+		}
+
+		/**
+		 * @return the index in the Parent of an INSERT or DELETE.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return the Content (in the 'from' tree) of a DELETE or UPDATE.
+		 */
+		public Content getFrom() {
+			return from;
+		}
+
+		/**
+		 * @return the Content (in the 'to' tree) of an INSERT or UPDATE.
+		 */
+		public Content getTo() {
+			return to;
+		}
+
+		/**
+		 * @return the Element (in the 'from' tree) of an attribute edit.
+		 */
+		public Element getElement() {
+			return element;
+		}
+
+		/**
+		 * @return the Attribute to set (from the 'to' tree) or remove (from
+		 *         the 'from' tree) for an attribute edit.
+		 */
+		public Attribute getAttribute() {
+			return attribute;
+		}
+
+		@Override
+		public String toString() {
+			switch (type) {
+				case INSERT:
+					return "[Edit: INSERT " + to + " at " + index + "]";
+				case DELETE:
+					return "[Edit: DELETE " + from + " at " + index + "]";
+				case UPDATE:
+					return "[Edit: UPDATE " + from + " to " + to + "]";
+				default:
+					return "[Edit: " + type + " " + attribute + " on " + element + "]";
+			}
+		}
+	}
+
+	/**
+	 * Above this many cells the diff of a content list does not look for
+	 * the longest common subsequence, and compares content by position.
+	 */
+	private static final int MAXLCS = 1 << 20;
+
+	private TreeDiff() {
+		// static methods only.
+	}
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * Equality
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+	/**
+	 * Compare two Documents structurally.
+	 * @param a The first Document
+	 * @param b The second Document
+	 * @return true if the Documents have structurally the same content.
+	 */
+	public static boolean deepEquals(final Document a, final Document b) {
+		if (a == b) {
+			return true;
+		}
+		if (a == null || b == null) {
+			return false;
+		}
+		final int sz = a.getContentSize();
+		if (sz != b.getContentSize()) {
+			return false;
+		}
+		for (int i = 0; i < sz; i++) {
+			if (!deepEquals(a.getContent(i), b.getContent(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compare two Content trees structurally.
+	 * @param a The first Content
+	 * @param b The second Content
+	 * @return true if the Content is structurally the same.
+	 */
+	public static boolean deepEquals(final Content a, final Content b) {
+		if (a == b) {
+			return true;
+		}
+		if (a == null || b == null || a.getCType() != b.getCType()) {
+			return false;
+		}
+		if (!(a instanceof Element)) {
+			return sameValue(a, b);
+		}
+		// iterative, so that deep trees do not overflow the stack.
+		Element[] stack = new Element[32];
+		int sp = 0;
+		stack[sp++] = (Element)a;
+		stack[sp++] = (Element)b;
+		while (sp > 0) {
+			final Element eb = stack[--sp];
+			final Element ea = stack[--sp];
+			stack[sp] = null;
+			stack[sp + 1] = null;
+			if (ea == eb) {
+				continue;
+			}
+			if (ea.getTreeHash() != eb.getTreeHash() || !sameValue(ea, eb)
+					|| !sameAttributes(ea, eb)) {
+				return false;
+			}
+			final int sz = ea.getContentSize();
+			if (sz != eb.getContentSize()) {
+				return false;
+			}
+			for (int i = 0; i < sz; i++) {
+				final Content ca = ea.getContent(i);
+				final Content cb = eb.getContent(i);
+				if (ca.getCType() != cb.getCType()) {
+					return false;
+				}
+				if (ca instanceof Element) {
+					if (sp + 2 > stack.length) {
+						stack = ArrayCopy.copyOf(stack, stack.length * 2);
+					}
+					stack[sp++] = (Element)ca;
+					stack[sp++] = (Element)cb;
+				} else if (!sameValue(ca, cb)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static final boolean same(final String a, final String b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	/**
+	 * Compare the 'value' of two Content of the same type (for Elements
+	 * this is the name and Namespace URI only).
+	 */
+	private static final boolean sameValue(final Content a, final Content b) {
+		switch (a.getCType()) {
+			case Element:
+				final Element ea = (Element)a;
+				final Element eb = (Element)b;
+				return ea.getName().equals(eb.getName())
+						&& ea.getNamespaceURI().equals(eb.getNamespaceURI());
+			case Text:
+			case CDATA:
+				return ((Text)a).getText().equals(((Text)b).getText());
+			case Comment:
+				return ((Comment)a).getText().equals(((Comment)b).getText());
+			case ProcessingInstruction:
+				final ProcessingInstruction pa = (ProcessingInstruction)a;
+				final ProcessingInstruction pb = (ProcessingInstruction)b;
+				return pa.getTarget().equals(pb.getTarget())
+						&& pa.getData().equals(pb.getData());
+			case EntityRef:
+				final EntityRef ra = (EntityRef)a;
+				final EntityRef rb = (EntityRef)b;
+				return ra.getName().equals(rb.getName())
+						&& same(ra.getPublicID(), rb.getPublicID())
+						&& same(ra.getSystemID(), rb.getSystemID());
+			case DocType:
+				final DocType da = (DocType)a;
+				final DocType db = (DocType)b;
+				return da.getElementName().equals(db.getElementName())
+						&& same(da.getPublicID(), db.getPublicID())
+						&& same(da.getSystemID(), db.getSystemID())
+						&& same(da.getInternalSubset(), db.getInternalSubset());
+			default:
+				return a.getValue().equals(b.getValue());
+		}
+	}
+
+	private static final boolean sameAttributes(final Element a, final Element b) {
+		if (!a.hasAttributes()) {
+			return !b.hasAttributes();
+		}
+		if (!b.hasAttributes()) {
+			return false;
+		}
+		final List<Attribute> atts = a.getAttributes();
+		if (atts.size() != b.getAttributes().size()) {
+			return false;
+		}
+		for (int i = 0; i < atts.size(); i++) {
+			final Attribute att = atts.get(i);
+			final Attribute other = b.getAttribute(att.getName(), att.getNamespace());
+			if (other == null || !att.getValue().equals(other.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hash used to match up content in the diff. Consistent with
+	 * sameValue()/deepEquals() but not necessarily the same as the
+	 * Element tree hash for non-Element content.
+	 */
+	private static final int hash(final Content c) {
+		switch (c.getCType()) {
+			case Element:
+				return ((Element)c).getTreeHash();
+			case ProcessingInstruction:
+				return 31 * ((ProcessingInstruction)c).getTarget().hashCode()
+						+ c.getValue().hashCode();
+			case EntityRef:
+				return ((EntityRef)c).getName().hashCode();
+			case DocType:
+				return ((DocType)c).getElementName().hashCode();
+			default:
+				return 31 * c.getCType().ordinal() + c.getValue().hashCode();
+		}
+	}
+
+	/* * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * *
+	 * Diff
+	 * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * * */
+
+	/**
+	 * Calculate the edits required to change Document <code>from</code> in
+	 * to a Document that is structurally the same as <code>to</code>.
+	 * @param from The Document to change
+	 * @param to The Document to change to
+	 * @return the edits, in the order they should be applied. An empty list
+	 *         means the Documents are structurally the same.
+	 */
+	public static List<Edit> diff(final Document from, final Document to) {
+		return diff(from, to, false);
+	}
+
+	/**
+	 * Calculate the edits required to change Document <code>from</code> in
+	 * to a Document that is structurally the same as <code>to</code>.
+	 * @param from The Document to change
+	 * @param to The Document to change to
+	 * @param trustHashes true to treat Elements with the same tree hash as
+	 *        the same without comparing them (see the class documentation).
+	 * @return the edits, in the order they should be applied. An empty list
+	 *         means the Documents are structurally the same.
+	 */
+	public static List<Edit> diff(final Document from, final Document to,
+			final boolean trustHashes) {
+		final List<Edit> edits = new ArrayList<Edit>();
+		final List<Element> pending = new ArrayList<Element>();
+		diffContent(from, to, trustHashes, edits, pending);
+		diffPending(pending, trustHashes, edits);
+		return Collections.unmodifiableList(edits);
+	}
+
+	/**
+	 * Calculate the edits required to change Element <code>from</code> in
+	 * to an Element that is structurally the same as <code>to</code>.
+	 * @param from The Element to change
+	 * @param to The Element to change to
+	 * @return the edits, in the order they should be applied. An empty list
+	 *         means the Elements are structurally the same.
+	 */
+	public static List<Edit> diff(final Element from, final Element to) {
+		return diff(from, to, false);
+	}
+
+	/**
+	 * Calculate the edits required to change Element <code>from</code> in
+	 * to an Element that is structurally the same as <code>to</code>.
+	 * @param from The Element to change
+	 * @param to The Element to change to
+	 * @param trustHashes true to treat Elements with the same tree hash as
+	 *        the same without comparing them (see the class documentation).
+	 * @return the edits, in the order they should be applied. An empty list
+	 *         means the Elements are structurally the same.
+	 */
+	public static List<Edit> diff(final Element from, final Element to,
+			final boolean trustHashes) {
+		final List<Edit> edits = new ArrayList<Edit>();
+		if (!sameValue(from, to)) {
+			edits.add(new Edit(EditType.UPDATE, null, -1, from, to, null, null));
+		}
+		final List<Element> pending = new ArrayList<Element>();
+		pending.add(from);
+		pending.add(to);
+		diffPending(pending, trustHashes, edits);
+		return Collections.unmodifiableList(edits);
+	}
+
+	/**
+	 * Apply the edits from a diff to the 'from' tree. Content and
+	 * Attributes from the 'to' tree are copied (cloned), the 'to' tree is
+	 * not changed.
+	 * @param edits The edits to apply (in order).
+	 */
+	public static void apply(final List<Edit> edits) {
+		for (final Edit e : edits) {
+			switch (e.type) {
+				case INSERT:
+					e.parent.addContent(e.index, e.to.clone());
+					break;
+				case DELETE:
+					e.parent.removeContent(e.index);
+					break;
+				case UPDATE:
+					update(e.from, e.to);
+					break;
+				case SET_ATTRIBUTE:
+					e.element.setAttribute(e.attribute.clone());
+					break;
+				case REMOVE_ATTRIBUTE:
+					e.element.removeAttribute(e.attribute.getName(),
+							e.attribute.getNamespace());
+					break;
+			}
+		}
+	}
+
+	private static final void update(final Content from, final Content to) {
+		switch (from.getCType()) {
+			case Element:
+				final Element ef = (Element)from;
+				final Element et = (Element)to;
+				ef.setName(et.getName());
+				ef.setNamespace(et.getNamespace());
+				break;
+			case Text:
+			case CDATA:
+				((Text)from).setText(((Text)to).getText());
+				break;
+			case Comment:
+				((Comment)from).setText(((Comment)to).getText());
+				break;
+			case ProcessingInstruction:
+				final ProcessingInstruction pf = (ProcessingInstruction)from;
+				final ProcessingInstruction pt = (ProcessingInstruction)to;
+				pf.setTarget(pt.getTarget());
+				pf.setData(pt.getData());
+				break;
+			case EntityRef:
+				final EntityRef rf = (EntityRef)from;
+				final EntityRef rt = (EntityRef)to;
+				rf.setName(rt.getName());
+				rf.setPublicID(rt.getPublicID());
+				rf.setSystemID(rt.getSystemID());
+				break;
+			case DocType:
+				final DocType df = (DocType)from;
+				final DocType dt = (DocType)to;
+				df.setElementName(dt.getElementName());
+				df.setPublicID(dt.getPublicID());
+				df.setSystemID(dt.getSystemID());
+				df.setInternalSubset(dt.getInternalSubset());
+				break;
+		}
+	}
+
+	/**
+	 * Whether two content items are the same, trusting equal tree hashes
+	 * of Elements if asked to.
+	 */
+	private static final boolean same(final Content a, final Content b,
+			final boolean trustHashes) {
+		if (trustHashes && a instanceof Element && b instanceof Element) {
+			return ((Element)a).getTreeHash() == ((Element)b).getTreeHash();
+		}
+		return deepEquals(a, b);
+	}
+
+	/**
+	 * Whether two content items (of the same position in a run of changes)
+	 * should be changed in place rather than deleted and inserted.
+	 */
+	private static final boolean similar(final Content a, final Content b) {
+		if (a.getCType() != b.getCType()) {
+			return false;
+		}
+		if (a instanceof Element) {
+			// only recurse in to Elements with the same name.
+			return sameValue(a, b);
+		}
+		return true;
+	}
+
+	/**
+	 * Diff pairs of Elements (in from, to order) until there are none left.
+	 * Nested Elements are queued rather than processed recursively, so that
+	 * deep trees do not overflow the stack. The edits of a nested Element
+	 * only refer to that Element, so they remain valid after the edits of
+	 * its ancestors.
+	 */
+	private static final void diffPending(final List<Element> pending,
+			final boolean trustHashes, final List<Edit> edits) {
+		for (int i = 0; i < pending.size(); i += 2) {
+			final Element from = pending.get(i);
+			final Element to = pending.get(i + 1);
+			pending.set(i, null);
+			pending.set(i + 1, null);
+			diffElement(from, to, trustHashes, edits, pending);
+		}
+	}
+
+	/**
+	 * Diff the attributes and content of two Elements.
+	 */
+	private static final void diffElement(final Element from, final Element to,
+			final boolean trustHashes, final List<Edit> edits,
+			final List<Element> pending) {
+		if (same(from, to, trustHashes)) {
+			return;
+		}
+		if (to.hasAttributes()) {
+			for (final Attribute att : to.getAttributes()) {
+				final Attribute old = from.getAttribute(att.getName(), att.getNamespace());
+				if (old == null || !old.getValue().equals(att.getValue())) {
+					edits.add(new Edit(EditType.SET_ATTRIBUTE, null, -1,
+							null, null, from, att));
+				}
+			}
+		}
+		if (from.hasAttributes()) {
+			for (final Attribute att : from.getAttributes()) {
+				if (to.getAttribute(att.getName(), att.getNamespace()) == null) {
+					edits.add(new Edit(EditType.REMOVE_ATTRIBUTE, null, -1,
+							null, null, from, att));
+				}
+			}
+		}
+		diffContent(from, to, trustHashes, edits, pending);
+	}
+
+	/**
+	 * Diff the content of two Parents. Common leading and trailing content is
+	 * skipped, then the longest common subsequence of the remainder (if it is
+	 * not too large) identifies the unchanged content. The runs of changed
+	 * content in between are changed in place where the content is similar,
+	 * and deleted/inserted otherwise.
+	 */
+	private static final void diffContent(final Parent from, final Parent to,
+			final boolean trustHashes, final List<Edit> edits,
+			final List<Element> pending) {
+		final int n = from.getContentSize();
+		final int m = to.getContentSize();
+		int start = 0;
+		while (start < n && start < m && 
+				same(from.getContent(start), to.getContent(start), trustHashes)) {
+			start++;
+		}
+		int fend = n;
+		int tend = m;
+		while (fend > start && tend > start &&
+				same(from.getContent(fend - 1), to.getContent(tend - 1), trustHashes)) {
+			fend--;
+			tend--;
+		}
+		final int fn = fend - start;
+		final int tn = tend - start;
+		if (fn == 0 && tn == 0) {
+			return;
+		}
+
+		final List<Content> fdel = new ArrayList<Content>();
+		final List<Content> tins = new ArrayList<Content>();
+		// cur is the index in 'from', as it will be after the previous edits.
+		int cur = start;
+		if (fn == 0 || tn == 0 || (long)fn * tn > MAXLCS) {
+			for (int i = start; i < fend; i++) {
+				fdel.add(from.getContent(i));
+			}
+			for (int i = start; i < tend; i++) {
+				tins.add(to.getContent(i));
+			}
+			diffRun(from, cur, fdel, tins, edits, pending);
+			return;
+		}
+
+		final int[] fh = new int[fn];
+		final int[] th = new int[tn];
+		for (int i = 0; i < fn; i++) {
+			fh[i] = hash(from.getContent(start + i));
+		}
+		for (int i = 0; i < tn; i++) {
+			th[i] = hash(to.getContent(start + i));
+		}
+		// lcs[i * (tn + 1) + j] is the LCS length of the suffixes from i and j
+		final int w = tn + 1;
+		final int[] lcs = new int[(fn + 1) * w];
+		for (int i = fn - 1; i >= 0; i--) {
+			for (int j = tn - 1; j >= 0; j--) {
+				if (fh[i] == th[j]) {
+					lcs[i * w + j] = lcs[(i + 1) * w + j + 1] + 1;
+				} else {
+					final int d = lcs[(i + 1) * w + j];
+					final int r = lcs[i * w + j + 1];
+					lcs[i * w + j] = d >= r ? d : r;
+				}
+			}
+		}
+		int i = 0;
+		int j = 0;
+		while (i < fn || j < tn) {
+			if (i < fn && j < tn && fh[i] == th[j]) {
+				final Content fc = from.getContent(start + i);
+				final Content tc = to.getContent(start + j);
+				if (same(fc, tc, trustHashes)) {
+					cur = diffRun(from, cur, fdel, tins, edits, pending) + 1;
+				} else {
+					// a hash collision, treat as a change.
+					fdel.add(fc);
+					tins.add(tc);
+				}
+				i++;
+				j++;
+			} else if (j >= tn || (i < fn && lcs[(i + 1) * w + j] >= lcs[i * w + j + 1])) {
+				fdel.add(from.getContent(start + i));
+				i++;
+			} else {
+				tins.add(to.getContent(start + j));
+				j++;
+			}
+		}
+		diffRun(from, cur, fdel, tins, edits, pending);
+	}
+
+	/**
+	 * Create the edits for a run of content that was removed (fdel) and
+	 * added (tins) at index cur in the 'from' Parent. Pairs of similar
+	 * content at the same offset in the run are changed in place. To keep
+	 * Documents valid at every step (one root Element, one DocType) all the
+	 * deletes are done before the inserts.
+	 * @return the index in 'from' after the run.
+	 */
+	private static final int diffRun(final Parent from, final int cur,
+			final List<Content> fdel, final List<Content> tins,
+			final List<Edit> edits, final List<Element> pending) {
+		final int fs = fdel.size();
+		final int ts = tins.size();
+		if (fs == 0 && ts == 0) {
+			return cur;
+		}
+		final boolean[] paired = new boolean[ts];
+		int pos = cur;
+		for (int k = 0; k < fs; k++) {
+			final Content fc = fdel.get(k);
+			if (k < ts && similar(fc, tins.get(k))) {
+				final Content tc = tins.get(k);
+				paired[k] = true;
+				if (fc instanceof Element) {
+					pending.add((Element)fc);
+					pending.add((Element)tc);
+				} else if (!sameValue(fc, tc)) {
+					edits.add(new Edit(EditType.UPDATE, null, -1, fc, tc, null, null));
+				}
+				pos++;
+			} else {
+				edits.add(new Edit(EditType.DELETE, from, pos, fc, null, null, null));
+			}
+		}
+		for (int k = 0; k < ts; k++) {
+			if (!paired[k]) {
+				edits.add(new Edit(EditType.INSERT, from, cur + k, null,
+						tins.get(k), null, null));
+			}
+		}
+		fdel.clear();
+		tins.clear();
+		return cur + ts;
+	}
+
+}
@@ -164,22 +164,9 @@ class JDOMCoreNavigator extends DefaultNavigator {
 		return ((NamespaceContainer)namespace).getNamespace().getPrefix();
 	}
 
-	private final void recurseElementText(Element element, StringBuilder sb) {
-		for (Iterator<?> it = element.getContent().iterator(); it.hasNext(); ) {
-			Content c = (Content)it.next();
-			if (c instanceof Element) {
-				recurseElementText((Element)c, sb);
-			} else if (c instanceof Text) {
-				sb.append(((Text)c).getText());
-			}
-		}
-	}
-
 	@Override
 	public final String getElementStringValue(Object element) {
-		StringBuilder sb = new StringBuilder();
-		recurseElementText((Element)element, sb);
-		return sb.toString();
+		return ((Element)element).getValue();
 	}
 
 	@Override
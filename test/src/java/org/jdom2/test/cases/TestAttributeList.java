@@ -409,4 +409,131 @@ public class TestAttributeList extends AbstractTestList<Attribute> {
 		
 	}
 	
+	@Test
+	public void testManyAttributes() {
+		final Namespace nsa = Namespace.getNamespace("a", "urn:a");
+		final Namespace nsb = Namespace.getNamespace("b", "urn:b");
+		final Element emt = new Element("emt");
+		for (int i = 0; i < 200; i++) {
+			emt.setAttribute("att" + i, "a" + i, nsa);
+			emt.setAttribute("att" + i, "b" + i, nsb);
+			emt.setAttribute("att" + i, "n" + i);
+		}
+		assertEquals(600, emt.getAttributes().size());
+		for (int i = 0; i < 200; i++) {
+			assertEquals("a" + i, emt.getAttributeValue("att" + i, nsa));
+			assertEquals("b" + i, emt.getAttributeValue("att" + i, 
+					Namespace.getNamespace("other", "urn:b")));
+			assertEquals("n" + i, emt.getAttributeValue("att" + i));
+		}
+		assertNull(emt.getAttribute("att200"));
+		assertNull(emt.getAttribute("att0", Namespace.getNamespace("c", "urn:c")));
+		
+		// duplicates replace in place
+		emt.setAttribute("att7", "x7", nsa);
+		assertEquals(600, emt.getAttributes().size());
+		assertEquals("x7", emt.getAttributeValue("att7", nsa));
+		assertEquals(21, emt.getAttributes().indexOf(emt.getAttribute("att7", nsa)));
+		
+		// insert at the front, and remove
+		emt.getAttributes().add(0, new Attribute("first", "f"));
+		assertEquals("f", emt.getAttributeValue("first"));
+		assertEquals("x7", emt.getAttributeValue("att7", nsa));
+		assertTrue(emt.removeAttribute("att7", nsa));
+		assertNull(emt.getAttribute("att7", nsa));
+		assertEquals("b7", emt.getAttributeValue("att7", nsb));
+		assertEquals("n199", emt.getAttributeValue("att199"));
+		
+		// rename an attached attribute
+		emt.getAttribute("att8", nsb).setName("renamed");
+		assertNull(emt.getAttribute("att8", nsb));
+		assertEquals("b8", emt.getAttributeValue("renamed", nsb));
+		emt.getAttribute("renamed", nsb).setNamespace(Namespace.NO_NAMESPACE);
+		assertEquals("b8", emt.getAttributeValue("renamed"));
+		
+		// set and sort
+		emt.getAttributes().set(0, new Attribute("second", "s"));
+		assertNull(emt.getAttribute("first"));
+		assertEquals("s", emt.getAttributeValue("second"));
+		emt.sortAttributes(null);
+		for (int i = 9; i < 200; i++) {
+			assertEquals("a" + i, emt.getAttributeValue("att" + i, nsa));
+			assertEquals("n" + i, emt.getAttributeValue("att" + i));
+		}
+		assertEquals("s", emt.getAttributeValue("second"));
+		
+		final Iterator<Attribute> it = emt.getAttributes().iterator();
+		while (it.hasNext()) {
+			if (it.next().getNamespace() == nsa) {
+				it.remove();
+			}
+		}
+		assertNull(emt.getAttribute("att100", nsa));
+		assertEquals("b100", emt.getAttributeValue("att100", nsb));
+		assertEquals(401, emt.getAttributes().size());
+	}
+	
+	@Test
+	public void testManyPrefixedCollisions() {
+		final Element emt = new Element("emt", Namespace.getNamespace("e", "urn:e"));
+		emt.addNamespaceDeclaration(Namespace.getNamespace("d", "urn:d"));
+		for (int i = 0; i < 100; i++) {
+			emt.setAttribute("att", "v" + i, Namespace.getNamespace("p" + i, "urn:p" + i));
+		}
+		final List<Attribute> list = emt.getAttributes();
+		assertEquals(100, list.size());
+		
+		// same prefix, same URI is fine, a different URI collides.
+		emt.setAttribute("other", "x", Namespace.getNamespace("p7", "urn:p7"));
+		assertEquals(101, list.size());
+		for (final String[] bad : new String[][] {
+				{"p7", "urn:x", "with an attribute namespace prefix"},
+				{"e", "urn:x", "with the element namespace prefix"},
+				{"d", "urn:x", "collides"}}) {
+			try {
+				list.add(new Attribute("bad", "x", Namespace.getNamespace(bad[0], bad[1])));
+				fail("Should not be able to add prefix " + bad[0] + " for " + bad[1]);
+			} catch (IllegalAddException iae) {
+				assertTrue(iae.getMessage(), iae.getMessage().contains(bad[2]));
+			}
+			try {
+				list.add(0, new Attribute("bad", "x", Namespace.getNamespace(bad[0], bad[1])));
+				fail("Should not be able to insert prefix " + bad[0] + " for " + bad[1]);
+			} catch (IllegalAddException iae) {
+				assertTrue(iae.getMessage(), iae.getMessage().contains(bad[2]));
+			}
+		}
+		assertEquals(101, list.size());
+		
+		// prefixes that are no longer in use are free again.
+		assertTrue(emt.removeAttribute("att", Namespace.getNamespace("urn:p1")));
+		emt.setAttribute("att", "x", Namespace.getNamespace("p1", "urn:new1"));
+		
+		emt.getAttribute("att", Namespace.getNamespace("urn:p2")).setNamespace(
+				Namespace.getNamespace("q2", "urn:p2"));
+		emt.setAttribute("att", "x", Namespace.getNamespace("p2", "urn:new2"));
+		
+		emt.setAttribute(new Attribute("att", "x", Namespace.getNamespace("q3", "urn:p3")));
+		emt.setAttribute("att", "x", Namespace.getNamespace("p3", "urn:new3"));
+		
+		final int p4 = list.indexOf(emt.getAttribute("att", Namespace.getNamespace("urn:p4")));
+		list.set(p4, new Attribute("att", "x", Namespace.getNamespace("p4", "urn:new4")));
+		assertEquals("urn:new4", list.get(p4).getNamespaceURI());
+		try {
+			list.set(p4, new Attribute("att", "x", Namespace.getNamespace("p5", "urn:new5")));
+			fail("Should not be able to set a colliding prefix");
+		} catch (IllegalAddException iae) {
+			// good
+		}
+		
+		// the prefix index survives a failed set.
+		try {
+			list.add(new Attribute("bad", "x", Namespace.getNamespace("p6", "urn:x")));
+			fail("Should not be able to add a colliding prefix");
+		} catch (IllegalAddException iae) {
+			// good
+		}
+		assertEquals(103, list.size());
+	}
+	
 }
@@ -2,16 +2,22 @@ package org.jdom2.test.cases;
 
 import static org.jdom2.test.util.UnitTestUtil.checkException;
 import static org.jdom2.test.util.UnitTestUtil.failNoException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 
 import org.jdom2.Content;
 import org.jdom2.DocType;
 import org.jdom2.Element;
+import org.jdom2.Text;
+import org.jdom2.filter.AbstractFilter;
+import org.jdom2.filter.Filters;
 import org.jdom2.internal.ArrayCopy;
 import org.jdom2.test.util.AbstractTestList;
 
@@ -147,4 +153,98 @@ public class TestContentList extends AbstractTestList<Content> {
 		assertTrue(content[1] == it.next());
 	}
 	
+	@Test
+	public void testIndexOfAfterShifts() {
+		final Element root = new Element("root");
+		final Element[] kids = new Element[1000];
+		for (int i = 0; i < kids.length; i++) {
+			kids[i] = new Element("kid");
+			root.addContent(kids[i]);
+		}
+		// detach every other one, in order
+		for (int i = 0; i < kids.length; i += 2) {
+			kids[i].detach();
+			assertTrue(kids[i].getParent() == null);
+		}
+		assertEquals(500, root.getContentSize());
+		for (int i = 1; i < kids.length; i += 2) {
+			assertEquals(i / 2, root.indexOf(kids[i]));
+		}
+		assertEquals(-1, root.indexOf(kids[0]));
+		assertEquals(-1, root.indexOf(new Element("kid")));
+		assertEquals(-1, root.getContent().indexOf("kid"));
+		
+		// insert at the front, set, and sort
+		final Element front = new Element("front");
+		root.addContent(0, front);
+		assertEquals(0, root.indexOf(front));
+		assertEquals(500, root.indexOf(kids[999]));
+		assertEquals(500, root.getContent().lastIndexOf(kids[999]));
+		final Element swap = new Element("swap");
+		root.setContent(250, swap);
+		assertEquals(250, root.indexOf(swap));
+		assertFalse(root.getContent().contains(kids[499]));
+		root.sortChildren(new Comparator<Element>() {
+			@Override
+			public int compare(Element o1, Element o2) {
+				return o2.getName().compareTo(o1.getName());
+			}
+		});
+		assertEquals(0, root.indexOf(swap));
+		assertEquals(1, root.indexOf(kids[1]));
+		assertEquals(500, root.indexOf(front));
+		
+		// detach in reverse order
+		for (int i = 999; i >= 501; i -= 2) {
+			assertTrue(root.removeContent(kids[i]));
+			assertFalse(root.removeContent(kids[i]));
+		}
+		assertEquals(251, root.getContentSize());
+		for (int i = 0; i < root.getContentSize(); i++) {
+			assertEquals(i, root.indexOf(root.getContent(i)));
+		}
+	}
+	
+	@Test
+	public void testRemoveContentFilter() {
+		final Element root = new Element("root");
+		for (int i = 0; i < 100; i++) {
+			root.addContent(new Element("kid" + (i % 3)));
+			root.addContent(new Text("t" + i));
+		}
+		final List<Element> gone = root.removeContent(Filters.element("kid1"));
+		assertEquals(33, gone.size());
+		for (Element e : gone) {
+			assertEquals("kid1", e.getName());
+			assertTrue(e.getParent() == null);
+		}
+		assertEquals(167, root.getContentSize());
+		for (int i = 0; i < root.getContentSize(); i++) {
+			assertEquals(i, root.indexOf(root.getContent(i)));
+		}
+		assertEquals("t0", root.getContent(1).getValue());
+		assertEquals("t1", root.getContent(2).getValue());
+		assertEquals("kid2", ((Element)root.getContent(3)).getName());
+		assertTrue(root.removeContent(Filters.element("none")).isEmpty());
+		
+		// a failing filter changes nothing.
+		try {
+			root.removeContent(new AbstractFilter<Content>() {
+				private static final long serialVersionUID = 1L;
+				private int cnt = 0;
+				@Override
+				public Content filter(Object content) {
+					if (++cnt > 10) {
+						throw new IllegalStateException("boom");
+					}
+					return (Content)content;
+				}
+			});
+			failNoException(IllegalStateException.class);
+		} catch (Exception e) {
+			checkException(IllegalStateException.class, e);
+		}
+		assertEquals(167, root.getContentSize());
+	}
+	
 }
@@ -10,10 +10,18 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import org.jdom2.CDATA;
+import org.jdom2.Comment;
 import org.jdom2.Content;
+import org.jdom2.DocType;
 import org.jdom2.Document;
 import org.jdom2.Element;
+import org.jdom2.EntityRef;
+import org.jdom2.ProcessingInstruction;
+import org.jdom2.filter.ContentFilter;
 import org.jdom2.filter.ElementFilter;
+import org.jdom2.filter.Filter;
+import org.jdom2.filter.Filters;
 import org.jdom2.util.IteratorIterable;
 
 import org.junit.Test;
@@ -156,4 +164,121 @@ public class TestDescendantFilterIterator {
 		
 	}
 
+	private static Document buildMixed() {
+		Element root = new Element("root");
+		Document doc = new Document(root);
+		doc.addContent(0, new DocType("root"));
+		doc.addContent(new Comment("tail"));
+		for (int i = 0; i < 3; i++) {
+			Element kid = new Element("kid");
+			kid.addContent("text");
+			kid.addContent(new CDATA("cdata"));
+			kid.addContent(new Comment("comment"));
+			kid.addContent(new ProcessingInstruction("pi", "data"));
+			kid.addContent(new EntityRef("ent"));
+			kid.addContent(new Element("leaf").addContent("leaf text"));
+			root.addContent(kid);
+			root.addContent("\n");
+		}
+		return doc;
+	}
+	
+	private static <F extends Content> void checkFilter(Document doc, Filter<F> filter) {
+		ArrayList<F> expect = new ArrayList<F>();
+		for (Content c : doc.getDescendants()) {
+			F f = filter.filter(c);
+			if (f != null) {
+				expect.add(f);
+			}
+		}
+		ArrayList<F> got = new ArrayList<F>();
+		for (F f : doc.getDescendants(filter)) {
+			got.add(f);
+		}
+		assertEquals(filter.toString(), expect.size(), got.size());
+		for (int i = 0; i < got.size(); i++) {
+			if (got.get(i).getParent() != null) {
+				assertTrue(filter.toString(), expect.get(i) == got.get(i));
+			}
+		}
+	}
+	
+	@Test
+	public void testTypeFilters() {
+		Document doc = buildMixed();
+		checkFilter(doc, new ElementFilter());
+		checkFilter(doc, new ElementFilter("leaf"));
+		checkFilter(doc, Filters.element());
+		checkFilter(doc, Filters.text());
+		checkFilter(doc, Filters.cdata());
+		checkFilter(doc, Filters.comment());
+		checkFilter(doc, Filters.processinginstruction());
+		checkFilter(doc, Filters.entityref());
+		checkFilter(doc, Filters.doctype());
+		checkFilter(doc, new ContentFilter(ContentFilter.TEXT | ContentFilter.PI));
+		checkFilter(doc, new ContentFilter(ContentFilter.CDATA | ContentFilter.DOCTYPE));
+		checkFilter(doc, new ContentFilter(ContentFilter.ENTITYREF | ContentFilter.COMMENT));
+		checkFilter(doc, new ContentFilter(ContentFilter.ELEMENT));
+		checkFilter(doc, new ContentFilter(false));
+		// a subclass may match other types.
+		checkFilter(doc, new ElementFilter() {
+			private static final long serialVersionUID = 1L;
+			@Override
+			public Element filter(Object content) {
+				return content instanceof Comment ? new Element("comment") : null;
+			}
+			@Override
+			public boolean equals(Object obj) {
+				return obj == this;
+			}
+		});
+	}
+	
+	@Test
+	public void testTypeFiltersDirect() {
+		Document doc = buildMixed();
+		int cnt = 0;
+		for (Comment c : doc.getDescendants(Filters.comment())) {
+			assertNotNull(c);
+			cnt++;
+		}
+		assertEquals(4, cnt);
+		cnt = 0;
+		for (Content c : doc.getDescendants(new ContentFilter(ContentFilter.TEXT))) {
+			assertTrue(c.getCType() == Content.CType.Text);
+			cnt++;
+		}
+		assertEquals(9, cnt);
+	}
+	
+	@Test
+	public void testRemoveSkipping() {
+		Document doc = buildMixed();
+		Iterator<Element> it = doc.getDescendants(Filters.element("kid"));
+		int cnt = 0;
+		while (it.hasNext()) {
+			it.next();
+			it.remove();
+			cnt++;
+		}
+		assertEquals(3, cnt);
+		assertEquals(3, doc.getRootElement().getContentSize());
+		assertEquals(0, doc.getRootElement().getChildren().size());
+	}
+	
+	@Test
+	public void testConcurrentModification() {
+		Document doc = buildMixed();
+		Iterator<Comment> it = doc.getDescendants(Filters.comment());
+		it.next();
+		doc.getRootElement().addContent(new Comment("late"));
+		try {
+			it.hasNext();
+			it.next();
+			fail("Should not be able to iterate a modified ContentList.");
+		} catch (java.util.ConcurrentModificationException cme) {
+			// good
+		}
+	}
+
 }
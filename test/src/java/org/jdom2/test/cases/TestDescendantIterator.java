@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -141,6 +142,10 @@ public class TestDescendantIterator {
 	}
 
 	private void checkRemove(final int remove) {
+		checkRemove(remove, false);
+	}
+
+	private void checkRemove(final int remove, final boolean peek) {
 		Element doc = buildTestDoc();
 		checkIterator(doc.getDescendants(), fellowship);
 		Iterator<Content> it1 = doc.getDescendants();
@@ -148,6 +153,10 @@ public class TestDescendantIterator {
 		for (int i = 0; i < remove; i++) {
 			it1.next();
 		}
+		if (peek) {
+			// look ahead, perhaps in to what is removed.
+			it1.hasNext();
+		}
 		it1.remove();
 		try {
 			it1.remove();
@@ -167,6 +176,34 @@ public class TestDescendantIterator {
 		checkIterator(it1, al.toArray(new String[al.size()]));
 	}
 	
+	@Test
+	public void testRemovesAfterHasNext() {
+		for (int i = fellowship.length - 1; i >= 0; i--) {
+			checkRemove(i, true);
+		}
+	}
+	
+	@Test
+	public void testConcurrentModification() {
+		Element root = buildTestDoc();
+		Iterator<Content> it = root.getDescendants();
+		Element hobbits = (Element)it.next();
+		it.next();
+		hobbits.addContent(new Element("bilbo"));
+		try {
+			it.next();
+			fail("Should not be able to iterate a modified ContentList.");
+		} catch (Exception e) {
+			UnitTestUtil.checkException(ConcurrentModificationException.class, e);
+		}
+		// setting is not a modification.
+		it = root.getDescendants();
+		it.next();
+		it.next();
+		hobbits.setContent(1, new Element("bilbo"));
+		assertEquals("bilbo", ((Element)it.next()).getName());
+	}
+	
 	@Test
 	public void testDeepNesting() {
 		ArrayList<String> names = new ArrayList<String>(64);
@@ -75,6 +75,7 @@ import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -3320,4 +3321,196 @@ public final class TestElement {
 		}
 	}
 
+	@Test
+	public void testEnsureContentCapacity() {
+		Element emt = new Element("root");
+		emt.ensureContentCapacity(100);
+		assertEquals(0, emt.getContentSize());
+		for (int i = 0; i < 100; i++) {
+			emt.addContent(new Element("kid"));
+		}
+		// smaller than the current size - no effect.
+		emt.ensureContentCapacity(10);
+		assertEquals(100, emt.getContentSize());
+		assertEquals(100, emt.getChildren("kid").size());
+	}
+
+	@Test
+	public void testTreeStamp() {
+		Element root = new Element("root");
+		Element kid = new Element("kid");
+		Element leaf = new Element("leaf");
+		root.addContent(kid);
+		kid.addContent(leaf);
+		int stamp = root.getTreeStamp();
+		assertEquals(stamp, root.getTreeStamp());
+		int kidstamp = kid.getTreeStamp();
+		
+		// deep change.
+		leaf.setText("hello");
+		assertTrue(stamp != root.getTreeStamp());
+		assertTrue(kidstamp != kid.getTreeStamp());
+		stamp = root.getTreeStamp();
+		kidstamp = kid.getTreeStamp();
+		
+		// text change
+		((Text)leaf.getContent(0)).setText("world");
+		assertTrue(stamp != root.getTreeStamp());
+		stamp = root.getTreeStamp();
+		
+		// attribute change
+		leaf.setAttribute("att", "val");
+		assertTrue(stamp != root.getTreeStamp());
+		stamp = root.getTreeStamp();
+		leaf.getAttribute("att").setValue("other");
+		assertTrue(stamp != root.getTreeStamp());
+		stamp = root.getTreeStamp();
+		
+		// rename
+		leaf.setName("renamed");
+		assertTrue(stamp != root.getTreeStamp());
+		stamp = root.getTreeStamp();
+		
+		// a sibling change does not affect the kid.
+		kidstamp = kid.getTreeStamp();
+		root.addContent(new Comment("sibling"));
+		assertTrue(stamp != root.getTreeStamp());
+		assertEquals(kidstamp, kid.getTreeStamp());
+	}
+
+	@Test
+	public void testTreeStampAttributeReplaced() {
+		Element root = new Element("root");
+		Element leaf = new Element("leaf");
+		root.addContent(leaf);
+		leaf.setAttribute(new Attribute("a", "1"));
+		int stamp = root.getTreeStamp();
+		int leafstamp = leaf.getTreeStamp();
+		final int hash = root.getTreeHash();
+		
+		// same name, so the Attribute is replaced in place.
+		leaf.setAttribute(new Attribute("a", "2"));
+		assertTrue(stamp != root.getTreeStamp());
+		assertTrue(leafstamp != leaf.getTreeStamp());
+		assertTrue(hash != root.getTreeHash());
+		
+		leaf.setAttribute(new Attribute("a", "1"));
+		assertEquals(hash, root.getTreeHash());
+	}
+
+	@Test
+	public void testValueDeep() throws IOException {
+		Element root = new Element("root");
+		Element e = root;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			Element c = new Element("c");
+			e.addContent(new Text("a"));
+			e.addContent(new Comment("x"));
+			e.addContent(c);
+			sb.append("a");
+			e = c;
+		}
+		e.addContent(new CDATA("z"));
+		sb.append("z");
+		assertEquals(sb.toString(), root.getValue());
+		StringWriter sw = new StringWriter();
+		root.appendValueTo(sw);
+		assertEquals(sb.toString(), sw.toString());
+	}
+
+	@Test
+	public void testValueCache() throws IOException {
+		Element root = new Element("root");
+		Element kid = new Element("kid");
+		Text t = new Text("b");
+		kid.addContent(t);
+		root.addContent("a");
+		root.addContent(kid);
+		root.addContent("c");
+		assertEquals("abc", root.getValue());
+		assertEquals("b", kid.getValue());
+		// cached value is returned for unmodified trees
+		assertTrue(root.getValue() == root.getValue());
+		t.setText("B");
+		assertEquals("aBc", root.getValue());
+		kid.addContent(new Element("x").setText("y"));
+		assertEquals("aByc", root.getValue());
+		root.removeContent(kid);
+		assertEquals("ac", root.getValue());
+		assertEquals("", new Element("empty").getValue());
+		StringBuilder sb = new StringBuilder("<");
+		root.appendValueTo(sb);
+		assertEquals("<ac", sb.toString());
+		// small values are only cached once they are asked for again
+		root.addContent("d");
+		String first = root.getValue();
+		String second = root.getValue();
+		assertEquals("acd", first);
+		assertTrue(first != second);
+		assertTrue(second == root.getValue());
+		// large values are cached straight away
+		char[] big = new char[2000];
+		Arrays.fill(big, 'x');
+		root.addContent(new String(big));
+		String large = root.getValue();
+		assertTrue(large == root.getValue());
+	}
+
+	@Test
+	public void testTextSized() {
+		Element e = new Element("e");
+		assertEquals("", e.getText());
+		e.addContent(new Comment("x"));
+		assertEquals("", e.getText());
+		e.addContent("a");
+		assertEquals("a", e.getText());
+		e.addContent(new Element("k").setText("k"));
+		e.addContent(new CDATA("b"));
+		assertEquals("ab", e.getText());
+	}
+
+	@Test
+	public void testTreeHash() {
+		Element a = new Element("root");
+		a.setAttribute("x", "1");
+		a.setAttribute("y", "2");
+		a.addContent(new Element("kid").setText("text"));
+		a.addContent(new CDATA("cdata"));
+		
+		Element b = new Element("root");
+		// different attribute order.
+		b.setAttribute("y", "2");
+		b.setAttribute("x", "1");
+		b.addContent(new Element("kid").setText("text"));
+		b.addContent(new CDATA("cdata"));
+		
+		assertEquals(a.getTreeHash(), b.getTreeHash());
+		assertEquals(a.getTreeHash(), a.clone().getTreeHash());
+		
+		final int hash = a.getTreeHash();
+		a.getChild("kid").setText("changed");
+		assertTrue(hash != a.getTreeHash());
+		a.getChild("kid").setText("text");
+		assertEquals(hash, a.getTreeHash());
+		
+		// text and CDATA are different.
+		b.removeContent(1);
+		b.addContent(new Text("cdata"));
+		assertTrue(a.getTreeHash() != b.getTreeHash());
+	}
+
+	@Test
+	public void testTreeHashEmptyAttributes() {
+		Element a = new Element("e");
+		Element b = new Element("e");
+		// allocates an empty AttributeList.
+		assertTrue(b.getAttributes().isEmpty());
+		assertEquals(a.getTreeHash(), b.getTreeHash());
+		
+		b.setAttribute("x", "1");
+		b.removeAttribute("x");
+		assertEquals(a.getTreeHash(), b.getTreeHash());
+	}
+
 }
@@ -1338,4 +1338,110 @@ public final class TestFilterList {
     	assertTrue(c == size);
     }
     
+    @Test
+    public void testViewsFollowChanges() {
+    	Element root = new Element("root");
+    	List<Element> all = root.getChildren();
+    	List<Element> kids = root.getChildren("kid");
+    	// views are not shared, each call has its own.
+    	assertTrue(all != root.getChildren());
+    	assertTrue(kids != root.getChildren("kid"));
+    	
+    	Random rand = new Random(41);
+    	for (int i = 0; i < 2000; i++) {
+    		final int sz = root.getContentSize();
+    		final int op = rand.nextInt(6);
+    		final Content c = rand.nextBoolean() ? new Text("t")
+    				: new Element(rand.nextBoolean() ? "kid" : "other");
+    		if (op == 0 && sz > 0) {
+    			root.removeContent(rand.nextInt(sz));
+    		} else if (op == 1 && sz > 0) {
+    			root.setContent(rand.nextInt(sz), c);
+    		} else if (op == 2 && !kids.isEmpty()) {
+    			kids.remove(rand.nextInt(kids.size()));
+    		} else if (op == 3) {
+    			all.add(rand.nextInt(all.size() + 1), new Element("kid"));
+    		} else if (op == 4 && i % 100 == 0) {
+    			root.sortChildren(new Comparator<Element>() {
+    				@Override
+    				public int compare(Element o1, Element o2) {
+    					return o1.getName().compareTo(o2.getName());
+    				}
+    			});
+    		} else {
+    			root.addContent(rand.nextInt(sz + 1), c);
+    		}
+    		
+    		List<Element> xall = new ArrayList<Element>();
+    		List<Element> xkids = new ArrayList<Element>();
+    		for (Content k : root.getContent()) {
+    			if (k instanceof Element) {
+    				xall.add((Element)k);
+    				if ("kid".equals(((Element)k).getName())) {
+    					xkids.add((Element)k);
+    				}
+    			}
+    		}
+    		// views held since the start, and new ones that may start from
+    		// positions another view found.
+    		checkView(xall, all);
+    		checkView(xkids, kids);
+    		checkView(xall, root.getChildren());
+    		checkView(xkids, root.getChildren("kid"));
+    	}
+    }
+    
+    private static final void checkView(List<Element> expect, List<Element> view) {
+    	assertEquals(expect.size(), view.size());
+    	for (int j = 0; j < expect.size(); j++) {
+    		assertTrue(expect.get(j) == view.get(j));
+    	}
+    }
+    
+    @Test
+    public void testConcurrentReads() throws InterruptedException {
+    	final Element root = new Element("root");
+    	for (int i = 0; i < 500; i++) {
+    		root.addContent(new Text(" "));
+    		root.addContent(new Element(i % 3 == 0 ? "kid" : "other"));
+    	}
+    	final List<Element> xkids = new ArrayList<Element>();
+    	for (Element e : root.getChildren()) {
+    		if ("kid".equals(e.getName())) {
+    			xkids.add(e);
+    		}
+    	}
+    	final Throwable[] failed = new Throwable[1];
+    	final Thread[] threads = new Thread[4];
+    	for (int t = 0; t < threads.length; t++) {
+    		threads[t] = new Thread() {
+    			@Override
+    			public void run() {
+    				try {
+    					for (int i = 0; i < 200; i++) {
+    						assertEquals(1000, root.getContentSize());
+    						assertEquals(500, root.getChildren().size());
+    						checkView(xkids, root.getChildren("kid"));
+    					}
+    				} catch (Throwable e) {
+    					synchronized (failed) {
+    						failed[0] = e;
+    					}
+    				}
+    			}
+    		};
+    	}
+    	for (Thread t : threads) {
+    		t.start();
+    	}
+    	for (Thread t : threads) {
+    		t.join();
+    	}
+    	synchronized (failed) {
+    		if (failed[0] != null) {
+    			throw new AssertionError(failed[0]);
+    		}
+    	}
+    }
+    
 }
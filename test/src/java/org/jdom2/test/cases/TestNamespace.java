@@ -355,4 +355,41 @@ public final class TestNamespace {
     }
     
     
+    @Test
+    public void testNamespaceTableIdentity() {
+    	final Namespace[] held = new Namespace[5000];
+    	for (int i = 0; i < held.length; i++) {
+    		held[i] = Namespace.getNamespace("p" + (i % 7), "urn:identity:" + i);
+    	}
+    	assertTrue(Namespace.getNamespaceTableSize() >= held.length);
+    	for (int i = 0; i < held.length; i++) {
+    		// new String instances, same instance back.
+    		assertTrue(held[i] == Namespace.getNamespace(
+    				new String("p" + (i % 7)), new String("urn:identity:" + i)));
+    	}
+    	assertTrue(Namespace.NO_NAMESPACE == Namespace.getNamespace(null, ""));
+    	assertTrue(Namespace.XML_NAMESPACE == Namespace.getNamespace("xml", 
+    			JDOMConstants.NS_URI_XML));
+    	assertFalse(Namespace.getNamespace("a", "urn:identity:0") == 
+    			Namespace.getNamespace("b", "urn:identity:0"));
+    }
+    
+    @Test
+    public void testNamespaceTableReleases() throws InterruptedException {
+    	final int before = Namespace.getNamespaceTableSize();
+    	for (int i = 0; i < 10000; i++) {
+    		Namespace.getNamespace("pfx", "urn:released:" + i);
+    	}
+    	final Namespace keep = Namespace.getNamespace("keep", "urn:released:keep");
+    	// unused namespaces should be released once they are collected.
+    	int cnt = 0;
+    	while (Namespace.getNamespaceTableSize() > before + 5000 && cnt++ < 100) {
+    		System.gc();
+    		Thread.sleep(10);
+    	}
+    	assertTrue("Namespaces were not released: " + Namespace.getNamespaceTableSize(),
+    			Namespace.getNamespaceTableSize() <= before + 5000);
+    	assertTrue(keep == Namespace.getNamespace("keep", "urn:released:keep"));
+    }
+    
 }
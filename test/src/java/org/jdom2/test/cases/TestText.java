@@ -10,6 +10,7 @@ import org.jdom2.Content;
 import org.jdom2.Element;
 import org.jdom2.IllegalDataException;
 import org.jdom2.Text;
+import org.jdom2.test.util.UnitTestUtil;
 import org.junit.Test;
 
 @SuppressWarnings("javadoc")
@@ -99,6 +100,64 @@ public class TestText {
 		assertTrue("frodo baggins from the shire".equals(txt.getText()));
 	}
 
+	@Test
+	public void testAppendChars() {
+		Text txt = new Text("frodo");
+		char[] chars = "xx baggins xx".toCharArray();
+		txt.append(chars, 2, 8);
+		assertEquals("frodo baggins", txt.getText());
+		txt.append(chars, 0, 0);
+		txt.append(null, 0, 0);
+		assertEquals("frodo baggins", txt.getText());
+		txt.append(" of the ".toCharArray(), 0, 8);
+		txt.append("shire");
+		txt.append(new Text("!"));
+		assertEquals("frodo baggins of the shire!", txt.getValue());
+		try {
+			txt.append(new char[] {'a', (char)0x05}, 0, 2);
+			fail("Expected IllegalDataException");
+		} catch (IllegalDataException iae) {
+			// good
+		}
+		// surrogate pairs are handled too.
+		txt.append(new char[] {'a', (char)0xD800, (char)0xDC00}, 0, 3);
+		assertEquals("frodo baggins of the shire!a\uD800\uDC00", txt.getText());
+		try {
+			txt.append(new char[] {(char)0xD800, 'a'}, 0, 2);
+			fail("Expected IllegalDataException");
+		} catch (IllegalDataException iae) {
+			// good
+		}
+		assertEquals("frodo baggins of the shire!a\uD800\uDC00", txt.getText());
+	}
+
+	@Test
+	public void testAppendMany() {
+		Element parent = new Element("root");
+		Text txt = new Text("");
+		parent.addContent(txt);
+		StringBuilder sb = new StringBuilder();
+		char[] chunk = "0123456789".toCharArray();
+		for (int i = 0; i < 10000; i++) {
+			txt.append(chunk, i % 10, 1);
+			sb.append(chunk[i % 10]);
+		}
+		// pending appends are visible through all the ways of reading.
+		Text clone = txt.clone();
+		assertEquals(sb.toString(), parent.getValue());
+		assertEquals(sb.toString(), clone.getText());
+		txt.append("x");
+		clone.append("y");
+		assertEquals(sb.toString() + "x", txt.getText());
+		assertEquals(sb.toString() + "y", clone.getText());
+		txt.append("z");
+		assertEquals(sb.toString() + "xz",
+				UnitTestUtil.deSerialize(txt).getText());
+		txt.append("a");
+		txt.setText("reset");
+		assertEquals("reset", txt.getText());
+	}
+
 	@Test
 	public void testToString() {
 		Text txt = new Text("frodo baggins");
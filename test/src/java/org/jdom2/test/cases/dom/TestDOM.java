@@ -0,0 +1,154 @@
+package org.jdom2.test.cases.dom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import org.jdom2.Attribute;
+import org.jdom2.CDATA;
+import org.jdom2.Comment;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
+import org.jdom2.dom.DOM;
+import org.jdom2.dom.Wrapper;
+import org.jdom2.input.DOMBuilder;
+import org.jdom2.output.DOMOutputter;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+@SuppressWarnings("javadoc")
+public class TestDOM {
+
+	private static final Document buildDocument() {
+		final Namespace nsa = Namespace.getNamespace("a", "urn:a");
+		final Element root = new Element("root", "urn:root");
+		root.addNamespaceDeclaration(nsa);
+		root.setAttribute("att", "val");
+		root.setAttribute("id", "rid", nsa);
+		root.addContent(new Comment("comment"));
+		final Element kid = new Element("kid", nsa);
+		kid.addContent(new Text("text"));
+		kid.addContent(new CDATA("cdata"));
+		kid.addContent(new Text("more"));
+		root.addContent(kid);
+		root.addContent(new Element("last"));
+		return new Document(root);
+	}
+
+	@Test
+	public void testWrapStructure() {
+		final Document doc = buildDocument();
+		final org.w3c.dom.Document dom = DOM.wrap(doc);
+		final org.w3c.dom.Element root = dom.getDocumentElement();
+		assertSame(doc.getRootElement(), ((Wrapper)root).getWrapped());
+		assertEquals("root", root.getLocalName());
+		assertEquals("urn:root", root.getNamespaceURI());
+		assertEquals("val", root.getAttribute("att"));
+		assertEquals("rid", root.getAttributeNS("urn:a", "id"));
+		assertTrue(root.hasAttributes());
+		// 2 attributes plus the xmlns and xmlns:a declarations.
+		assertEquals(4, root.getAttributes().getLength());
+		assertEquals("urn:root", root.lookupNamespaceURI(null));
+		assertEquals("urn:a", root.lookupNamespaceURI("a"));
+
+		final NodeList kids = root.getChildNodes();
+		assertEquals(3, kids.getLength());
+		assertEquals(Node.COMMENT_NODE, kids.item(0).getNodeType());
+		assertEquals(Node.ELEMENT_NODE, kids.item(1).getNodeType());
+		assertNull(kids.item(0).getPreviousSibling());
+		assertSame(kids.item(1), kids.item(0).getNextSibling());
+		assertSame(kids.item(1), kids.item(2).getPreviousSibling());
+		assertNull(kids.item(2).getNextSibling());
+		assertSame(root, kids.item(1).getParentNode());
+		assertSame(dom, kids.item(1).getOwnerDocument());
+	}
+
+	@Test
+	public void testWrapperCached() {
+		final Document doc = buildDocument();
+		final org.w3c.dom.Document dom = DOM.wrap(doc);
+		final Node kid = dom.getDocumentElement().getChildNodes().item(1);
+		assertSame(kid, dom.getDocumentElement().getChildNodes().item(1));
+		assertSame(kid, dom.getElementsByTagNameNS("urn:a", "kid").item(0));
+		assertSame(kid.getFirstChild(), kid.getFirstChild());
+	}
+
+	@Test
+	public void testText() {
+		final Document doc = buildDocument();
+		final org.w3c.dom.Document dom = DOM.wrap(doc);
+		final Node kid = dom.getDocumentElement().getChildNodes().item(1);
+		final org.w3c.dom.Text text = (org.w3c.dom.Text)kid.getFirstChild();
+		assertEquals("text", text.getData());
+		assertEquals("textcdatamore", text.getWholeText());
+		assertEquals("textcdatamore", kid.getTextContent());
+		assertEquals(Node.CDATA_SECTION_NODE,
+				text.getNextSibling().getNodeType());
+		assertEquals("ex", text.substringData(1, 2));
+		assertEquals("ext", text.substringData(1, 20));
+		try {
+			text.substringData(-1, 2);
+			fail("Should not be able to use a negative offset");
+		} catch (DOMException de) {
+			assertEquals(DOMException.INDEX_SIZE_ERR, de.code);
+		}
+	}
+
+	@Test
+	public void testReadOnly() {
+		final org.w3c.dom.Document dom = DOM.wrap(buildDocument());
+		try {
+			dom.getDocumentElement().setAttribute("x", "y");
+			fail("Should not be able to modify the DOM view");
+		} catch (DOMException de) {
+			assertEquals(DOMException.NO_MODIFICATION_ALLOWED_ERR, de.code);
+		}
+		try {
+			dom.getDocumentElement().appendChild(dom.getDocumentElement());
+			fail("Should not be able to modify the DOM view");
+		} catch (DOMException de) {
+			assertEquals(DOMException.NO_MODIFICATION_ALLOWED_ERR, de.code);
+		}
+	}
+
+	@Test
+	public void testWrapElement() {
+		final Document doc = buildDocument();
+		final Element kid = doc.getRootElement().getChildren().get(0);
+		final org.w3c.dom.Element dom = new DOMOutputter().wrap(kid);
+		assertSame(kid, ((Wrapper)dom).getWrapped());
+		assertEquals("a:kid", dom.getTagName());
+		assertEquals("root", dom.getParentNode().getLocalName());
+		assertFalse(dom.hasAttributes());
+	}
+
+	@Test
+	public void testAttribute() {
+		final Document doc = buildDocument();
+		final Attribute att = doc.getRootElement().getAttribute("att");
+		final org.w3c.dom.Attr dom = DOM.wrap(att);
+		assertEquals("val", dom.getValue());
+		assertEquals("att", dom.getName());
+		assertEquals("root", dom.getOwnerElement().getLocalName());
+	}
+
+	@Test
+	public void testRoundTrip() throws JDOMException {
+		final Document doc = buildDocument();
+		final XMLOutputter xout = new XMLOutputter(Format.getRawFormat());
+		final Document back = new DOMBuilder().build(DOM.wrap(doc));
+		assertEquals(xout.outputString(doc), xout.outputString(back));
+	}
+
+}
@@ -0,0 +1,264 @@
+package org.jdom2.test.cases.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.EntityRef;
+import org.jdom2.JDOMException;
+import org.jdom2.Namespace;
+import org.jdom2.input.AsyncJDOMBuilder;
+import org.jdom2.input.BuildLimitException;
+import org.jdom2.input.BuildLimits;
+import org.jdom2.input.JDOMParseException;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.jdom2.test.util.FidoFetch;
+
+@SuppressWarnings("javadoc")
+public class TestAsyncJDOMBuilder {
+
+	private static byte[] resource(String name) throws Exception {
+		InputStream is = FidoFetch.getFido().getStream(name);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		int len;
+		while ((len = is.read(buf)) >= 0) {
+			baos.write(buf, 0, len);
+		}
+		is.close();
+		return baos.toByteArray();
+	}
+
+	private static Document build(AsyncJDOMBuilder builder, byte[] data, int chunk)
+			throws JDOMException {
+		for (int i = 0; i < data.length; i += chunk) {
+			builder.feed(ByteBuffer.wrap(data, i, Math.min(chunk, data.length - i)));
+		}
+		return builder.endOfInput();
+	}
+
+	private static Document build(String xml, String encoding) throws Exception {
+		return build(new AsyncJDOMBuilder(), xml.getBytes(encoding), 3);
+	}
+
+	private static void checkSameAsSAX(byte[] data) throws Exception {
+		XMLOutputter out = new XMLOutputter(Format.getRawFormat());
+		// the AsyncJDOMBuilder does not read external DTDs either.
+		SAXBuilder sax = new SAXBuilder();
+		sax.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+		String expect = out.outputString(sax
+				.build(new ByteArrayInputStream(data)).getRootElement());
+		AsyncJDOMBuilder builder = new AsyncJDOMBuilder();
+		for (int chunk : new int[] {1, 2, 7, 64, data.length}) {
+			builder.reset();
+			Document doc = build(builder, data, chunk);
+			assertEquals("Chunks of " + chunk, expect,
+					out.outputString(doc.getRootElement()));
+		}
+	}
+
+	@Test
+	public void testSameAsSAX() throws Exception {
+		checkSameAsSAX(resource("/complex.xml"));
+		checkSameAsSAX(resource("/xmlchars.xml"));
+	}
+
+	@Test
+	public void testExternalDTDEntities() throws Exception {
+		// entities that may be declared in the external DTD are EntityRefs.
+		checkSameAsSAX(resource("/org/jdom2/test/cases/special/TestIssue008.xml"));
+		checkSameAsSAX(resource("/SAXBuilderTestEntity2.xml"));
+		checkSameAsSAX(resource("/SAXBuilderTestIntExtEntity.xml"));
+		Document doc = build("<!DOCTYPE r SYSTEM 'r.dtd'><r>a&e;b</r>", "UTF-8");
+		assertEquals("e", ((EntityRef)doc.getRootElement().getContent(1)).getName());
+		doc = build("<!DOCTYPE r [<!ENTITY % p SYSTEM 'p.dtd'> %p;]><r>&e;</r>", "UTF-8");
+		assertEquals("e", ((EntityRef)doc.getRootElement().getContent(0)).getName());
+		// but not when the document is standalone.
+		checkError("<?xml version='1.0' standalone='yes'?>\n" +
+				"<!DOCTYPE r SYSTEM 'r.dtd'><r>&e;</r>", 2);
+		checkError("<!DOCTYPE r SYSTEM 'r.dtd'><r a='&e;'/>", 1);
+	}
+
+	/**
+	 * @return a document with nested entities that expand to 1000 * 100^depth
+	 *         chars.
+	 */
+	private static byte[] amplifying(int depth) throws Exception {
+		StringBuilder sb = new StringBuilder("<!DOCTYPE r [<!ENTITY e0 '");
+		for (int j = 0; j < 1000; j++) {
+			sb.append('x');
+		}
+		sb.append("'>");
+		for (int i = 1; i <= depth; i++) {
+			sb.append("<!ENTITY e").append(i).append(" '");
+			for (int j = 0; j < 100; j++) {
+				sb.append("&e").append(i - 1).append(';');
+			}
+			sb.append("'>");
+		}
+		sb.append("]><r>&e").append(depth).append(";</r>");
+		return sb.toString().getBytes("UTF-8");
+	}
+
+	@Test
+	public void testAmplifyingEntities() throws Exception {
+		AsyncJDOMBuilder builder = new AsyncJDOMBuilder();
+		Document doc = build(builder, amplifying(2), 1024);
+		assertEquals(10000000, doc.getRootElement().getText().length());
+		// more than the JDK's limit of 50000000 chars.
+		builder.reset();
+		try {
+			build(builder, amplifying(3), 1024);
+			fail("Should not expand 10^9 chars");
+		} catch (JDOMParseException e) {
+			assertTrue(e.getMessage().indexOf("expanded entities") >= 0);
+		}
+	}
+
+	@Test
+	public void testDocTypeCommentsAndPIs() throws Exception {
+		// quotes and brackets in comments and PIs in the internal subset.
+		checkSameAsSAX(("<!DOCTYPE r [ <!-- don't --> <!ENTITY e \"x\"> ]>" +
+				"<r>&e;</r>").getBytes("UTF-8"));
+		checkSameAsSAX(("<!DOCTYPE r [ <?pi it's [?> <!ENTITY e \"x\">" +
+				" <!-- ] --> ]><r>&e;</r>").getBytes("UTF-8"));
+	}
+
+	@Test
+	public void testBalancedEntities() throws Exception {
+		// an entity may be used more than once, and inside another.
+		checkSameAsSAX(("<!DOCTYPE r [<!ENTITY e \"<b>x</b>y\">" +
+				" <!ENTITY f \"&e;<c>&e;</c>\">]><r>&f;&e;</r>")
+				.getBytes("UTF-8"));
+	}
+
+	@Test
+	public void testCDATAEndInText() throws Exception {
+		final byte[] data = "<root>a]]>b</root>".getBytes("UTF-8");
+		for (int chunk = 1; chunk <= data.length; chunk++) {
+			try {
+				build(new AsyncJDOMBuilder(), data, chunk);
+				fail("']]>' is not allowed in text, chunks of " + chunk);
+			} catch (JDOMParseException e) {
+				// good
+			}
+		}
+		checkSameAsSAX("<root>a]]b]]&gt;c]</root>".getBytes("UTF-8"));
+		checkSameAsSAX("<root>]</root>".getBytes("UTF-8"));
+	}
+
+	@Test
+	public void testNamespaces() throws Exception {
+		Document doc = build("<a:root xmlns:a='urn:a' xmlns='urn:d' a:att='1' att='2'>" +
+				"<kid xmlns=''/><a:kid/></a:root>", "UTF-8");
+		Element root = doc.getRootElement();
+		assertEquals(Namespace.getNamespace("a", "urn:a"), root.getNamespace());
+		assertEquals("1", root.getAttributeValue("att", root.getNamespace()));
+		assertEquals("2", root.getAttributeValue("att"));
+		assertEquals(Namespace.NO_NAMESPACE, root.getChildren().get(0).getNamespace());
+		assertEquals("urn:a", root.getChildren().get(1).getNamespaceURI());
+		assertTrue(root.getAdditionalNamespaces().contains(Namespace.getNamespace("urn:d")));
+	}
+
+	@Test
+	public void testReferences() throws Exception {
+		Document doc = build("<?xml version='1.0' encoding='ISO-8859-1'?>" +
+				"<!DOCTYPE root [<!ENTITY who 'Fred &amp; &#x263A;'>" +
+				" <!ENTITY ext SYSTEM 'ext.xml'>]>" +
+				"<root att='a&#10;b\tc &who;'>&lt;&who;&gt; caf\u00E9 &ext;</root>",
+				"ISO-8859-1");
+		Element root = doc.getRootElement();
+		assertEquals("a\nb c Fred & \u263A", root.getAttributeValue("att"));
+		assertEquals("<Fred & \u263A> caf\u00E9 ", root.getText());
+		assertEquals("ext", ((EntityRef)root.getContent(1)).getName());
+		assertEquals("ext.xml", ((EntityRef)root.getContent(1)).getSystemID());
+	}
+
+	@Test
+	public void testUTF16() throws Exception {
+		Document doc = build("\uFEFF<root>\u263A\r\nx</root>", "UTF-16BE");
+		assertEquals("\u263A\nx", doc.getRootElement().getText());
+		doc = build("<?xml version='1.0' encoding='UTF-16'?><root>\u263A</root>",
+				"UTF-16LE");
+		assertEquals("\u263A", doc.getRootElement().getText());
+	}
+
+	private static void checkError(String xml, int line) throws Exception {
+		try {
+			build(xml, "UTF-8");
+			fail("Should not be able to build " + xml);
+		} catch (JDOMParseException e) {
+			assertEquals(line, e.getLineNumber());
+		}
+	}
+
+	@Test
+	public void testErrors() throws Exception {
+		checkError("<root>\n</rot>", 2);
+		checkError("<root>\n<x:kid/></root>", 2);
+		checkError("<root a='1' a='2'/>", 1);
+		checkError("<root/>\n<root/>", 2);
+		checkError("<root>\n<kid>", 2);
+		checkError("text<root/>", 1);
+		checkError("<root>&unknown;</root>", 1);
+		checkError("<root>&#0;</root>", 1);
+		checkError("<root><1/></root>", 1);
+		checkError("", 1);
+		// recursive entities
+		checkError("<!DOCTYPE r [<!ENTITY a \"&a;\">]><r x=\"&a;\"/>", 1);
+		checkError("<!DOCTYPE r [<!ENTITY a \"x&b;\"><!ENTITY b \"&a;\">]>" +
+				"<r>&a;</r>", 1);
+		checkError("<!DOCTYPE r [<!ENTITY a \"<r x='&a;'/>\">]><r>&a;</r>", 1);
+		// entities that are not balanced
+		checkError("<!DOCTYPE r [<!ENTITY e \"<b>\">]><r>&e;</b></r>", 1);
+		checkError("<!DOCTYPE r [<!ENTITY e \"</b>\">]><r><b>&e;</r>", 1);
+		checkError("<!DOCTYPE r [<!ENTITY e \"<b\">]><r>&e;/></r>", 1);
+		checkError("<!DOCTYPE r [<!ENTITY e \"&amp\">]><r>&e;;</r>", 1);
+	}
+
+	@Test
+	public void testPartialDocument() throws Exception {
+		AsyncJDOMBuilder builder = new AsyncJDOMBuilder();
+		builder.feed("<root><kid/>".getBytes("UTF-8"), 0, 12);
+		try {
+			builder.endOfInput();
+			fail("The document is not complete");
+		} catch (JDOMParseException e) {
+			assertEquals(1, e.getPartialDocument().getRootElement().getChildren().size());
+		}
+		try {
+			builder.endOfInput();
+			fail("The build has failed");
+		} catch (IllegalStateException e) {
+			// good
+		}
+		builder.reset();
+		assertNull(build(builder, "<root/>".getBytes("UTF-8"), 1)
+				.getRootElement().getParentElement());
+	}
+
+	@Test
+	public void testBuildLimits() throws Exception {
+		AsyncJDOMBuilder builder = new AsyncJDOMBuilder();
+		builder.setBuildLimits(new BuildLimits().setMaxDepth(2));
+		try {
+			build(builder, "<a><b><c/></b></a>".getBytes("UTF-8"), 4);
+			fail("Should be too deep");
+		} catch (BuildLimitException e) {
+			assertEquals(BuildLimits.Limit.DEPTH, e.getLimit());
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+package org.jdom2.test.cases.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.Test;
+
+import org.jdom2.Document;
+import org.jdom2.JDOMException;
+import org.jdom2.input.BuildLimitException;
+import org.jdom2.input.BuildLimits;
+import org.jdom2.input.BuildLimits.Limit;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.StAXStreamBuilder;
+
+@SuppressWarnings("javadoc")
+public class TestBuildLimits {
+
+	private static final String XML =
+			"<root a='1'><kid b='1' c='2'>text</kid><kid><deep>more</deep></kid></root>";
+
+	private static Document sax(BuildLimits limits, String xml) throws JDOMException, IOException {
+		SAXBuilder sb = new SAXBuilder();
+		sb.setBuildLimits(limits);
+		return sb.build(new StringReader(xml));
+	}
+
+	private static Document stax(BuildLimits limits, String xml) throws Exception {
+		XMLStreamReader reader = XMLInputFactory.newInstance()
+				.createXMLStreamReader(new StringReader(xml));
+		StAXStreamBuilder sb = new StAXStreamBuilder();
+		sb.setBuildLimits(limits);
+		return sb.build(reader);
+	}
+
+	private static void checkLimit(BuildLimits limits, Limit expect) throws Exception {
+		try {
+			sax(limits, XML);
+			fail("SAXBuilder should have broken " + expect);
+		} catch (BuildLimitException e) {
+			assertEquals(expect, e.getLimit());
+		}
+		try {
+			stax(limits, XML);
+			fail("StAXStreamBuilder should have broken " + expect);
+		} catch (BuildLimitException e) {
+			assertEquals(expect, e.getLimit());
+		}
+	}
+
+	@Test
+	public void testWithinLimits() throws Exception {
+		BuildLimits limits = new BuildLimits().setMaxElements(4).setMaxDepth(3)
+				.setMaxAttributes(2).setMaxTextLength(8).setTimeout(60000);
+		assertEquals(2, sax(limits, XML).getRootElement().getChildren().size());
+		assertEquals(2, stax(limits, XML).getRootElement().getChildren().size());
+		// and again, the limits are per build.
+		assertEquals(2, sax(limits, XML).getRootElement().getChildren().size());
+		assertEquals(2, stax(limits, XML).getRootElement().getChildren().size());
+	}
+
+	@Test
+	public void testMaxElements() throws Exception {
+		checkLimit(new BuildLimits().setMaxElements(3), Limit.ELEMENTS);
+	}
+
+	@Test
+	public void testMaxDepth() throws Exception {
+		checkLimit(new BuildLimits().setMaxDepth(2), Limit.DEPTH);
+	}
+
+	@Test
+	public void testMaxAttributes() throws Exception {
+		checkLimit(new BuildLimits().setMaxAttributes(1), Limit.ATTRIBUTES);
+	}
+
+	@Test
+	public void testMaxTextLength() throws Exception {
+		checkLimit(new BuildLimits().setMaxTextLength(7), Limit.TEXT);
+	}
+
+	@Test
+	public void testCancelled() throws Exception {
+		BuildLimits limits = new BuildLimits();
+		limits.cancel();
+		assertTrue(limits.isCancelled());
+		checkLimit(limits, Limit.CANCELLED);
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		// a slow source of never-ending elements.
+		final Reader slow = new Reader() {
+			private final String head = "<root>";
+			private int pos = 0;
+			@Override
+			public int read(char[] cbuf, int off, int len) {
+				if (pos < head.length()) {
+					cbuf[off] = head.charAt(pos++);
+					return 1;
+				}
+				try {
+					Thread.sleep(5);
+				} catch (InterruptedException e) {
+					// ignore
+				}
+				final String kid = "<kid/>";
+				final int cnt = Math.min(len, kid.length());
+				kid.getChars(0, cnt, cbuf, off);
+				return cnt;
+			}
+			@Override
+			public void close() {
+				// nothing
+			}
+		};
+		SAXBuilder sb = new SAXBuilder();
+		sb.setBuildLimits(new BuildLimits().setTimeout(200));
+		final long start = System.currentTimeMillis();
+		try {
+			sb.build(slow);
+			fail("Should have timed out");
+		} catch (BuildLimitException e) {
+			assertEquals(Limit.TIMEOUT, e.getLimit());
+		}
+		assertTrue(System.currentTimeMillis() - start < 10000);
+	}
+
+}
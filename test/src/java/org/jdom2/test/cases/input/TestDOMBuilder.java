@@ -17,6 +17,7 @@ import org.jdom2.DocType;
 import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.Namespace;
+import org.jdom2.UncheckedJDOMFactory;
 import org.jdom2.input.DOMBuilder;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.sax.XMLReaders;
@@ -100,6 +101,51 @@ public class TestDOMBuilder {
 
 	}
 	
+	@Test
+	public void testDeepDOM() throws Exception {
+		// deep enough to overflow the stack with a recursive builder.
+		final int depth = 20000;
+		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+		dbFactory.setNamespaceAware(true);
+		org.w3c.dom.Document doc = dbFactory.newDocumentBuilder().newDocument();
+		org.w3c.dom.Node parent = doc;
+		for (int i = 0; i < depth; i++) {
+			org.w3c.dom.Element kid = doc.createElementNS("urn:deep", "d:kid");
+			kid.appendChild(doc.createTextNode("t"));
+			parent.appendChild(kid);
+			parent = kid;
+		}
+		doc.getDocumentElement().appendChild(doc.createComment("last"));
+
+		Document jdoc = new DOMBuilder().build(doc);
+		Element emt = jdoc.getRootElement();
+		Namespace ns = emt.getNamespace();
+		assertEquals("urn:deep", ns.getURI());
+		assertEquals("d", ns.getPrefix());
+		assertEquals(3, emt.getContentSize());
+		int cnt = 1;
+		while ((emt = emt.getChild("kid", ns)) != null) {
+			assertTrue(ns == emt.getNamespace());
+			assertEquals("t", emt.getText());
+			cnt++;
+		}
+		assertEquals(depth, cnt);
+	}
+
+	@Test
+	public void testUncheckedFactory() {
+		DOMBuilder db = new DOMBuilder();
+		db.setFactory(new UncheckedJDOMFactory());
+		try {
+			org.w3c.dom.Document domdoc = HelpTestDOMBuilder.getDocument("/DOMBuilder/complex.xml", false);
+			Document checked = new DOMBuilder().build(domdoc);
+			Document unchecked = db.build(domdoc);
+			assertEquals(toString(checked), toString(unchecked));
+		} catch (Exception e) {
+			UnitTestUtil.failException("Could not build: " + e.getMessage(), e);
+		}
+	}
+
 	private void checkDOM(String resname, boolean xsdvalidate) {
 		try {
 			org.w3c.dom.Document domdoc = HelpTestDOMBuilder.getDocument(resname, xsdvalidate);
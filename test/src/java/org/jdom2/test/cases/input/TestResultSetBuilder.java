@@ -0,0 +1,182 @@
+package org.jdom2.test.cases.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.IllegalNameException;
+import org.jdom2.Namespace;
+import org.jdom2.contrib.input.ResultSetBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+@SuppressWarnings("javadoc")
+public class TestResultSetBuilder {
+
+	/**
+	 * An in-memory stand-in for a JDBC ResultSet of VARCHAR columns.
+	 */
+	private static final class Rows implements InvocationHandler {
+		private final String[] columns;
+		private final String[][] rows;
+		private int row = -1;
+		private boolean wasnull = false;
+		private int fetchsize = 0;
+		private int nexts = 0;
+
+		Rows(String[] columns, String[]... rows) {
+			this.columns = columns;
+			this.rows = rows;
+		}
+
+		ResultSet resultSet() {
+			return (ResultSet)Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class<?>[] {ResultSet.class}, this);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			final String name = method.getName();
+			if ("getMetaData".equals(name)) {
+				return Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] {ResultSetMetaData.class}, new InvocationHandler() {
+					@Override
+					public Object invoke(Object p, Method m, Object[] a) {
+						if ("getColumnCount".equals(m.getName())) {
+							return Integer.valueOf(columns.length);
+						}
+						if ("getColumnName".equals(m.getName())) {
+							return columns[((Integer)a[0]).intValue() - 1];
+						}
+						if ("getColumnType".equals(m.getName())) {
+							return Integer.valueOf(Types.VARCHAR);
+						}
+						throw new UnsupportedOperationException(m.getName());
+					}
+				});
+			}
+			if ("next".equals(name)) {
+				nexts++;
+				return Boolean.valueOf(++row < rows.length);
+			}
+			if ("getString".equals(name)) {
+				final String val = rows[row][((Integer)args[0]).intValue() - 1];
+				wasnull = val == null;
+				return val;
+			}
+			if ("wasNull".equals(name)) {
+				return Boolean.valueOf(wasnull);
+			}
+			if ("setFetchSize".equals(name)) {
+				fetchsize = ((Integer)args[0]).intValue();
+				return null;
+			}
+			throw new UnsupportedOperationException(name);
+		}
+	}
+
+	private static Rows people() {
+		return new Rows(new String[] {"ID", "NAME", "NICK"},
+				new String[] {"1", "Alex", null},
+				new String[] {"2", "Amy & co", "A"},
+				new String[] {"3", null, "<c>"});
+	}
+
+	@Test
+	public void testBuildDocument() throws Exception {
+		ResultSetBuilder rsb = new ResultSetBuilder(people().resultSet());
+		rsb.setAsAttribute("id");
+		rsb.setAsElement("NAME", "name");
+		rsb.setNullAttribute("null", "true");
+		Document doc = rsb.build();
+		List<Element> entries = doc.getRootElement().getChildren("entry");
+		assertEquals(3, entries.size());
+		assertEquals("2", entries.get(1).getAttributeValue("ID"));
+		assertEquals("Amy & co", entries.get(1).getChildText("name"));
+		assertEquals("true", entries.get(0).getChild("NICK").getAttributeValue("null"));
+		assertEquals("true", entries.get(2).getChild("name").getAttributeValue("null"));
+		assertEquals("<c>", entries.get(2).getChildText("NICK"));
+	}
+
+	@Test
+	public void testRowHandler() throws Exception {
+		Rows rows = people();
+		ResultSetBuilder rsb = new ResultSetBuilder(rows.resultSet());
+		rsb.setFetchSize(500);
+		rsb.setMaxRows(2);
+		final List<Element> got = new ArrayList<Element>();
+		int cnt = rsb.build(new ResultSetBuilder.RowHandler() {
+			@Override
+			public void handleRow(Element row) {
+				assertNull(row.getParent());
+				got.add(row);
+			}
+		});
+		assertEquals(2, cnt);
+		assertEquals(2, got.size());
+		assertEquals("Alex", got.get(0).getChildText("NAME"));
+		assertEquals(500, rows.fetchsize);
+		// stops at maxRows without reading another row.
+		assertEquals(2, rows.nexts);
+	}
+
+	private void checkStream(Format format, Namespace ns) throws Exception {
+		ResultSetBuilder rsb = new ResultSetBuilder(people().resultSet(), "people", "person", ns);
+		rsb.setAsAttribute("ID", "id");
+		Document doc = rsb.build();
+
+		rsb = new ResultSetBuilder(people().resultSet(), "people", "person", ns);
+		rsb.setAsAttribute("ID", "id");
+		StringWriter sw = new StringWriter();
+		assertEquals(3, rsb.build(format, sw));
+		assertEquals(new XMLOutputter(format).outputString(doc), sw.toString());
+	}
+
+	@Test
+	public void testBuildToOutputter() throws Exception {
+		checkStream(Format.getRawFormat(), Namespace.NO_NAMESPACE);
+		checkStream(Format.getPrettyFormat(), Namespace.NO_NAMESPACE);
+		checkStream(Format.getPrettyFormat(), Namespace.getNamespace("x", "urn:x"));
+		checkStream(Format.getRawFormat(), Namespace.getNamespace("urn:y"));
+		checkStream(Format.getCompactFormat().setOmitDeclaration(true),
+				Namespace.NO_NAMESPACE);
+	}
+
+	@Test
+	public void testEmptyToOutputter() throws Exception {
+		ResultSetBuilder rsb = new ResultSetBuilder(
+				new Rows(new String[] {"A"}).resultSet());
+		StringWriter sw = new StringWriter();
+		assertEquals(0, rsb.build(Format.getRawFormat(), sw));
+		assertEquals(new XMLOutputter().outputString(
+				new Document(new Element("result"))), sw.toString());
+	}
+
+	@Test
+	public void testIllegalColumnName() throws Exception {
+		ResultSetBuilder rsb = new ResultSetBuilder(
+				new Rows(new String[] {"A || B"}, new String[] {"x"}).resultSet());
+		try {
+			rsb.build();
+			fail("Should not be able to use an illegal column name");
+		} catch (IllegalNameException e) {
+			assertTrue(e.getMessage().indexOf("A || B") >= 0);
+		}
+	}
+
+}
@@ -1563,4 +1563,52 @@ public class TestSAXHandler {
 		assertTrue(root.getAttributes().isEmpty());
 	}
 
+	@Test
+	public void testInternedNames() throws SAXException {
+		SAXHandler handler = new SAXHandler();
+		assertFalse(handler.getInternedNames());
+		handler.setInternedNames(true);
+		handler.reset();
+		assertTrue(handler.getInternedNames());
+		final String kid = "p:kid";
+		final String uria = "urn:a";
+		final String urib = "urn:b";
+		final String xmlns = "xmlns:p";
+		handler.startDocument();
+		handler.startElement("", "root", "root", EMPTYATTRIBUTES);
+		for (int i = 0; i < 2; i++) {
+			// the same qName in two namespaces, and the same declaration.
+			for (String uri : new String[] {uria, urib}) {
+				handler.startPrefixMapping("p", uri);
+				handler.startElement(uri, "kid", kid,
+						new AttributesSingleOnly("", "", xmlns, "CDATA", uri));
+				handler.endElement(uri, "kid", kid);
+				handler.endPrefixMapping("p");
+			}
+		}
+		// the same weird attribute in two scopes is never cached.
+		for (String pfx : new String[] {"x", "y"}) {
+			handler.startPrefixMapping(pfx, uria);
+			handler.startElement("", "kid", "kid",
+					new AttributesSingleOnly(uria, "att", "att", "CDATA", "val"));
+			handler.endElement("", "kid", "kid");
+			handler.endPrefixMapping(pfx);
+		}
+		handler.endElement("", "root", "root");
+		handler.endDocument();
+		Element root = handler.getDocument().getRootElement();
+		assertEquals(6, root.getChildren().size());
+		for (int i = 0; i < 4; i++) {
+			Element emt = root.getChildren().get(i);
+			assertEquals("kid", emt.getName());
+			assertEquals("p", emt.getNamespacePrefix());
+			assertEquals(i % 2 == 0 ? uria : urib, emt.getNamespaceURI());
+			assertTrue(emt.getAttributes().isEmpty());
+		}
+		assertEquals("x", root.getChildren().get(4).getAttributes().get(0).getNamespacePrefix());
+		assertEquals("y", root.getChildren().get(5).getAttributes().get(0).getNamespacePrefix());
+		handler.setInternedNames(false);
+		assertFalse(handler.getInternedNames());
+	}
+
 }
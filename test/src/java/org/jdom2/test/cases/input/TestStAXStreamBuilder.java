@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.CharArrayWriter;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.List;
 
 import javax.xml.stream.XMLInputFactory;
@@ -16,10 +17,12 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import org.jdom2.Content;
+import org.jdom2.CDATA;
 import org.jdom2.DefaultJDOMFactory;
 import org.jdom2.DocType;
 import org.jdom2.Document;
 import org.jdom2.Element;
+import org.jdom2.Text;
 import org.jdom2.input.SAXBuilder;
 import org.jdom2.input.StAXStreamBuilder;
 import org.jdom2.input.stax.DefaultStAXFilter;
@@ -37,6 +40,49 @@ public class TestStAXStreamBuilder {
 		assertNotNull(db);
 	}
 
+	@Test
+	public void testCoalesceText() throws Exception {
+		String xml = "<root>a&amp;b&#x20;c<!--x-->  <k>  </k><k>\n\t</k><![CDATA[d]]></root>";
+		XMLInputFactory inf = XMLInputFactory.newInstance();
+		inf.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+		StAXStreamBuilder db = new StAXStreamBuilder();
+		assertFalse(db.getIgnoringBoundaryWhitespace());
+		Element root = db.build(inf.createXMLStreamReader(new StringReader(xml))).getRootElement();
+		assertEquals(6, root.getContentSize());
+		assertEquals("a&b c", ((Text)root.getContent(0)).getText());
+		assertEquals("  ", ((Text)root.getContent(2)).getText());
+		assertEquals("  ", root.getChildren().get(0).getText());
+		assertEquals("\n\t", root.getChildren().get(1).getText());
+		assertEquals("d", root.getContent(5).getValue());
+
+		db.setIgnoringBoundaryWhitespace(true);
+		assertTrue(db.getIgnoringBoundaryWhitespace());
+		root = db.build(inf.createXMLStreamReader(new StringReader(xml))).getRootElement();
+		assertEquals(5, root.getContentSize());
+		assertEquals("a&b c", ((Text)root.getContent(0)).getText());
+		assertEquals(0, root.getChildren().get(0).getContentSize());
+		assertEquals(0, root.getChildren().get(1).getContentSize());
+		assertEquals("d", root.getContent(4).getValue());
+	}
+
+	@Test
+	public void testAdjacentCDATA() throws Exception {
+		// the way to put ]]> in CDATA: two sections, which must not merge.
+		String xml = "<root><![CDATA[a]]]]><![CDATA[>b]]></root>";
+		XMLInputFactory inf = XMLInputFactory.newInstance();
+		inf.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+		// the JDK parser reports CDATA as CHARACTERS unless asked.
+		inf.setProperty("http://java.sun.com/xml/stream/properties/report-cdata-event",
+				Boolean.TRUE);
+		Element root = new StAXStreamBuilder().build(inf.createXMLStreamReader(new StringReader(xml))).getRootElement();
+		assertEquals(2, root.getContentSize());
+		assertTrue(root.getContent(0) instanceof CDATA);
+		assertEquals("a]]", root.getContent(0).getValue());
+		assertTrue(root.getContent(1) instanceof CDATA);
+		assertEquals(">b", root.getContent(1).getValue());
+		assertEquals("a]]>b", root.getText());
+	}
+
 	@Test
 	public void testFactory() {
 		StAXStreamBuilder db = new StAXStreamBuilder();
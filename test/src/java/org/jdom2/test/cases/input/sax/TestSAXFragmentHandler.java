@@ -0,0 +1,155 @@
+package org.jdom2.test.cases.input.sax;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+
+import org.junit.Test;
+
+import org.jdom2.CDATA;
+import org.jdom2.Comment;
+import org.jdom2.Content;
+import org.jdom2.DocType;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.ProcessingInstruction;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.StAXStreamBuilder;
+import org.jdom2.input.sax.SAXFragmentHandler;
+import org.jdom2.input.stax.DefaultStAXFilter;
+import org.jdom2.input.stax.StAXFilter;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.jdom2.test.util.FidoFetch;
+import org.jdom2.test.util.UnitTestUtil;
+
+@SuppressWarnings("javadoc")
+public class TestSAXFragmentHandler {
+
+	private static final String XML = "<?xml version=\"1.0\"?>\n" +
+			"<!--head--><?pi data?>" +
+			"<root xmlns:p=\"urn:p\"><header a=\"x\">h<!--c-->h</header>" +
+			"<p:body><skip xmlns:q=\"urn:q\"><q:deep>lots</q:deep></skip>" +
+			"text<![CDATA[cd]]><?keep this?><?drop that?>more</p:body>" +
+			"<summary>s<skip/>s</summary></root><!--tail-->";
+
+	/** Keep the root, but prune the skip elements, comments and some PIs */
+	private static final class PruneFilter extends DefaultStAXFilter {
+		@Override
+		public boolean pruneElement(int depth, String name, Namespace ns) {
+			return "skip".equals(name);
+		}
+		@Override
+		public String pruneComment(int depth, String comment) {
+			return null;
+		}
+		@Override
+		public boolean pruneProcessingInstruction(int depth, String target) {
+			return "drop".equals(target);
+		}
+		@Override
+		public String pruneText(int depth, String text) {
+			return depth == 2 ? text.toUpperCase() : text;
+		}
+		@Override
+		public String includeComment(int depth, String comment) {
+			return "tail".equals(comment) ? null : comment;
+		}
+	}
+
+	private static String toString(List<Content> content) {
+		return new XMLOutputter(Format.getRawFormat()).outputString(content);
+	}
+
+	@Test
+	public void testNullFilter() {
+		try {
+			new SAXFragmentHandler(null, null);
+		} catch (NullPointerException npe) {
+			return;
+		}
+		UnitTestUtil.failNoException(NullPointerException.class);
+	}
+
+	@Test
+	public void testDefaultFilterMatchesBuild() throws Exception {
+		for (String res : new String[] {"/DOMBuilder/complex.xml",
+				"/DOMBuilder/doctype.xml", "/DOMBuilder/namespaces.xml",
+				"/DOMBuilder/attributes.xml"}) {
+			SAXBuilder sb = new SAXBuilder();
+			Document doc = sb.build(FidoFetch.getFido().getURL(res));
+			List<Content> frags = sb.buildFragments(
+					FidoFetch.getFido().getURL(res), new DefaultStAXFilter());
+			Document fdoc = new Document();
+			fdoc.addContent(frags);
+			XMLOutputter out = new XMLOutputter();
+			assertEquals(res, out.outputString(doc), out.outputString(fdoc));
+		}
+	}
+
+	@Test
+	public void testPrune() throws Exception {
+		SAXBuilder sb = new SAXBuilder();
+		List<Content> frags = sb.buildFragments(new StringReader(XML),
+				new PruneFilter());
+		assertEquals(3, frags.size());
+		assertTrue(frags.get(0) instanceof Comment);
+		assertTrue(frags.get(1) instanceof ProcessingInstruction);
+		Element root = (Element)frags.get(2);
+		assertEquals("<root xmlns:p=\"urn:p\"><header a=\"x\">HH</header>" +
+				"<p:body>TEXT<![CDATA[cd]]><?keep this?>MORE</p:body>" +
+				"<summary>SS</summary></root>",
+				new XMLOutputter().outputString(root));
+		// text either side of a pruned element is not merged.
+		assertEquals(2, root.getChild("summary").getContentSize());
+		assertTrue(root.getChild("body", Namespace.getNamespace("urn:p"))
+				.getContent(1) instanceof CDATA);
+
+		// and the same as StAX with the same filter.
+		StAXStreamBuilder stax = new StAXStreamBuilder();
+		XMLInputFactory inputfac = XMLInputFactory.newInstance();
+		inputfac.setProperty("http://java.sun.com/xml/stream/properties/report-cdata-event", Boolean.TRUE);
+		List<Content> sfrags = stax.buildFragments(
+				inputfac.createXMLStreamReader(new StringReader(XML)), new PruneFilter());
+		assertEquals(toString(sfrags), toString(frags));
+	}
+
+	@Test
+	public void testIncludeNothing() throws Exception {
+		StAXFilter none = new DefaultStAXFilter() {
+			@Override
+			public boolean includeElement(int depth, String name, Namespace ns) {
+				return false;
+			}
+			@Override
+			public boolean includeDocType() {
+				return false;
+			}
+		};
+		SAXBuilder sb = new SAXBuilder();
+		List<Content> frags = sb.buildFragments(new StringReader(XML), none);
+		assertEquals("<!--head--><?pi data?><!--tail-->", toString(frags));
+		frags = sb.buildFragments(FidoFetch.getFido().getURL(
+				"/DOMBuilder/doctype.xml"), none);
+		for (Content c : frags) {
+			assertTrue(!(c instanceof Element) && !(c instanceof DocType));
+		}
+	}
+
+	@Test
+	public void testReuse() throws Exception {
+		SAXFragmentHandler handler = new SAXFragmentHandler(null,
+				new DefaultStAXFilter());
+		List<Content> first = handler.getFragments();
+		handler.reset();
+		assertTrue(first != handler.getFragments());
+		assertTrue(handler.getFragments().isEmpty());
+		assertTrue(handler.getFilter() instanceof DefaultStAXFilter);
+	}
+
+}
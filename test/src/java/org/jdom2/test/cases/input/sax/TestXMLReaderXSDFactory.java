@@ -4,11 +4,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URL;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
 
 import org.junit.Test;
 
@@ -271,4 +273,60 @@ public class TestXMLReaderXSDFactory {
 		}
 	}
 
+	@Test
+	public void testSchemaCache() throws JDOMException {
+		XMLReaderXSDFactory faca = new XMLReaderXSDFactory(
+				filemain().toExternalForm(),
+				fileone().toExternalForm(),
+				filetwo().toExternalForm());
+		XMLReaderXSDFactory facb = new XMLReaderXSDFactory(
+				filemain().toExternalForm(),
+				fileone().toExternalForm(),
+				filetwo().toExternalForm());
+		assertTrue(faca.getSchema() == facb.getSchema());
+		XMLReaderXSDFactory facc = new XMLReaderXSDFactory(
+				filemain(), fileone(), filetwo());
+		XMLReaderXSDFactory facd = new XMLReaderXSDFactory(
+				filemain(), fileone(), filetwo());
+		assertTrue(facc.getSchema() == facd.getSchema());
+		XMLReaderXSDFactory.clearSchemaCache();
+		XMLReaderXSDFactory face = new XMLReaderXSDFactory(
+				filemain().toExternalForm(),
+				fileone().toExternalForm(),
+				filetwo().toExternalForm());
+		assertTrue(faca.getSchema() != face.getSchema());
+		checkXML(face);
+	}
+
+	@Test
+	public void testSchemaCacheFileChange() throws JDOMException, IOException {
+		final File xsd = File.createTempFile("jdomcache", ".xsd");
+		try {
+			final FileWriter fw = new FileWriter(xsd);
+			try {
+				fw.write("<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>"
+						+ "<xs:element name='root' type='xs:string'/></xs:schema>");
+			} finally {
+				fw.close();
+			}
+			assertTrue(xsd.setLastModified(1000000000000L));
+			final Schema a = new XMLReaderXSDFactory(xsd).getSchema();
+			assertTrue(a == new XMLReaderXSDFactory(xsd).getSchema());
+			
+			// a changed file is compiled again...
+			assertTrue(xsd.setLastModified(1000000100000L));
+			final Schema b = new XMLReaderXSDFactory(xsd).getSchema();
+			assertTrue(a != b);
+			assertTrue(b == new XMLReaderXSDFactory(xsd).getSchema());
+			
+			// ... and replaces the old version in the cache.
+			assertTrue(xsd.setLastModified(1000000000000L));
+			final Schema c = new XMLReaderXSDFactory(xsd).getSchema();
+			assertTrue(a != c);
+			assertTrue(b != c);
+		} finally {
+			xsd.delete();
+		}
+	}
+
 }
@@ -55,9 +55,13 @@ package org.jdom2.test.cases.jaxb;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.List;
 
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamReader;
 
 import org.junit.Test;
@@ -223,6 +227,66 @@ public class TestJDOMStreamReader {
         assertEquals("post-element text", content.get(2).getValue());
     }//end testDocWithMixedContent_HandlesMixedContent
     
+    @Test
+    public void testEventDetails_NamesNamespacesAndChars() throws Exception {
+        Document doc = new Document();
+        Element root = new Element("root", Namespace.getNamespace("pfx", "uri"));
+        root.addNamespaceDeclaration(Namespace.getNamespace("two", "urb"));
+        root.setAttribute("att", "val", Namespace.getNamespace("two", "urb"));
+        root.addContent(new Element("kid", Namespace.getNamespace("pfx", "uri")));
+        root.addContent(new Element("kid", Namespace.getNamespace("pfx", "other")));
+        root.addContent(new Text("abcdefghij"));
+        doc.setRootElement(root);
+        
+        XMLStreamReader instance = new StAXStreamReader().output(doc);
+        try {
+            assertEquals(XMLStreamConstants.START_ELEMENT, instance.next());
+            QName qn = instance.getName();
+            assertEquals(new QName("uri", "root", "pfx"), qn);
+            assertTrue("Should reuse QName", qn == instance.getName());
+            assertEquals(2, instance.getNamespaceCount());
+            assertEquals("pfx", instance.getNamespacePrefix(0));
+            assertEquals("urb", instance.getNamespaceURI(1));
+            assertEquals(new QName("urb", "att", "two"), instance.getAttributeName(0));
+            
+            assertEquals(XMLStreamConstants.START_ELEMENT, instance.next());
+            QName kid = instance.getName();
+            assertEquals(0, instance.getNamespaceCount());
+            assertEquals(XMLStreamConstants.END_ELEMENT, instance.next());
+            assertTrue("Should reuse QName", kid == instance.getName());
+            
+            assertEquals(XMLStreamConstants.START_ELEMENT, instance.next());
+            assertEquals(new QName("other", "kid", "pfx"), instance.getName());
+            assertEquals(1, instance.getNamespaceCount());
+            assertEquals(XMLStreamConstants.END_ELEMENT, instance.next());
+            assertEquals(1, instance.getNamespaceCount());
+            assertEquals("other", instance.getNamespaceURI(0));
+            
+            assertEquals(XMLStreamConstants.CHARACTERS, instance.next());
+            assertEquals(10, instance.getTextLength());
+            char[] chars = new char[6];
+            assertEquals(4, instance.getTextCharacters(0, chars, 2, 4));
+            assertEquals("\0\0abcd", new String(chars));
+            assertEquals(4, instance.getTextCharacters(6, chars, 0, 6));
+            assertEquals("ghijcd", new String(chars));
+            assertEquals(0, instance.getTextCharacters(10, chars, 0, 6));
+            try {
+                instance.getTextCharacters(0, chars, 2, 5);
+                fail("Should not be able to overrun the target");
+            } catch (IndexOutOfBoundsException ioobe) {
+                // good.
+            }
+            assertTrue("Should reuse the char[]",
+                    instance.getTextCharacters() == instance.getTextCharacters());
+            
+            assertEquals(XMLStreamConstants.END_ELEMENT, instance.next());
+            assertEquals(2, instance.getNamespaceCount());
+            assertTrue("Should reuse QName", qn == instance.getName());
+        } finally {
+            instance.close();
+        }
+    }
+    
 }
 
 
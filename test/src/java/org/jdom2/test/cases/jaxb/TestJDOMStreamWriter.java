@@ -103,6 +103,34 @@ public class TestJDOMStreamWriter {
         assertEquals("Should have no content", 0, doc.getRootElement().getContentSize());
     }//end testEmptyRootElement_DocumentHasEmptyRoot
     
+    @Test
+    public void testChunkedCharacters_SingleText() throws Exception {
+        Document doc;
+        StringBuilder sb = new StringBuilder();
+        StAXStreamWriter writer = new StAXStreamWriter();
+        try{
+            writer.writeStartDocument();
+            writer.writeStartElement("testroot");
+            char[] chunk = "abcdefgh".toCharArray();
+            for (int i = 0; i < 5000; i++) {
+                writer.writeCharacters(chunk, i % 4, 4);
+                sb.append(chunk, i % 4, 4);
+                writer.writeCharacters("-");
+                sb.append("-");
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            
+            doc = writer.getDocument();
+        }
+        finally{
+            writer.close();
+        }
+        
+        assertEquals("Should have one Text", 1, doc.getRootElement().getContentSize());
+        assertEquals("Should have all the text", sb.toString(), doc.getRootElement().getText());
+    }
+    
     @Test
     public void testMultipleElementsWithText_DocHasElements() throws Exception {
         System.out.println("testMultipleElementsWithText_DocHasElements");
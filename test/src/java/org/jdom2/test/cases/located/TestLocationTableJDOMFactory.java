@@ -0,0 +1,233 @@
+package org.jdom2.test.cases.located;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.junit.Test;
+
+import org.jdom2.Comment;
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.JDOMFactory;
+import org.jdom2.input.AsyncJDOMBuilder;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.StAXStreamBuilder;
+import org.jdom2.located.Located;
+import org.jdom2.located.LocatedJDOMFactory;
+import org.jdom2.located.LocationTable;
+import org.jdom2.located.LocationTableJDOMFactory;
+import org.jdom2.test.cases.AbstractTestJDOMFactory;
+import org.jdom2.test.util.FidoFetch;
+
+@SuppressWarnings("javadoc")
+public class TestLocationTableJDOMFactory extends AbstractTestJDOMFactory {
+	
+	public TestLocationTableJDOMFactory() {
+		super(false);
+	}
+
+	@Override
+	protected JDOMFactory buildFactory() {
+		return new LocationTableJDOMFactory();
+	}
+	
+	private static final List<Content> allContent(Document doc) {
+		final List<Content> ret = new ArrayList<Content>();
+		final Iterator<Content> it = doc.getDescendants();
+		while (it.hasNext()) {
+			ret.add(it.next());
+		}
+		return ret;
+	}
+
+	@Test
+	public void testSameAsLocated() throws JDOMException, IOException {
+		SAXBuilder sb = new SAXBuilder();
+		sb.setExpandEntities(false);
+		sb.setJDOMFactory(new LocatedJDOMFactory());
+		Document located = sb.build(FidoFetch.getFido().getURL("/complex.xml"));
+		
+		sb.setJDOMFactory(new LocationTableJDOMFactory());
+		Document tabled = sb.build(FidoFetch.getFido().getURL("/complex.xml"));
+		
+		LocationTable table = LocationTable.getLocationTable(tabled);
+		assertNotNull(table);
+		assertTrue(tabled == table.getDocument());
+		
+		List<Content> expect = allContent(located);
+		List<Content> actual = allContent(tabled);
+		assertEquals(expect.size(), actual.size());
+		assertEquals(expect.size(), table.size());
+		for (int i = 0; i < expect.size(); i++) {
+			Located exp = (Located)expect.get(i);
+			Content act = actual.get(i);
+			assertFalse(act instanceof Located);
+			assertEquals(exp.getLine(), table.getLine(act));
+			assertEquals(exp.getColumn(), table.getColumn(act));
+			Located view = table.getLocated(act);
+			assertEquals(exp.getLine(), view.getLine());
+			assertEquals(exp.getColumn(), view.getColumn());
+		}
+		
+		// same checks as TestLocatedJDOMFactory
+		assertEquals(2, table.getLine(tabled.getDocType()));
+		assertEquals(16, table.getColumn(tabled.getDocType()));
+		assertEquals(3, table.getLine(tabled.getRootElement()));
+		assertEquals(32, table.getColumn(tabled.getRootElement()));
+	}
+
+	@Test
+	public void testStAX() throws JDOMException, XMLStreamException {
+		final String xml = "<root>\n <a x='y'>text</a>\n <!-- c -->\n <b/>\n</root>";
+		XMLStreamReader reader = XMLInputFactory.newInstance()
+				.createXMLStreamReader(new StringReader(xml));
+		StAXStreamBuilder builder = new StAXStreamBuilder();
+		builder.setFactory(new LocationTableJDOMFactory());
+		Document doc = builder.build(reader);
+		LocationTable table = LocationTable.getLocationTable(doc);
+		assertNotNull(table);
+		assertEquals(allContent(doc).size(), table.size());
+		Element root = doc.getRootElement();
+		assertEquals(1, table.getLine(root));
+		assertEquals(2, table.getLine(root.getChild("a")));
+		assertEquals(4, table.getLine(root.getChild("b")));
+	}
+
+	@Test
+	public void testDetachAndSet() throws JDOMException, IOException {
+		SAXBuilder sb = new SAXBuilder();
+		sb.setJDOMFactory(new LocationTableJDOMFactory());
+		Document doc = sb.build(new StringReader("<root>\n<a/>\n<b/></root>"));
+		LocationTable table = LocationTable.getLocationTable(doc);
+		Element b = doc.getRootElement().getChild("b");
+		Located lb = table.getLocated(b);
+		assertEquals(3, lb.getLine());
+		lb.setLine(42);
+		lb.setColumn(7);
+		assertEquals(42, table.getLine(b));
+		assertEquals(7, table.getColumn(b));
+		
+		assertEquals(-1, table.getLine(new Element("x")));
+		assertEquals(-1, table.getColumn(null));
+		assertNull(table.getLocated(new Element("x")));
+		
+		b.detach();
+		assertEquals(-1, table.getLine(b));
+		
+		LocationTable.release(doc);
+		assertNull(LocationTable.getLocationTable(doc));
+		
+		assertNull(LocationTable.getLocationTable(new Document()));
+	}
+	
+	@Test
+	public void testNotRecordingBetweenBuilds() throws JDOMException, IOException, XMLStreamException {
+		final LocationTableJDOMFactory factory = new LocationTableJDOMFactory();
+		final String xml = "<root>\n <a>text</a>\n <b/>\n</root>";
+		SAXBuilder sb = new SAXBuilder();
+		sb.setJDOMFactory(factory);
+		Document first = sb.build(new StringReader(xml));
+		Document second = sb.build(new StringReader(xml));
+		LocationTable ftable = LocationTable.getLocationTable(first);
+		LocationTable stable = LocationTable.getLocationTable(second);
+		assertTrue(ftable != stable);
+		final int size = allContent(first).size();
+		assertEquals(size, ftable.size());
+		assertEquals(size, stable.size());
+		
+		// content created outside a build is not recorded anywhere.
+		factory.element(5, 6, "stray");
+		factory.text("stray");
+		assertEquals(size, ftable.size());
+		assertEquals(size, stable.size());
+		
+		// and does not shift the locations of the next build.
+		Document third = sb.build(new StringReader(xml));
+		LocationTable ttable = LocationTable.getLocationTable(third);
+		assertEquals(size, ttable.size());
+		assertEquals(3, ttable.getLine(third.getRootElement().getChild("b")));
+		
+		StAXStreamBuilder builder = new StAXStreamBuilder();
+		builder.setFactory(factory);
+		Document fourth = builder.build(XMLInputFactory.newInstance()
+				.createXMLStreamReader(new StringReader(xml)));
+		LocationTable otable = LocationTable.getLocationTable(fourth);
+		assertEquals(allContent(fourth).size(), otable.size());
+		factory.comment("stray");
+		assertEquals(allContent(fourth).size(), otable.size());
+		assertEquals(size, ttable.size());
+	}
+	
+	@Test
+	public void testAsync() throws JDOMException, IOException {
+		final LocationTableJDOMFactory factory = new LocationTableJDOMFactory();
+		AsyncJDOMBuilder builder = new AsyncJDOMBuilder(factory);
+		builder.feed(ByteBuffer.wrap("<root>\n <a/>\n <b/>\n</root>".getBytes("UTF-8")));
+		Document doc = builder.endOfInput();
+		LocationTable table = LocationTable.getLocationTable(doc);
+		assertEquals(allContent(doc).size(), table.size());
+		assertEquals(3, table.getLine(doc.getRootElement().getChild("b")));
+		factory.comment("stray");
+		assertEquals(allContent(doc).size(), table.size());
+	}
+
+	@Test
+	public void testModified() throws JDOMException, IOException {
+		SAXBuilder sb = new SAXBuilder();
+		sb.setJDOMFactory(new LocationTableJDOMFactory());
+		final String xml = "<!-- c -->\n<root>\n<a>text</a>\n<b/></root>";
+		Document doc = sb.build(new StringReader(xml));
+		LocationTable table = LocationTable.getLocationTable(doc);
+		Element b = doc.getRootElement().getChild("b");
+		assertEquals(4, table.getLine(b));
+		// a new node before b would otherwise shift its location.
+		doc.getRootElement().addContent(0, new Element("x"));
+		assertEquals(-1, table.getLine(b));
+		assertNull(table.getLocated(b));
+		
+		doc = sb.build(new StringReader(xml));
+		table = LocationTable.getLocationTable(doc);
+		b = doc.getRootElement().getChild("b");
+		doc.getRootElement().getChild("a").setText("changed");
+		assertEquals(-1, table.getLine(b));
+		
+		doc = sb.build(new StringReader(xml));
+		table = LocationTable.getLocationTable(doc);
+		b = doc.getRootElement().getChild("b");
+		doc.setContent(0, new Comment("d"));
+		assertEquals(-1, table.getColumn(b));
+	}
+
+	@Test
+	public void testLookupDuringBuild() throws JDOMException {
+		// a table is usable before the build ends (e.g. in a SAX filter).
+		final LocationTableJDOMFactory factory = new LocationTableJDOMFactory();
+		Document doc = new Document();
+		factory.startDocument(doc);
+		Element root = factory.element(1, 2, "root");
+		doc.addContent(root);
+		LocationTable table = LocationTable.getLocationTable(doc);
+		assertEquals(2, table.getColumn(root));
+		factory.endDocument(doc);
+		assertEquals(2, table.getColumn(root));
+		root.addContent(new Element("kid"));
+		assertEquals(-1, table.getColumn(root));
+	}
+	
+}
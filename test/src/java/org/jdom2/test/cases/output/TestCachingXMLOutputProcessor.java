@@ -0,0 +1,155 @@
+package org.jdom2.test.cases.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import org.jdom2.Attribute;
+import org.jdom2.Comment;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.Namespace;
+import org.jdom2.ProcessingInstruction;
+import org.jdom2.Text;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+import org.jdom2.output.support.CachingXMLOutputProcessor;
+
+@SuppressWarnings("javadoc")
+public class TestCachingXMLOutputProcessor {
+
+	private static final String XML = "<?xml version='1.0'?>\n" +
+			"<root xmlns:p='urn:p' a='1'>\n" +
+			" <kid id='k1'>text &amp; more</kid>\n" +
+			" <kid id='k2'><![CDATA[cdata]]></kid>\n" +
+			" <p:kid p:att='x'>namespaced<inner>  spaced  </inner></p:kid>\n" +
+			" <pre xml:space='preserve'>  <a> b </a>  </pre>\n" +
+			" <?pi data?>\n" +
+			" <!-- comment -->\n" +
+			" <deep><deeper><deepest>x</deepest></deeper></deep>\n" +
+			"</root>\n";
+
+	private static final Format[] FORMATS = {
+		Format.getRawFormat(),
+		Format.getPrettyFormat(),
+		Format.getCompactFormat(),
+		Format.getPrettyFormat().setIndent("\t").setExpandEmptyElements(true),
+	};
+
+	private static final Document build() throws JDOMException, IOException {
+		return new SAXBuilder().build(new StringReader(XML));
+	}
+
+	private static final void check(Document doc, CachingXMLOutputProcessor proc) {
+		for (Format f : FORMATS) {
+			String expect = new XMLOutputter(f).outputString(doc);
+			XMLOutputter caching = new XMLOutputter(f, proc);
+			assertEquals(expect, caching.outputString(doc));
+			// and again, from the cache.
+			assertEquals(expect, caching.outputString(doc));
+			// elements on their own have a different context.
+			Element kid = doc.getRootElement().getChild("kid", 
+					Namespace.getNamespace("urn:p"));
+			assertEquals(new XMLOutputter(f).outputString(kid), 
+					caching.outputString(kid));
+		}
+	}
+
+	@Test
+	public void testUnchanged() throws JDOMException, IOException {
+		CachingXMLOutputProcessor proc = new CachingXMLOutputProcessor();
+		Document doc = build();
+		check(doc, proc);
+		assertTrue(proc.size() > 0);
+		proc.clear();
+		assertEquals(0, proc.size());
+		check(doc, proc);
+	}
+
+	@Test
+	public void testChanges() throws JDOMException, IOException {
+		CachingXMLOutputProcessor proc = new CachingXMLOutputProcessor();
+		Document doc = build();
+		check(doc, proc);
+		Element root = doc.getRootElement();
+		
+		root.setAttribute("a", "2");
+		check(doc, proc);
+		
+		Element deepest = root.getChild("deep").getChild("deeper").getChild("deepest");
+		((Text)deepest.getContent(0)).setText("changed <text>");
+		check(doc, proc);
+		
+		deepest.addContent(new Comment("new comment"));
+		check(doc, proc);
+		
+		root.getChild("kid").getAttribute("id").setValue("k9");
+		check(doc, proc);
+		
+		root.getChild("deep").setNamespace(Namespace.getNamespace("q", "urn:q"));
+		check(doc, proc);
+		
+		root.addNamespaceDeclaration(Namespace.getNamespace("q", "urn:q"));
+		check(doc, proc);
+
+		root.getChild("pre").setAttribute(new Attribute("space", "default",
+				Namespace.XML_NAMESPACE));
+		check(doc, proc);
+		
+		root.getChild("pre").detach();
+		check(doc, proc);
+		
+		root.setName("renamed");
+		check(doc, proc);
+	}
+
+	@Test
+	public void testAttributeReplaced() throws JDOMException, IOException {
+		for (Format f : FORMATS) {
+			// one Format per processor, so no entry is invalidated by the
+			// Format changing.
+			XMLOutputter caching = new XMLOutputter(f, new CachingXMLOutputProcessor());
+			XMLOutputter plain = new XMLOutputter(f);
+			Document doc = build();
+			Element root = doc.getRootElement();
+			assertEquals(plain.outputString(doc), caching.outputString(doc));
+			
+			// same name, so the Attribute is replaced, not added.
+			root.getChild("kid").setAttribute(new Attribute("id", "replaced"));
+			assertEquals(plain.outputString(doc), caching.outputString(doc));
+			
+			Element deepest = root.getChild("deep").getChild("deeper").getChild("deepest");
+			deepest.setAttribute(new Attribute("x", "1"));
+			assertEquals(plain.outputString(doc), caching.outputString(doc));
+			deepest.setAttribute(new Attribute("x", "2"));
+			assertEquals(plain.outputString(doc), caching.outputString(doc));
+			
+			Element pkid = root.getChild("kid", Namespace.getNamespace("urn:p"));
+			assertEquals(plain.outputString(pkid), caching.outputString(pkid));
+			pkid.setAttribute(new Attribute("att", "y", Namespace.getNamespace("p", "urn:p")));
+			assertEquals(plain.outputString(pkid), caching.outputString(pkid));
+			assertEquals(plain.outputString(doc), caching.outputString(doc));
+		}
+	}
+
+	@Test
+	public void testTrAXEscaping() throws JDOMException, IOException {
+		CachingXMLOutputProcessor proc = new CachingXMLOutputProcessor();
+		Document doc = build();
+		Element root = doc.getRootElement();
+		Element kid = root.getChild("kid");
+		kid.addContent(0, new ProcessingInstruction(
+				javax.xml.transform.Result.PI_DISABLE_OUTPUT_ESCAPING, ""));
+		kid.addContent(new Text(" & <more>"));
+		kid.addContent(new ProcessingInstruction(
+				javax.xml.transform.Result.PI_ENABLE_OUTPUT_ESCAPING, ""));
+		check(doc, proc);
+	}
+
+}
@@ -4,9 +4,19 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.jdom2.Element;
+import org.jdom2.IllegalDataException;
+import org.jdom2.Text;
+import org.jdom2.Verifier;
 import org.jdom2.output.EscapeStrategy;
 import org.jdom2.output.Format;
 import org.jdom2.output.Format.TextMode;
+import org.jdom2.output.XMLOutputter;
 import org.junit.Test;
 
 @SuppressWarnings("javadoc")
@@ -265,4 +275,136 @@ public class TestFormat {
 		checkEscapes("\r\n", " \" \n ", " \" \r\n ", " &quot; &#xA; ");
 	}
 
+	/**
+	 * A plain char-by-char text escaper, to check the real ones against.
+	 */
+	private static String referenceEscape(EscapeStrategy strategy, String eol,
+			String value) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			switch (ch) {
+				case '<': sb.append("&lt;"); break;
+				case '>': sb.append("&gt;"); break;
+				case '&': sb.append("&amp;"); break;
+				case '\r': sb.append("&#xD;"); break;
+				case '\n': sb.append(eol == null ? "\n" : eol); break;
+				default:
+					if (!strategy.shouldEscape(ch)) {
+						sb.append(ch);
+					} else if (Character.isHighSurrogate(ch)) {
+						sb.append("&#x").append(Integer.toHexString(value.codePointAt(i))).append(';');
+						i++;
+					} else {
+						sb.append("&#x").append(Integer.toHexString(ch)).append(';');
+					}
+			}
+		}
+		return sb.toString();
+	}
+
+	private static final String[] PIECES = {" ", "  ", "\t", "\n", "\r", "\r\n",
+		"a", "bc", "<", ">", "&", "\"", "\u00E9", "\u263A", "\uD83D\uDE00"};
+
+	private static String randomText(Random rand) {
+		StringBuilder sb = new StringBuilder();
+		int len = rand.nextInt(8);
+		for (int i = 0; i < len; i++) {
+			sb.append(PIECES[rand.nextInt(PIECES.length)]);
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void testEscapeTextRange() throws IOException {
+		Random rand = new Random(45);
+		for (String enc : new String[] {"UTF-8", "US-ASCII"}) {
+			EscapeStrategy strategy = Format.getRawFormat().setEncoding(enc).getEscapeStrategy();
+			for (String eol : new String[] {null, "\n", "\r\n"}) {
+				for (int r = 0; r < 500; r++) {
+					String text = randomText(rand);
+					assertEquals(referenceEscape(strategy, eol, text),
+							Format.escapeText(strategy, eol, text));
+					// a range that does not split a surrogate pair
+					int from = rand.nextInt(text.length() + 1);
+					int to = from + rand.nextInt(text.length() - from + 1);
+					if (from > 0 && from < text.length()
+							&& Character.isLowSurrogate(text.charAt(from))) {
+						from--;
+					}
+					if (to < text.length() && Character.isLowSurrogate(text.charAt(to))) {
+						to++;
+					}
+					StringBuilder sb = new StringBuilder("x");
+					Format.escapeText(strategy, eol, text, from, to, sb);
+					assertEquals("x" + referenceEscape(strategy, eol,
+							text.substring(from, to)), sb.toString());
+				}
+			}
+		}
+		EscapeStrategy ascii = Format.getRawFormat().setEncoding("US-ASCII").getEscapeStrategy();
+		for (String bad : new String[] {"a\uD83D", "\uD83Db"}) {
+			try {
+				Format.escapeText(ascii, null, bad);
+				fail("Should not escape a broken surrogate pair in " + bad);
+			} catch (IllegalDataException e) {
+				// good
+			}
+			try {
+				Format.escapeText(ascii, null, bad, 0, bad.length(), new StringBuilder());
+				fail("Should not escape a broken surrogate pair in " + bad);
+			} catch (IllegalDataException e) {
+				// good
+			}
+		}
+	}
+
+	private static String expectText(TextMode mode, String text) {
+		switch (mode) {
+			case TRIM:
+				return Format.trimBoth(text);
+			case NORMALIZE:
+				return Format.compact(text);
+			case TRIM_FULL_WHITE:
+				return Verifier.isAllXMLWhitespace(text) ? "" : text;
+			default:
+				return text;
+		}
+	}
+
+	@Test
+	public void testFormattedTextRandom() {
+		// Adjacent Text is trimmed and compacted as if it was one Text, so
+		// the output of random runs of Text can be predicted.
+		Random rand = new Random(45);
+		for (TextMode mode : TextMode.values()) {
+			for (String enc : new String[] {"UTF-8", "US-ASCII"}) {
+				for (String eol : new String[] {"\n", "\r\n"}) {
+					Format format = Format.getPrettyFormat().setTextMode(mode)
+							.setEncoding(enc).setLineSeparator(eol);
+					XMLOutputter out = new XMLOutputter(format);
+					for (int r = 0; r < 300; r++) {
+						Element e = new Element("e");
+						StringBuilder all = new StringBuilder();
+						int n = 1 + rand.nextInt(4);
+						for (int i = 0; i < n; i++) {
+							String text = randomText(rand);
+							e.addContent(new Text(text));
+							all.append(text);
+						}
+						String value = expectText(mode, all.toString());
+						String actual = out.outputString(e);
+						if (value.length() == 0 && "<e />".equals(actual)) {
+							// the whitespace was all dropped.
+							continue;
+						}
+						assertEquals(mode + " " + enc + " " + e.getContent(), "<e>" +
+								referenceEscape(format.getEscapeStrategy(), eol, value) + "</e>",
+								actual);
+					}
+				}
+			}
+		}
+	}
+
 }
@@ -0,0 +1,97 @@
+package org.jdom2.test.cases.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import org.jdom2.output.Format;
+import org.jdom2.output.Format.TextMode;
+import org.jdom2.output.support.FormatStack;
+
+@SuppressWarnings("javadoc")
+public class TestFormatStack {
+
+	private static String repeat(String s, int cnt) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < cnt; i++) {
+			sb.append(s);
+		}
+		return sb.toString();
+	}
+
+	private static void checkLevel(FormatStack fs, String indent, String eol, int depth) {
+		assertEquals(repeat(indent, depth), fs.getLevelIndent());
+		assertEquals(eol, fs.getLevelEOL());
+		assertEquals(eol + repeat(indent, depth), fs.getPadBetween());
+		assertEquals(eol + repeat(indent, depth == 0 ? 0 : depth - 1), fs.getPadLast());
+	}
+
+	@Test
+	public void testDeepIndents() {
+		final Format format = Format.getPrettyFormat().setIndent("\t").setLineSeparator("\n");
+		final FormatStack fs = new FormatStack(format);
+		// deeper than the prepared levels.
+		for (int d = 0; d < 100; d++) {
+			checkLevel(fs, "\t", "\n", d);
+			fs.push();
+		}
+		for (int d = 100; d > 0; d--) {
+			fs.pop();
+			checkLevel(fs, "\t", "\n", d - 1);
+		}
+	}
+
+	@Test
+	public void testSharedIndents() {
+		final Format format = Format.getPrettyFormat().setIndent("   ");
+		final FormatStack fsa = new FormatStack(format);
+		final FormatStack fsb = new FormatStack(format.clone());
+		fsa.push();
+		fsa.push();
+		fsb.push();
+		fsb.push();
+		assertSame(fsa.getPadBetween(), fsb.getPadBetween());
+		assertSame(fsa.getPadLast(), fsb.getPadLast());
+	}
+
+	@Test
+	public void testOverrides() {
+		final FormatStack fs = new FormatStack(
+				Format.getPrettyFormat().setIndent("  ").setLineSeparator("\n"));
+		fs.push();
+		fs.setLevelIndent("xx");
+		assertEquals("\nxx", fs.getPadBetween());
+		fs.push();
+		assertEquals("xx  ", fs.getLevelIndent());
+		assertEquals("\nxx", fs.getPadLast());
+		fs.pop();
+		fs.pop();
+		fs.push();
+		fs.setTextMode(TextMode.PRESERVE);
+		assertNull(fs.getPadBetween());
+		fs.push();
+		assertNull(fs.getLevelIndent());
+		fs.pop();
+		fs.setTextMode(TextMode.TRIM);
+		checkLevel(fs, "  ", "\n", 1);
+		fs.push();
+		checkLevel(fs, "  ", "\n", 2);
+		fs.pop();
+		fs.setLevelEOL("\r\n");
+		fs.push();
+		assertEquals("\r\n    ", fs.getPadBetween());
+		assertEquals("\r\n  ", fs.getPadLast());
+	}
+
+	@Test
+	public void testNoIndent() {
+		final FormatStack fs = new FormatStack(Format.getCompactFormat());
+		assertNull(fs.getLevelIndent());
+		fs.push();
+		assertNull(fs.getPadBetween());
+		assertNull(fs.getPadLast());
+	}
+
+}
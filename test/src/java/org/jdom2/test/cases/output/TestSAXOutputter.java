@@ -415,6 +415,57 @@ public class TestSAXOutputter extends AbstractTestOutputter {
 		assertTrue(includesxmlns.get() == 2);
 	}
 
+	@Test
+	public void testAttributesView() throws JDOMException {
+		final List<String> seen = new ArrayList<String>();
+		DefaultHandler2 handler = new DefaultHandler2() {
+			@Override
+			public void startElement(String uri, String lname, String qname, Attributes atts) throws SAXException {
+				StringBuilder sb = new StringBuilder(qname);
+				for (int i = 0; i < atts.getLength(); i++) {
+					sb.append(' ').append(atts.getQName(i));
+					sb.append('|').append(atts.getURI(i));
+					sb.append('|').append(atts.getLocalName(i));
+					sb.append('|').append(atts.getType(i));
+					sb.append('=').append(atts.getValue(i));
+					assertEquals(i, atts.getIndex(atts.getQName(i)));
+					assertEquals(i, atts.getIndex(atts.getURI(i), atts.getLocalName(i)));
+					assertEquals(atts.getValue(i), atts.getValue(atts.getQName(i)));
+					assertEquals(atts.getType(i), atts.getType(atts.getURI(i), atts.getLocalName(i)));
+				}
+				assertNull(atts.getQName(atts.getLength()));
+				assertEquals(-1, atts.getIndex("none"));
+				seen.add(sb.toString());
+			}
+		};
+		Namespace pfx = Namespace.getNamespace("pfx", "childuri");
+		Element root = new Element("root", Namespace.getNamespace("", "rooturi"));
+		Attribute dflt = new Attribute("dflt", "d");
+		dflt.setSpecified(false);
+		root.setAttribute(dflt);
+		root.setAttribute(new Attribute("id", "x", AttributeType.ID));
+		Element child = new Element("child", pfx);
+		child.setAttribute("att", "val", pfx);
+		root.addContent(child);
+		root.addContent(new Element("leaf", Namespace.getNamespace("", "rooturi")));
+		Document doc = new Document(root);
+		
+		SAXOutputter saxout = new SAXOutputter(handler);
+		saxout.output(doc);
+		assertEquals("[root dflt||dflt|CDATA=d id||id|ID=x, " +
+				"pfx:child pfx:att|childuri|att|CDATA=val, leaf]", seen.toString());
+		
+		seen.clear();
+		saxout.setReportNamespaceDeclarations(true);
+		Format fmt = Format.getRawFormat();
+		fmt.setSpecifiedAttributesOnly(true);
+		saxout.setFormat(fmt);
+		saxout.output(doc);
+		assertEquals("[root xmlns|||CDATA=rooturi id||id|ID=x, " +
+				"pfx:child xmlns:pfx|||CDATA=childuri pfx:att|childuri|att|CDATA=val, " +
+				"leaf]", seen.toString());
+	}
+
 	@Test
 	public void testReportDTDEvents() throws JDOMException {
 		final AtomicInteger includesdtd = new AtomicInteger(0);
@@ -0,0 +1,138 @@
+package org.jdom2.test.cases.output;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXParseException;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.Namespace;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.input.sax.XMLReaderXSDFactory;
+import org.jdom2.output.SchemaValidator;
+import org.jdom2.test.util.FidoFetch;
+
+@SuppressWarnings("javadoc")
+public class TestSchemaValidator {
+
+	private static final Namespace NSONE = 
+			Namespace.getNamespace("http://www.jdom.org/schema_one");
+
+	private static URL url(String name) {
+		return FidoFetch.getFido().getURL("/xsdcomplex/" + name);
+	}
+
+	private static SchemaValidator validator() throws JDOMException {
+		return new SchemaValidator(new XMLReaderXSDFactory(url("multi_main.xsd"),
+				url("multi_one.xsd"), url("multi_two.xsd")).getSchema());
+	}
+
+	private static Document document() throws Exception {
+		return new SAXBuilder().build(url("multi.xml"));
+	}
+
+	@Test
+	public void testValidDocument() throws Exception {
+		SchemaValidator validator = validator();
+		Document doc = document();
+		validator.validate(doc);
+		// and again, with the pooled handler.
+		validator.validate(doc);
+		// a subtree against its own global declaration.
+		validator.validate(doc.getRootElement().getChild("child", NSONE));
+	}
+
+	@Test
+	public void testInvalidDocument() throws Exception {
+		SchemaValidator validator = validator();
+		Document doc = document();
+		Element child = doc.getRootElement().getChild("child", NSONE);
+		child.setAttribute("source", "elsewhere");
+		try {
+			validator.validate(doc);
+			fail("Should not be valid with a wrong fixed attribute");
+		} catch (JDOMException e) {
+			assertTrue(e.getCause() instanceof SAXParseException);
+		}
+		try {
+			validator.validate(child);
+			fail("Should not be valid with a wrong fixed attribute");
+		} catch (JDOMException e) {
+			assertTrue(e.getCause() instanceof SAXParseException);
+		}
+		child.removeAttribute("source");
+		// the failures did not break the validator.
+		validator.validate(doc);
+	}
+
+	@Test
+	public void testErrorHandler() throws Exception {
+		SchemaValidator validator = validator();
+		Document doc = document();
+		Element child = doc.getRootElement().getChild("child", NSONE);
+		child.setAttribute("source", "elsewhere");
+		child.addContent(new Element("bad", NSONE));
+		final List<SAXParseException> errors = new ArrayList<SAXParseException>();
+		validator.validate(doc, new ErrorHandler() {
+			@Override
+			public void warning(SAXParseException exception) {
+				errors.add(exception);
+			}
+			@Override
+			public void error(SAXParseException exception) {
+				errors.add(exception);
+			}
+			@Override
+			public void fatalError(SAXParseException exception) {
+				errors.add(exception);
+			}
+		});
+		assertEquals(2, errors.size());
+	}
+
+	@Test
+	public void testConcurrentValidation() throws Exception {
+		final SchemaValidator validator = validator();
+		final Document good = document();
+		final Document bad = document();
+		bad.getRootElement().getChild("child", NSONE).addContent(new Element("bad", NSONE));
+		final List<Throwable> problems = Collections.synchronizedList(new ArrayList<Throwable>());
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 100; i++) {
+						try {
+							validator.validate(good);
+						} catch (Throwable e) {
+							problems.add(e);
+						}
+						try {
+							validator.validate(bad);
+							problems.add(new IllegalStateException("bad was valid"));
+						} catch (JDOMException e) {
+							// expected
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertTrue(problems.toString(), problems.isEmpty());
+	}
+
+}
@@ -797,6 +797,24 @@ public final class TestStAXStreamOutputter extends AbstractTestOutputter {
 		roundTripDocument(doc);
     }
     
+    @Test
+    public void testOutputDocumentReboundNamespaces() {
+		// siblings that re-bind, and restore, the parent's prefixes, with
+		// and without content.
+		Element emt = new Element("root", Namespace.getNamespace("ns", "myns"));
+		emt.addContent(new Element("empty", Namespace.getNamespace("ns", "other")));
+		emt.addContent(new Element("plain"));
+		Element full = new Element("full", Namespace.getNamespace("ns", "other"));
+		full.addContent(new Element("leaf", Namespace.getNamespace("ns", "myns")));
+		full.addContent("text");
+		emt.addContent(full);
+		emt.addContent(new Element("empty", Namespace.getNamespace("ns", "myns")));
+		emt.addContent(new Element("empty", Namespace.getNamespace("", "dflt")));
+		emt.addContent(new Element("last"));
+		Document doc = new Document(emt);
+		roundTripDocument(doc);
+    }
+    
 	@Test
 	public void testRTOutputList() {
 		List<Content> list = new ArrayList<Content>();
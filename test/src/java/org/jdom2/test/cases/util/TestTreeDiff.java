@@ -0,0 +1,212 @@
+package org.jdom2.test.cases.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.jdom2.CDATA;
+import org.jdom2.Comment;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
+import org.jdom2.input.SAXBuilder;
+import org.jdom2.util.TreeDiff;
+import org.jdom2.util.TreeDiff.Edit;
+import org.jdom2.util.TreeDiff.EditType;
+
+@SuppressWarnings("javadoc")
+public class TestTreeDiff {
+	
+	private static final String XML = "<?xml version='1.0'?>\n" +
+			"<!-- head -->\n" +
+			"<root xmlns:p='urn:p' a='1' b='2'>\n" +
+			" <kid id='k1'>text one</kid>\n" +
+			" <kid id='k2'><![CDATA[cdata]]></kid>\n" +
+			" <p:kid>namespaced</p:kid>\n" +
+			" <?pi data?>\n" +
+			" <!-- comment -->\n" +
+			" <deep><deeper><deepest>x</deepest></deeper></deep>\n" +
+			"</root>\n";
+
+	private static final Document build(String xml) throws JDOMException, IOException {
+		return new SAXBuilder().build(new StringReader(xml));
+	}
+	
+	private static final void checkApply(Document from, Document to) {
+		assertFalse(TreeDiff.deepEquals(from, to));
+		List<Edit> edits = TreeDiff.diff(from, to);
+		assertFalse(edits.isEmpty());
+		// without hash collisions, trusting the hashes finds the same edits.
+		assertEquals(edits.toString(), TreeDiff.diff(from, to, true).toString());
+		TreeDiff.apply(edits);
+		assertTrue(TreeDiff.deepEquals(from, to));
+		assertTrue(TreeDiff.diff(from, to).isEmpty());
+	}
+
+	@Test
+	public void testDeepEquals() throws JDOMException, IOException {
+		Document a = build(XML);
+		Document b = build(XML);
+		assertTrue(TreeDiff.deepEquals(a, b));
+		assertTrue(TreeDiff.deepEquals(a.getRootElement(), b.getRootElement()));
+		assertTrue(TreeDiff.deepEquals(a.getRootElement(), a.getRootElement().clone()));
+		assertTrue(TreeDiff.diff(a, b).isEmpty());
+		
+		b.getRootElement().getChild("deep").getChild("deeper")
+			.getChild("deepest").setText("y");
+		assertFalse(TreeDiff.deepEquals(a, b));
+		
+		// prefixes do not matter
+		Element x = new Element("x", Namespace.getNamespace("a", "urn:x"));
+		Element y = new Element("x", Namespace.getNamespace("b", "urn:x"));
+		assertTrue(TreeDiff.deepEquals(x, y));
+		
+		assertFalse(TreeDiff.deepEquals(new Text("t"), new CDATA("t")));
+		assertTrue(TreeDiff.deepEquals(new Comment("t"), new Comment("t")));
+		assertFalse(TreeDiff.deepEquals(new Comment("t"), null));
+		
+		// an empty AttributeList is the same as none.
+		Element e = new Element("e");
+		e.getAttributes();
+		assertTrue(TreeDiff.deepEquals(new Element("e"), e));
+	}
+
+	@Test
+	public void testDeepTree() {
+		Element a = new Element("root");
+		Element b = new Element("root");
+		Element ca = a;
+		Element cb = b;
+		for (int i = 0; i < 20000; i++) {
+			Element na = new Element("e");
+			Element nb = new Element("e");
+			ca.addContent(na);
+			cb.addContent(nb);
+			ca = na;
+			cb = nb;
+		}
+		assertTrue(TreeDiff.deepEquals(a, b));
+		assertEquals(a.getTreeHash(), b.getTreeHash());
+		cb.setText("leaf");
+		assertFalse(TreeDiff.deepEquals(a, b));
+		List<Edit> edits = TreeDiff.diff(a, b);
+		assertEquals(1, edits.size());
+		TreeDiff.apply(edits);
+		assertTrue(TreeDiff.deepEquals(a, b));
+	}
+
+	@Test
+	public void testTrustHashes() {
+		// "Aa" and "BB" have the same String hashCode, so the same tree hash.
+		Element a = new Element("root").addContent(new Element("kid").setText("Aa"));
+		Element b = new Element("root").addContent(new Element("kid").setText("BB"));
+		assertEquals(a.getTreeHash(), b.getTreeHash());
+		assertFalse(TreeDiff.deepEquals(a, b));
+		assertEquals(1, TreeDiff.diff(a, b).size());
+		assertTrue(TreeDiff.diff(a, b, true).isEmpty());
+		b.getChild("kid").setText("Ab");
+		List<Edit> edits = TreeDiff.diff(a, b, true);
+		assertEquals(1, edits.size());
+		TreeDiff.apply(edits);
+		assertTrue(TreeDiff.deepEquals(a, b));
+	}
+
+	@Test
+	public void testTextChange() throws JDOMException, IOException {
+		Document a = build(XML);
+		Document b = build(XML);
+		Text t = (Text)b.getRootElement().getChildren("kid").get(0).getContent(0);
+		t.setText("text two");
+		List<Edit> edits = TreeDiff.diff(a, b);
+		assertEquals(1, edits.size());
+		assertEquals(EditType.UPDATE, edits.get(0).getType());
+		assertTrue(t == edits.get(0).getTo());
+		checkApply(a, b);
+	}
+
+	@Test
+	public void testAttributes() throws JDOMException, IOException {
+		Document a = build(XML);
+		Document b = build(XML);
+		b.getRootElement().setAttribute("a", "changed");
+		b.getRootElement().removeAttribute("b");
+		b.getRootElement().setAttribute("c", "new");
+		List<Edit> edits = TreeDiff.diff(a, b);
+		assertEquals(3, edits.size());
+		checkApply(a, b);
+	}
+
+	@Test
+	public void testInsertDelete() throws JDOMException, IOException {
+		Document a = build(XML);
+		Document b = build(XML);
+		Element root = b.getRootElement();
+		root.removeContent(root.getChildren("kid").get(0));
+		root.addContent(3, new Element("inserted").setText("new"));
+		root.addContent(new Comment("tail"));
+		checkApply(a, b);
+	}
+
+	@Test
+	public void testReorder() throws JDOMException, IOException {
+		Document a = build(XML);
+		Document b = build(XML);
+		Element root = b.getRootElement();
+		Element deep = root.getChild("deep");
+		deep.detach();
+		root.addContent(0, deep);
+		root.sortChildren(null);
+		checkApply(a, b);
+	}
+
+	@Test
+	public void testNewRoot() throws JDOMException, IOException {
+		Document a = build(XML);
+		Document b = build("<other><kid id='k1'>text one</kid></other>");
+		checkApply(a, b);
+		Document c = build(XML);
+		c.getRootElement().setName("root2");
+		checkApply(b, c);
+	}
+
+	@Test
+	public void testElementRename() throws JDOMException, IOException {
+		Element a = build(XML).getRootElement();
+		Element b = build(XML).getRootElement();
+		b.setName("renamed");
+		List<Edit> edits = TreeDiff.diff(a, b);
+		assertEquals(1, edits.size());
+		assertEquals(EditType.UPDATE, edits.get(0).getType());
+		TreeDiff.apply(edits);
+		assertEquals("renamed", a.getName());
+		assertTrue(TreeDiff.deepEquals(a, b));
+	}
+	
+	@Test
+	public void testManyChanges() throws JDOMException, IOException {
+		StringBuilder sba = new StringBuilder("<root>");
+		StringBuilder sbb = new StringBuilder("<root>");
+		for (int i = 0; i < 200; i++) {
+			sba.append("<e n='").append(i).append("'>").append(i).append("</e>");
+			if (i % 7 != 0) {
+				sbb.append("<e n='").append(i).append("'>")
+					.append(i % 5 == 0 ? "x" : String.valueOf(i)).append("</e>");
+			}
+			if (i % 11 == 0) {
+				sbb.append("<f/>");
+			}
+		}
+		sba.append("</root>");
+		sbb.append("</root>");
+		checkApply(build(sba.toString()), build(sbb.toString()));
+	}
+
+}